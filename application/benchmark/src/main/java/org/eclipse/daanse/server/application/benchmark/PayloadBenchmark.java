@@ -0,0 +1,135 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.benchmark;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * XML cost of the XMLA payloads in isolation: parsing the Execute envelope and
+ * writing and reading the cellset that the runtime actually returns for the
+ * benchmark query. The cellset is captured once from a running runtime, so
+ * the payload shape follows the deployed xmla bundles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PayloadBenchmark {
+
+    private final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+
+    private String executeEnvelope;
+    private String cellset;
+
+    @Setup(Level.Trial)
+    public void capture() throws Exception {
+        executeEnvelope = XmlaRequests.executeEnvelope(XmlaRequests.DEFAULT_CATALOG, XmlaRequests.DEFAULT_MDX);
+        try (PivotRuntime runtime = PivotRuntime.start(System.getProperty("benchmark.db", "duckdb"))) {
+            cellset = runtime.xmla().execute(XmlaRequests.DEFAULT_CATALOG, XmlaRequests.DEFAULT_MDX);
+        }
+    }
+
+    /** Reads the Execute request down to the statement and catalog, as the servlet does. */
+    @Benchmark
+    public void parseExecuteEnvelope(Blackhole blackhole) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(executeEnvelope));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("Statement".equals(name) || "Catalog".equals(name)) {
+                        blackhole.consume(reader.getElementText());
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /** Reads every cell value of the captured cellset. */
+    @Benchmark
+    public void parseCellset(Blackhole blackhole) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(cellset));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "Value".equals(reader.getLocalName())) {
+                    blackhole.consume(reader.getElementText());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /** Serializes the captured cellset event by event, as a streaming writer does. */
+    @Benchmark
+    public String serializeCellset() throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(cellset));
+        StringWriter out = new StringWriter(cellset.length());
+        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    String prefix = reader.getPrefix() == null ? "" : reader.getPrefix();
+                    String namespace = reader.getNamespaceURI() == null ? "" : reader.getNamespaceURI();
+                    writer.writeStartElement(prefix, reader.getLocalName(), namespace);
+                    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                        writer.writeNamespace(reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+                    }
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> writer.writeEndElement();
+                case XMLStreamConstants.CHARACTERS -> writer.writeCharacters(reader.getText());
+                default -> {
+                    // comments and processing instructions are not part of the payload
+                }
+                }
+            }
+            writer.flush();
+        } finally {
+            writer.close();
+            reader.close();
+        }
+        return out.toString();
+    }
+}
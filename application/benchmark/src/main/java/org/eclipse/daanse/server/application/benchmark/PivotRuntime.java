@@ -0,0 +1,218 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a pivot executable jar ({@code daanse.pivot.<db>.jar}, exported from
+ * {@code daanse.pivot.<db>.bndrun}) in a JVM of its own, started by the
+ * benchmark fork. The database is seeded and the catalog copied into a
+ * temporary directory; the {@code DAANSE_*} settings are passed in the
+ * environment of the runtime, as in the container. The DuckDB and H2
+ * configurators then wire the DataSource, pool and context exactly as in the
+ * container. Closing the runtime stops its framework and waits for it, so the
+ * port and the database files are free again.
+ *
+ * <p>
+ * Settings (system properties of the benchmark JVM):
+ * <ul>
+ * <li>{@code benchmark.pivot.jar} - the executable jar, default
+ * {@code ../pivot/<db>/target/daanse.pivot.<db>.jar}</li>
+ * <li>{@code benchmark.rows} - rows seeded into the {@code Fact} table, default
+ * 100000</li>
+ * <li>{@code benchmark.database} - an existing database file to use instead of
+ * the seeded one</li>
+ * <li>{@code benchmark.catalog} - a catalog file to use instead of the minimal
+ * cube</li>
+ * </ul>
+ */
+public final class PivotRuntime implements AutoCloseable {
+
+    public static final String PROPERTY_JAR = "benchmark.pivot.jar";
+    public static final String PROPERTY_ROWS = "benchmark.rows";
+    public static final String PROPERTY_DATABASE = "benchmark.database";
+    public static final String PROPERTY_CATALOG = "benchmark.catalog";
+
+    /** HTTP port of the runtime, fixed by {@code daanse.pivot.base.bndrun}. */
+    public static final int PORT = 8080;
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Path workDir;
+    private final Process process;
+    private final XmlaRequests xmla;
+
+    private PivotRuntime(Path workDir, Process process, XmlaRequests xmla) {
+        this.workDir = workDir;
+        this.process = process;
+        this.xmla = xmla;
+    }
+
+    /**
+     * Seeds the database, launches the runtime of the given database module
+     * ({@code duckdb} or {@code h2}) and waits until the catalog answers MDX.
+     */
+    public static PivotRuntime start(String db) throws Exception {
+        Path workDir = Files.createTempDirectory("daanse-benchmark-");
+        Map<String, String> settings = new LinkedHashMap<>();
+
+        Path catalog = workDir.resolve("catalog.xmi");
+        String catalogOverride = System.getProperty(PROPERTY_CATALOG);
+        if (catalogOverride != null) {
+            Files.copy(Path.of(catalogOverride), catalog, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            try (InputStream in = PivotRuntime.class.getResourceAsStream("/catalog.xmi")) {
+                Files.copy(in, catalog, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        settings.put("DAANSE_CATALOG_RESOURCE", catalog.toString());
+
+        String databaseOverride = System.getProperty(PROPERTY_DATABASE);
+        int rows = Integer.getInteger(PROPERTY_ROWS, 100_000);
+        switch (db) {
+        case "duckdb" -> {
+            Path file = databaseOverride != null ? Path.of(databaseOverride) : workDir.resolve("database.duckdb");
+            if (databaseOverride == null) {
+                seed("jdbc:duckdb:" + file, "VARCHAR", rows);
+            }
+            settings.put("DAANSE_JDBC_DATABASE_NAME", file.toString());
+        }
+        case "h2" -> {
+            // H2 identifies the database without the .mv.db suffix
+            String identifier = databaseOverride != null ? databaseOverride.replaceFirst("\\.mv\\.db$", "")
+                    : workDir.resolve("database").toString();
+            if (databaseOverride == null) {
+                seed("jdbc:h2:file:" + identifier, "VARCHAR(100)", rows);
+            }
+            settings.put("DAANSE_JDBC_IDENTIFIER", identifier);
+        }
+        default -> throw new IllegalArgumentException("Unsupported benchmark database: " + db);
+        }
+
+        Path jar = Path.of(System.getProperty(PROPERTY_JAR, "../pivot/" + db + "/target/daanse.pivot." + db + ".jar"));
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Pivot executable jar not found: " + jar.toAbsolutePath()
+                    + " - build the pivot module first or set -D" + PROPERTY_JAR);
+        }
+
+        Process process = launch(jar, settings);
+        XmlaRequests xmla = new XmlaRequests("localhost", PORT);
+        PivotRuntime runtime = new PivotRuntime(workDir, process, xmla);
+        try {
+            runtime.awaitReady();
+        } catch (Exception e) {
+            runtime.close();
+            throw e;
+        }
+        return runtime;
+    }
+
+    public XmlaRequests xmla() {
+        return xmla;
+    }
+
+    private static void seed(String url, String keyType, int rows) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE \"Fact\" (\"KEY\" " + keyType + ", \"VALUE\" INTEGER)");
+            connection.setAutoCommit(false);
+            try (var insert = connection.prepareStatement("INSERT INTO \"Fact\" VALUES (?, ?)")) {
+                for (int i = 0; i < rows; i++) {
+                    insert.setString(1, "K" + (i % 1_000));
+                    insert.setInt(2, i % 100);
+                    insert.addBatch();
+                    if (i % 10_000 == 9_999) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    /**
+     * Starts the jar with the java of the benchmark JVM, the settings added to
+     * its environment. Its output goes to the output of the fork.
+     */
+    private static Process launch(Path jar, Map<String, String> settings) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toString());
+        ProcessBuilder builder = new ProcessBuilder(command).inheritIO();
+        builder.environment().putAll(settings);
+        return builder.start();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        String last = "";
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Pivot runtime terminated during startup with exit code "
+                        + process.exitValue());
+            }
+            try {
+                last = xmla.execute(XmlaRequests.DEFAULT_CATALOG, XmlaRequests.DEFAULT_MDX);
+                if (last.contains("</Value>")) {
+                    return;
+                }
+            } catch (IOException e) {
+                last = e.toString();
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Pivot runtime not ready within " + STARTUP_TIMEOUT + "; last response:\n"
+                + last);
+    }
+
+    /**
+     * Stops the runtime and deletes its directory. The launcher stops the
+     * framework when its JVM is asked to terminate; a runtime that does not
+     * end within {@link #SHUTDOWN_TIMEOUT} is killed.
+     */
+    @Override
+    public void close() throws IOException {
+        xmla.close();
+        process.destroy();
+        try {
+            if (!process.waitFor(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        try (var files = Files.walk(workDir)) {
+            files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
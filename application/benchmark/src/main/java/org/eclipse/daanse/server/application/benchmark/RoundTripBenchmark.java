@@ -0,0 +1,83 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end XMLA round trips through HTTP, the XMLA servlet, the connector
+ * and the rolap engine of a pivot runtime. Reports throughput and,
+ * via sample time mode, the latency percentiles (p50 ... p99.99).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    @Param({ "duckdb", "h2" })
+    public String db;
+
+    private PivotRuntime runtime;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        runtime = PivotRuntime.start(db);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        runtime.close();
+    }
+
+    /** MDX Execute; the segment cache is warm after the warm-up iterations. */
+    @Benchmark
+    public String execute() throws Exception {
+        return runtime.xmla().execute(XmlaRequests.DEFAULT_CATALOG, XmlaRequests.DEFAULT_MDX);
+    }
+
+    /** Catalog listing, as sent by every client when it connects. */
+    @Benchmark
+    public String discoverCatalogs() throws Exception {
+        return runtime.xmla().discover("DBSCHEMA_CATALOGS", null);
+    }
+
+    /** Cube metadata of the catalog, the bulk of an Excel refresh. */
+    @Benchmark
+    public String discoverCubes() throws Exception {
+        return runtime.xmla().discover("MDSCHEMA_CUBES", XmlaRequests.DEFAULT_CATALOG);
+    }
+
+    /** Measure metadata of the catalog. */
+    @Benchmark
+    public String discoverMeasures() throws Exception {
+        return runtime.xmla().discover("MDSCHEMA_MEASURES", XmlaRequests.DEFAULT_CATALOG);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * XMLA SOAP requests against the {@code /xmla} endpoint of a running pivot
+ * runtime - the same envelopes the integration tests send, over one keep-alive
+ * client so the benchmarks measure the server and not connection setup.
+ */
+public final class XmlaRequests implements AutoCloseable {
+
+    /** Catalog of the benchmark mapping, overridable via {@code benchmark.catalogName}. */
+    public static final String DEFAULT_CATALOG = System.getProperty("benchmark.catalogName",
+            "Daanse Tutorial - Cube Minimal");
+    /** Query of the Execute benchmarks, overridable via {@code benchmark.mdx}. */
+    public static final String DEFAULT_MDX = System.getProperty("benchmark.mdx",
+            "SELECT [Measures].[Measure-Sum] ON COLUMNS FROM [MinimalCube]");
+
+    private static final String ACTION_EXECUTE = "\"urn:schemas-microsoft-com:xml-analysis:Execute\"";
+    private static final String ACTION_DISCOVER = "\"urn:schemas-microsoft-com:xml-analysis:Discover\"";
+
+    private final URI endpoint;
+    private final HttpClient client;
+
+    public XmlaRequests(String host, int port) {
+        this.endpoint = URI.create("http://" + host + ":" + port + "/xmla");
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    public static String executeEnvelope(String catalog, String mdx) {
+        return """
+                <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/">
+                  <SOAP-ENV:Header/>
+                  <SOAP-ENV:Body>
+                    <Execute xmlns="urn:schemas-microsoft-com:xml-analysis">
+                      <Command>
+                        <Statement>%s</Statement>
+                      </Command>
+                      <Properties>
+                        <PropertyList>
+                          <Catalog>%s</Catalog>
+                          <Format>Multidimensional</Format>
+                          <AxisFormat>TupleFormat</AxisFormat>
+                        </PropertyList>
+                      </Properties>
+                    </Execute>
+                  </SOAP-ENV:Body>
+                </SOAP-ENV:Envelope>
+                """.formatted(escape(mdx), escape(catalog));
+    }
+
+    /** A Discover envelope for the given rowset, restricted to the catalog when not null. */
+    public static String discoverEnvelope(String requestType, String catalog) {
+        String restriction = catalog == null ? "" : "<CATALOG_NAME>" + escape(catalog) + "</CATALOG_NAME>";
+        String property = catalog == null ? "" : "<Catalog>" + escape(catalog) + "</Catalog>";
+        return """
+                <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/">
+                  <SOAP-ENV:Header/>
+                  <SOAP-ENV:Body>
+                    <Discover xmlns="urn:schemas-microsoft-com:xml-analysis">
+                      <RequestType>%s</RequestType>
+                      <Restrictions>
+                        <RestrictionList>%s</RestrictionList>
+                      </Restrictions>
+                      <Properties>
+                        <PropertyList>%s<Format>Tabular</Format></PropertyList>
+                      </Properties>
+                    </Discover>
+                  </SOAP-ENV:Body>
+                </SOAP-ENV:Envelope>
+                """.formatted(requestType, restriction, property);
+    }
+
+    /** The text as XML character data: MDX such as {@code [Measures].[A] > 0} has to be escaped. */
+    static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    public String execute(String catalog, String mdx) throws IOException, InterruptedException {
+        return post(ACTION_EXECUTE, executeEnvelope(catalog, mdx));
+    }
+
+    public String discover(String requestType, String catalog) throws IOException, InterruptedException {
+        return post(ACTION_DISCOVER, discoverEnvelope(requestType, catalog));
+    }
+
+    public String post(String soapAction, String envelope) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", soapAction)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(envelope))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || response.body().contains("Fault>")) {
+            throw new IOException("XMLA request failed with status " + response.statusCode() + ":\n"
+                    + response.body());
+        }
+        return response.body();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
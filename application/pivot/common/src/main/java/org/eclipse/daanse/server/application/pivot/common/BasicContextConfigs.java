@@ -14,11 +14,18 @@
 package org.eclipse.daanse.server.application.pivot.common;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Optional;
 
 import org.eclipse.daanse.rolap.core.api.Constants;
+import org.eclipse.daanse.server.application.pivot.common.aggregate.AggregateAdvisor;
+import org.eclipse.daanse.server.application.pivot.common.aggregate.QueryRecorder;
+import org.eclipse.daanse.server.application.pivot.common.cache.DataChangeWatcher;
+import org.eclipse.daanse.server.application.pivot.common.warmup.ContextWarmup;
 import org.eclipse.daanse.sql.dialect.api.DaanseDialectConstants;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
@@ -26,7 +33,9 @@ import org.osgi.service.cm.ConfigurationAdmin;
 /**
  * Creates the BasicContext that joins the connection pool over the environment
  * configured DataSource, the catalog mapping provider and the database specific
- * dialect.
+ * dialect, the warm-up that runs once the context is registered, the
+ * watcher that flushes its caches when the data changes and the advisor of
+ * aggregate tables with the recorder of its queries.
  */
 public final class BasicContextConfigs {
 
@@ -50,28 +59,201 @@ public final class BasicContextConfigs {
      */
     public static List<Configuration> createEnvPoolAndContext(ConfigurationAdmin ca, String dialectName,
             Boolean poolReadOnlyDefault) throws IOException {
-        Configuration pool = ConnectionPoolConfigs.createEnvPool(ca, poolReadOnlyDefault);
-        return List.of(createEnvBasicContext(ca, dialectName), pool);
+        return createEnvPoolAndContext(ca, EnvContext.DEFAULT, dialectName, poolReadOnlyDefault);
+    }
+
+    /**
+     * As {@link #createEnvPoolAndContext(ConfigurationAdmin, String, Boolean)},
+     * for one of the contexts of {@code DAANSE_CONTEXTS}. The warm-up of the
+     * context, if configured, comes first in deletion order.
+     */
+    public static List<Configuration> createEnvPoolAndContext(ConfigurationAdmin ca, EnvContext context,
+            String dialectName, Boolean poolReadOnlyDefault) throws IOException {
+        return createEnvPoolAndContext(ca, context, dialectName, poolReadOnlyDefault, List.of());
+    }
+
+    /**
+     * As {@link #createEnvPoolAndContext(ConfigurationAdmin, EnvContext, String, Boolean)},
+     * for a file database: a change of one of the given files flushes the
+     * caches of the context. The data change watcher comes first in deletion
+     * order, the aggregate advisor before the context and its query recorder
+     * after it.
+     */
+    public static List<Configuration> createEnvPoolAndContext(ConfigurationAdmin ca, EnvContext context,
+            String dialectName, Boolean poolReadOnlyDefault, List<Path> databaseFiles) throws IOException {
+        List<Configuration> pools = ConnectionPoolConfigs.createEnvPools(ca, context, poolReadOnlyDefault);
+        List<Configuration> configurations = new ArrayList<>();
+        Configuration basicContext = createEnvBasicContext(ca, context, dialectName);
+        createEnvDataChangeWatcher(ca, context, databaseFiles).ifPresent(configurations::add);
+        createEnvWarmup(ca, context).ifPresent(configurations::add);
+        createEnvAggregateAdvisor(ca, context).ifPresent(configurations::add);
+        configurations.add(basicContext);
+        createEnvQueryRecorder(ca, context).ifPresent(configurations::add);
+        configurations.addAll(pools);
+        return List.copyOf(configurations);
+    }
+
+    /**
+     * The warm-up of the given context from {@code DAANSE_WARMUP_MDX}, empty if
+     * the context has no warm-up statements. The statements belong to the
+     * catalog, so a context of {@code DAANSE_CONTEXTS} sets its own.
+     */
+    public static Optional<Configuration> createEnvWarmup(ConfigurationAdmin ca, EnvContext context)
+            throws IOException {
+        Optional<String> mdx = context.getOwn(ServerConstants.ENV_WARMUP_MDX);
+        if (mdx.isEmpty()) {
+            return Optional.empty();
+        }
+        Configuration configuration = ca.getFactoryConfiguration(ContextWarmup.PID, context.configName(), "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(ContextWarmup.REF_CONTEXT + ServerConstants.TARGET_EXT,
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_CONTEXT)));
+        props.put(ContextWarmup.PROP_CONTEXT_ID, context.id());
+        props.put(ContextWarmup.PROP_READY_IDENT, context.ident(ServerConstants.IDENT_WARMUP));
+        props.put(ContextWarmup.PROP_STATEMENTS, ContextWarmup.statements(mdx.get()).toArray(String[]::new));
+        context.getInt(ServerConstants.ENV_WARMUP_PARALLELISM)
+                .ifPresent(v -> props.put(ContextWarmup.PROP_PARALLELISM, v));
+        context.getLong(ServerConstants.ENV_WARMUP_TIMEOUT_SECONDS)
+                .ifPresent(v -> props.put(ContextWarmup.PROP_TIMEOUT_SECONDS, v));
+
+        Configurations.update(configuration, props);
+        return Optional.of(configuration);
+    }
+
+    /**
+     * The watcher that flushes the caches of the given context when its data
+     * changes: the given database files and {@code DAANSE_DATA_CHANGE_FILES}
+     * stand for all cubes, {@code DAANSE_DATA_VERSION_QUERY} and
+     * {@code DAANSE_DATA_VERSION_QUERY_<CUBE>} version all cubes or one. The
+     * queries belong to the catalog, so a context of {@code DAANSE_CONTEXTS}
+     * sets its own. Empty if there is nothing to watch or
+     * {@code DAANSE_DATA_CHANGE_ENABLED=false}.
+     */
+    public static Optional<Configuration> createEnvDataChangeWatcher(ConfigurationAdmin ca, EnvContext context,
+            List<Path> databaseFiles) throws IOException {
+        if (!context.get(ServerConstants.ENV_DATA_CHANGE_ENABLED, true)) {
+            return Optional.empty();
+        }
+        List<String> files = new ArrayList<>();
+        databaseFiles.forEach(file -> files.add(file.toString()));
+        context.get(ServerConstants.ENV_DATA_CHANGE_FILES).ifPresent(v -> files.addAll(List.of(Env.splitList(v))));
+        List<String> queries = new ArrayList<>();
+        context.getOwn(ServerConstants.ENV_DATA_VERSION_QUERY)
+                .ifPresent(sql -> queries.add(DataChangeWatcher.ALL_CUBES + "=" + sql));
+        Env.withPrefix(context.envName(ServerConstants.ENV_DATA_VERSION_QUERY_PREFIX))
+                .forEach((cube, sql) -> queries.add(cube + "=" + sql));
+        if (files.isEmpty() && queries.isEmpty()) {
+            return Optional.empty();
+        }
+        Configuration configuration = ca.getFactoryConfiguration(DataChangeWatcher.PID, context.configName(), "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(DataChangeWatcher.REF_CONTEXT + ServerConstants.TARGET_EXT,
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_CONTEXT)));
+        props.put(DataChangeWatcher.REF_POOL + ServerConstants.TARGET_EXT,
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_POOL)));
+        props.put(DataChangeWatcher.PROP_CONTEXT_ID, context.id());
+        props.put(DataChangeWatcher.PROP_FILES, files.toArray(String[]::new));
+        props.put(DataChangeWatcher.PROP_QUERIES, queries.toArray(String[]::new));
+        context.getLong(ServerConstants.ENV_DATA_CHANGE_INTERVAL_SECONDS)
+                .ifPresent(v -> props.put(DataChangeWatcher.PROP_INTERVAL_SECONDS, v));
+
+        Configurations.update(configuration, props);
+        return Optional.of(configuration);
+    }
+
+    /**
+     * The recorder of the queries of the given context, standing in for its
+     * pool, if {@code DAANSE_AGGREGATE_ADVISOR_ENABLED=true}.
+     */
+    public static Optional<Configuration> createEnvQueryRecorder(ConfigurationAdmin ca, EnvContext context)
+            throws IOException {
+        if (!context.get(ServerConstants.ENV_AGGREGATE_ADVISOR_ENABLED, false)) {
+            return Optional.empty();
+        }
+        Configuration configuration = ca.getFactoryConfiguration(QueryRecorder.PID, context.configName(), "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_QUERY_RECORDER));
+        props.put(QueryRecorder.REF_POOL + ServerConstants.TARGET_EXT,
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_POOL)));
+
+        Configurations.update(configuration, props);
+        return Optional.of(configuration);
+    }
+
+    /**
+     * The advisor of aggregate tables for the given context, if
+     * {@code DAANSE_AGGREGATE_ADVISOR_ENABLED=true}. It materializes the tables
+     * with {@code DAANSE_AGGREGATE_MATERIALIZE=true}, which writes to the
+     * database and so cannot go with read replicas.
+     */
+    public static Optional<Configuration> createEnvAggregateAdvisor(ConfigurationAdmin ca, EnvContext context)
+            throws IOException {
+        if (!context.get(ServerConstants.ENV_AGGREGATE_ADVISOR_ENABLED, false)) {
+            return Optional.empty();
+        }
+        boolean materialize = context.get(ServerConstants.ENV_AGGREGATE_MATERIALIZE, false);
+        if (materialize && !ReplicaConfigs.replicas(context).isEmpty()) {
+            throw new IllegalArgumentException(context.envName(ServerConstants.ENV_AGGREGATE_MATERIALIZE)
+                    + " writes to the database and cannot be used with "
+                    + context.envName(ServerConstants.ENV_JDBC_REPLICAS));
+        }
+        Configuration configuration = ca.getFactoryConfiguration(AggregateAdvisor.PID, context.configName(), "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(AggregateAdvisor.REF_RECORDER + ServerConstants.TARGET_EXT,
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_QUERY_RECORDER)));
+        props.put(AggregateAdvisor.REF_CONTEXT + ServerConstants.TARGET_EXT,
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_CONTEXT)));
+        props.put(AggregateAdvisor.PROP_CONTEXT_ID, context.id());
+        props.put(AggregateAdvisor.PROP_MATERIALIZE, materialize);
+        context.getLong(ServerConstants.ENV_AGGREGATE_ADVISOR_REPORT_SECONDS)
+                .ifPresent(v -> props.put(AggregateAdvisor.PROP_REPORT_SECONDS, v));
+        context.getInt(ServerConstants.ENV_AGGREGATE_ADVISOR_MAX_TABLES)
+                .ifPresent(v -> props.put(AggregateAdvisor.PROP_MAX_CANDIDATES, v));
+        context.get(ServerConstants.ENV_AGGREGATE_ADVISOR_DIR)
+                .ifPresent(v -> props.put(AggregateAdvisor.PROP_DIRECTORY, v));
+
+        Configurations.update(configuration, props);
+        return Optional.of(configuration);
     }
 
     public static Configuration createEnvBasicContext(ConfigurationAdmin ca, String dialectName) throws IOException {
+        return createEnvBasicContext(ca, EnvContext.DEFAULT, dialectName);
+    }
+
+    /**
+     * The context drawing from the pool and the mapping of the given context -
+     * from the pool through the query recorder while the aggregate advisor is
+     * enabled. A context of {@code DAANSE_CONTEXTS} is named by its id unless
+     * it sets its own name - the names must differ within the context group.
+     */
+    public static Configuration createEnvBasicContext(ConfigurationAdmin ca, EnvContext context, String dialectName)
+            throws IOException {
         Configuration configuration = ca.getFactoryConfiguration(Constants.BASIC_CONTEXT_PID,
-                ServerConstants.CONFIG_IDENT, "?");
+                context.configName(), "?");
 
         Dictionary<String, Object> props = new Hashtable<>();
-        props.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_CONTEXT);
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_CONTEXT));
+        String pool = context.get(ServerConstants.ENV_AGGREGATE_ADVISOR_ENABLED, false)
+                ? ServerConstants.IDENT_QUERY_RECORDER
+                : ServerConstants.IDENT_POOL;
         props.put(Constants.BASIC_CONTEXT_REF_NAME_CONNECTION_POOL + ServerConstants.TARGET_EXT,
-                filter(ServerConstants.PROP_IDENT, ServerConstants.IDENT_POOL));
+                filter(ServerConstants.PROP_IDENT, context.ident(pool)));
         props.put(Constants.BASIC_CONTEXT_REF_NAME_CATALOG_MAPPING_SUPPLIER + ServerConstants.TARGET_EXT,
-                filter(ServerConstants.PROP_IDENT, ServerConstants.IDENT_MAPPING));
+                filter(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_MAPPING)));
         props.put(Constants.BASIC_CONTEXT_REF_NAME_DIALECT_FACTORY + ServerConstants.TARGET_EXT,
                 filter(DaanseDialectConstants.DIALECT_NAME_PROPERTY, dialectName));
-        props.put("name", Env.get(ServerConstants.ENV_CONTEXT_NAME, ServerConstants.DEFAULT_CONTEXT_NAME));
+        props.put("name", context.isDefault()
+                ? Env.get(ServerConstants.ENV_CONTEXT_NAME, ServerConstants.DEFAULT_CONTEXT_NAME)
+                : context.getOwn(ServerConstants.ENV_CONTEXT_NAME).orElse(context.id()));
         props.put("description",
-                Env.get(ServerConstants.ENV_CONTEXT_DESCRIPTION, ServerConstants.DEFAULT_CONTEXT_DESCRIPTION));
-        props.put("useAggregates", Env.get(ServerConstants.ENV_USE_AGGREGATES, false));
+                context.get(ServerConstants.ENV_CONTEXT_DESCRIPTION, ServerConstants.DEFAULT_CONTEXT_DESCRIPTION));
+        props.put("useAggregates", context.get(ServerConstants.ENV_USE_AGGREGATES, false));
 
-        configuration.update(props);
+        Configurations.update(configuration, props);
         return configuration;
     }
 
@@ -14,10 +14,18 @@
 package org.eclipse.daanse.server.application.pivot.common;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Optional;
 
+import org.eclipse.daanse.server.application.pivot.common.auth.LdapAuthCache;
+import org.eclipse.daanse.server.application.pivot.common.cache.XmlaResultCache;
+import org.eclipse.daanse.server.application.pivot.common.http.CompressionFilter;
+import org.eclipse.daanse.server.application.pivot.common.metrics.MetricsServlet;
+import org.eclipse.daanse.server.application.pivot.common.metrics.XmlaMetricsFilter;
+import org.eclipse.daanse.server.application.pivot.common.pool.AdaptivePoolSizer;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.cm.annotations.RequireConfigurationAdmin;
@@ -31,9 +39,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Wires the database independent parts of the pivot server from environment
- * variables: catalog mapping provider, context group, XMLA connector, the XMLA
- * servlet on the HTTP whiteboard and the optional CORS filter. The database specific configurator of
- * each image contributes the DataSource and the BasicContext.
+ * variables: the catalog mapping provider of each {@link EnvContext}, context
+ * group, XMLA connector, the XMLA servlet on the HTTP whiteboard, the metrics
+ * servlet, the optional CORS, compression and result cache filters and the
+ * adaptive sizing of the connection pools. The database specific
+ * configurator of each image contributes the DataSource, pool and BasicContext
+ * of each context.
  */
 @Component(immediate = true)
 @RequireConfigurationAdmin
@@ -51,50 +62,77 @@ public class CommonServerConfigurator {
             "org.eclipse.daanse.xmla.server.auth.store.ldap.LdapCredentials";
     private static final String PID_LDAP_ROLE_PROVIDER =
             "org.eclipse.daanse.xmla.server.auth.store.ldap.LdapRoleProvider";
+    /** References of the basic authenticator to the credential store and the role provider. */
+    private static final String REF_CREDENTIAL_STORE = "credentialStore";
+    private static final String REF_ROLE_PROVIDER = "roleProvider";
 
     @Reference
     ConfigurationAdmin ca;
 
-    private Configuration confMappingProvider;
+    private final List<Configuration> confMappingProviders = new ArrayList<>();
     private Configuration confContextGroup;
     private Configuration confXmlaService;
     private Configuration confXmlaServlet;
     private Configuration confCorsFilter;
+    private Configuration confCompressionFilter;
+    private Configuration confResultCache;
+    private Configuration confXmlaMetricsFilter;
+    private Configuration confMetricsServlet;
+    private Configuration confAdaptivePoolSizer;
     private Configuration confBasicAuthenticator;
     private Configuration confLdapCredentials;
     private Configuration confLdapRoleProvider;
+    private Configuration confLdapAuthCache;
 
     @Activate
     public void activate() throws IOException {
         logger.info("Activating pivot server setup");
 
-        initMappingProvider();
+        initMappingProviders();
         initContextGroup();
         initXmlaService();
         initXmlaServlet();
+        initMetrics();
+        initAdaptivePoolSizing();
         initCorsFilter();
+        initCompressionFilter();
+        initResultCache();
         initAuth();
 
         logger.info("Pivot server setup completed");
     }
 
-    private void initMappingProvider() throws IOException {
-        confMappingProvider = ca.getFactoryConfiguration(
+    private void initMappingProviders() throws IOException {
+        for (EnvContext context : EnvContext.fromEnv()) {
+            initMappingProvider(context);
+        }
+    }
+
+    /**
+     * The catalog of a context of {@code DAANSE_CONTEXTS} is read from its own
+     * variables only - a shared catalog would load the same cubes twice.
+     */
+    private void initMappingProvider(EnvContext context) throws IOException {
+        Configuration confMappingProvider = ca.getFactoryConfiguration(
                 org.eclipse.daanse.rolap.mapping.model.provider.Constants.PID_EMF_MAPPING_PROVIDER,
-                ServerConstants.CONFIG_IDENT, "?");
+                context.configName(), "?");
 
         Dictionary<String, Object> props = new Hashtable<>();
-        props.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_MAPPING);
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_MAPPING));
         props.put(org.eclipse.daanse.rolap.mapping.model.provider.Constants.RESOURCE_URL,
-                Env.get(ServerConstants.ENV_CATALOG_RESOURCE, ServerConstants.DEFAULT_CATALOG_RESOURCE));
-        Env.get(ServerConstants.ENV_CATALOG_ADDITIONAL_GLOBS)
+                context.getOwn(ServerConstants.ENV_CATALOG_RESOURCE)
+                        .orElse(context.isDefault() ? ServerConstants.DEFAULT_CATALOG_RESOURCE
+                                : ServerConstants.DEFAULT_CONTEXT_CATALOG_RESOURCE.formatted(context.id())));
+        context.getOwn(ServerConstants.ENV_CATALOG_ADDITIONAL_GLOBS)
                 .ifPresent(globs -> props.put(
                         org.eclipse.daanse.rolap.mapping.model.provider.Constants.ADDITIONAL_RESOURCE_GLOBS,
                         Env.splitList(globs)));
 
-        confMappingProvider.update(props);
+        Configurations.update(confMappingProvider, props);
+        confMappingProviders.add(confMappingProvider);
     }
 
+    /** Groups the contexts of all configurators - {@code env-ctx} or {@code env-ctx-<id>}. */
     private void initContextGroup() throws IOException {
         confContextGroup = ca.getFactoryConfiguration(
                 org.eclipse.daanse.olap.core.api.Constants.BASIC_CONTEXT_GROUP_PID, ServerConstants.CONFIG_IDENT, "?");
@@ -102,9 +140,9 @@ public class CommonServerConfigurator {
         Dictionary<String, Object> props = new Hashtable<>();
         props.put(org.eclipse.daanse.olap.core.api.Constants.BASIC_CONTEXT_GROUP_REF_NAME_CONTEXTS
                 + ServerConstants.TARGET_EXT,
-                "(" + ServerConstants.PROP_IDENT + "=" + ServerConstants.IDENT_CONTEXT + ")");
+                "(" + ServerConstants.PROP_IDENT + "=" + ServerConstants.IDENT_CONTEXT + "*)");
 
-        confContextGroup.update(props);
+        Configurations.update(confContextGroup, props);
     }
 
     private void initXmlaService() throws IOException {
@@ -113,7 +151,7 @@ public class CommonServerConfigurator {
         Dictionary<String, Object> props = new Hashtable<>();
         props.put("contextGroup" + ServerConstants.TARGET_EXT, "(service.pid=*)");
 
-        confXmlaService.update(props);
+        Configurations.update(confXmlaService, props);
     }
 
     private void initXmlaServlet() throws IOException {
@@ -125,7 +163,49 @@ public class CommonServerConfigurator {
         // Anonymous requests are served (with no roles) unless switched off.
         props.put("requirePrincipal", !Env.get(ServerConstants.ENV_AUTH_ANONYMOUS, true));
 
-        confXmlaServlet.update(props);
+        Configurations.update(confXmlaServlet, props);
+    }
+
+    private void initMetrics() throws IOException {
+        if (!Env.get(ServerConstants.ENV_METRICS_ENABLED, true)) {
+            logger.info("Metrics disabled via {}", ServerConstants.ENV_METRICS_ENABLED);
+            return;
+        }
+
+        // times the requests of the XMLA servlet, so it filters the same pattern
+        confXmlaMetricsFilter = ca.getConfiguration(XmlaMetricsFilter.PID, "?");
+        Dictionary<String, Object> filterProps = new Hashtable<>();
+        filterProps.put("osgi.http.whiteboard.filter.pattern",
+                Env.get(ServerConstants.ENV_XMLA_PATH, ServerConstants.DEFAULT_XMLA_PATH));
+        Configurations.update(confXmlaMetricsFilter, filterProps);
+
+        confMetricsServlet = ca.getConfiguration(MetricsServlet.PID, "?");
+        Dictionary<String, Object> servletProps = new Hashtable<>();
+        servletProps.put("osgi.http.whiteboard.servlet.pattern",
+                Env.get(ServerConstants.ENV_METRICS_PATH, ServerConstants.DEFAULT_METRICS_PATH));
+        Configurations.update(confMetricsServlet, servletProps);
+    }
+
+    private void initAdaptivePoolSizing() throws IOException {
+        if (!Env.get(ServerConstants.ENV_POOL_ADAPTIVE_ENABLED, false)) {
+            return;
+        }
+
+        confAdaptivePoolSizer = ca.getConfiguration(AdaptivePoolSizer.PID, "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        Env.getInt(ServerConstants.ENV_POOL_ADAPTIVE_MIN_SIZE)
+                .ifPresent(v -> props.put(AdaptivePoolSizer.PROP_MIN_SIZE, v));
+        Env.getInt(ServerConstants.ENV_POOL_ADAPTIVE_MAX_SIZE)
+                .ifPresent(v -> props.put(AdaptivePoolSizer.PROP_MAX_SIZE, v));
+        Env.getLong(ServerConstants.ENV_POOL_ADAPTIVE_INTERVAL_SECONDS)
+                .ifPresent(v -> props.put(AdaptivePoolSizer.PROP_INTERVAL_SECONDS, v));
+        Env.getLong(ServerConstants.ENV_POOL_ADAPTIVE_TARGET_WAIT_MILLIS)
+                .ifPresent(v -> props.put(AdaptivePoolSizer.PROP_TARGET_WAIT_MILLIS, v));
+        Env.getLong(ServerConstants.ENV_POOL_ADAPTIVE_LATENCY_TOLERANCE_PERCENT)
+                .ifPresent(v -> props.put(AdaptivePoolSizer.PROP_LATENCY_TOLERANCE_PERCENT, v));
+
+        Configurations.update(confAdaptivePoolSizer, props);
     }
 
     private void initCorsFilter() throws IOException {
@@ -147,7 +227,57 @@ public class CommonServerConfigurator {
         props.put(org.eclipse.daanse.jakarta.servlet.filter.cors.api.Constants.PROPERTY_ALLOWED_HEADERS_PARAM,
                 Env.splitList(Env.get(ServerConstants.ENV_CORS_ALLOWED_HEADERS, "*")));
 
-        confCorsFilter.update(props);
+        Configurations.update(confCorsFilter, props);
+    }
+
+    private void initCompressionFilter() throws IOException {
+        if (!Env.get(ServerConstants.ENV_HTTP_COMPRESSION_ENABLED, true)) {
+            logger.info("Compression filter disabled via {}", ServerConstants.ENV_HTTP_COMPRESSION_ENABLED);
+            return;
+        }
+
+        confCompressionFilter = ca.getConfiguration(CompressionFilter.PID, "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put("osgi.http.whiteboard.filter.pattern", "/*");
+        // ahead of the metrics filter, which reads the inflated request body
+        props.put(org.osgi.framework.Constants.SERVICE_RANKING, 100);
+        Env.getInt(ServerConstants.ENV_HTTP_COMPRESSION_MIN_SIZE)
+                .ifPresent(v -> props.put(CompressionFilter.PROP_MIN_SIZE, v));
+        Env.getInt(ServerConstants.ENV_HTTP_COMPRESSION_LEVEL)
+                .ifPresent(v -> props.put(CompressionFilter.PROP_LEVEL, v));
+        Env.get(ServerConstants.ENV_HTTP_COMPRESSION_ENCODINGS)
+                .ifPresent(v -> props.put(CompressionFilter.PROP_ENCODINGS, Env.splitList(v)));
+        props.put(CompressionFilter.PROP_REQUESTS, Env.get(ServerConstants.ENV_HTTP_COMPRESSION_REQUESTS, true));
+        Env.getLong(ServerConstants.ENV_HTTP_COMPRESSION_MAX_REQUEST_MB).ifPresent(
+                v -> props.put(CompressionFilter.PROP_MAX_REQUEST_BYTES, v * 1024 * 1024));
+
+        Configurations.update(confCompressionFilter, props);
+    }
+
+    private void initResultCache() throws IOException {
+        if (!Env.get(ServerConstants.ENV_RESULT_CACHE_ENABLED, false)) {
+            return;
+        }
+
+        confResultCache = ca.getConfiguration(XmlaResultCache.PID, "?");
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put("osgi.http.whiteboard.filter.pattern",
+                Env.get(ServerConstants.ENV_XMLA_PATH, ServerConstants.DEFAULT_XMLA_PATH));
+        // behind the metrics filter, so answers from the cache are timed as well
+        props.put(org.osgi.framework.Constants.SERVICE_RANKING, -100);
+        Env.getLong(ServerConstants.ENV_RESULT_CACHE_TTL_SECONDS)
+                .ifPresent(v -> props.put(XmlaResultCache.PROP_TTL_SECONDS, v));
+        Env.getLong(ServerConstants.ENV_RESULT_CACHE_CREDENTIAL_TTL_SECONDS)
+                .ifPresent(v -> props.put(XmlaResultCache.PROP_CREDENTIAL_TTL_SECONDS, v));
+        Env.getLong(ServerConstants.ENV_RESULT_CACHE_MAX_MB)
+                .ifPresent(v -> props.put(XmlaResultCache.PROP_MAX_BYTES, v * 1024 * 1024));
+        Env.getLong(ServerConstants.ENV_RESULT_CACHE_MAX_ENTRY_KB)
+                .ifPresent(v -> props.put(XmlaResultCache.PROP_MAX_ENTRY_BYTES, v * 1024));
+
+        Configurations.update(confResultCache, props);
+        logger.info("XMLA result cache enabled");
     }
 
     private void initAuth() throws IOException {
@@ -158,16 +288,26 @@ public class CommonServerConfigurator {
             return;
         }
 
+        Optional<String> groupSearchBase = Env.get(ServerConstants.ENV_LDAP_GROUP_SEARCH_BASE);
+        boolean cached = Env.get(ServerConstants.ENV_AUTH_CACHE_ENABLED, false);
+        boolean snapshot = groupSearchBase.isPresent()
+                && Env.get(ServerConstants.ENV_LDAP_GROUP_SNAPSHOT_ENABLED, false);
+        initAuthCache(cached, snapshot, url.get(), groupSearchBase);
+
         confLdapCredentials = ca.getConfiguration(PID_LDAP_CREDENTIALS, "?");
-        confLdapCredentials.update(ldapConnectionProps(url.get()));
+        Dictionary<String, Object> credentialProps = ldapConnectionProps(url.get());
+        credentialProps.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_LDAP_CREDENTIALS);
+        markCached(credentialProps, cached);
+        Configurations.update(confLdapCredentials, credentialProps);
 
         // Roles from LDAP groups; without a group search base callers
         // authenticate but carry no roles.
-        Optional<String> groupSearchBase = Env.get(ServerConstants.ENV_LDAP_GROUP_SEARCH_BASE);
         if (groupSearchBase.isPresent()) {
             confLdapRoleProvider = ca.getConfiguration(PID_LDAP_ROLE_PROVIDER, "?");
 
             Dictionary<String, Object> props = ldapConnectionProps(url.get());
+            props.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_LDAP_ROLES);
+            markCached(props, cached || snapshot);
             props.put("groupSearchBase", groupSearchBase.get());
             Env.get(ServerConstants.ENV_LDAP_GROUP_SEARCH_FILTER)
                     .ifPresent(v -> props.put("groupSearchFilter", v));
@@ -176,17 +316,79 @@ public class CommonServerConfigurator {
             Env.get(ServerConstants.ENV_LDAP_MEMBER_OF_ATTRIBUTE)
                     .ifPresent(v -> props.put("memberOfAttribute", v));
 
-            confLdapRoleProvider.update(props);
+            Configurations.update(confLdapRoleProvider, props);
         }
 
         confBasicAuthenticator = ca.getConfiguration(PID_BASIC_AUTHENTICATOR, "?");
         Dictionary<String, Object> basicProps = new Hashtable<>();
         Env.get(ServerConstants.ENV_AUTH_REALM).ifPresent(v -> basicProps.put("realm", v));
-        confBasicAuthenticator.update(basicProps);
+        // components activate asynchronously: bound before its decorator is
+        // registered, the authenticator would keep the uncached service
+        if (cached) {
+            basicProps.put(REF_CREDENTIAL_STORE + ServerConstants.TARGET_EXT,
+                    facadeFilter(ServerConstants.IDENT_LDAP_CREDENTIALS));
+        }
+        if (groupSearchBase.isPresent() && (cached || snapshot)) {
+            basicProps.put(REF_ROLE_PROVIDER + ServerConstants.TARGET_EXT,
+                    facadeFilter(ServerConstants.IDENT_LDAP_ROLES));
+        }
+        Configurations.update(confBasicAuthenticator, basicProps);
 
         logger.info("LDAP backed basic authentication enabled against {}", url.get());
     }
 
+    private static String facadeFilter(String ident) {
+        return "(&(" + ServerConstants.PROP_IDENT + "=" + ident + ")(" + ServerConstants.PROP_AUTH_FACADE + "=true))";
+    }
+
+    /**
+     * Configures the cache in front of the LDAP credential store and role
+     * provider when {@code DAANSE_AUTH_CACHE_ENABLED=true}, and the group
+     * snapshot answering the role lookups when
+     * {@code DAANSE_LDAP_GROUP_SNAPSHOT_ENABLED=true}.
+     */
+    private void initAuthCache(boolean cached, boolean snapshot, String url, Optional<String> groupSearchBase)
+            throws IOException {
+        if (!cached && !snapshot) {
+            return;
+        }
+        confLdapAuthCache = ca.getConfiguration(LdapAuthCache.PID, "?");
+
+        Dictionary<String, Object> props = snapshot ? ldapConnectionProps(url) : new Hashtable<>();
+        props.put(LdapAuthCache.PROP_CACHE_ENABLED, cached);
+        if (snapshot) {
+            props.put(LdapAuthCache.PROP_GROUP_SNAPSHOT, true);
+            props.put("groupSearchBase", groupSearchBase.get());
+            Env.get(ServerConstants.ENV_LDAP_GROUP_SEARCH_FILTER)
+                    .ifPresent(v -> props.put("groupSearchFilter", v));
+            Env.get(ServerConstants.ENV_LDAP_GROUP_NAME_ATTRIBUTE)
+                    .ifPresent(v -> props.put("groupNameAttribute", v));
+            Env.get(ServerConstants.ENV_LDAP_MEMBER_OF_ATTRIBUTE)
+                    .ifPresent(v -> props.put("memberOfAttribute", v));
+            Env.getLong(ServerConstants.ENV_LDAP_GROUP_SNAPSHOT_REFRESH_SECONDS).ifPresent(
+                    v -> props.put(LdapAuthCache.PROP_SNAPSHOT_REFRESH_SECONDS, v));
+            Env.getLong(ServerConstants.ENV_LDAP_GROUP_SNAPSHOT_FULL_RESYNC_SECONDS).ifPresent(
+                    v -> props.put(LdapAuthCache.PROP_SNAPSHOT_FULL_RESYNC_SECONDS, v));
+        }
+        Env.getLong(ServerConstants.ENV_AUTH_CACHE_TTL_SECONDS)
+                .ifPresent(v -> props.put(LdapAuthCache.PROP_TTL_SECONDS, v));
+        Env.getLong(ServerConstants.ENV_AUTH_CACHE_NEGATIVE_TTL_SECONDS)
+                .ifPresent(v -> props.put(LdapAuthCache.PROP_NEGATIVE_TTL_SECONDS, v));
+        Env.getLong(ServerConstants.ENV_AUTH_CACHE_MAX_SIZE)
+                .ifPresent(v -> props.put(LdapAuthCache.PROP_MAX_SIZE, v));
+
+        Configurations.update(confLdapAuthCache, props);
+        logger.info("LDAP authentication cache enabled: cache {}, group snapshot {}", cached, snapshot);
+    }
+
+    /** Marks an LDAP service for the {@link LdapAuthCache}, ranked below the decorator that takes its place. */
+    private static void markCached(Dictionary<String, Object> props, boolean cached) {
+        props.put(ServerConstants.PROP_AUTH_CACHED, cached);
+        if (cached) {
+            props.put(org.osgi.framework.Constants.SERVICE_RANKING, LdapAuthCache.DELEGATE_RANKING);
+        }
+    }
+
     private Dictionary<String, Object> ldapConnectionProps(String url) {
         Dictionary<String, Object> props = new Hashtable<>();
         props.put("url", url);
@@ -199,10 +401,10 @@ public class CommonServerConfigurator {
         Env.get(ServerConstants.ENV_LDAP_TRANSPORT_SECURITY).ifPresent(v -> props.put("transportSecurity", v));
         Env.get(ServerConstants.ENV_LDAP_ALLOW_UNENCRYPTED)
                 .ifPresent(v -> props.put("allowUnencrypted", Boolean.parseBoolean(v)));
-        Env.get(ServerConstants.ENV_LDAP_CONNECT_TIMEOUT_MILLIS)
-                .ifPresent(v -> props.put("connectTimeoutMillis", Integer.parseInt(v)));
-        Env.get(ServerConstants.ENV_LDAP_READ_TIMEOUT_MILLIS)
-                .ifPresent(v -> props.put("readTimeoutMillis", Integer.parseInt(v)));
+        Env.getInt(ServerConstants.ENV_LDAP_CONNECT_TIMEOUT_MILLIS)
+                .ifPresent(v -> props.put("connectTimeoutMillis", v));
+        Env.getInt(ServerConstants.ENV_LDAP_READ_TIMEOUT_MILLIS)
+                .ifPresent(v -> props.put("readTimeoutMillis", v));
         Env.get(ServerConstants.ENV_LDAP_REFERRAL).ifPresent(v -> props.put("referral", v));
         return props;
     }
@@ -211,9 +413,10 @@ public class CommonServerConfigurator {
     public void deactivate() throws IOException {
         logger.info("Deactivating pivot server setup");
 
-        if (confMappingProvider != null) {
+        for (Configuration confMappingProvider : confMappingProviders) {
             confMappingProvider.delete();
         }
+        confMappingProviders.clear();
         if (confContextGroup != null) {
             confContextGroup.delete();
         }
@@ -226,6 +429,21 @@ public class CommonServerConfigurator {
         if (confCorsFilter != null) {
             confCorsFilter.delete();
         }
+        if (confCompressionFilter != null) {
+            confCompressionFilter.delete();
+        }
+        if (confResultCache != null) {
+            confResultCache.delete();
+        }
+        if (confXmlaMetricsFilter != null) {
+            confXmlaMetricsFilter.delete();
+        }
+        if (confMetricsServlet != null) {
+            confMetricsServlet.delete();
+        }
+        if (confAdaptivePoolSizer != null) {
+            confAdaptivePoolSizer.delete();
+        }
         if (confBasicAuthenticator != null) {
             confBasicAuthenticator.delete();
         }
@@ -235,5 +453,8 @@ public class CommonServerConfigurator {
         if (confLdapRoleProvider != null) {
             confLdapRoleProvider.delete();
         }
+        if (confLdapAuthCache != null) {
+            confLdapAuthCache.delete();
+        }
     }
 }
@@ -0,0 +1,46 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Dictionary;
+
+import org.osgi.service.cm.Configuration;
+
+/**
+ * Updates of the configurations the configurators create. Each carries the
+ * time it was created as {@value ServerConstants#PROP_CREATED}, so the startup
+ * timeline can tell when configurations created before it were made.
+ */
+public final class Configurations {
+
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private Configurations() {
+    }
+
+    /**
+     * Updates the configuration with the properties and the time it was created:
+     * now for a new one, the time stamped before for one updated again. A stamp
+     * of an earlier JVM, kept by a persistent Configuration Admin, is replaced.
+     */
+    public static void update(Configuration configuration, Dictionary<String, Object> props) throws IOException {
+        Dictionary<String, Object> current = configuration.getProperties();
+        Object created = current == null ? null : current.get(ServerConstants.PROP_CREATED);
+        props.put(ServerConstants.PROP_CREATED,
+                created instanceof Long time && time >= JVM_START ? time : System.currentTimeMillis());
+        configuration.update(props);
+    }
+}
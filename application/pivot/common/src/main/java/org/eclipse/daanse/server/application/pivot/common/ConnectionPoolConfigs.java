@@ -14,10 +14,14 @@
 package org.eclipse.daanse.server.application.pivot.common;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
 
 import org.eclipse.daanse.jdbc.datasource.pools.api.Constants;
 import org.eclipse.daanse.jdbc.datasource.pools.api.ocd.BaseConfig;
+import org.eclipse.daanse.server.application.pivot.common.replica.ReplicaRouter;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
 
@@ -28,10 +32,14 @@ import org.osgi.service.cm.ConfigurationAdmin;
  * <p>
  * The pool attributes are configurable via {@code DAANSE_POOL_*}; unset
  * variables keep the defaults of the pool bundle. Which DataSource is pooled is
- * not configurable - it is the one this image builds from {@code DAANSE_JDBC_*}.
+ * not configurable - it is the one this image builds from {@code DAANSE_JDBC_*},
+ * or the read replicas of {@link ReplicaConfigs}.
  */
 public final class ConnectionPoolConfigs {
 
+    /** Property of {@code DAANSE_POOL_POOL_NAME}; replica pools append their replica id. */
+    private static final String PROP_POOL_NAME = "poolName";
+
     private ConnectionPoolConfigs() {
     }
 
@@ -47,20 +55,96 @@ public final class ConnectionPoolConfigs {
      * passes the matching mode here. {@code DAANSE_POOL_READ_ONLY} still wins.
      */
     public static Configuration createEnvPool(ConfigurationAdmin ca, Boolean readOnlyDefault) throws IOException {
-        Configuration configuration = ca.getFactoryConfiguration(
-                org.eclipse.daanse.jdbc.datasource.pools.hikari.api.Constants.PID_CONNECTION_POOL,
-                ServerConstants.CONFIG_IDENT, "?");
+        return createEnvPool(ca, EnvContext.DEFAULT, readOnlyDefault);
+    }
+
+    /**
+     * As {@link #createEnvPool(ConfigurationAdmin, Boolean)}, for one of the
+     * contexts of {@code DAANSE_CONTEXTS}: configured by its
+     * {@code DAANSE_CTX_<ID>_POOL_*} variables over the shared
+     * {@code DAANSE_POOL_*}, pooling the DataSource of that context.
+     */
+    public static Configuration createEnvPool(ConfigurationAdmin ca, EnvContext context, Boolean readOnlyDefault)
+            throws IOException {
+        Dictionary<String, Object> props = poolProps(context, readOnlyDefault);
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_POOL));
+        props.put(Constants.POOL_PROPERTY_DATASOURCE_TARGET,
+                "(" + ServerConstants.PROP_IDENT + "=" + context.ident(ServerConstants.IDENT_DATASOURCE) + ")");
+        return createPool(ca, context.configName(), props);
+    }
+
+    /**
+     * The pools the context draws from: the pool of
+     * {@link #createEnvPool(ConfigurationAdmin, EnvContext, Boolean)}, or -
+     * with {@code DAANSE_JDBC_REPLICAS} set - one pool per replica and the
+     * {@link ReplicaRouter} over them in its place. Returned in deletion order,
+     * the router first.
+     */
+    public static List<Configuration> createEnvPools(ConfigurationAdmin ca, EnvContext context,
+            Boolean readOnlyDefault) throws IOException {
+        List<String> replicas = ReplicaConfigs.replicas(context);
+        if (replicas.isEmpty()) {
+            return List.of(createEnvPool(ca, context, readOnlyDefault));
+        }
+
+        List<Configuration> configurations = new ArrayList<>();
+        configurations.add(createReplicaRouter(ca, context));
+        for (String replica : replicas) {
+            configurations.add(createReplicaPool(ca, context, readOnlyDefault, replica,
+                    context.ident(ServerConstants.IDENT_REPLICA_DATASOURCE)));
+        }
+        if (context.get(ServerConstants.ENV_REPLICA_INCLUDE_PRIMARY, false)) {
+            configurations.add(createReplicaPool(ca, context, readOnlyDefault, ServerConstants.REPLICA_PRIMARY,
+                    context.ident(ServerConstants.IDENT_DATASOURCE)));
+        }
+        return List.copyOf(configurations);
+    }
+
+    private static Configuration createReplicaPool(ConfigurationAdmin ca, EnvContext context, Boolean readOnlyDefault,
+            String replica, String dataSourceIdent) throws IOException {
+        Dictionary<String, Object> props = poolProps(context, readOnlyDefault);
+        if (props.get(PROP_POOL_NAME) instanceof String poolName) {
+            props.put(PROP_POOL_NAME, poolName + "-" + replica);
+        }
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_REPLICA_POOL));
+        props.put(ServerConstants.PROP_REPLICA, replica);
+        String dataSourceFilter = "(" + ServerConstants.PROP_IDENT + "=" + dataSourceIdent + ")";
+        if (!ServerConstants.REPLICA_PRIMARY.equals(replica)) {
+            dataSourceFilter = "(&" + dataSourceFilter + "(" + ServerConstants.PROP_REPLICA + "=" + replica + "))";
+        }
+        props.put(Constants.POOL_PROPERTY_DATASOURCE_TARGET, dataSourceFilter);
+        return createPool(ca, context.configName(replica), props);
+    }
+
+    private static Configuration createReplicaRouter(ConfigurationAdmin ca, EnvContext context) throws IOException {
+        Configuration configuration = ca.getFactoryConfiguration(ReplicaRouter.PID, context.configName(), "?");
 
-        Dictionary<String, Object> props = EnvConfigMapper.propsFromEnv(BaseConfig.class,
-                ServerConstants.ENV_POOL_PREFIX);
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_POOL));
+        props.put(ReplicaRouter.REF_REPLICAS + ServerConstants.TARGET_EXT,
+                "(" + ServerConstants.PROP_IDENT + "=" + context.ident(ServerConstants.IDENT_REPLICA_POOL) + ")");
+        context.getInt(ServerConstants.ENV_REPLICA_EJECT_SECONDS)
+                .ifPresent(v -> props.put(ReplicaRouter.PROP_EJECT_SECONDS, v));
+        context.getInt(ServerConstants.ENV_REPLICA_HEDGE_AFTER_MILLIS)
+                .ifPresent(v -> props.put(ReplicaRouter.PROP_HEDGE_AFTER_MILLIS, v));
+
+        Configurations.update(configuration, props);
+        return configuration;
+    }
+
+    private static Dictionary<String, Object> poolProps(EnvContext context, Boolean readOnlyDefault) {
+        Dictionary<String, Object> props = context.propsFromEnv(BaseConfig.class, ServerConstants.ENV_POOL_PREFIX);
         if (readOnlyDefault != null && props.get(Constants.POOL_PROPERTY_READ_ONLY) == null) {
             props.put(Constants.POOL_PROPERTY_READ_ONLY, readOnlyDefault);
         }
-        props.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_POOL);
-        props.put(Constants.POOL_PROPERTY_DATASOURCE_TARGET,
-                "(" + ServerConstants.PROP_IDENT + "=" + ServerConstants.IDENT_DATASOURCE + ")");
+        return props;
+    }
 
-        configuration.update(props);
+    private static Configuration createPool(ConfigurationAdmin ca, String name, Dictionary<String, Object> props)
+            throws IOException {
+        Configuration configuration = ca.getFactoryConfiguration(
+                org.eclipse.daanse.jdbc.datasource.pools.hikari.api.Constants.PID_CONNECTION_POOL, name, "?");
+        Configurations.update(configuration, props);
         return configuration;
     }
 }
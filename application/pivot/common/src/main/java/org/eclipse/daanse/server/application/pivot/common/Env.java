@@ -15,7 +15,9 @@ package org.eclipse.daanse.server.application.pivot.common;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Access to the environment variables that configure the pivot server. Blank
@@ -23,11 +25,14 @@ import java.util.Optional;
  */
 public final class Env {
 
+    /** The variables read, the process environment unless a test replaces them. */
+    static Map<String, String> variables = System.getenv();
+
     private Env() {
     }
 
     public static Optional<String> get(String name) {
-        String value = System.getenv(name);
+        String value = variables.get(name);
         if (value == null || value.isBlank()) {
             return Optional.empty();
         }
@@ -42,12 +47,53 @@ public final class Env {
         return get(name).map(Boolean::parseBoolean).orElse(defaultValue);
     }
 
+    /** The value as a number, failing with the variable and its value if it is none. */
+    public static Optional<Integer> getInt(String name) {
+        return get(name).map(value -> {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw invalid(name, value, e);
+            }
+        });
+    }
+
+    /** As {@link #getInt(String)}, for values beyond the range of an {@code int}. */
+    public static Optional<Long> getLong(String name) {
+        return get(name).map(value -> {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw invalid(name, value, e);
+            }
+        });
+    }
+
+    static IllegalArgumentException invalid(String name, String value, Throwable cause) {
+        return new IllegalArgumentException("Environment variable " + name + " has invalid value '" + value + "'",
+                cause);
+    }
+
     /** Splits a comma separated environment variable value into its entries. */
     public static String[] splitList(String value) {
         return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty())
                 .toArray(String[]::new);
     }
 
+    /**
+     * The variables whose names start with the given prefix, by the rest of
+     * their name.
+     */
+    public static Map<String, String> withPrefix(String prefix) {
+        Map<String, String> values = new TreeMap<>();
+        variables.forEach((name, value) -> {
+            if (name.startsWith(prefix) && !value.isBlank()) {
+                values.put(name.substring(prefix.length()), value.trim());
+            }
+        });
+        return values;
+    }
+
     /** The given environment variables that are not set. */
     public static List<String> missing(String... names) {
         return Arrays.stream(names).filter(name -> get(name).isEmpty()).toList();
@@ -157,8 +157,7 @@ public final class EnvConfigMapper {
                 return ints;
             }
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException(
-                    "Environment variable " + envName + " has invalid value '" + value + "'", e);
+            throw Env.invalid(envName, value, e);
         }
         throw new IllegalArgumentException("Unsupported attribute type " + type + " for " + envName);
     }
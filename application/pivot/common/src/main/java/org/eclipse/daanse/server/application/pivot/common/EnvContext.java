@@ -0,0 +1,185 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A context of the pivot server and the environment variables it is
+ * configured by.
+ * <p>
+ * Without {@value ServerConstants#ENV_CONTEXTS} there is one context, the
+ * {@link #DEFAULT default} context: it is configured by the plain variables
+ * ({@code DAANSE_JDBC_*}, {@code DAANSE_POOL_*},
+ * {@code DAANSE_CATALOG_RESOURCE}, ...) and its services are wired under the
+ * plain idents ({@code env-ds}, {@code env-pool}, {@code env-cms},
+ * {@code env-ctx}).
+ * <p>
+ * {@code DAANSE_CONTEXTS=sales,hr} configures one context per id. Context
+ * {@code sales} is configured by {@code DAANSE_CTX_SALES_JDBC_*},
+ * {@code DAANSE_CTX_SALES_POOL_*}, {@code DAANSE_CTX_SALES_CATALOG_RESOURCE}
+ * and so on, and its services are wired under {@code env-ds-sales},
+ * {@code env-pool-sales}, {@code env-cms-sales} and {@code env-ctx-sales}. A
+ * plain variable applies to every context that does not set its own, e.g. a
+ * shared {@code DAANSE_JDBC_USER} or {@code DAANSE_POOL_MAXIMUM_POOL_SIZE} -
+ * except the catalog and the context name, which are never shared.
+ *
+ * @param id the id of the context, lower case, empty for the default context
+ */
+public record EnvContext(String id) {
+
+    /** The single context configured by the plain variables. */
+    public static final EnvContext DEFAULT = new EnvContext("");
+
+    /** Letters and digits only; an underscore would make variable names ambiguous. */
+    private static final Pattern ID = Pattern.compile("[a-z0-9]+");
+
+    private static final String ENV_ROOT = "DAANSE_";
+
+    public EnvContext {
+        id = id.toLowerCase(Locale.ROOT);
+        if (!id.isEmpty() && !ID.matcher(id).matches()) {
+            throw new IllegalArgumentException(
+                    "Context id '" + id + "' of " + ServerConstants.ENV_CONTEXTS + " is not letters and digits only");
+        }
+    }
+
+    /** The contexts configured by the environment, in the order of {@value ServerConstants#ENV_CONTEXTS}. */
+    public static List<EnvContext> fromEnv() {
+        Optional<String> ids = Env.get(ServerConstants.ENV_CONTEXTS);
+        if (ids.isEmpty()) {
+            return List.of(DEFAULT);
+        }
+        List<EnvContext> contexts = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String id : Env.splitList(ids.get())) {
+            EnvContext context = new EnvContext(id);
+            if (!seen.add(context.id())) {
+                throw new IllegalArgumentException(
+                        "Context id '" + id + "' is listed twice in " + ServerConstants.ENV_CONTEXTS);
+            }
+            contexts.add(context);
+        }
+        if (contexts.isEmpty()) {
+            throw new IllegalArgumentException(ServerConstants.ENV_CONTEXTS + " lists no context id");
+        }
+        return Collections.unmodifiableList(contexts);
+    }
+
+    public boolean isDefault() {
+        return id.isEmpty();
+    }
+
+    /** The ident the services of this context are wired under, e.g. {@code env-pool-sales}. */
+    public String ident(String ident) {
+        return isDefault() ? ident : ident + "-" + id;
+    }
+
+    /**
+     * The name of the factory configurations of this context, e.g.
+     * {@code pivot-sales}: a name is unique per factory PID, so each context
+     * needs its own.
+     */
+    public String configName() {
+        return ident(ServerConstants.CONFIG_IDENT);
+    }
+
+    /**
+     * As {@link #configName()}, for one of several configurations of the same
+     * factory within the context, e.g. {@code pivot-sales-r1} for replica
+     * {@code r1}.
+     */
+    public String configName(String instance) {
+        return configName() + "-" + instance;
+    }
+
+    /**
+     * The variable of this context in place of a plain variable, e.g.
+     * {@code DAANSE_CTX_SALES_JDBC_URL} for {@code DAANSE_JDBC_URL}. Also maps
+     * variable prefixes.
+     */
+    public String envName(String name) {
+        if (isDefault()) {
+            return name;
+        }
+        if (!name.startsWith(ENV_ROOT)) {
+            throw new IllegalArgumentException(name + " is not a DAANSE_ variable");
+        }
+        return ServerConstants.ENV_CONTEXT_PREFIX + id.toUpperCase(Locale.ROOT) + "_"
+                + name.substring(ENV_ROOT.length());
+    }
+
+    /** The variable of this context, or else the plain variable. */
+    public Optional<String> get(String name) {
+        return isDefault() ? Env.get(name) : Env.get(envName(name)).or(() -> Env.get(name));
+    }
+
+    public String get(String name, String defaultValue) {
+        return get(name).orElse(defaultValue);
+    }
+
+    public boolean get(String name, boolean defaultValue) {
+        return get(name).map(Boolean::parseBoolean).orElse(defaultValue);
+    }
+
+    /** As {@link #get(String)}, as a number; see {@link Env#getInt(String)}. */
+    public Optional<Integer> getInt(String name) {
+        return isDefault() ? Env.getInt(name) : Env.getInt(envName(name)).or(() -> Env.getInt(name));
+    }
+
+    /** As {@link #get(String)}, as a number; see {@link Env#getLong(String)}. */
+    public Optional<Long> getLong(String name) {
+        return isDefault() ? Env.getLong(name) : Env.getLong(envName(name)).or(() -> Env.getLong(name));
+    }
+
+    /** The variable of this context only, for settings that are never shared. */
+    public Optional<String> getOwn(String name) {
+        return Env.get(envName(name));
+    }
+
+    /** The given variables that are set neither for this context nor plain, by their name in this context. */
+    public List<String> missing(String... names) {
+        return Arrays.stream(names).filter(name -> get(name).isEmpty()).map(this::envName).toList();
+    }
+
+    /**
+     * As {@link EnvConfigMapper#propsFromEnv(Class, String)}: the properties set
+     * by the plain variables under {@code envPrefix}, overridden by those set
+     * for this context.
+     */
+    public Dictionary<String, Object> propsFromEnv(Class<?> configInterface, String envPrefix) {
+        Dictionary<String, Object> props = EnvConfigMapper.propsFromEnv(configInterface, envPrefix);
+        if (!isDefault()) {
+            Dictionary<String, Object> own = EnvConfigMapper.propsFromEnv(configInterface, envName(envPrefix));
+            for (String key : Collections.list(own.keys())) {
+                props.put(key, own.get(key));
+            }
+        }
+        return props;
+    }
+
+    /** {@code " of context sales"}, empty for the default context - for log messages. */
+    public String label() {
+        return isDefault() ? "" : " of context " + id;
+    }
+}
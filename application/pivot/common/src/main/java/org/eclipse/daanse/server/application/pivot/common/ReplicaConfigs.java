@@ -0,0 +1,96 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.cm.ConfigurationAdmin;
+
+/**
+ * Creates the DataSources of the read replicas of a context, set by
+ * {@code DAANSE_JDBC_REPLICAS=r1,r2}. A replica is configured like the primary
+ * DataSource; its own {@code DAANSE_JDBC_REPLICA_R1_*} variables replace
+ * single attributes, typically the host. The pools over the replicas and the
+ * router the context draws from are created by
+ * {@link ConnectionPoolConfigs#createEnvPools(ConfigurationAdmin, EnvContext, Boolean)}.
+ */
+public final class ReplicaConfigs {
+
+    /** Letters and digits only, as the id ends up in variable names. */
+    private static final Pattern ID = Pattern.compile("[a-z0-9]+");
+
+    private ReplicaConfigs() {
+    }
+
+    /** The replica ids of the context, empty unless {@code DAANSE_JDBC_REPLICAS} is set. */
+    public static List<String> replicas(EnvContext context) {
+        Set<String> ids = new LinkedHashSet<>();
+        context.get(ServerConstants.ENV_JDBC_REPLICAS).ifPresent(value -> {
+            for (String id : Env.splitList(value)) {
+                String replica = id.toLowerCase(Locale.ROOT);
+                if (!ID.matcher(replica).matches() || ServerConstants.REPLICA_PRIMARY.equals(replica)) {
+                    throw new IllegalArgumentException("Replica id '" + id + "' of "
+                            + context.envName(ServerConstants.ENV_JDBC_REPLICAS) + " is not letters and digits only");
+                }
+                if (!ids.add(replica)) {
+                    throw new IllegalArgumentException("Replica id '" + id + "' is listed twice in "
+                            + context.envName(ServerConstants.ENV_JDBC_REPLICAS));
+                }
+            }
+        });
+        return List.copyOf(ids);
+    }
+
+    /**
+     * One DataSource per replica of the context: the properties of the primary
+     * with those set by the replica's variables on top.
+     *
+     * @param dataSourcePid   factory PID of the DataSource of the image
+     * @param configInterface config interface of that DataSource
+     * @param primaryProps    the properties the primary was configured with
+     */
+    public static List<Configuration> createEnvReplicaDataSources(ConfigurationAdmin ca, EnvContext context,
+            String dataSourcePid, Class<?> configInterface, Dictionary<String, Object> primaryProps)
+            throws IOException {
+        List<Configuration> configurations = new ArrayList<>();
+        for (String replica : replicas(context)) {
+            Dictionary<String, Object> props = new Hashtable<>();
+            for (String key : Collections.list(primaryProps.keys())) {
+                props.put(key, primaryProps.get(key));
+            }
+            Dictionary<String, Object> own = context.propsFromEnv(configInterface,
+                    ServerConstants.ENV_JDBC_REPLICA_PREFIX + replica.toUpperCase(Locale.ROOT) + "_");
+            for (String key : Collections.list(own.keys())) {
+                props.put(key, own.get(key));
+            }
+            props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_REPLICA_DATASOURCE));
+            props.put(ServerConstants.PROP_REPLICA, replica);
+
+            Configuration configuration = ca.getFactoryConfiguration(dataSourcePid, context.configName(replica), "?");
+            Configurations.update(configuration, props);
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+}
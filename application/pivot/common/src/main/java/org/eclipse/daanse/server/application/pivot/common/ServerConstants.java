@@ -22,7 +22,10 @@ public final class ServerConstants {
     private ServerConstants() {
     }
 
-    /** Ident used as 2nd argument of {@code getFactoryConfiguration(pid, ident, "?")}. */
+    /**
+     * Ident used as 2nd argument of {@code getFactoryConfiguration(pid, ident, "?")};
+     * configurations made per context use {@link EnvContext#configName()}.
+     */
     public static final String CONFIG_IDENT = "pivot";
 
     /** Service property used to wire the environment configured services together. */
@@ -32,9 +35,42 @@ public final class ServerConstants {
     public static final String IDENT_POOL = "env-pool";
     public static final String IDENT_MAPPING = "env-cms";
     public static final String IDENT_CONTEXT = "env-ctx";
+    /** DataSources and pools of the read replicas behind the pool of a context, see {@link #ENV_JDBC_REPLICAS}. */
+    public static final String IDENT_REPLICA_DATASOURCE = "env-replica-ds";
+    public static final String IDENT_REPLICA_POOL = "env-replica-pool";
+    /** Registered once the warm-up of a context is over, see {@link #ENV_WARMUP_MDX}. */
+    public static final String IDENT_WARMUP = "env-warmup";
+    /** The query recorder standing in for the pool of a context, see {@link #ENV_AGGREGATE_ADVISOR_ENABLED}. */
+    public static final String IDENT_QUERY_RECORDER = "env-query-recorder";
+    public static final String IDENT_LDAP_CREDENTIALS = "env-ldap-credentials";
+    public static final String IDENT_LDAP_ROLES = "env-ldap-roles";
+
+    /**
+     * Service property marking a service whose results are cached: a caching
+     * decorator ranked above it takes its place.
+     */
+    public static final String PROP_AUTH_CACHED = "daanse.auth.cached";
+    /** Service property of the caching decorator taking the place of a {@link #PROP_AUTH_CACHED} service. */
+    public static final String PROP_AUTH_FACADE = "daanse.auth.facade";
+
+    /**
+     * Service property naming the replica of a replica DataSource or pool,
+     * {@value #REPLICA_PRIMARY} for the pool over the primary.
+     */
+    public static final String PROP_REPLICA = "daanse.replica";
+    public static final String REPLICA_PRIMARY = "primary";
+    /** Service property of the replica router, which stands in for the pool of a context. */
+    public static final String PROP_POOL_ROUTER = "daanse.pool.router";
 
     public static final String TARGET_EXT = ".target";
 
+    /**
+     * Configuration property holding the epoch milliseconds the configuration
+     * was created, see {@link Configurations#update}. Private (leading dot), so
+     * it is not passed on to the service properties.
+     */
+    public static final String PROP_CREATED = ".daanse.created";
+
     /**
      * Prefix of the environment variables that configure the DataSource. The
      * variable name is derived from the config attribute, e.g.
@@ -49,6 +85,38 @@ public final class ServerConstants {
      */
     public static final String ENV_POOL_PREFIX = "DAANSE_POOL_";
 
+    /**
+     * Resizes the pools at runtime from the observed connection waits and
+     * statement latency, within {@link #ENV_POOL_ADAPTIVE_MIN_SIZE} and
+     * {@link #ENV_POOL_ADAPTIVE_MAX_SIZE}. Off by default.
+     */
+    public static final String ENV_POOL_ADAPTIVE_ENABLED = "DAANSE_POOL_ADAPTIVE_ENABLED";
+    public static final String ENV_POOL_ADAPTIVE_MIN_SIZE = "DAANSE_POOL_ADAPTIVE_MIN_SIZE";
+    /** Unset means the size the pool is configured with, which then only shrinks and grows back. */
+    public static final String ENV_POOL_ADAPTIVE_MAX_SIZE = "DAANSE_POOL_ADAPTIVE_MAX_SIZE";
+    public static final String ENV_POOL_ADAPTIVE_INTERVAL_SECONDS = "DAANSE_POOL_ADAPTIVE_INTERVAL_SECONDS";
+    public static final String ENV_POOL_ADAPTIVE_TARGET_WAIT_MILLIS = "DAANSE_POOL_ADAPTIVE_TARGET_WAIT_MILLIS";
+    public static final String ENV_POOL_ADAPTIVE_LATENCY_TOLERANCE_PERCENT =
+            "DAANSE_POOL_ADAPTIVE_LATENCY_TOLERANCE_PERCENT";
+
+    /**
+     * Comma separated ids of read replicas. Each gets a DataSource configured
+     * like the primary, with the variables under
+     * {@link #ENV_JDBC_REPLICA_PREFIX} on top, and a pool of its own; the
+     * context draws from a router over these pools. Unset means no replicas.
+     */
+    public static final String ENV_JDBC_REPLICAS = "DAANSE_JDBC_REPLICAS";
+    /**
+     * Prefix of the variables of one replica, followed by its id, e.g.
+     * {@code DAANSE_JDBC_REPLICA_R1_HOST} in place of {@code DAANSE_JDBC_HOST}.
+     */
+    public static final String ENV_JDBC_REPLICA_PREFIX = "DAANSE_JDBC_REPLICA_";
+    /** Whether the primary serves reads next to the replicas. Default false. */
+    public static final String ENV_REPLICA_INCLUDE_PRIMARY = "DAANSE_REPLICA_INCLUDE_PRIMARY";
+    public static final String ENV_REPLICA_EJECT_SECONDS = "DAANSE_REPLICA_EJECT_SECONDS";
+    /** Queries still running after this many milliseconds are sent to a second replica. Unset means never. */
+    public static final String ENV_REPLICA_HEDGE_AFTER_MILLIS = "DAANSE_REPLICA_HEDGE_AFTER_MILLIS";
+
     /**
      * Whether requests without credentials are served (with no roles). Default
      * true; false makes the XMLA servlet challenge every request.
@@ -57,6 +125,16 @@ public final class ServerConstants {
     /** Realm of the HTTP Basic challenge. */
     public static final String ENV_AUTH_REALM = "DAANSE_AUTH_REALM";
 
+    /**
+     * Cache of the LDAP credential and role lookups. Off by default; when on,
+     * repeated requests of a user skip the directory until the TTL expires.
+     */
+    public static final String ENV_AUTH_CACHE_ENABLED = "DAANSE_AUTH_CACHE_ENABLED";
+    public static final String ENV_AUTH_CACHE_TTL_SECONDS = "DAANSE_AUTH_CACHE_TTL_SECONDS";
+    /** TTL of failed binds and empty role sets, short so fixed accounts recover quickly. */
+    public static final String ENV_AUTH_CACHE_NEGATIVE_TTL_SECONDS = "DAANSE_AUTH_CACHE_NEGATIVE_TTL_SECONDS";
+    public static final String ENV_AUTH_CACHE_MAX_SIZE = "DAANSE_AUTH_CACHE_MAX_SIZE";
+
     /**
      * Environment variables of the LDAP backed HTTP Basic authentication.
      * Setting {@link #ENV_LDAP_URL} switches it on: credentials are verified by
@@ -78,6 +156,82 @@ public final class ServerConstants {
     public static final String ENV_LDAP_GROUP_SEARCH_FILTER = "DAANSE_LDAP_GROUP_SEARCH_FILTER";
     public static final String ENV_LDAP_GROUP_NAME_ATTRIBUTE = "DAANSE_LDAP_GROUP_NAME_ATTRIBUTE";
     public static final String ENV_LDAP_MEMBER_OF_ATTRIBUTE = "DAANSE_LDAP_MEMBER_OF_ATTRIBUTE";
+    /**
+     * Answers role lookups from an in-memory snapshot of all groups under
+     * {@link #ENV_LDAP_GROUP_SEARCH_BASE} instead of a group search per
+     * authentication. Off by default.
+     */
+    public static final String ENV_LDAP_GROUP_SNAPSHOT_ENABLED = "DAANSE_LDAP_GROUP_SNAPSHOT_ENABLED";
+    /** Period of the incremental refresh (changed groups only). */
+    public static final String ENV_LDAP_GROUP_SNAPSHOT_REFRESH_SECONDS = "DAANSE_LDAP_GROUP_SNAPSHOT_REFRESH_SECONDS";
+    /** Period of the full reload, which also drops deleted groups. */
+    public static final String ENV_LDAP_GROUP_SNAPSHOT_FULL_RESYNC_SECONDS =
+            "DAANSE_LDAP_GROUP_SNAPSHOT_FULL_RESYNC_SECONDS";
+
+    /**
+     * Comma separated ids of the contexts this instance serves, each configured
+     * by its own variables under {@link #ENV_CONTEXT_PREFIX}, see
+     * {@link EnvContext}. Unset means a single context configured by the
+     * unprefixed variables.
+     */
+    public static final String ENV_CONTEXTS = "DAANSE_CONTEXTS";
+    /**
+     * Prefix of the variables of one context, followed by its id, e.g.
+     * {@code DAANSE_CTX_SALES_JDBC_URL} in place of {@code DAANSE_JDBC_URL}.
+     */
+    public static final String ENV_CONTEXT_PREFIX = "DAANSE_CTX_";
+
+    /**
+     * MDX statements run against the context once it is registered, before the
+     * instance reports ready - inline, separated by semicolons, or the path of
+     * a file holding them. Unset means no warm-up.
+     */
+    public static final String ENV_WARMUP_MDX = "DAANSE_WARMUP_MDX";
+    /** Warm-up statements run at the same time. Default 1. */
+    public static final String ENV_WARMUP_PARALLELISM = "DAANSE_WARMUP_PARALLELISM";
+    /** The instance reports ready after this long even if the warm-up is not over. */
+    public static final String ENV_WARMUP_TIMEOUT_SECONDS = "DAANSE_WARMUP_TIMEOUT_SECONDS";
+
+    /**
+     * Flushing of the cube caches when the data changes, watched through the
+     * database file of file databases and the data version queries. On by
+     * default.
+     */
+    public static final String ENV_DATA_CHANGE_ENABLED = "DAANSE_DATA_CHANGE_ENABLED";
+    public static final String ENV_DATA_CHANGE_INTERVAL_SECONDS = "DAANSE_DATA_CHANGE_INTERVAL_SECONDS";
+    /** Comma separated files whose change flushes all cubes, e.g. a marker the ETL touches when done. */
+    public static final String ENV_DATA_CHANGE_FILES = "DAANSE_DATA_CHANGE_FILES";
+    /**
+     * SQL whose first value is the version of the data of all cubes, e.g.
+     * {@code SELECT max(loaded_at) FROM etl_runs}.
+     */
+    public static final String ENV_DATA_VERSION_QUERY = "DAANSE_DATA_VERSION_QUERY";
+    /**
+     * Prefix of the data version query of a single cube, followed by the cube
+     * name in upper case with other characters than letters and digits as
+     * {@code _}: {@code DAANSE_DATA_VERSION_QUERY_STORE_SALES} for
+     * {@code Store Sales}.
+     */
+    public static final String ENV_DATA_VERSION_QUERY_PREFIX = "DAANSE_DATA_VERSION_QUERY_";
+
+    /**
+     * Recording of the queries the context sends to its fact tables, and a
+     * periodic report of the aggregate tables that would have saved the most
+     * time on them. Off by default.
+     */
+    public static final String ENV_AGGREGATE_ADVISOR_ENABLED = "DAANSE_AGGREGATE_ADVISOR_ENABLED";
+    /** Period of the report. Default one hour. */
+    public static final String ENV_AGGREGATE_ADVISOR_REPORT_SECONDS = "DAANSE_AGGREGATE_ADVISOR_REPORT_SECONDS";
+    /** Aggregate tables advised per report. Default 5. */
+    public static final String ENV_AGGREGATE_ADVISOR_MAX_TABLES = "DAANSE_AGGREGATE_ADVISOR_MAX_TABLES";
+    /** Directory the report is written to as DDL and mapping additions; unset logs it. */
+    public static final String ENV_AGGREGATE_ADVISOR_DIR = "DAANSE_AGGREGATE_ADVISOR_DIR";
+    /**
+     * Creates the advised tables on the database of the context and creates
+     * them again with every report. Needs a writable pool; not with
+     * {@link #ENV_JDBC_REPLICAS}.
+     */
+    public static final String ENV_AGGREGATE_MATERIALIZE = "DAANSE_AGGREGATE_MATERIALIZE";
 
     public static final String ENV_CATALOG_RESOURCE = "DAANSE_CATALOG_RESOURCE";
     public static final String ENV_CATALOG_ADDITIONAL_GLOBS = "DAANSE_CATALOG_ADDITIONAL_GLOBS";
@@ -89,9 +243,37 @@ public final class ServerConstants {
     public static final String ENV_CORS_ALLOWED_ORIGINS = "DAANSE_CORS_ALLOWED_ORIGINS";
     public static final String ENV_CORS_ALLOWED_HEADERS = "DAANSE_CORS_ALLOWED_HEADERS";
     public static final String ENV_CORS_ALLOW_CREDENTIALS = "DAANSE_CORS_ALLOW_CREDENTIALS";
+    /**
+     * Compression of responses for clients that send {@code Accept-Encoding},
+     * and inflation of compressed request bodies. On by default.
+     */
+    public static final String ENV_HTTP_COMPRESSION_ENABLED = "DAANSE_HTTP_COMPRESSION_ENABLED";
+    public static final String ENV_HTTP_COMPRESSION_MIN_SIZE = "DAANSE_HTTP_COMPRESSION_MIN_SIZE";
+    public static final String ENV_HTTP_COMPRESSION_LEVEL = "DAANSE_HTTP_COMPRESSION_LEVEL";
+    public static final String ENV_HTTP_COMPRESSION_ENCODINGS = "DAANSE_HTTP_COMPRESSION_ENCODINGS";
+    public static final String ENV_HTTP_COMPRESSION_REQUESTS = "DAANSE_HTTP_COMPRESSION_REQUESTS";
+    public static final String ENV_HTTP_COMPRESSION_MAX_REQUEST_MB = "DAANSE_HTTP_COMPRESSION_MAX_REQUEST_MB";
+    /**
+     * Cache of serialized XMLA responses to MDX queries, shared by the requests
+     * with the same credentials, statement and properties. Off by default.
+     */
+    public static final String ENV_RESULT_CACHE_ENABLED = "DAANSE_RESULT_CACHE_ENABLED";
+    public static final String ENV_RESULT_CACHE_TTL_SECONDS = "DAANSE_RESULT_CACHE_TTL_SECONDS";
+    /** Time the answer to a request with credentials is served, e.g. after the password is revoked. */
+    public static final String ENV_RESULT_CACHE_CREDENTIAL_TTL_SECONDS = "DAANSE_RESULT_CACHE_CREDENTIAL_TTL_SECONDS";
+    /** Bound of the cached responses together, in MiB. */
+    public static final String ENV_RESULT_CACHE_MAX_MB = "DAANSE_RESULT_CACHE_MAX_MB";
+    /** Responses above this many KiB are not cached. */
+    public static final String ENV_RESULT_CACHE_MAX_ENTRY_KB = "DAANSE_RESULT_CACHE_MAX_ENTRY_KB";
+    /** The {@code /metrics} servlet and the XMLA request timing behind it. On by default. */
+    public static final String ENV_METRICS_ENABLED = "DAANSE_METRICS_ENABLED";
+    public static final String ENV_METRICS_PATH = "DAANSE_METRICS_PATH";
 
     public static final String DEFAULT_CATALOG_RESOURCE = "/app/catalog/catalog.xmi";
+    /** Catalog of a context of {@link #ENV_CONTEXTS}, {@code %s} is the context id. */
+    public static final String DEFAULT_CONTEXT_CATALOG_RESOURCE = "/app/catalog/%s/catalog.xmi";
     public static final String DEFAULT_CONTEXT_NAME = "daanse";
     public static final String DEFAULT_CONTEXT_DESCRIPTION = "Daanse XMLA Server";
     public static final String DEFAULT_XMLA_PATH = "/xmla";
+    public static final String DEFAULT_METRICS_PATH = "/metrics";
 }
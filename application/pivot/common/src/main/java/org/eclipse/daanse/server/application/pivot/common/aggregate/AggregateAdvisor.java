@@ -0,0 +1,312 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.aggregate.QueryRecorder.Observed;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Advises the aggregate tables that would have saved the most database time
+ * on the queries the {@link QueryRecorder} recorded for a context. Every
+ * {@value #PROP_REPORT_SECONDS} seconds the recorded shapes are ranked by
+ * {@link AggregateCandidate#rank}, and the best are reported with their
+ * {@code CREATE TABLE ... AS SELECT} and the mapping additions that let the
+ * engine use them once {@code useAggregates} is on.
+ * <p>
+ * The report is written to {@code aggregates.sql} and
+ * {@code aggregates-mapping.xml} in the {@value #PROP_DIRECTORY} - suffixed
+ * by the context id for the contexts of {@code DAANSE_CONTEXTS} - or logged if
+ * none is configured. With {@value #PROP_MATERIALIZE} the advised tables are
+ * also created on the database of the context, and created again with every
+ * report, so they follow the data at the pace of the reports.
+ */
+@Component(configurationPid = AggregateAdvisor.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = {})
+@Designate(ocd = AggregateAdvisor.Config.class, factory = true)
+public class AggregateAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregateAdvisor.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.aggregate.AggregateAdvisor";
+
+    /** The recorder standing in for the pool of the context, targeted by the configuration. */
+    public static final String REF_RECORDER = "recorder";
+    /** The context whose catalog names the levels and measures, targeted by the configuration. */
+    public static final String REF_CONTEXT = "context";
+    /** The id of the {@link EnvContext}. */
+    public static final String PROP_CONTEXT_ID = "contextId";
+    public static final String PROP_REPORT_SECONDS = "reportSeconds";
+    public static final String PROP_MAX_CANDIDATES = "maxCandidates";
+    /** Directory the report is written to; unset logs it. */
+    public static final String PROP_DIRECTORY = "directory";
+    /** Whether the advised tables are created on the database. */
+    public static final String PROP_MATERIALIZE = "materialize";
+
+    public static final int DEFAULT_REPORT_SECONDS = 3600;
+    public static final int DEFAULT_MAX_CANDIDATES = 5;
+
+    @ObjectClassDefinition(name = "Daanse Aggregate Advisor")
+    public @interface Config {
+
+        @AttributeDefinition(description = "The id of the context, empty for the default")
+        String contextId() default "";
+
+        @AttributeDefinition(description = "Seconds between two reports")
+        long reportSeconds() default DEFAULT_REPORT_SECONDS;
+
+        @AttributeDefinition(description = "Aggregate tables advised per report")
+        int maxCandidates() default DEFAULT_MAX_CANDIDATES;
+
+        @AttributeDefinition(description = "Directory the report is written to, empty logs it")
+        String directory() default "";
+
+        @AttributeDefinition(description = "Whether the advised tables are created on the database")
+        boolean materialize() default false;
+    }
+
+    @Reference(name = REF_RECORDER)
+    QueryRecorder recorder;
+
+    @Reference(name = REF_CONTEXT)
+    Context<?> context;
+
+    /** Rows of the materialized tables, by table name. */
+    private final Map<String, Long> materializedRows = new ConcurrentHashMap<>();
+    private EnvContext envContext;
+    private long reportSeconds;
+    private int maxCandidates;
+    private Path directory;
+    private boolean materialize;
+    private ScheduledExecutorService scheduler;
+
+    @Activate
+    public void activate(Config config) {
+        envContext = new EnvContext(config.contextId());
+        reportSeconds = Math.max(1, config.reportSeconds());
+        maxCandidates = Math.max(1, config.maxCandidates());
+        directory = config.directory().isBlank() ? null : Path.of(config.directory().trim());
+        materialize = config.materialize();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r,
+                    "daanse-aggregate-advisor" + (envContext.isDefault() ? "" : "-" + envContext.id()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reportQuietly, reportSeconds, reportSeconds, TimeUnit.SECONDS);
+        logger.info("Advising aggregate tables{} every {} s to {}{}", envContext.label(), reportSeconds,
+                directory != null ? directory : "the log", materialize ? ", materializing them" : "");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        scheduler.shutdownNow();
+    }
+
+    private void reportQuietly() {
+        try {
+            report();
+        } catch (RuntimeException e) {
+            logger.warn("Aggregate advice{} failed, trying again next interval", envContext.label(), e);
+        }
+    }
+
+    void report() {
+        List<Observed> observed = recorder.observed();
+        if (observed.isEmpty()) {
+            logger.info("No fact table queries{} recorded yet, no aggregate tables to advise", envContext.label());
+            return;
+        }
+        List<AggregateCandidate> candidates = AggregateCandidate.rank(observed, factRows(observed),
+                materializedRows, maxCandidates);
+        CatalogNames names;
+        try {
+            names = CatalogNames.of(context);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot read the levels and measures{}, mapping additions left incomplete: {}",
+                    envContext.label(), e.toString());
+            names = CatalogNames.NONE;
+        }
+        String header = "Aggregate tables advised" + envContext.label() + " at " + Instant.now() + " from "
+                + recorder.getRecordedCount() + " recorded queries, " + recorder.getUnparsedCount()
+                + " not of a fact table, " + recorder.getDroppedCount() + " dropped";
+        String sql = sql(header, candidates);
+        String mapping = mapping(header, candidates, names);
+        if (directory == null) {
+            logger.info("{}\n{}", sql, mapping);
+        } else {
+            String suffix = envContext.isDefault() ? "" : "-" + envContext.id();
+            try {
+                write(directory.resolve("aggregates" + suffix + ".sql"), sql);
+                write(directory.resolve("aggregates-mapping" + suffix + ".xml"), mapping);
+                logger.info("Advised {} aggregate tables{} in {}", candidates.size(), envContext.label(), directory);
+            } catch (IOException e) {
+                logger.warn("Cannot write the aggregate advice{} to {}: {}", envContext.label(), directory,
+                        e.toString());
+            }
+        }
+        if (materialize) {
+            candidates.forEach(this::materialize);
+        }
+    }
+
+    /** The rows of the fact tables of the shapes; a table that cannot be counted is left out. */
+    private Map<String, Long> factRows(List<Observed> observed) {
+        Map<String, Long> rows = new HashMap<>();
+        for (Observed o : observed) {
+            QueryShape shape = o.shape();
+            if (!shape.additive() || rows.containsKey(shape.factTable())) {
+                continue;
+            }
+            count(shape.quotedTable(shape.factTable())).ifPresent(n -> rows.put(shape.factTable(), n));
+        }
+        return rows;
+    }
+
+    private Optional<Long> count(String quotedTable) {
+        try (Connection connection = recorder.unrecorded(); Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + quotedTable)) {
+            return resultSet.next() ? Optional.of(resultSet.getLong(1)) : Optional.empty();
+        } catch (SQLException e) {
+            logger.warn("Cannot count the rows of {}{}: {}", quotedTable, envContext.label(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Creates the table under a staging name and swaps it in for the table of
+     * the last report, so the old one serves until the new one is complete.
+     * Where the database runs DDL in transactions the drop and the rename are
+     * one, so no query sees the table missing; elsewhere they run one after
+     * the other and a query in between fails.
+     */
+    private void materialize(AggregateCandidate candidate) {
+        QueryShape shape = candidate.shape();
+        String table = shape.quotedTable(candidate.qualifiedTable(candidate.table()));
+        String staging = shape.quotedTable(candidate.qualifiedTable(candidate.table() + "_new"));
+        long start = System.nanoTime();
+        try (Connection connection = recorder.unrecorded(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + staging);
+            statement.execute(candidate.createSql(candidate.table() + "_new"));
+            swap(connection, statement, "DROP TABLE IF EXISTS " + table,
+                    "ALTER TABLE " + staging + " RENAME TO " + shape.quoted(candidate.table()));
+            try (ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + table)) {
+                if (resultSet.next()) {
+                    materializedRows.put(candidate.table(), resultSet.getLong(1));
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            logger.info("Materialized aggregate table {}{} with {} rows in {} ms", candidate.table(),
+                    envContext.label(), materializedRows.get(candidate.table()),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (SQLException e) {
+            logger.warn("Cannot materialize aggregate table {}{}: {}", candidate.table(), envContext.label(),
+                    e.getMessage());
+        }
+    }
+
+    /** Runs the statements in one transaction where the database supports DDL in transactions. */
+    static void swap(Connection connection, Statement statement, String... sqls) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        if (!connection.getMetaData().supportsDataDefinitionAndDataManipulationTransactions()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+            return;
+        }
+        connection.setAutoCommit(false);
+        try {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    static String sql(String header, List<AggregateCandidate> candidates) {
+        StringBuilder sql = new StringBuilder("-- ").append(header).append('\n');
+        if (candidates.isEmpty()) {
+            sql.append("-- none would save time on the queries recorded so far\n");
+        }
+        int rank = 0;
+        for (AggregateCandidate candidate : candidates) {
+            sql.append("\n-- ").append(++rank).append(". ").append(candidate.table()).append(": answers ")
+                    .append(candidate.statements()).append(" queries that took ").append(seconds(candidate.nanos()))
+                    .append(" s, an estimated ").append(seconds(candidate.savedNanos())).append(" s less\n")
+                    .append("--    ").append(candidate.rows()).append(" rows for ")
+                    .append(candidate.factRows()).append(" rows of ").append(candidate.shape().factTable())
+                    .append('\n').append(candidate.createSql(candidate.table())).append(";\n");
+        }
+        return sql.toString();
+    }
+
+    static String mapping(String header, List<AggregateCandidate> candidates, CatalogNames names) {
+        StringBuilder xml = new StringBuilder("<!-- ").append(header).append(" -->\n");
+        int rank = 0;
+        for (AggregateCandidate candidate : candidates) {
+            xml.append("\n<!-- ").append(++rank).append(". ").append(candidate.table()).append(" -->\n")
+                    .append(candidate.mapping(names));
+        }
+        return xml.toString();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e9);
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, text);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
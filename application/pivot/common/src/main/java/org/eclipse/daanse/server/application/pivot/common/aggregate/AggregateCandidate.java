@@ -0,0 +1,302 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.daanse.server.application.pivot.common.aggregate.QueryRecorder.Observed;
+
+/**
+ * An aggregate table the {@link AggregateAdvisor} proposes: the columns of one
+ * recorded shape, grouped, with the measures of every recorded shape it can
+ * answer - those of the same fact table whose columns it holds.
+ *
+ * @param table      the name of the table, {@code agg_<hash of the columns>_<fact table>}
+ * @param shape      the columns, measures, tables and joins of the table
+ * @param rows       its rows - the most a query it answers returned, so a lower
+ *                   bound - or the rows it had when last materialized
+ * @param factRows   the rows of the fact table
+ * @param statements the recorded queries it answers
+ * @param nanos      their recorded time
+ * @param savedNanos the part of that time it saves, estimated by the share of
+ *                   rows read no more, after the candidates ranked before it
+ */
+record AggregateCandidate(String table, QueryShape shape, long rows, long factRows, long statements, long nanos,
+        long savedNanos) {
+
+    static final String FACT_COUNT_COLUMN = "fact_count";
+
+    /**
+     * Greedily picks up to {@code max} candidates, each the one saving the most
+     * time on top of those picked before it: a query is estimated to take time
+     * in proportion to the rows it reads - all of the fact table, or all of the
+     * smallest picked aggregate that answers it. Only additive shapes of fact
+     * tables with known rows count.
+     *
+     * @param factRows  rows by fact table
+     * @param knownRows rows by aggregate table, of the tables materialized
+     */
+    static List<AggregateCandidate> rank(List<Observed> observed, Map<String, Long> factRows,
+            Map<String, Long> knownRows, int max) {
+        List<Observed> eligible = observed.stream().filter(o -> o.shape().additive()
+                && !o.shape().columns().isEmpty() && factRows.getOrDefault(o.shape().factTable(), 0L) > 0).toList();
+        Map<String, QueryShape> columnSets = new LinkedHashMap<>();
+        for (Observed o : eligible) {
+            columnSets.putIfAbsent(o.shape().factTable() + " " + o.shape().columns(), o.shape());
+        }
+
+        Map<QueryShape, Double> readRatio = new HashMap<>();
+        List<AggregateCandidate> picked = new ArrayList<>();
+        while (picked.size() < max && !columnSets.isEmpty()) {
+            String bestKey = null;
+            double bestSaved = 0;
+            long bestRows = 0;
+            for (Map.Entry<String, QueryShape> columnSet : columnSets.entrySet()) {
+                QueryShape columns = columnSet.getValue();
+                List<Observed> covered = covered(columns, eligible);
+                long rows = rows(columns, covered, knownRows);
+                double ratio = Math.min(1.0, (double) rows / factRows.get(columns.factTable()));
+                double saved = 0;
+                for (Observed o : covered) {
+                    saved += o.nanos() * Math.max(0, readRatio.getOrDefault(o.shape(), 1.0) - ratio);
+                }
+                if (saved > bestSaved) {
+                    bestKey = columnSet.getKey();
+                    bestSaved = saved;
+                    bestRows = rows;
+                }
+            }
+            if (bestKey == null) {
+                break;
+            }
+            QueryShape columns = columnSets.remove(bestKey);
+            List<Observed> covered = covered(columns, eligible);
+            long fact = factRows.get(columns.factTable());
+            for (Observed o : covered) {
+                readRatio.merge(o.shape(), Math.min(1.0, (double) bestRows / fact), Math::min);
+            }
+            picked.add(candidate(columns, covered, bestRows, fact, (long) bestSaved));
+        }
+        return picked;
+    }
+
+    /** The shapes an aggregate of the given columns answers. */
+    private static List<Observed> covered(QueryShape columns, List<Observed> observed) {
+        List<Observed> covered = new ArrayList<>();
+        for (Observed o : observed) {
+            QueryShape shape = o.shape();
+            if (shape.factTable().equals(columns.factTable()) && shape.factAlias().equals(columns.factAlias())
+                    && columns.columns().containsAll(shape.columns()) && sameTables(shape, columns)) {
+                covered.add(o);
+            }
+        }
+        return covered;
+    }
+
+    private static boolean sameTables(QueryShape a, QueryShape b) {
+        for (Map.Entry<String, String> table : a.tables().entrySet()) {
+            String other = b.tables().get(table.getKey());
+            if (other != null && !other.equals(table.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long rows(QueryShape columns, List<Observed> covered, Map<String, Long> knownRows) {
+        Long known = knownRows.get(tableName(columns.factTable(), columns.columns()));
+        if (known != null) {
+            return Math.max(1, known);
+        }
+        long rows = 1;
+        for (Observed o : covered) {
+            rows = Math.max(rows, o.maxRows());
+        }
+        return rows;
+    }
+
+    private static AggregateCandidate candidate(QueryShape columns, List<Observed> covered, long rows, long factRows,
+            long savedNanos) {
+        Map<String, String> tables = new TreeMap<>(columns.tables());
+        Set<String> joins = new TreeSet<>(columns.joins());
+        Set<String> measures = new TreeSet<>();
+        measures.add(QueryShape.FACT_COUNT);
+        long statements = 0;
+        long nanos = 0;
+        for (Observed o : covered) {
+            o.shape().tables().forEach(tables::putIfAbsent);
+            joins.addAll(o.shape().joins());
+            measures.addAll(o.shape().measures());
+            statements += o.statements();
+            nanos += o.nanos();
+        }
+        QueryShape shape = new QueryShape(columns.quote(), columns.factAlias(), columns.factTable(),
+                new TreeMap<>(tables), new TreeSet<>(joins), new TreeSet<>(columns.columns()), new TreeSet<>(measures),
+                true);
+        return new AggregateCandidate(tableName(columns.factTable(), columns.columns()), shape, rows, factRows,
+                statements, nanos, savedNanos);
+    }
+
+    /** {@code agg_<hash>_<fact>}: the same columns keep the same name, so a materialized table is refreshed. */
+    static String tableName(String factTable, Set<String> columns) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join(",", columns).getBytes(StandardCharsets.UTF_8));
+            return "agg_" + HexFormat.of().formatHex(hash, 0, 4) + "_" + simpleName(factTable);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required algorithm", e);
+        }
+    }
+
+    /** The table in the schema of its fact table. */
+    String qualifiedTable(String name) {
+        String fact = shape.factTable();
+        int dot = fact.lastIndexOf('.');
+        return dot < 0 ? name : fact.substring(0, dot + 1) + name;
+    }
+
+    /** The columns of the table by the column or measure they hold, the fact count first. */
+    Map<String, String> columnNames() {
+        Map<String, String> names = new LinkedHashMap<>();
+        Set<String> used = new HashSet<>();
+        names.put(QueryShape.FACT_COUNT, unique(FACT_COUNT_COLUMN, used));
+        for (String column : shape.columns()) {
+            names.put(column, unique(QueryShape.nameOf(column), used));
+        }
+        for (String measure : shape.measures()) {
+            if (!QueryShape.FACT_COUNT.equals(measure)) {
+                String function = measure.substring(0, measure.indexOf('('));
+                String column = QueryShape.nameOf(measure);
+                names.put(measure, unique("sum".equals(function) ? column : function + "_" + column, used));
+            }
+        }
+        return names;
+    }
+
+    private static String unique(String name, Set<String> used) {
+        String unique = name;
+        for (int i = 2; !used.add(unique.toLowerCase(Locale.ROOT)); i++) {
+            unique = name + "_" + i;
+        }
+        return unique;
+    }
+
+    /** {@code CREATE TABLE name AS SELECT ...} in the quoting of the recorded queries. */
+    String createSql(String name) {
+        Map<String, String> names = columnNames();
+        List<String> select = new ArrayList<>();
+        for (Map.Entry<String, String> column : names.entrySet()) {
+            String key = column.getKey();
+            String expression;
+            if (QueryShape.FACT_COUNT.equals(key)) {
+                expression = "count(*)";
+            } else if (key.endsWith(")")) {
+                expression = key.substring(0, key.indexOf('(') + 1) + shape.quotedColumn(key) + ")";
+            } else {
+                expression = shape.quotedColumn(key);
+            }
+            select.add(expression + " AS " + shape.quoted(column.getValue()));
+        }
+        List<String> from = new ArrayList<>();
+        shape.tables().forEach((alias, table) -> from.add(shape.quotedTable(table) + " " + shape.quoted(alias)));
+        List<String> where = new ArrayList<>();
+        for (String join : shape.joins()) {
+            int eq = join.indexOf(" = ");
+            where.add(shape.quotedColumn(join.substring(0, eq)) + " = " + shape.quotedColumn(join.substring(eq + 3)));
+        }
+        List<String> groupBy = shape.columns().stream().map(shape::quotedColumn).toList();
+
+        StringBuilder sql = new StringBuilder("CREATE TABLE ").append(shape.quotedTable(qualifiedTable(name)))
+                .append(" AS\nSELECT\n    ").append(String.join(",\n    ", select))
+                .append("\nFROM ").append(String.join(", ", from));
+        if (!where.isEmpty()) {
+            sql.append("\nWHERE ").append(String.join("\n    AND ", where));
+        }
+        return sql.append("\nGROUP BY ").append(String.join(", ", groupBy)).toString();
+    }
+
+    /**
+     * The mapping additions for the table: the table with its columns for the
+     * {@code relational:Schema}, and the aggregation name with its fact count,
+     * measures and levels for the {@code TableSource} of the fact table. A
+     * column whose measure or level is not found in the catalog is left as a
+     * comment.
+     */
+    String mapping(CatalogNames names) {
+        Map<String, String> columns = columnNames();
+        String tableId = "_table_" + table;
+        StringBuilder xml = new StringBuilder();
+        xml.append("<!-- in the relational:Schema -->\n");
+        xml.append("<ownedElement xsi:type=\"relational:Table\" xmi:id=\"").append(tableId).append("\" name=\"")
+                .append(attribute(table)).append("\">\n");
+        for (String column : columns.values()) {
+            xml.append("  <feature xsi:type=\"relational:Column\" xmi:id=\"").append(columnId(column))
+                    .append("\" name=\"").append(attribute(column)).append("\"/>\n");
+        }
+        xml.append("</ownedElement>\n");
+        xml.append("<!-- in the TableSource of ").append(comment(shape.factTable())).append(" -->\n");
+        xml.append("<aggregationTables xsi:type=\"rolapagg:AggregationName\" xmi:id=\"_aggregationname_")
+                .append(table).append("\" name=\"").append(tableId).append("\">\n");
+        xml.append("  <aggregationFactCount xmi:id=\"_aggregationcolumnname_").append(table).append("\" column=\"")
+                .append(columnId(columns.get(QueryShape.FACT_COUNT))).append("\"/>\n");
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            String key = column.getKey();
+            if (QueryShape.FACT_COUNT.equals(key)) {
+                continue;
+            }
+            boolean measure = key.endsWith(")");
+            String uniqueName = measure ? names.measures().get(key) : names.levels().get(key);
+            if (uniqueName == null) {
+                xml.append("  <!-- no ").append(measure ? "stored measure of the catalog aggregates " : "level of the "
+                        + "catalog has the key column ").append(comment(key)).append(" -->\n");
+                continue;
+            }
+            xml.append(measure ? "  <aggregationMeasures xmi:id=\"_aggregationmeasure_"
+                    : "  <aggregationLevels xmi:id=\"_aggregationlevel_").append(table).append('_')
+                    .append(column.getValue()).append("\" name=\"").append(attribute(uniqueName))
+                    .append("\" column=\"").append(columnId(column.getValue()))
+                    .append(measure ? "\"/>\n" : "\" collapsed=\"true\"/>\n");
+        }
+        return xml.append("</aggregationTables>\n").toString();
+    }
+
+    private String columnId(String column) {
+        return "_column_" + table + "_" + column;
+    }
+
+    private static String simpleName(String table) {
+        return table.substring(table.lastIndexOf('.') + 1);
+    }
+
+    private static String attribute(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String comment(String value) {
+        return value.replace("--", "- -");
+    }
+}
@@ -0,0 +1,121 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.daanse.olap.api.CatalogReader;
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.api.element.Cube;
+import org.eclipse.daanse.olap.api.element.Dimension;
+import org.eclipse.daanse.olap.api.element.Hierarchy;
+import org.eclipse.daanse.olap.api.element.Level;
+import org.eclipse.daanse.olap.api.element.Member;
+
+/**
+ * The unique names of the levels and measures of a context by the columns the
+ * engine reads them from: levels by their key column {@code alias.column},
+ * measures as {@code sum(alias.column)}. The columns are not part of the OLAP
+ * API; they are read from the ROLAP implementation through its
+ * {@code getKeyExp}, {@code getExpression} and {@code getAggregator} methods,
+ * so an element whose column cannot be read is left out.
+ *
+ * @param levels   level unique names by key column
+ * @param measures measure unique names by aggregated column
+ */
+record CatalogNames(Map<String, String> levels, Map<String, String> measures) {
+
+    static final CatalogNames NONE = new CatalogNames(Map.of(), Map.of());
+
+    static CatalogNames of(Context<?> context) {
+        Map<String, String> levels = new HashMap<>();
+        Map<String, String> measures = new HashMap<>();
+        org.eclipse.daanse.olap.api.connection.Connection connection = context.getConnectionWithDefaultRole();
+        try {
+            CatalogReader catalogReader = connection.getCatalogReader();
+            for (Cube cube : catalogReader.getCubes()) {
+                for (Dimension dimension : cube.getDimensions()) {
+                    for (Hierarchy hierarchy : dimension.getHierarchies()) {
+                        if (dimension.isMeasures()) {
+                            for (Member measure : catalogReader.getHierarchyRootMembers(hierarchy)) {
+                                measureKey(measure).ifPresent(key -> measures.putIfAbsent(key,
+                                        measure.getUniqueName()));
+                            }
+                        } else {
+                            for (Level level : hierarchy.getLevels()) {
+                                columnOf(invoke(level, "getKeyExp")).ifPresent(column -> levels.putIfAbsent(column,
+                                        level.getUniqueName()));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            connection.close();
+        }
+        return new CatalogNames(Map.copyOf(levels), Map.copyOf(measures));
+    }
+
+    /** {@code sum(alias.column)} for a stored measure, empty for calculated ones. */
+    private static Optional<String> measureKey(Member measure) {
+        Object expression = invoke(measure, "getExpression");
+        if (expression == null) {
+            expression = invoke(measure, "getMondrianDefExpression");
+        }
+        Optional<String> column = columnOf(expression);
+        Object aggregator = invoke(measure, "getAggregator");
+        Object function = aggregator == null ? null : invoke(aggregator, "getName");
+        if (column.isEmpty() || !(function instanceof String name)) {
+            return Optional.empty();
+        }
+        return Optional.of(name.toLowerCase(Locale.ROOT) + "(" + column.get() + ")");
+    }
+
+    /** {@code alias.column} of a column expression. */
+    static Optional<String> columnOf(Object expression) {
+        if (expression == null) {
+            return Optional.empty();
+        }
+        Object table = invoke(expression, "getTable");
+        if (!(table instanceof String)) {
+            table = invoke(expression, "getTableAlias");
+        }
+        Object column = invoke(expression, "getName");
+        if (!(column instanceof String)) {
+            column = invoke(expression, "getColumnName");
+        }
+        if (table instanceof String alias && column instanceof String name && !alias.isEmpty() && !name.isEmpty()) {
+            return Optional.of(alias + "." + name);
+        }
+        return Optional.empty();
+    }
+
+    /** The result of the public no-argument method, {@code null} if there is none or it fails. */
+    private static Object invoke(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getMethod(methodName);
+            // the implementing class need not be public
+            method.trySetAccessible();
+            return method.invoke(target);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException
+                | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stands in for the pool of a context while the {@link AggregateAdvisor} is
+ * enabled: hands out the connections of the pool, recording the
+ * {@link QueryShape} of every query read through them with the time it took
+ * until its result was read or closed and the rows it returned.
+ * <p>
+ * Queries of {@code executeQuery} are recorded - those of
+ * {@code Statement.executeQuery(String)} and of prepared statements. At most
+ * {@value #DEFAULT_MAX_SHAPES} distinct shapes are kept unless configured
+ * otherwise; later ones are counted as dropped.
+ */
+@Component(configurationPid = QueryRecorder.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = { DataSource.class, QueryRecorder.class })
+@Designate(ocd = QueryRecorder.Config.class, factory = true)
+public class QueryRecorder implements DataSource {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(QueryRecorder.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.aggregate.QueryRecorder";
+
+    /** The pool of the context, targeted by the configuration. */
+    public static final String REF_POOL = "pool";
+    public static final String PROP_MAX_SHAPES = "maxShapes";
+
+    public static final int DEFAULT_MAX_SHAPES = 10_000;
+
+    @ObjectClassDefinition(name = "Daanse Query Recorder")
+    public @interface Config {
+
+        @AttributeDefinition(description = "Distinct query shapes kept")
+        int maxShapes() default DEFAULT_MAX_SHAPES;
+    }
+
+    /**
+     * What was recorded of a shape.
+     *
+     * @param statements the queries of the shape
+     * @param nanos      their total time, from execution until the result was
+     *                   read or closed
+     * @param maxRows    the most rows one of them returned
+     */
+    public record Observed(QueryShape shape, long statements, long nanos, long maxRows) {
+    }
+
+    private static final class Stats {
+        final LongAdder statements = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong maxRows = new AtomicLong();
+    }
+
+    private final Map<QueryShape, Stats> shapes = new ConcurrentHashMap<>();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder unparsed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Reference(name = REF_POOL)
+    private DataSource pool;
+
+    private int maxShapes = DEFAULT_MAX_SHAPES;
+
+    public QueryRecorder() {
+    }
+
+    QueryRecorder(DataSource pool, int maxShapes) {
+        this.pool = pool;
+        this.maxShapes = maxShapes;
+    }
+
+    @Activate
+    public void activate(Config config) {
+        maxShapes = config.maxShapes();
+        logger.info("Recording the queries of the pool for the aggregate advisor, up to {} shapes", maxShapes);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return RecordingConnection.wrap(this, pool.getConnection());
+    }
+
+    /** A connection of the pool whose queries are not recorded, for the advisor's own statements. */
+    Connection unrecorded() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /** Records a query that was read. */
+    void record(String sql, long nanos, long rows) {
+        recorded.increment();
+        QueryShape shape = QueryShape.parse(sql).orElse(null);
+        if (shape == null) {
+            unparsed.increment();
+            return;
+        }
+        Stats stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                dropped.increment();
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape, s -> new Stats());
+        }
+        stats.statements.increment();
+        stats.nanos.add(nanos);
+        stats.maxRows.accumulateAndGet(rows, Math::max);
+    }
+
+    /** What was recorded so far, by shape. */
+    public List<Observed> observed() {
+        List<Observed> observed = new ArrayList<>(shapes.size());
+        shapes.forEach((shape, stats) -> observed.add(new Observed(shape, stats.statements.sum(), stats.nanos.sum(),
+                stats.maxRows.get())));
+        return observed;
+    }
+
+    /** Queries recorded, including those that are not the shape of a fact table query. */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /** Queries that are not the shape of a fact table query. */
+    public long getUnparsedCount() {
+        return unparsed.sum();
+    }
+
+    /** Queries whose shape was not kept, as {@value #PROP_MAX_SHAPES} were reached. */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /** Not supported - the credentials are those of the pool. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool connects with the credentials it is configured with");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // the pool logs
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        // the pool times out
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
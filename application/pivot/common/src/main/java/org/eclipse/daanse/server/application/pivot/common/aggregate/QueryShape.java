@@ -0,0 +1,425 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * What an aggregate table must hold to answer a statement the engine sends
+ * to the database: the fact table, the columns it groups or filters by, and
+ * the aggregated measures - with the tables and join conditions that lead
+ * from the fact table to those columns.
+ * <p>
+ * Understood are the statements the engine writes for segments and member
+ * counts: {@code SELECT ... FROM} a comma separated list of tables,
+ * {@code WHERE} join conditions and filters joined by {@code AND}, and
+ * {@code GROUP BY} columns or grouping sets. Columns are {@code alias.column};
+ * measures {@code sum}, {@code count}, {@code min}, {@code max} of a column,
+ * {@code count(*)}, or - not additive, so no aggregate answers them -
+ * {@code avg} and {@code count(distinct ...)}. Anything else is not a shape.
+ *
+ * @param quote    the character the statement quotes identifiers with, or
+ *                 {@code 0}; {@code [} for brackets
+ * @param tables   the tables by alias
+ * @param joins    the join conditions, {@code a.x = b.y}
+ * @param columns  the columns grouped or filtered by, {@code alias.column}
+ * @param measures the aggregated measures, {@code sum(alias.column)}
+ * @param additive whether the measures can be rolled up from an aggregate
+ */
+record QueryShape(char quote, String factAlias, String factTable, SortedMap<String, String> tables,
+        SortedSet<String> joins, SortedSet<String> columns, SortedSet<String> measures, boolean additive) {
+
+    static final String FACT_COUNT = "count(*)";
+
+    private static final Set<String> ADDITIVE = Set.of("sum", "count", "min", "max");
+    private static final Set<String> CLAUSE_ENDS = Set.of("having", "order", "limit", "offset", "fetch");
+    private static final Set<String> UNSUPPORTED = Set.of("join", "union", "intersect", "except", "select");
+
+    QueryShape {
+        tables = Collections.unmodifiableSortedMap(new TreeMap<>(tables));
+        joins = Collections.unmodifiableSortedSet(new TreeSet<>(joins));
+        columns = Collections.unmodifiableSortedSet(new TreeSet<>(columns));
+        measures = Collections.unmodifiableSortedSet(new TreeSet<>(measures));
+    }
+
+    /** The alias of a column of {@link #columns()} or a measure, {@code a} of {@code sum(a.x)}. */
+    static String aliasOf(String column) {
+        String inner = columnOf(column);
+        int dot = inner.indexOf('.');
+        return dot < 0 ? "" : inner.substring(0, dot);
+    }
+
+    /** The column name of a column of {@link #columns()} or a measure, {@code x} of {@code sum(a.x)}. */
+    static String nameOf(String column) {
+        String inner = columnOf(column);
+        return inner.substring(inner.indexOf('.') + 1);
+    }
+
+    /** {@code a.x} of {@code a.x}, {@code sum(a.x)} and {@code count(distinct a.x)}. */
+    private static String columnOf(String columnOrMeasure) {
+        if (!columnOrMeasure.endsWith(")")) {
+            return columnOrMeasure;
+        }
+        String inner = columnOrMeasure.substring(columnOrMeasure.indexOf('(') + 1, columnOrMeasure.length() - 1);
+        return inner.startsWith("distinct ") ? inner.substring("distinct ".length()) : inner;
+    }
+
+    /** The identifier quoted as in the statement. */
+    String quoted(String identifier) {
+        return switch (quote) {
+        case 0 -> identifier;
+        case '[' -> "[" + identifier + "]";
+        default -> quote + identifier + quote;
+        };
+    }
+
+    /** The table name, optionally qualified by a schema, quoted part by part. */
+    String quotedTable(String table) {
+        List<String> parts = new ArrayList<>();
+        for (String part : table.split("\\.")) {
+            parts.add(quoted(part));
+        }
+        return String.join(".", parts);
+    }
+
+    /** {@code "a"."x"} for {@code a.x}. */
+    String quotedColumn(String column) {
+        return quoted(aliasOf(column)) + "." + quoted(nameOf(column));
+    }
+
+    /** The shape of the statement, empty if it is not one the engine writes for a fact table. */
+    static Optional<QueryShape> parse(String sql) {
+        List<Token> tokens = Token.tokenize(sql);
+        if (tokens == null || tokens.isEmpty() || !tokens.get(0).is("select")) {
+            return Optional.empty();
+        }
+        int from = -1;
+        int where = -1;
+        int groupBy = -1;
+        int end = tokens.size();
+        int depth = 0;
+        for (int i = 1; i < tokens.size() && end == tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")")) {
+                depth--;
+            } else if (UNSUPPORTED.contains(token.word())) {
+                return Optional.empty();
+            } else if (depth == 0 && token.is("from") && from < 0) {
+                from = i;
+            } else if (depth == 0 && token.is("where") && where < 0) {
+                where = i;
+            } else if (depth == 0 && token.is("group") && i + 1 < tokens.size() && tokens.get(i + 1).is("by")) {
+                groupBy = i;
+            } else if (depth == 0 && CLAUSE_ENDS.contains(token.word())) {
+                end = i;
+            }
+        }
+        if (from < 0 || where >= 0 && where < from || groupBy >= 0 && groupBy < Math.max(from, where)) {
+            return Optional.empty();
+        }
+        int fromEnd = where >= 0 ? where : groupBy >= 0 ? groupBy : end;
+        int whereEnd = groupBy >= 0 ? groupBy : end;
+
+        char quote = 0;
+        for (Token token : tokens) {
+            if (token.quote() != 0) {
+                quote = token.quote();
+                break;
+            }
+        }
+
+        Map<String, String> tables = new TreeMap<>();
+        for (List<Token> item : split(tokens.subList(from + 1, fromEnd), ",")) {
+            if (!table(item, tables)) {
+                return Optional.empty();
+            }
+        }
+
+        Set<String> columns = new TreeSet<>();
+        Set<String> measures = new TreeSet<>();
+        boolean additive = true;
+        for (List<Token> item : split(tokens.subList(1, from), ",")) {
+            List<Token> expression = withoutAlias(item);
+            String column = column(expression);
+            if (column != null) {
+                columns.add(column);
+                continue;
+            }
+            if (expression.size() < 3 || !expression.get(1).is("(") || !expression.get(expression.size() - 1).is(")")) {
+                return Optional.empty();
+            }
+            String function = expression.get(0).word();
+            List<Token> argument = expression.subList(2, expression.size() - 1);
+            if ("grouping".equals(function)) {
+                continue;
+            }
+            boolean distinct = !argument.isEmpty() && argument.get(0).is("distinct");
+            if (distinct) {
+                argument = argument.subList(1, argument.size());
+            }
+            String argumentColumn = column(argument);
+            if ("count".equals(function) && argument.size() == 1 && argument.get(0).is("*")) {
+                measures.add(FACT_COUNT);
+            } else if (argumentColumn != null && (ADDITIVE.contains(function) || "avg".equals(function))) {
+                measures.add((distinct ? function + "(distinct " : function + "(") + argumentColumn + ")");
+                additive &= !distinct && ADDITIVE.contains(function);
+            } else {
+                return Optional.empty();
+            }
+        }
+        if (measures.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<String> joins = new TreeSet<>();
+        if (where >= 0) {
+            for (List<Token> predicate : split(tokens.subList(where + 1, whereEnd), "and")) {
+                List<Token> p = unwrap(predicate);
+                int eq = p.indexOf(Token.symbol("="));
+                String left = eq > 0 ? column(p.subList(0, eq)) : null;
+                String right = eq > 0 ? column(p.subList(eq + 1, p.size())) : null;
+                if (left != null && right != null && !aliasOf(left).equals(aliasOf(right))) {
+                    joins.add(left.compareTo(right) < 0 ? left + " = " + right : right + " = " + left);
+                } else {
+                    columns.addAll(columnsIn(p));
+                }
+            }
+        }
+        if (groupBy >= 0) {
+            List<Token> grouping = tokens.subList(groupBy + 2, end);
+            if (!grouping.isEmpty() && (grouping.get(0).is("grouping") || grouping.get(0).is("rollup")
+                    || grouping.get(0).is("cube"))) {
+                columns.addAll(columnsIn(grouping));
+            } else {
+                for (List<Token> item : split(grouping, ",")) {
+                    String column = column(unwrap(item));
+                    if (column == null) {
+                        return Optional.empty();
+                    }
+                    columns.add(column);
+                }
+            }
+        }
+
+        Set<String> factAliases = new TreeSet<>();
+        for (String measure : measures) {
+            if (!FACT_COUNT.equals(measure)) {
+                factAliases.add(aliasOf(measure));
+            }
+        }
+        if (factAliases.isEmpty() && tables.size() == 1) {
+            factAliases.addAll(tables.keySet());
+        }
+        if (factAliases.size() != 1 || !tables.containsKey(factAliases.iterator().next())) {
+            return Optional.empty();
+        }
+        String factAlias = factAliases.iterator().next();
+        for (String column : columns) {
+            if (!tables.containsKey(aliasOf(column))) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new QueryShape(quote, factAlias, tables.get(factAlias), new TreeMap<>(tables),
+                new TreeSet<>(joins), new TreeSet<>(columns), new TreeSet<>(measures), additive));
+    }
+
+    /** {@code table}, {@code table alias}, {@code table AS alias}, the table optionally qualified by a schema. */
+    private static boolean table(List<Token> item, Map<String, String> tables) {
+        List<Token> name = withoutAlias(item);
+        StringBuilder table = new StringBuilder();
+        for (int i = 0; i < name.size(); i++) {
+            Token token = name.get(i);
+            if (i % 2 == 0 ? !token.isName() : !token.is(".")) {
+                return false;
+            }
+            table.append(i % 2 == 0 ? token.name() : ".");
+        }
+        if (name.isEmpty() || name.size() % 2 == 0) {
+            return false;
+        }
+        String alias = name.size() < item.size() ? item.get(item.size() - 1).name() : name.get(name.size() - 1).name();
+        tables.put(alias, table.toString());
+        return true;
+    }
+
+    /** The item without a trailing {@code AS alias} or {@code alias}. */
+    private static List<Token> withoutAlias(List<Token> item) {
+        int n = item.size();
+        if (n >= 3 && item.get(n - 2).is("as") && item.get(n - 1).isName()) {
+            return item.subList(0, n - 2);
+        }
+        if (n >= 2 && item.get(n - 1).isName() && !item.get(n - 2).is(".") && !item.get(n - 2).is("(")) {
+            return item.subList(0, n - 1);
+        }
+        return item;
+    }
+
+    /** {@code alias.column} if the tokens are just that, else {@code null}. */
+    private static String column(List<Token> tokens) {
+        if (tokens.size() == 3 && tokens.get(0).isName() && tokens.get(1).is(".") && tokens.get(2).isName()) {
+            return tokens.get(0).name() + "." + tokens.get(2).name();
+        }
+        return null;
+    }
+
+    private static List<String> columnsIn(List<Token> tokens) {
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i + 2 < tokens.size(); i++) {
+            String column = column(tokens.subList(i, i + 3));
+            if (column != null && (i + 3 == tokens.size() || !tokens.get(i + 3).is("."))) {
+                columns.add(column);
+                i += 2;
+            }
+        }
+        return columns;
+    }
+
+    /** Without the parentheses around all of it. */
+    private static List<Token> unwrap(List<Token> tokens) {
+        List<Token> inner = tokens;
+        while (inner.size() >= 2 && inner.get(0).is("(") && inner.get(inner.size() - 1).is(")")
+                && closingOf(inner, 0) == inner.size() - 1) {
+            inner = inner.subList(1, inner.size() - 1);
+        }
+        return inner;
+    }
+
+    private static int closingOf(List<Token> tokens, int open) {
+        int depth = 0;
+        for (int i = open; i < tokens.size(); i++) {
+            if (tokens.get(i).is("(")) {
+                depth++;
+            } else if (tokens.get(i).is(")") && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Splits at the separator outside of parentheses. */
+    private static List<List<Token>> split(List<Token> tokens, String separator) {
+        List<List<Token>> items = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")")) {
+                depth--;
+            } else if (depth == 0 && token.is(separator)) {
+                items.add(tokens.subList(start, i));
+                start = i + 1;
+            }
+        }
+        items.add(tokens.subList(start, tokens.size()));
+        items.removeIf(List::isEmpty);
+        return items;
+    }
+
+    /**
+     * A token of a statement: a name, quoted or not, a literal or a symbol.
+     *
+     * @param text  the name without its quotes, the literal or the symbol
+     * @param quote the quote of a quoted name, else {@code 0}
+     */
+    record Token(String text, char quote, boolean literal) {
+
+        static Token symbol(String text) {
+            return new Token(text, (char) 0, false);
+        }
+
+        boolean isName() {
+            return !literal && (quote != 0 || Character.isLetter(text.charAt(0)) || text.charAt(0) == '_');
+        }
+
+        String name() {
+            return text;
+        }
+
+        /** The unquoted name in lower case, for keywords; empty for anything else. */
+        String word() {
+            return quote == 0 && !literal && isName() ? text.toLowerCase(Locale.ROOT) : "";
+        }
+
+        boolean is(String wordOrSymbol) {
+            return quote == 0 && !literal && text.equalsIgnoreCase(wordOrSymbol);
+        }
+
+        /** The tokens of the statement, {@code null} if it cannot be split into tokens. */
+        static List<Token> tokenize(String sql) {
+            List<Token> tokens = new ArrayList<>();
+            int i = 0;
+            int n = sql.length();
+            while (i < n) {
+                char c = sql.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '"' || c == '`' || c == '[') {
+                    char close = c == '[' ? ']' : c;
+                    int endQuote = sql.indexOf(close, i + 1);
+                    if (endQuote < 0) {
+                        return null;
+                    }
+                    tokens.add(new Token(sql.substring(i + 1, endQuote), c, false));
+                    i = endQuote + 1;
+                } else if (c == '\'') {
+                    int j = i + 1;
+                    while (j < n && (sql.charAt(j) != '\'' || j + 1 < n && sql.charAt(j + 1) == '\'')) {
+                        j += sql.charAt(j) == '\'' ? 2 : 1;
+                    }
+                    if (j >= n) {
+                        return null;
+                    }
+                    tokens.add(new Token(sql.substring(i, j + 1), (char) 0, true));
+                    i = j + 1;
+                } else if (Character.isLetter(c) || c == '_') {
+                    int j = i;
+                    while (j < n && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '_'
+                            || sql.charAt(j) == '$')) {
+                        j++;
+                    }
+                    tokens.add(new Token(sql.substring(i, j), (char) 0, false));
+                    i = j;
+                } else if (Character.isDigit(c)) {
+                    int j = i;
+                    while (j < n && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '.')) {
+                        j++;
+                    }
+                    tokens.add(new Token(sql.substring(i, j), (char) 0, true));
+                    i = j;
+                } else if ("<>!".indexOf(c) >= 0 && i + 1 < n && "=>".indexOf(sql.charAt(i + 1)) >= 0) {
+                    tokens.add(symbol(sql.substring(i, i + 2)));
+                    i += 2;
+                } else {
+                    tokens.add(symbol(String.valueOf(c)));
+                    i++;
+                }
+            }
+            return tokens;
+        }
+    }
+}
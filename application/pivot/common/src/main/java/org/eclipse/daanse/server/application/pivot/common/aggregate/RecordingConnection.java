@@ -0,0 +1,176 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * A connection handed out by the {@link QueryRecorder}: the results of its
+ * queries report their SQL, time and rows to the recorder once they are read
+ * to the end or closed.
+ */
+final class RecordingConnection implements InvocationHandler {
+
+    private final QueryRecorder recorder;
+    private final Connection connection;
+
+    private RecordingConnection(QueryRecorder recorder, Connection connection) {
+        this.recorder = recorder;
+        this.connection = connection;
+    }
+
+    static Connection wrap(QueryRecorder recorder, Connection connection) {
+        return proxy(Connection.class, new RecordingConnection(recorder, connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+        case "equals" -> {
+            return proxy == args[0];
+        }
+        case "hashCode" -> {
+            return System.identityHashCode(proxy);
+        }
+        case "toString" -> {
+            return "recorded: " + connection;
+        }
+        default -> {
+            Object result = call(connection, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement and prepareCall take the SQL first, createStatement none
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return proxy(method.getReturnType(), new RecordingStatement((Connection) proxy, statement, sql));
+            }
+            return result;
+        }
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(RecordingConnection.class.getClassLoader(), new Class<?>[] { type },
+                handler));
+    }
+
+    /** A statement of the connection; {@code sql} is that of a prepared statement. */
+    private final class RecordingStatement implements InvocationHandler {
+
+        private final Connection recording;
+        private final Statement statement;
+        private final String sql;
+
+        RecordingStatement(Connection recording, Statement statement, String sql) {
+            this.recording = recording;
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "getConnection" -> {
+                return recording;
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "executeQuery" -> {
+                String query = args != null && args.length == 1 && args[0] instanceof String s ? s : sql;
+                long start = System.nanoTime();
+                ResultSet resultSet = (ResultSet) call(statement, method, args);
+                if (query == null || resultSet == null) {
+                    return resultSet;
+                }
+                return proxy(ResultSet.class, new RecordingResultSet((Statement) proxy, resultSet, query, start));
+            }
+            default -> {
+                return call(statement, method, args);
+            }
+            }
+        }
+    }
+
+    /** The result of a query, recorded when read to the end or closed. */
+    private final class RecordingResultSet implements InvocationHandler {
+
+        private final Statement recording;
+        private final ResultSet resultSet;
+        private final String sql;
+        private final long start;
+        private long rows;
+        private boolean recorded;
+
+        RecordingResultSet(Statement recording, ResultSet resultSet, String sql, long start) {
+            this.recording = recording;
+            this.resultSet = resultSet;
+            this.sql = sql;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "next" -> {
+                Object next = call(resultSet, method, args);
+                if (Boolean.TRUE.equals(next)) {
+                    rows++;
+                } else {
+                    record();
+                }
+                return next;
+            }
+            case "close" -> {
+                record();
+                return call(resultSet, method, args);
+            }
+            case "getStatement" -> {
+                return recording;
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+                return call(resultSet, method, args);
+            }
+            }
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                recorder.record(sql, System.nanoTime() - start, rows);
+            }
+        }
+    }
+}
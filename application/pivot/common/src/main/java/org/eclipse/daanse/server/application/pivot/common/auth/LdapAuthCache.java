@@ -0,0 +1,612 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.auth;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.HexFormat;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.wiring.BundleWiring;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Caches the results of the LDAP credential store and role provider, so
+ * repeated requests of the same user skip the bind and the group search.
+ * Optionally role lookups are answered from an {@link LdapGroupDirectory}
+ * snapshot of all groups instead.
+ *
+ * <p>
+ * Each service marked with {@value ServerConstants#PROP_AUTH_CACHED} gets a
+ * decorator, registered under the same interfaces and properties with
+ * {@value #FACADE_RANKING} as ranking and
+ * {@value ServerConstants#PROP_AUTH_FACADE}; the configurator ranks the LDAP
+ * services themselves {@value #DELEGATE_RANKING} and targets the authenticator
+ * at the decorators, so it never binds an LDAP service before its decorator is
+ * registered. The store API is not on the class path of this bundle, so the
+ * decorator is a proxy that caches the two lookups of {@link Lookup} only:
+ * the credential check of {@value ServerConstants#IDENT_LDAP_CREDENTIALS} and
+ * the role lookup of {@value ServerConstants#IDENT_LDAP_ROLES}. Every other
+ * method passes through. A lookup is cached under a SHA-256 of a per-process
+ * random salt, the method and the arguments, so neither user names nor
+ * passwords are kept in memory. Negative results (failed bind, no roles)
+ * expire after the shorter negative TTL; exceptions (directory unreachable)
+ * are never cached.
+ */
+@Component(immediate = true, configurationPid = LdapAuthCache.PID,
+        configurationPolicy = ConfigurationPolicy.REQUIRE, service = LdapAuthCache.class)
+@Designate(ocd = LdapAuthCache.Config.class)
+public class LdapAuthCache implements LdapAuthCacheMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LdapAuthCache.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.auth.LdapAuthCache";
+
+    public static final String PROP_TTL_SECONDS = "ttlSeconds";
+    public static final String PROP_NEGATIVE_TTL_SECONDS = "negativeTtlSeconds";
+    public static final String PROP_MAX_SIZE = "maxSize";
+    /** {@code false} passes lookups through uncached (e.g. only the group snapshot is wanted). */
+    public static final String PROP_CACHE_ENABLED = "cacheEnabled";
+    /** {@code true} answers role lookups from a snapshot of all groups. */
+    public static final String PROP_GROUP_SNAPSHOT = "groupSnapshot";
+    public static final String PROP_SNAPSHOT_REFRESH_SECONDS = "groupSnapshotRefreshSeconds";
+    public static final String PROP_SNAPSHOT_FULL_RESYNC_SECONDS = "groupSnapshotFullResyncSeconds";
+
+    public static final long DEFAULT_TTL_SECONDS = 300;
+    public static final long DEFAULT_NEGATIVE_TTL_SECONDS = 30;
+    public static final long DEFAULT_MAX_SIZE = 10_000;
+    public static final long DEFAULT_SNAPSHOT_REFRESH_SECONDS = 60;
+    public static final long DEFAULT_SNAPSHOT_FULL_RESYNC_SECONDS = 3600;
+
+    /** The cache, and the group snapshot with the connection of the LDAP services. */
+    @ObjectClassDefinition(name = "Daanse LDAP Authentication Cache")
+    public @interface Config {
+
+        @AttributeDefinition(description = "Whether lookups are cached; false passes them through")
+        boolean cacheEnabled() default true;
+
+        @AttributeDefinition(description = "Seconds a successful lookup is cached")
+        long ttlSeconds() default DEFAULT_TTL_SECONDS;
+
+        @AttributeDefinition(description = "Seconds a failed bind or an empty role lookup is cached")
+        long negativeTtlSeconds() default DEFAULT_NEGATIVE_TTL_SECONDS;
+
+        @AttributeDefinition(description = "Lookups cached at most")
+        long maxSize() default DEFAULT_MAX_SIZE;
+
+        @AttributeDefinition(description = "Whether role lookups are answered from a snapshot of all groups")
+        boolean groupSnapshot() default false;
+
+        @AttributeDefinition(description = "Seconds between two refreshes of the group snapshot")
+        long groupSnapshotRefreshSeconds() default DEFAULT_SNAPSHOT_REFRESH_SECONDS;
+
+        @AttributeDefinition(description = "Seconds between two full reads of the group snapshot")
+        long groupSnapshotFullResyncSeconds() default DEFAULT_SNAPSHOT_FULL_RESYNC_SECONDS;
+
+        String url() default "";
+
+        String serviceBindDn() default "";
+
+        @AttributeDefinition(type = AttributeType.PASSWORD)
+        String serviceBindPassword() default "";
+
+        String transportSecurity() default "LDAPS";
+
+        boolean allowUnencrypted() default false;
+
+        int connectTimeoutMillis() default 5000;
+
+        int readTimeoutMillis() default 10000;
+
+        String groupSearchBase() default "";
+
+        String groupSearchFilter() default "(member={0})";
+
+        String groupNameAttribute() default "cn";
+
+        String userDnPattern() default "";
+
+        String userSearchBase() default "";
+
+        String userSearchFilter() default "(uid={0})";
+
+        String memberOfAttribute() default "";
+    }
+
+    /** Ranking of the decorators, above every other service of their interfaces. */
+    public static final int FACADE_RANKING = Integer.MAX_VALUE;
+    /** Ranking of the decorated LDAP services, below every other service of their interfaces. */
+    public static final int DELEGATE_RANKING = Integer.MIN_VALUE;
+
+    /** The interface of the credential store, declaring the lookup of {@link Lookup#CREDENTIALS}. */
+    static final String CREDENTIAL_STORE = "org.eclipse.daanse.xmla.server.auth.api.CredentialStore";
+    /** The interface of the role provider, declaring the lookup of {@link Lookup#ROLES}. */
+    static final String ROLE_PROVIDER = "org.eclipse.daanse.xmla.server.auth.api.RoleProvider";
+
+    private static final String FILTER_CACHED = "(" + ServerConstants.PROP_AUTH_CACHED + "=true)";
+    private static final String OBJECT_NAME = "org.eclipse.daanse.server:type=LdapAuthCache";
+
+    /** Service properties that belong to the original registration only. */
+    private static final Set<String> NOT_COPIED = Set.of(Constants.SERVICE_ID, Constants.SERVICE_PID,
+            Constants.SERVICE_BUNDLEID, Constants.SERVICE_SCOPE, Constants.OBJECTCLASS, Constants.SERVICE_RANKING,
+            "component.id", "component.name", ServerConstants.PROP_AUTH_CACHED, ServerConstants.PROP_AUTH_FACADE);
+
+    /**
+     * The lookups cached, by the ident of the service offering them. A method
+     * is a lookup by its name and the name of the store API interface declaring
+     * it; the interface is matched by name as the API is not on the class path.
+     */
+    enum Lookup {
+
+        /** Takes the user and the secret, answers whether they match - or the verified user. */
+        CREDENTIALS(ServerConstants.IDENT_LDAP_CREDENTIALS, CREDENTIAL_STORE, "authenticate") {
+            @Override
+            boolean isNegative(Object result) {
+                return result == null || Boolean.FALSE.equals(result)
+                        || (result instanceof Optional<?> optional && optional.isEmpty());
+            }
+        },
+
+        /** Takes the user (name or principal), answers the names of the roles. */
+        ROLES(ServerConstants.IDENT_LDAP_ROLES, ROLE_PROVIDER, "getRoles") {
+            @Override
+            boolean isNegative(Object result) {
+                return result == null || (result instanceof Collection<?> collection && collection.isEmpty());
+            }
+        };
+
+        private final String ident;
+        private final String interfaceName;
+        private final String methodName;
+
+        Lookup(String ident, String interfaceName, String methodName) {
+            this.ident = ident;
+            this.interfaceName = interfaceName;
+            this.methodName = methodName;
+        }
+
+        boolean isLookup(Method method) {
+            return method.getName().equals(methodName) && method.getDeclaringClass().getName().equals(interfaceName);
+        }
+
+        /** Whether one of the interfaces declares the lookup, else the decorator only passes calls through. */
+        boolean isOffered(Class<?>[] interfaces) {
+            return Arrays.stream(interfaces).flatMap(type -> Arrays.stream(type.getMethods()))
+                    .anyMatch(this::isLookup);
+        }
+
+        abstract boolean isNegative(Object result);
+
+        static Optional<Lookup> of(String ident) {
+            return Arrays.stream(values()).filter(lookup -> lookup.ident.equals(ident)).findFirst();
+        }
+    }
+
+    private final byte[] salt = new byte[32];
+    private final Map<ServiceReference<?>, ServiceRegistration<?>> facades = new ConcurrentHashMap<>();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final ServiceListener listener = this::serviceChanged;
+
+    private BundleContext bundleContext;
+    private volatile Cache<String, CachedResult> cache;
+    private volatile boolean cacheEnabled;
+    private volatile LdapGroupDirectory groupDirectory;
+    /** The clock of the expiry, replaced by tests. */
+    Ticker ticker = Ticker.systemTicker();
+
+    @Activate
+    public void activate(BundleContext bundleContext, Config config) throws InvalidSyntaxException {
+        this.bundleContext = bundleContext;
+        new SecureRandom().nextBytes(salt);
+        configure(config);
+        registerMBean();
+
+        bundleContext.addServiceListener(listener, FILTER_CACHED);
+        ServiceReference<?>[] existing = bundleContext.getServiceReferences((String) null, FILTER_CACHED);
+        if (existing != null) {
+            for (ServiceReference<?> reference : existing) {
+                wrap(reference);
+            }
+        }
+    }
+
+    @Modified
+    public void modified(Config config) {
+        Cache<String, CachedResult> previous = cache;
+        configure(config);
+        previous.invalidateAll();
+    }
+
+    @Deactivate
+    public void deactivate() {
+        bundleContext.removeServiceListener(listener);
+        for (ServiceReference<?> reference : List.copyOf(facades.keySet())) {
+            unwrap(reference);
+        }
+        unregisterMBean();
+        cache.invalidateAll();
+        if (groupDirectory != null) {
+            groupDirectory.close();
+        }
+    }
+
+    private void configure(Config config) {
+        cacheEnabled = config.cacheEnabled();
+        cache = buildCache(config);
+
+        LdapGroupDirectory previous = groupDirectory;
+        groupDirectory = config.groupSnapshot() ? startGroupDirectory(config) : null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    private static LdapGroupDirectory startGroupDirectory(Config config) {
+        LdapGroupDirectory.Settings settings = new LdapGroupDirectory.Settings(unset(config.url()),
+                unset(config.serviceBindDn()), unset(config.serviceBindPassword()), config.transportSecurity(),
+                config.allowUnencrypted(), config.connectTimeoutMillis(), config.readTimeoutMillis(),
+                unset(config.groupSearchBase()), config.groupSearchFilter(), config.groupNameAttribute(),
+                unset(config.userDnPattern()), unset(config.userSearchBase()), config.userSearchFilter(),
+                unset(config.memberOfAttribute()),
+                Duration.ofSeconds(config.groupSnapshotRefreshSeconds()),
+                Duration.ofSeconds(config.groupSnapshotFullResyncSeconds()));
+        LdapGroupDirectory directory = new LdapGroupDirectory(settings);
+        directory.start();
+        logger.info("LDAP group snapshot of {} enabled, refresh every {}", settings.groupSearchBase(),
+                settings.refreshInterval());
+        return directory;
+    }
+
+    private Cache<String, CachedResult> buildCache(Config config) {
+        Duration ttl = Duration.ofSeconds(config.ttlSeconds());
+        Duration negativeTtl = Duration.ofSeconds(config.negativeTtlSeconds());
+        long maxSize = config.maxSize();
+        logger.info("LDAP authentication cache: ttl {}, negative ttl {}, max size {}", ttl, negativeTtl, maxSize);
+
+        return Caffeine.newBuilder().maximumSize(maxSize).recordStats().ticker(ticker)
+                .expireAfter(new Expiry<String, CachedResult>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResult value, long currentTime) {
+                        return (value.negative() ? negativeTtl : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResult value, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResult value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                }).build();
+    }
+
+    /** {@code null} for an attribute left blank, as the directory expects for settings it does without. */
+    private static String unset(String value) {
+        return value.isBlank() ? null : value;
+    }
+
+    // ---- facades
+
+    private void serviceChanged(ServiceEvent event) {
+        ServiceReference<?> reference = event.getServiceReference();
+        switch (event.getType()) {
+        case ServiceEvent.REGISTERED -> wrap(reference);
+        case ServiceEvent.MODIFIED -> {
+            unwrap(reference);
+            wrap(reference);
+        }
+        case ServiceEvent.UNREGISTERING, ServiceEvent.MODIFIED_ENDMATCH -> unwrap(reference);
+        default -> {
+            // no other event types
+        }
+        }
+    }
+
+    private synchronized void wrap(ServiceReference<?> reference) {
+        if (facades.containsKey(reference)) {
+            return;
+        }
+        Bundle provider = reference.getBundle();
+        if (provider == null) {
+            return;
+        }
+        String[] classNames = (String[]) reference.getProperty(Constants.OBJECTCLASS);
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (String className : classNames) {
+            try {
+                Class<?> type = provider.loadClass(className);
+                if (!type.isInterface()) {
+                    logger.warn("Not caching {}: {} is not an interface", reference, className);
+                    return;
+                }
+                interfaces.add(type);
+            } catch (ClassNotFoundException e) {
+                logger.warn("Not caching {}: {} not visible to its provider", reference, className, e);
+                return;
+            }
+        }
+
+        String ident = String.valueOf(reference.getProperty(ServerConstants.PROP_IDENT));
+        Optional<Lookup> lookup = Lookup.of(ident);
+        if (lookup.isEmpty()) {
+            logger.warn("Not caching {}: no lookup known for {}", reference, ident);
+            return;
+        }
+        Object delegate = bundleContext.getService(reference);
+        if (delegate == null) {
+            return;
+        }
+        Class<?>[] types = interfaces.toArray(Class<?>[]::new);
+        if (!lookup.get().isOffered(types)) {
+            logger.warn("Caching nothing of {}: none of {} declares {}#{}", reference, String.join(", ", classNames),
+                    lookup.get().interfaceName, lookup.get().methodName);
+        }
+        Object facade = facade(lookup.get(), delegate, provider.adapt(BundleWiring.class).getClassLoader(), types);
+
+        Dictionary<String, Object> props = new Hashtable<>();
+        for (String key : reference.getPropertyKeys()) {
+            if (!NOT_COPIED.contains(key)) {
+                props.put(key, reference.getProperty(key));
+            }
+        }
+        props.put(Constants.SERVICE_RANKING, FACADE_RANKING);
+        props.put(ServerConstants.PROP_AUTH_FACADE, true);
+        facades.put(reference, bundleContext.registerService(classNames, facade, props));
+        logger.info("Caching LDAP service {} ({})", ident, String.join(", ", classNames));
+    }
+
+    /** The decorator of the service, caching its lookups. */
+    Object facade(Lookup lookup, Object delegate, ClassLoader classLoader, Class<?>[] interfaces) {
+        return Proxy.newProxyInstance(classLoader, interfaces, new CachingHandler(lookup, delegate));
+    }
+
+    private synchronized void unwrap(ServiceReference<?> reference) {
+        ServiceRegistration<?> registration = facades.remove(reference);
+        if (registration == null) {
+            return;
+        }
+        try {
+            registration.unregister();
+        } catch (IllegalStateException e) {
+            // already gone with the framework
+        }
+        bundleContext.ungetService(reference);
+        // results of a reconfigured directory must not outlive it
+        cache.invalidateAll();
+    }
+
+    // ---- caching
+
+    private record CachedResult(Object value, boolean negative) {
+    }
+
+    private final class CachingHandler implements InvocationHandler {
+
+        private final Lookup lookup;
+        private final Object delegate;
+
+        CachingHandler(Lookup lookup, Object delegate) {
+            this.lookup = lookup;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "Cached " + delegate;
+                };
+            }
+            if (!lookup.isLookup(method)) {
+                return call(method, args);
+            }
+
+            LdapGroupDirectory directory = groupDirectory;
+            if (directory != null && lookup == Lookup.ROLES) {
+                Optional<Set<String>> roles = directory.rolesOf(userName(args[0]));
+                if (roles.isPresent()) {
+                    return method.getReturnType() == List.class ? List.copyOf(roles.get()) : roles.get();
+                }
+            }
+            if (!cacheEnabled) {
+                return call(method, args);
+            }
+
+            String key = key(method, args);
+            Cache<String, CachedResult> current = cache;
+            CachedResult cached = current.getIfPresent(key);
+            if (cached != null) {
+                if (cached.negative()) {
+                    negativeHits.increment();
+                }
+                return cached.value();
+            }
+
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable t) {
+                failures.increment();
+                throw t;
+            }
+            current.put(key, new CachedResult(result, lookup.isNegative(result)));
+            return result;
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private String key(Method method, Object[] args) {
+            MessageDigest digest = sha256();
+            digest.update(salt);
+            digest.update(lookup.name().getBytes(StandardCharsets.UTF_8));
+            digest.update(method.toGenericString().getBytes(StandardCharsets.UTF_8));
+            for (Object arg : args) {
+                digest.update((byte) 0);
+                if (arg instanceof char[] chars) {
+                    ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(chars));
+                    digest.update(bytes);
+                    Arrays.fill(bytes.array(), (byte) 0);
+                } else if (arg instanceof byte[] bytes) {
+                    digest.update(bytes);
+                } else if (arg instanceof Principal principal) {
+                    digest.update(principal.getName().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    digest.update(String.valueOf(arg).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    private static String userName(Object user) {
+        return user instanceof Principal principal ? principal.getName() : (String) user;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+        }
+    }
+
+    // ---- JMX
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            logger.warn("LDAP authentication cache counters not available via JMX", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            logger.debug("Unregistering {} failed", OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @Override
+    public long getNegativeHitCount() {
+        return negativeHits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
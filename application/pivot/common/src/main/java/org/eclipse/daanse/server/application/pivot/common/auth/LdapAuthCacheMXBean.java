@@ -0,0 +1,42 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.auth;
+
+/**
+ * Counters of the LDAP authentication cache, registered as
+ * {@code org.eclipse.daanse.server:type=LdapAuthCache}.
+ */
+public interface LdapAuthCacheMXBean {
+
+    /** Lookups answered from the cache, positive and negative. */
+    long getHitCount();
+
+    /** Lookups answered from a cached negative result (failed bind, no roles). */
+    long getNegativeHitCount();
+
+    /** Lookups that went to the directory. */
+    long getMissCount();
+
+    /** Directory lookups that failed with an exception and were not cached. */
+    long getFailureCount();
+
+    long getEvictionCount();
+
+    double getHitRatio();
+
+    long getSize();
+
+    /** Drops every cached result, e.g. after a password reset. */
+    void invalidateAll();
+}
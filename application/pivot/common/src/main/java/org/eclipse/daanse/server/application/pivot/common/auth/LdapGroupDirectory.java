@@ -0,0 +1,485 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.auth;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.naming.Context;
+import javax.naming.InvalidNameException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.InitialLdapContext;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+import javax.naming.ldap.Rdn;
+import javax.naming.ldap.StartTlsRequest;
+import javax.naming.ldap.StartTlsResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory copy of the group-to-member mapping under the LDAP group search
+ * base, so role lookups are local hash lookups instead of a group search per
+ * authentication.
+ *
+ * <p>
+ * With a {@code memberOfAttribute} the mapping is read from the users instead,
+ * as the role provider does: every user under the user search base with the
+ * groups its {@code memberOf} attribute names, each by the value of the first
+ * RDN of the group DN.
+ *
+ * <p>
+ * The groups or users are loaded once at start and then refreshed
+ * incrementally: on servers that publish {@code highestCommittedUSN} in the
+ * root DSE (Active Directory) only entries with a higher {@code uSNChanged}
+ * are fetched, elsewhere entries with a recent {@code modifyTimestamp}.
+ * Incremental searches cannot see deleted entries, nor on Active Directory a
+ * {@code memberOf} changed by a group, so a full resync runs on a longer
+ * period. Nested groups are not expanded.
+ */
+public final class LdapGroupDirectory implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LdapGroupDirectory.class);
+
+    static final String TRANSPORT_LDAPS = "LDAPS";
+    static final String TRANSPORT_STARTTLS = "STARTTLS";
+    static final String TRANSPORT_NONE = "NONE";
+
+    private static final int PAGE_SIZE = 500;
+    /** Lookback of timestamp based refreshes, covers clock skew to the server. */
+    private static final Duration TIMESTAMP_OVERLAP = Duration.ofMinutes(5);
+    private static final DateTimeFormatter GENERALIZED_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    /** The attribute a filter matches the placeholder with, e.g. {@code member} of {@code (member={0})}. */
+    private static final Pattern PLACEHOLDER_ATTRIBUTE = Pattern.compile("([A-Za-z][\\w-]*)\\s*=\\s*\\{0\\}");
+
+    /**
+     * Connection and search settings, matching those of the LDAP role
+     * provider. The transport follows the policy of the LDAP store:
+     * {@code LDAPS} needs an {@code ldaps://} URL, {@code STARTTLS} secures a
+     * plain connection before the bind, and {@code NONE} - the bind password in
+     * the clear - is refused unless {@code allowUnencrypted}.
+     */
+    public record Settings(String url, String serviceBindDn, String serviceBindPassword, String transportSecurity,
+            boolean allowUnencrypted, int connectTimeoutMillis, int readTimeoutMillis, String groupSearchBase,
+            String groupSearchFilter, String groupNameAttribute, String userDnPattern, String userSearchBase,
+            String userSearchFilter, String memberOfAttribute, Duration refreshInterval,
+            Duration fullResyncInterval) {
+
+        public Settings {
+            transportSecurity = transportSecurity.toUpperCase(Locale.ROOT);
+            switch (transportSecurity) {
+            case TRANSPORT_LDAPS -> {
+                if (url == null || !url.toLowerCase(Locale.ROOT).startsWith("ldaps://")) {
+                    throw new IllegalArgumentException(
+                            "Transport security LDAPS needs an ldaps:// URL, not " + url);
+                }
+            }
+            case TRANSPORT_STARTTLS -> {
+                // secured before the bind
+            }
+            case TRANSPORT_NONE -> {
+                if (!allowUnencrypted) {
+                    throw new IllegalArgumentException(
+                            "Transport security NONE sends the bind password in the clear, allowUnencrypted is off");
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown transport security " + transportSecurity
+                    + ", expected " + TRANSPORT_LDAPS + ", " + TRANSPORT_STARTTLS + " or " + TRANSPORT_NONE);
+            }
+        }
+
+        /** The group filter with the member placeholder widened to every member. */
+        String allGroupsFilter() {
+            return groupSearchFilter.replace("{0}", "*");
+        }
+
+        /** The attribute the group filter matches the member with, e.g. {@code member}. */
+        String memberAttribute() {
+            return placeholderAttribute(groupSearchFilter, "member");
+        }
+
+        /** The user filter with the login placeholder widened to every user. */
+        String allUsersFilter() {
+            return userSearchFilter.replace("{0}", "*");
+        }
+
+        /** The attribute the user filter matches the login with, e.g. {@code uid}. */
+        String loginAttribute() {
+            return placeholderAttribute(userSearchFilter, "uid");
+        }
+
+        /** The base of the users: the user search base, else the parent of the user DN pattern. */
+        Optional<String> userBase() {
+            if (userSearchBase != null) {
+                return Optional.of(userSearchBase);
+            }
+            return Optional.ofNullable(userDnPattern).flatMap(pattern -> parseDn(pattern.replace("{0}", "x")))
+                    .filter(dn -> dn.size() > 1).map(dn -> dn.getPrefix(dn.size() - 1).toString());
+        }
+
+        /** Whether the groups are read from the {@code memberOf} attribute of the users. */
+        boolean memberOf() {
+            return memberOfAttribute != null && userBase().isPresent();
+        }
+
+        private static String placeholderAttribute(String filter, String defaultAttribute) {
+            Matcher matcher = PLACEHOLDER_ATTRIBUTE.matcher(filter);
+            return matcher.find() ? matcher.group(1) : defaultAttribute;
+        }
+    }
+
+    /**
+     * A group with its members, or in {@code memberOf} mode a user with the
+     * names of its groups.
+     */
+    private record Entry(String name, List<String> values) {
+    }
+
+    /** Immutable state, swapped as a whole by every refresh. */
+    private record Snapshot(Map<LdapName, Entry> entries, Map<LdapName, Set<String>> byMemberDn,
+            Map<String, Set<String>> byMemberId, Map<String, LdapName> dnByLogin) {
+
+        static Snapshot ofGroups(Map<LdapName, Entry> groups) {
+            Map<LdapName, Set<String>> byDn = new HashMap<>();
+            Map<String, Set<String>> byId = new HashMap<>();
+            for (Entry group : groups.values()) {
+                for (String member : group.values()) {
+                    Optional<LdapName> dn = parseDn(member);
+                    if (dn.isPresent()) {
+                        byDn.computeIfAbsent(dn.get(), k -> new HashSet<>()).add(group.name());
+                    } else {
+                        byId.computeIfAbsent(member.toLowerCase(Locale.ROOT), k -> new HashSet<>())
+                                .add(group.name());
+                    }
+                }
+            }
+            byDn.replaceAll((k, v) -> Set.copyOf(v));
+            byId.replaceAll((k, v) -> Set.copyOf(v));
+            return new Snapshot(Map.copyOf(groups), byDn, byId, Map.of());
+        }
+
+        static Snapshot ofUsers(Map<LdapName, Entry> users) {
+            Map<LdapName, Set<String>> byDn = new HashMap<>();
+            Map<String, LdapName> dnByLogin = new HashMap<>();
+            for (Map.Entry<LdapName, Entry> user : users.entrySet()) {
+                byDn.put(user.getKey(), Set.copyOf(user.getValue().values()));
+                dnByLogin.put(user.getValue().name().toLowerCase(Locale.ROOT), user.getKey());
+            }
+            return new Snapshot(Map.copyOf(users), byDn, Map.of(), dnByLogin);
+        }
+    }
+
+    private final Settings settings;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Snapshot snapshot;
+    private Long lastUsn;
+    private Instant lastRefreshStart;
+    private Instant lastFullLoad;
+
+    public LdapGroupDirectory(Settings settings) {
+        this.settings = settings;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "daanse-ldap-group-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Loads the snapshot in the background and schedules the refreshes. */
+    public void start() {
+        long refresh = settings.refreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refresh, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /** Whether the first full load has completed. */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /** Number of groups, in {@code memberOf} mode of users, in the snapshot. */
+    public int groupCount() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.entries().size();
+    }
+
+    /**
+     * Group names of the user - a login name (mapped to a DN with the user DN
+     * pattern, in {@code memberOf} mode also by the login attribute) or a DN.
+     * Empty until the first load completed, and for a user whose DN is not
+     * known, so callers can fall back to the directory.
+     */
+    public Optional<Set<String>> rolesOf(String user) {
+        Snapshot current = snapshot;
+        if (current == null || user == null) {
+            return Optional.empty();
+        }
+        Optional<LdapName> dn = parseDn(user);
+        if (dn.isEmpty() && settings.userDnPattern() != null) {
+            dn = parseDn(settings.userDnPattern().replace("{0}", Rdn.escapeValue(user)));
+        }
+        if (dn.isEmpty()) {
+            dn = Optional.ofNullable(current.dnByLogin().get(user.toLowerCase(Locale.ROOT)));
+        }
+        if (dn.isEmpty()) {
+            // a login of the search-base mode: only the directory knows the user
+            return Optional.empty();
+        }
+        if (settings.memberOf()) {
+            return Optional.ofNullable(current.byMemberDn().get(dn.get()));
+        }
+        Set<String> roles = new HashSet<>(current.byMemberDn().getOrDefault(dn.get(), Set.of()));
+        // memberUid style groups name the member by its login
+        roles.addAll(current.byMemberId().getOrDefault(firstRdnValue(dn.get()).toLowerCase(Locale.ROOT), Set.of()));
+        return Optional.of(Set.copyOf(roles));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (NamingException | IOException | RuntimeException e) {
+            logger.warn("LDAP group snapshot refresh failed, keeping the previous snapshot", e);
+        }
+    }
+
+    /** Runs a full load when due, an incremental refresh otherwise. */
+    public synchronized void refresh() throws NamingException, IOException {
+        Instant now = Instant.now();
+        boolean full = snapshot == null || lastFullLoad == null
+                || now.isAfter(lastFullLoad.plus(settings.fullResyncInterval()));
+
+        boolean memberOf = settings.memberOf();
+        String base = memberOf ? settings.userBase().orElseThrow() : settings.groupSearchBase();
+        String[] attributes = memberOf ? new String[] { settings.loginAttribute(), settings.memberOfAttribute() }
+                : new String[] { settings.groupNameAttribute(), settings.memberAttribute() };
+        String allFilter = memberOf ? settings.allUsersFilter() : settings.allGroupsFilter();
+
+        LdapContext ctx = connect();
+        try {
+            Long usn = highestCommittedUsn(ctx);
+            if (full) {
+                Map<LdapName, Entry> entries = new HashMap<>();
+                search(ctx, base, allFilter, attributes, result -> put(entries, result, attributes));
+                snapshot = memberOf ? Snapshot.ofUsers(entries) : Snapshot.ofGroups(entries);
+                lastFullLoad = now;
+                logger.info("LDAP group snapshot loaded: {} {} in {} ms", entries.size(),
+                        memberOf ? "users" : "groups", Duration.between(now, Instant.now()).toMillis());
+            } else {
+                String changedFilter;
+                if (usn != null && lastUsn != null) {
+                    changedFilter = "(uSNChanged>=" + (lastUsn + 1) + ")";
+                } else {
+                    changedFilter = "(modifyTimestamp>="
+                            + GENERALIZED_TIME.format(lastRefreshStart.minus(TIMESTAMP_OVERLAP)) + ")";
+                }
+                // a group whose last member was removed no longer matches the widened filter
+                String entryFilter = memberOf ? wrap(allFilter)
+                        : "(|" + wrap(allFilter) + "(!(" + settings.memberAttribute() + "=*)))";
+                Map<LdapName, Entry> entries = new HashMap<>(snapshot.entries());
+                int[] changed = { 0 };
+                search(ctx, base, "(&" + entryFilter + changedFilter + ")", attributes, result -> {
+                    if (put(entries, result, attributes)) {
+                        changed[0]++;
+                    }
+                });
+                if (changed[0] > 0) {
+                    snapshot = memberOf ? Snapshot.ofUsers(entries) : Snapshot.ofGroups(entries);
+                    logger.info("LDAP group snapshot refreshed: {} changed {}", changed[0],
+                            memberOf ? "users" : "groups");
+                }
+            }
+            lastUsn = usn;
+            lastRefreshStart = now;
+        } finally {
+            ctx.close();
+        }
+    }
+
+    /**
+     * Puts the group or user of the result into the entries, or removes a
+     * group left without members. Whether the entries changed.
+     */
+    private boolean put(Map<LdapName, Entry> entries, SearchResult result, String[] attributeIds) {
+        try {
+            LdapName dn = new LdapName(result.getNameInNamespace());
+            Attributes attributes = result.getAttributes();
+            Attribute name = attributes.get(attributeIds[0]);
+            Attribute valueAttribute = attributes.get(attributeIds[1]);
+            if (name == null) {
+                return false;
+            }
+            if (settings.memberOf()) {
+                List<String> groups = new ArrayList<>();
+                for (String group : valueAttribute == null ? List.<String>of() : values(valueAttribute)) {
+                    parseDn(group).map(LdapGroupDirectory::firstRdnValue).ifPresent(groups::add);
+                }
+                entries.put(dn, new Entry(String.valueOf(name.get()), groups));
+                return true;
+            }
+            if (valueAttribute == null) {
+                return entries.remove(dn) != null;
+            }
+            entries.put(dn, new Entry(String.valueOf(name.get()), values(valueAttribute)));
+            return true;
+        } catch (NamingException e) {
+            logger.warn("Skipping LDAP entry {}", result.getNameInNamespace(), e);
+            return false;
+        }
+    }
+
+    private static List<String> values(Attribute attribute) throws NamingException {
+        List<String> values = new ArrayList<>(attribute.size());
+        NamingEnumeration<?> all = attribute.getAll();
+        while (all.hasMore()) {
+            values.add(String.valueOf(all.next()));
+        }
+        return values;
+    }
+
+    private void search(LdapContext ctx, String base, String filter, String[] attributes,
+            Consumer<SearchResult> consumer) throws NamingException, IOException {
+        SearchControls controls = new SearchControls();
+        controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        controls.setReturningAttributes(attributes);
+
+        byte[] cookie = null;
+        do {
+            ctx.setRequestControls(new Control[] { new PagedResultsControl(PAGE_SIZE, cookie, Control.NONCRITICAL) });
+            NamingEnumeration<SearchResult> results = ctx.search(base, filter, controls);
+            try {
+                while (results.hasMore()) {
+                    consumer.accept(results.next());
+                }
+            } finally {
+                results.close();
+            }
+            cookie = null;
+            Control[] response = ctx.getResponseControls();
+            if (response != null) {
+                for (Control control : response) {
+                    if (control instanceof PagedResultsResponseControl paged) {
+                        cookie = paged.getCookie();
+                    }
+                }
+            }
+        } while (cookie != null && cookie.length > 0);
+        ctx.setRequestControls(null);
+    }
+
+    private static Long highestCommittedUsn(LdapContext ctx) {
+        try {
+            Attribute usn = ctx.getAttributes("", new String[] { "highestCommittedUSN" }).get("highestCommittedUSN");
+            return usn == null ? null : Long.valueOf(String.valueOf(usn.get()));
+        } catch (NamingException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private LdapContext connect() throws NamingException, IOException {
+        Hashtable<String, Object> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
+        env.put(Context.PROVIDER_URL, settings.url());
+        env.put("com.sun.jndi.ldap.connect.timeout", String.valueOf(settings.connectTimeoutMillis()));
+        env.put("com.sun.jndi.ldap.read.timeout", String.valueOf(settings.readTimeoutMillis()));
+        boolean startTls = TRANSPORT_STARTTLS.equals(settings.transportSecurity());
+        if (!startTls) {
+            bindCredentials(env);
+        }
+
+        // JNDI locates its provider through the context class loader
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(ClassLoader.getSystemClassLoader());
+        try {
+            LdapContext ctx = new InitialLdapContext(env, null);
+            if (startTls) {
+                StartTlsResponse tls = (StartTlsResponse) ctx.extendedOperation(new StartTlsRequest());
+                tls.negotiate();
+                Hashtable<String, Object> bind = new Hashtable<>();
+                bindCredentials(bind);
+                // the bind happens with the next operation, over the secured connection
+                for (Map.Entry<String, Object> entry : bind.entrySet()) {
+                    ctx.addToEnvironment(entry.getKey(), entry.getValue());
+                }
+            }
+            return ctx;
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private void bindCredentials(Hashtable<String, Object> env) {
+        if (settings.serviceBindDn() != null) {
+            env.put(Context.SECURITY_AUTHENTICATION, "simple");
+            env.put(Context.SECURITY_PRINCIPAL, settings.serviceBindDn());
+            env.put(Context.SECURITY_CREDENTIALS,
+                    settings.serviceBindPassword() == null ? "" : settings.serviceBindPassword());
+        } else {
+            env.put(Context.SECURITY_AUTHENTICATION, "none");
+        }
+    }
+
+    private static String wrap(String filter) {
+        return filter.startsWith("(") ? filter : "(" + filter + ")";
+    }
+
+    private static Optional<LdapName> parseDn(String value) {
+        if (value == null || value.indexOf('=') < 0) {
+            return Optional.empty();
+        }
+        try {
+            LdapName name = new LdapName(value);
+            return name.isEmpty() ? Optional.empty() : Optional.of(name);
+        } catch (InvalidNameException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String firstRdnValue(LdapName dn) {
+        return String.valueOf(dn.getRdn(dn.size() - 1).getValue());
+    }
+}
@@ -0,0 +1,319 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.olap.api.CacheControl;
+import org.eclipse.daanse.olap.api.CatalogReader;
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.olap.api.element.Cube;
+import org.eclipse.daanse.olap.api.element.Dimension;
+import org.eclipse.daanse.olap.api.element.Hierarchy;
+import org.eclipse.daanse.olap.api.element.Member;
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.eclipse.daanse.server.application.pivot.common.pool.MonitoredPool;
+import org.eclipse.daanse.server.application.pivot.common.pool.PoolMonitor;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Flushes the caches of a context when the data behind its cubes changes, so
+ * a load of the database does not need a restart. Every
+ * {@value #PROP_INTERVAL_SECONDS} seconds it reads a version of each source:
+ * <ul>
+ * <li>a file - the database file of a file database, or a marker the load
+ * touches when done - is versioned by its modification time and size, and
+ * stands for all cubes;</li>
+ * <li>a query runs on the pool of the primary if the context has one among
+ * its replica pools, else on the pool of the context - with replicas the
+ * router; the first value of its first row is the version of the cube it is
+ * configured for, or of all cubes.</li>
+ * </ul>
+ * When a version differs from the one read before, the segments and the
+ * members of the affected cubes are flushed, and the {@link XmlaResultCache}
+ * if one is configured. A changed file also soft-evicts the connections of
+ * the pools of the context, so a replaced H2 or DuckDB file is opened anew
+ * rather than read through connections to the old one. Other cubes keep their caches. A source that cannot be
+ * read keeps its last version, so an unreachable database does not flush.
+ */
+@Component(configurationPid = DataChangeWatcher.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = {})
+@Designate(ocd = DataChangeWatcher.Config.class, factory = true)
+public class DataChangeWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataChangeWatcher.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.cache.DataChangeWatcher";
+
+    /** The context to flush, targeted by the configuration. */
+    public static final String REF_CONTEXT = "context";
+    /** The pool of the context, or the replica router in its place, targeted by the configuration. */
+    public static final String REF_POOL = "pool";
+    /** The id of the {@link EnvContext}, whose pools run the queries. */
+    public static final String PROP_CONTEXT_ID = "contextId";
+    /** Paths of the files whose change flushes all cubes. */
+    public static final String PROP_FILES = "files";
+    /**
+     * Version queries as {@code cube=sql}; {@value #ALL_CUBES} for all cubes,
+     * else the cube name or its {@link #key(String) key}.
+     */
+    public static final String PROP_QUERIES = "queries";
+    public static final String PROP_INTERVAL_SECONDS = "intervalSeconds";
+
+    public static final String ALL_CUBES = "*";
+    public static final int DEFAULT_INTERVAL_SECONDS = 30;
+
+    @ObjectClassDefinition(name = "Daanse Data Change Watcher")
+    public @interface Config {
+
+        @AttributeDefinition(description = "The id of the context whose pools run the queries, empty for the default")
+        String contextId() default "";
+
+        @AttributeDefinition(description = "Paths of the files whose change flushes all cubes")
+        String[] files() default {};
+
+        @AttributeDefinition(description = "Version queries as cube=sql, * for all cubes")
+        String[] queries() default {};
+
+        @AttributeDefinition(description = "Seconds between two reads of the versions")
+        long intervalSeconds() default DEFAULT_INTERVAL_SECONDS;
+    }
+
+    /** A file or a query, and the cube it versions. */
+    record Source(String cube, Path file, String query) {
+
+        @Override
+        public String toString() {
+            String of = ALL_CUBES.equals(cube) ? "" : " of cube " + cube;
+            return file != null ? "file " + file : "data version query" + of;
+        }
+    }
+
+    @Reference(name = REF_CONTEXT)
+    Context<?> context;
+
+    @Reference(name = REF_POOL)
+    DataSource pool;
+
+    @Reference
+    PoolMonitor poolMonitor;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    volatile XmlaResultCache resultCache;
+
+    private final Map<Source, String> versions = new HashMap<>();
+    private EnvContext envContext;
+    private List<Source> sources;
+    private long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    @Activate
+    public void activate(Config config) {
+        envContext = new EnvContext(config.contextId());
+        sources = sources(config.files(), config.queries());
+        intervalSeconds = Math.max(1, config.intervalSeconds());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "daanse-data-change" + (envContext.isDefault() ? "" : "-" + envContext.id()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, intervalSeconds, TimeUnit.SECONDS);
+        logger.info("Watching {}{} for data changes every {} s", sources, envContext.label(), intervalSeconds);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        scheduler.shutdownNow();
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Data change check{} failed, trying again next interval", envContext.label(), e);
+        }
+    }
+
+    void poll() {
+        Set<String> changed = new LinkedHashSet<>();
+        boolean fileChanged = false;
+        for (Source source : sources) {
+            Optional<String> version = versionOf(source);
+            if (version.isEmpty()) {
+                continue;
+            }
+            String previous = versions.put(source, version.get());
+            if (previous != null && !previous.equals(version.get())) {
+                logger.info("Data of the {}{} changed: version {} after {}", source, envContext.label(),
+                        version.get(), previous);
+                changed.add(source.cube());
+                fileChanged |= source.file() != null;
+            }
+        }
+        if (fileChanged) {
+            softEvictConnections();
+        }
+        if (!changed.isEmpty()) {
+            flush(changed);
+        }
+    }
+
+    /** Retires the connections of the pools of the context once they are returned. */
+    private void softEvictConnections() {
+        for (MonitoredPool monitored : poolMonitor.pools()) {
+            if (monitored.context().equals(envContext.id()) && !monitored.softEvictConnections()) {
+                logger.warn("The {} cannot evict its connections, they may still read the old file", monitored);
+            }
+        }
+    }
+
+    private Optional<String> versionOf(Source source) {
+        return source.file() != null ? fileVersion(source.file()) : queryVersion(source);
+    }
+
+    static Optional<String> fileVersion(Path file) {
+        try {
+            return Optional.of(Files.getLastModifiedTime(file).toMillis() + "/" + Files.size(file));
+        } catch (NoSuchFileException e) {
+            // created or replaced by the load later on
+            return Optional.of("missing");
+        } catch (IOException e) {
+            logger.warn("Cannot read the version of {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<String> queryVersion(Source source) {
+        DataSource dataSource = poolMonitor.pools().stream()
+                .filter(monitored -> monitored.context().equals(envContext.id())
+                        && monitored.replica().filter(ServerConstants.REPLICA_PRIMARY::equals).isPresent())
+                .findFirst().flatMap(MonitoredPool::dataSource).orElse(pool);
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.min(intervalSeconds, Integer.MAX_VALUE));
+            try (ResultSet resultSet = statement.executeQuery(source.query())) {
+                return Optional.of(resultSet.next() ? String.valueOf(resultSet.getObject(1)) : "no rows");
+            }
+        } catch (SQLException e) {
+            logger.warn("The {}{} failed: {}", source, envContext.label(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Flushes the segments of the measures of the given cubes and their
+     * members below the root members of every hierarchy.
+     */
+    private void flush(Set<String> cubes) {
+        long start = System.nanoTime();
+        List<String> flushed = new ArrayList<>();
+        org.eclipse.daanse.olap.api.connection.Connection connection = null;
+        try {
+            connection = context.getConnectionWithDefaultRole();
+            CacheControl cacheControl = connection.getCacheControl(null);
+            CatalogReader catalogReader = connection.getCatalogReader();
+            for (Cube cube : catalogReader.getCubes()) {
+                if (!cubes.contains(ALL_CUBES) && !cubes.contains(cube.getName())
+                        && !cubes.contains(key(cube.getName()))) {
+                    continue;
+                }
+                cacheControl.flush(cacheControl.createMeasuresRegion(cube));
+                for (Dimension dimension : cube.getDimensions()) {
+                    if (dimension.isMeasures()) {
+                        continue;
+                    }
+                    for (Hierarchy hierarchy : dimension.getHierarchies()) {
+                        for (Member root : catalogReader.getHierarchyRootMembers(hierarchy)) {
+                            cacheControl.flush(cacheControl.createMemberSet(root, true));
+                        }
+                    }
+                }
+                flushed.add(cube.getName());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Flushing the caches{} failed after cubes {}", envContext.label(), flushed, e);
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+
+        XmlaResultCache results = resultCache;
+        if (results != null) {
+            results.invalidateAll();
+        }
+        if (flushed.isEmpty()) {
+            logger.warn("No cube{} matches {}, nothing flushed", envContext.label(), cubes);
+        } else {
+            logger.info("Flushed the caches of cubes {}{} in {} ms", flushed, envContext.label(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * The cube name as it appears in a variable name: upper case, characters
+     * other than letters and digits as {@code _}.
+     */
+    public static String key(String cubeName) {
+        return cubeName.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_");
+    }
+
+    static List<Source> sources(String[] files, String[] queries) {
+        List<Source> sources = new ArrayList<>();
+        for (String file : files) {
+            sources.add(new Source(ALL_CUBES, Path.of(file), null));
+        }
+        for (String query : queries) {
+            int eq = query.indexOf('=');
+            if (eq <= 0 || query.substring(eq + 1).isBlank()) {
+                throw new IllegalArgumentException("Data version query '" + query + "' is not cube=sql");
+            }
+            sources.add(new Source(query.substring(0, eq).trim(), null, query.substring(eq + 1).trim()));
+        }
+        return List.copyOf(sources);
+    }
+}
@@ -0,0 +1,647 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.cache;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Answers repeated XMLA {@code Execute} requests of MDX queries from a cache
+ * of serialized responses, so the same dashboard query of several users is
+ * parsed and built into a cellset once per {@value #PROP_TTL_SECONDS}.
+ *
+ * <p>
+ * The key is a SHA-256 of a per-process random salt, the credentials of the
+ * request, the statement with its whitespace normalized, and the property
+ * list and parameters of the envelope - catalog, roles, {@code Format},
+ * {@code AxisFormat} and whatever else the client sends. The credentials are
+ * part of the key because the XMLA servlet authenticates behind this filter:
+ * a cached answer is only given to a request that carries the same
+ * credentials as the one the servlet served. The cache does not learn of a
+ * revoked password or a changed role membership, so the answer to a request
+ * with credentials is kept only {@value #PROP_CREDENTIAL_TTL_SECONDS}, by
+ * default {@value #DEFAULT_CREDENTIAL_TTL_SECONDS} seconds. Requests of a
+ * session, statements other than {@code SELECT} and {@code WITH}, and
+ * responses that are not a successful result are passed through. The whole
+ * cache is dropped whenever a context or catalog mapping is registered,
+ * modified or unregistered, e.g. on a catalog reload, and when a
+ * {@link DataChangeWatcher} sees the data change.
+ *
+ * <p>
+ * The cache is bounded by the bytes of the responses it holds, least recently
+ * and frequently used out first; responses above
+ * {@value #PROP_MAX_ENTRY_BYTES} bytes are not cached. What is cached is the
+ * body the servlet writes, so a compression filter may sit in front of this one:
+ * it compresses the answer of the servlet and that of the cache alike.
+ */
+@Component(configurationPid = XmlaResultCache.PID, configurationPolicy = ConfigurationPolicy.REQUIRE, service = {
+        Filter.class, XmlaResultCache.class })
+@Designate(ocd = XmlaResultCache.Config.class)
+public class XmlaResultCache implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(XmlaResultCache.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.cache.XmlaResultCache";
+
+    public static final String PROP_TTL_SECONDS = "ttlSeconds";
+    public static final String PROP_MAX_BYTES = "maxBytes";
+    public static final String PROP_MAX_ENTRY_BYTES = "maxEntryBytes";
+    /** How long a response to a request with credentials is kept, at most {@value #PROP_TTL_SECONDS}. */
+    public static final String PROP_CREDENTIAL_TTL_SECONDS = "credentialTtlSeconds";
+
+    public static final long DEFAULT_TTL_SECONDS = 300;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_MAX_ENTRY_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_CREDENTIAL_TTL_SECONDS = 60;
+
+    @ObjectClassDefinition(name = "Daanse XMLA Result Cache")
+    public @interface Config {
+
+        @AttributeDefinition(description = "Seconds a response is kept")
+        long ttlSeconds() default DEFAULT_TTL_SECONDS;
+
+        @AttributeDefinition(description = "Bytes all cached responses may take")
+        long maxBytes() default DEFAULT_MAX_BYTES;
+
+        @AttributeDefinition(description = "Responses above this many bytes are not cached")
+        long maxEntryBytes() default DEFAULT_MAX_ENTRY_BYTES;
+
+        @AttributeDefinition(description = "Seconds a response to a request with credentials is kept")
+        long credentialTtlSeconds() default DEFAULT_CREDENTIAL_TTL_SECONDS;
+    }
+
+    /** Tells whether a response came from the cache: {@code HIT} or {@code MISS}. */
+    static final String HEADER_CACHE = "X-Daanse-Cache";
+    /** Envelopes above this size are passed through, they are not dashboard queries. */
+    static final int MAX_REQUEST_BYTES = 256 * 1024;
+
+    /** The services whose replacement invalidates the cached results. */
+    private static final String FILTER_REPLACED = "(|(" + ServerConstants.PROP_IDENT + "="
+            + ServerConstants.IDENT_CONTEXT + "*)(" + ServerConstants.PROP_IDENT + "=" + ServerConstants.IDENT_MAPPING
+            + "*))";
+
+    private static final String NS = "(?:[\\w-]+:)?";
+    private static final Pattern EXECUTE = Pattern.compile("<" + NS + "Execute[\\s>]");
+    private static final Pattern SESSION = Pattern.compile("<" + NS + "(?:Session|BeginSession|EndSession)[\\s>/]");
+    private static final Pattern STATEMENT = Pattern.compile("<" + NS + "Statement>(.*?)</" + NS + "Statement>",
+            Pattern.DOTALL);
+    private static final Pattern PROPERTIES = Pattern.compile("<" + NS + "Properties>(.*?)</" + NS + "Properties>",
+            Pattern.DOTALL);
+    private static final Pattern PARAMETERS = Pattern.compile("<" + NS + "Parameters>(.*?)</" + NS + "Parameters>",
+            Pattern.DOTALL);
+    /** A SOAP fault or an XMLA error or exception instead of a result. */
+    private static final Pattern FAILURE = Pattern.compile("<" + NS + "(?:Fault|Error|Exception)[\\s>/]");
+
+    /** A cached response; {@code credentials} if the request carried some. */
+    record Entry(byte[] body, String contentType, boolean credentials) {
+    }
+
+    private final byte[] salt = new byte[32];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    /** Also the generation of the cache: a response computed before an invalidation is not kept. */
+    private final AtomicLong invalidations = new AtomicLong();
+    private final ServiceListener listener = this::serviceChanged;
+
+    private BundleContext bundleContext;
+    private volatile Cache<String, Entry> cache;
+    private volatile long maxEntryBytes;
+
+    @Activate
+    public void activate(BundleContext bundleContext, Config config) throws InvalidSyntaxException {
+        this.bundleContext = bundleContext;
+        new SecureRandom().nextBytes(salt);
+        configure(config);
+        bundleContext.addServiceListener(listener, FILTER_REPLACED);
+    }
+
+    @Modified
+    public void modified(Config config) {
+        Cache<String, Entry> previous = cache;
+        configure(config);
+        previous.invalidateAll();
+    }
+
+    @Deactivate
+    public void deactivate() {
+        bundleContext.removeServiceListener(listener);
+        cache.invalidateAll();
+    }
+
+    private void configure(Config config) {
+        Duration ttl = Duration.ofSeconds(config.ttlSeconds());
+        long maxBytes = config.maxBytes();
+        Duration credentialTtl = Duration.ofSeconds(config.credentialTtlSeconds());
+        if (credentialTtl.compareTo(ttl) > 0) {
+            credentialTtl = ttl;
+        }
+        maxEntryBytes = Math.min(config.maxEntryBytes(), maxBytes);
+        cache = Caffeine.newBuilder().maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.body().length + key.length())
+                .expireAfter(new WriteExpiry(ttl.toNanos(), credentialTtl.toNanos())).recordStats().build();
+        logger.info("XMLA result cache: ttl {}, {} with credentials, {} bytes, up to {} bytes per response", ttl,
+                credentialTtl, maxBytes, maxEntryBytes);
+    }
+
+    private void serviceChanged(ServiceEvent event) {
+        invalidateAll();
+        logger.debug("XMLA result cache dropped, {} changed", event.getServiceReference());
+    }
+
+    /** Drops all responses, also those of the requests being served now. */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest httpRequest)
+                || !(response instanceof HttpServletResponse httpResponse) || !"POST".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] head = httpRequest.getInputStream().readNBytes(MAX_REQUEST_BYTES + 1);
+        ReplayingRequest replaying = new ReplayingRequest(httpRequest, head);
+        Optional<String> key = head.length > MAX_REQUEST_BYTES ? Optional.empty()
+                : keyOf(httpRequest, new String(head, replaying.charset()));
+        if (key.isEmpty()) {
+            chain.doFilter(replaying, response);
+            return;
+        }
+
+        Cache<String, Entry> current = cache;
+        Entry entry = current.getIfPresent(key.get());
+        if (entry != null) {
+            hits.increment();
+            httpResponse.setStatus(HttpServletResponse.SC_OK);
+            if (entry.contentType() != null) {
+                httpResponse.setContentType(entry.contentType());
+            }
+            httpResponse.setContentLength(entry.body().length);
+            httpResponse.setHeader(HEADER_CACHE, "HIT");
+            httpResponse.getOutputStream().write(entry.body());
+            return;
+        }
+
+        misses.increment();
+        long generation = invalidations.get();
+        httpResponse.setHeader(HEADER_CACHE, "MISS");
+        boolean credentials = httpRequest.getHeader("Authorization") != null
+                || httpRequest.getUserPrincipal() != null;
+        RecordingResponse recording = new RecordingResponse(httpResponse, maxEntryBytes, credentials);
+        chain.doFilter(replaying, recording);
+        recording.finish();
+        Optional<Entry> recorded = recording.entry();
+        if (recorded.isPresent() && generation == invalidations.get()) {
+            current.put(key.get(), recorded.get());
+        }
+    }
+
+    /**
+     * The cache key of an {@code Execute} of an MDX query outside of a
+     * session, empty if the request is not to be cached.
+     */
+    Optional<String> keyOf(HttpServletRequest request, String envelope) {
+        String soapAction = request.getHeader("SOAPAction");
+        boolean execute = soapAction != null ? soapAction.replace("\"", "").trim().endsWith("Execute")
+                : EXECUTE.matcher(envelope).find();
+        Matcher statement = STATEMENT.matcher(envelope);
+        if (!execute || SESSION.matcher(envelope).find() || !statement.find()) {
+            return Optional.empty();
+        }
+        String mdx = normalize(unescape(statement.group(1)));
+        String keyword = mdx.length() >= 6 ? mdx.substring(0, 6).toUpperCase(Locale.ROOT) : "";
+        if (!keyword.startsWith("SELECT") && !keyword.startsWith("WITH")) {
+            return Optional.empty();
+        }
+
+        MessageDigest digest = sha256();
+        digest.update(salt);
+        update(digest, request.getRequestURI());
+        update(digest, request.getHeader("Authorization"));
+        update(digest, request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : null);
+        update(digest, mdx);
+        update(digest, group(PROPERTIES, envelope));
+        update(digest, group(PARAMETERS, envelope));
+        return Optional.of(HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static String group(Pattern pattern, String envelope) {
+        Matcher matcher = pattern.matcher(envelope);
+        // whitespace between elements does not change the request
+        return matcher.find() ? matcher.group(1).replaceAll(">\\s+<", "><").strip() : "";
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update((byte) 0);
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The statement with each run of whitespace outside of brackets and quotes
+     * shortened to one blank, none at either end.
+     */
+    static String normalize(String mdx) {
+        StringBuilder sb = new StringBuilder(mdx.length());
+        char quote = 0;
+        boolean blank = false;
+        for (int i = 0; i < mdx.length(); i++) {
+            char c = mdx.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                blank = true;
+                continue;
+            }
+            if (blank && !sb.isEmpty()) {
+                sb.append(' ');
+            }
+            blank = false;
+            sb.append(c);
+            if (quote == 0 && (c == '[' || c == '\'' || c == '"')) {
+                quote = c == '[' ? ']' : c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** The text of an XML element: the predefined and numeric character references resolved. */
+    static String unescape(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '&' ? text.indexOf(';', i) : -1;
+            if (end < 0) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, end);
+            switch (entity) {
+            case "lt" -> sb.append('<');
+            case "gt" -> sb.append('>');
+            case "amp" -> sb.append('&');
+            case "quot" -> sb.append('"');
+            case "apos" -> sb.append('\'');
+            default -> {
+                try {
+                    sb.appendCodePoint(entity.startsWith("#x") ? Integer.parseInt(entity.substring(2), 16)
+                            : Integer.parseInt(entity.substring(1)));
+                } catch (RuntimeException e) {
+                    sb.append(text, i, end + 1);
+                }
+            }
+            }
+            i = end + 1;
+        }
+        return sb.toString();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public double getHitRatio() {
+        long lookups = hits.sum() + misses.sum();
+        return lookups == 0 ? 0 : (double) hits.sum() / lookups;
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    /** Bytes of the cached responses. */
+    public long getWeightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+        }
+    }
+
+    /** Expires an entry a fixed time after it is written, earlier if it was the answer to credentials. */
+    private record WriteExpiry(long ttlNanos, long credentialTtlNanos) implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.credentials() ? credentialTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /** Hands the envelope read by the filter to the servlet, followed by what is left of the body. */
+    private static final class ReplayingRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream stream;
+
+        ReplayingRequest(HttpServletRequest request, byte[] head) throws IOException {
+            super(request);
+            ServletInputStream rest = request.getInputStream();
+            ByteArrayInputStream replayed = new ByteArrayInputStream(head);
+            InputStream in = new SequenceInputStream(replayed, rest);
+            this.stream = new ServletInputStream() {
+
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = in.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = in.read(b, off, len);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return replayed.available() > 0 || rest.isReady();
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    rest.setReadListener(listener);
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(stream, charset()));
+        }
+
+        Charset charset() {
+            String encoding = getCharacterEncoding();
+            try {
+                return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+    }
+
+    /** Writes the response through and keeps a copy while it fits into a cache entry. */
+    private static final class RecordingResponse extends HttpServletResponseWrapper {
+
+        private final long limit;
+        private final boolean credentials;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(8192);
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        /** Whether the servlet encoded the body itself; an encoding of a filter in front does not count. */
+        private boolean encoded;
+
+        RecordingResponse(HttpServletResponse response, long limit, boolean credentials) {
+            super(response);
+            this.limit = limit;
+            this.credentials = credentials;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            encoded |= "Content-Encoding".equalsIgnoreCase(name) && value != null;
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            encoded |= "Content-Encoding".equalsIgnoreCase(name) && value != null;
+            super.addHeader(name, value);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has been called");
+            }
+            if (stream == null) {
+                stream = new RecordingStream(super.getOutputStream());
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has been called");
+                }
+                stream = new RecordingStream(super.getOutputStream());
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (copy != null) {
+                copy.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            encoded = false;
+            super.reset();
+        }
+
+        void finish() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        /** The copy, if the servlet answered with a complete result. */
+        Optional<Entry> entry() {
+            if (copy == null || copy.size() == 0 || getStatus() != HttpServletResponse.SC_OK || encoded) {
+                return Optional.empty();
+            }
+            byte[] body = copy.toByteArray();
+            // markup is ASCII in every encoding a SOAP response may use
+            if (FAILURE.matcher(new String(body, StandardCharsets.ISO_8859_1)).find()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Entry(body, getContentType(), credentials));
+        }
+
+        private final class RecordingStream extends ServletOutputStream {
+
+            private final ServletOutputStream out;
+
+            RecordingStream(ServletOutputStream out) {
+                this.out = out;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                if (copy != null) {
+                    if (copy.size() + 1 > limit) {
+                        copy = null;
+                    } else {
+                        copy.write(b);
+                    }
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                record(b, off, len);
+            }
+
+            private void record(byte[] b, int off, int len) {
+                if (copy != null) {
+                    if (copy.size() + len > limit) {
+                        copy = null;
+                    } else {
+                        copy.write(b, off, len);
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return out.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                out.setWriteListener(listener);
+            }
+        }
+    }
+}
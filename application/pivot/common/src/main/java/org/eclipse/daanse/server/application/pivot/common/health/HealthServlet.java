@@ -0,0 +1,221 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.health;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.eclipse.daanse.server.application.pivot.common.startup.StartupTimeline;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Liveness and readiness of the pivot server on the HTTP whiteboard.
+ * {@code /health/live} answers as soon as the HTTP server runs;
+ * {@code /health/ready} answers 200 only once the mapping provider, the pool
+ * and the context wired by the configurators are registered - for each
+ * {@link EnvContext} - and the warm-up of a context that has one is over, 503
+ * before. Both report when each stage became active, in milliseconds after
+ * JVM start.
+ * {@code /health/startup} serves the {@link StartupTimeline}.
+ */
+@Component(immediate = true, service = Servlet.class, property = {
+        "osgi.http.whiteboard.servlet.pattern=" + HealthServlet.PATTERN,
+        "osgi.http.whiteboard.servlet.name=daanse-health" })
+public class HealthServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PATTERN = "/health/*";
+
+    /**
+     * The stages in wiring order; all but the DataSource must be up to be
+     * ready. The warm-up stage only exists for contexts with warm-up statements.
+     */
+    private enum Stage {
+        DATASOURCE(ServerConstants.IDENT_DATASOURCE, false), POOL(ServerConstants.IDENT_POOL, true),
+        MAPPING(ServerConstants.IDENT_MAPPING, true), CONTEXT(ServerConstants.IDENT_CONTEXT, true),
+        WARMUP(ServerConstants.IDENT_WARMUP, true);
+
+        final String ident;
+        final boolean required;
+
+        Stage(String ident, boolean required) {
+            this.ident = ident;
+            this.required = required;
+        }
+    }
+
+    private static final String FILTER_STAGES = "(" + ServerConstants.PROP_IDENT + "=env-*)";
+
+    /** By the ident of the service, e.g. {@code env-pool-sales}. */
+    private final transient Map<String, Long> activeSince = new ConcurrentHashMap<>();
+    private final transient ServiceListener listener = this::serviceChanged;
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    @Reference
+    transient StartupTimeline timeline;
+
+    private transient BundleContext bundleContext;
+    private transient List<EnvContext> contexts;
+
+    @Activate
+    public void activate(BundleContext bundleContext) throws InvalidSyntaxException {
+        this.bundleContext = bundleContext;
+        try {
+            contexts = EnvContext.fromEnv();
+        } catch (IllegalArgumentException e) {
+            // the configurators fail on it and log it; not ready, but live
+            contexts = List.of(EnvContext.DEFAULT);
+        }
+        bundleContext.addServiceListener(listener, FILTER_STAGES);
+        ServiceReference<?>[] existing = bundleContext.getAllServiceReferences(null, FILTER_STAGES);
+        if (existing != null) {
+            for (ServiceReference<?> reference : existing) {
+                if (reference.getProperty(ServerConstants.PROP_IDENT) instanceof String ident) {
+                    activeSince.putIfAbsent(ident, System.currentTimeMillis());
+                }
+            }
+        }
+    }
+
+    @Deactivate
+    public void deactivate() {
+        bundleContext.removeServiceListener(listener);
+    }
+
+    private void serviceChanged(ServiceEvent event) {
+        if (!(event.getServiceReference().getProperty(ServerConstants.PROP_IDENT) instanceof String ident)) {
+            return;
+        }
+        switch (event.getType()) {
+        case ServiceEvent.REGISTERED -> activeSince.put(ident, System.currentTimeMillis());
+        case ServiceEvent.UNREGISTERING -> activeSince.remove(ident);
+        default -> {
+            // property changes keep the stage active
+        }
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo();
+        if ("/startup".equals(path)) {
+            write(response, HttpServletResponse.SC_OK, startupJson());
+            return;
+        }
+        boolean live = "/live".equals(path);
+        if (!live && !"/ready".equals(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean ready = contexts.stream().allMatch(context -> stagesOf(context).stream()
+                .filter(s -> s.required).allMatch(s -> activeSince.containsKey(context.ident(s.ident))));
+        boolean up = live || ready;
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"status\":\"").append(up ? "UP" : "DOWN").append('"');
+        json.append(",\"ready\":").append(ready);
+        json.append(",\"uptimeMillis\":").append(System.currentTimeMillis() - jvmStart);
+        json.append(",\"stages\":[");
+        boolean first = true;
+        for (EnvContext context : contexts) {
+            for (Stage stage : stagesOf(context)) {
+                Long since = activeSince.get(context.ident(stage.ident));
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append("{\"name\":\"").append(stage.name().toLowerCase(Locale.ROOT)).append('"');
+                if (!context.isDefault()) {
+                    json.append(",\"context\":\"").append(context.id()).append('"');
+                }
+                json.append(",\"active\":").append(since != null);
+                if (since != null) {
+                    json.append(",\"activeAfterMillis\":").append(since - jvmStart);
+                }
+                json.append('}');
+            }
+        }
+        json.append("]}");
+
+        write(response, up ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                json.toString());
+    }
+
+    private static List<Stage> stagesOf(EnvContext context) {
+        boolean warmup = context.getOwn(ServerConstants.ENV_WARMUP_MDX).isPresent();
+        return Arrays.stream(Stage.values()).filter(stage -> stage != Stage.WARMUP || warmup).toList();
+    }
+
+    private String startupJson() {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"jvmStart\":").append(timeline.jvmStart());
+        json.append(",\"timelineActivatedAfterMillis\":").append(timeline.activatedAfter());
+        appendIfPresent(json, "firstRequestAfterMillis", timeline.firstRequestAfter());
+        appendIfPresent(json, "firstXmlaRequestAfterMillis", timeline.firstXmlaRequestAfter());
+        json.append(",\"steps\":[");
+        boolean first = true;
+        for (StartupTimeline.Step step : timeline.steps()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"name\":\"").append(step.name()).append('"');
+            json.append(",\"pid\":\"").append(step.pid()).append('"');
+            json.append(",\"configuredAfterMillis\":").append(step.configuredAfter());
+            if (step.registered()) {
+                json.append(",\"registeredAfterMillis\":").append(step.registeredAfter());
+            }
+            json.append('}');
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    private static void appendIfPresent(StringBuilder json, String name, OptionalLong value) {
+        if (value.isPresent()) {
+            json.append(",\"").append(name).append("\":").append(value.getAsLong());
+        }
+    }
+
+    private static void write(HttpServletResponse response, int status, String json) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(json);
+    }
+}
@@ -0,0 +1,616 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.http;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Compresses responses with gzip or deflate for clients that accept it, and
+ * inflates request bodies sent with {@code Content-Encoding: gzip} or
+ * {@code deflate}. A request body inflating to more than
+ * {@value #PROP_MAX_REQUEST_BYTES} bytes is answered with 413.
+ *
+ * <p>
+ * A response is held back until it reaches {@value #PROP_MIN_SIZE} bytes;
+ * smaller ones go out unchanged. From there on it is compressed as the servlet
+ * writes it - a flush of the servlet flushes the compressed stream, so large
+ * cellsets are never held in memory as a whole. Asynchronous output is not
+ * compressed.
+ */
+@Component(configurationPid = CompressionFilter.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = Filter.class)
+@Designate(ocd = CompressionFilter.Config.class)
+public class CompressionFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionFilter.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.http.CompressionFilter";
+
+    /** Responses below this many bytes are not compressed. */
+    public static final String PROP_MIN_SIZE = "minSize";
+    /** Deflater level, 1 (fastest) to 9 (smallest). */
+    public static final String PROP_LEVEL = "level";
+    /** Response encodings in order of preference, {@code gzip} and {@code deflate}. */
+    public static final String PROP_ENCODINGS = "encodings";
+    /** Whether compressed request bodies are inflated. */
+    public static final String PROP_REQUESTS = "requests";
+    /** Bytes a compressed request body may inflate to. */
+    public static final String PROP_MAX_REQUEST_BYTES = "maxRequestBytes";
+
+    public static final int DEFAULT_MIN_SIZE = 1024;
+    public static final int DEFAULT_LEVEL = 5;
+    public static final long DEFAULT_MAX_REQUEST_BYTES = 16L * 1024 * 1024;
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    @ObjectClassDefinition(name = "Daanse Compression Filter")
+    public @interface Config {
+
+        @AttributeDefinition(description = "Responses below this many bytes are not compressed")
+        int minSize() default DEFAULT_MIN_SIZE;
+
+        @AttributeDefinition(description = "Deflater level, 1 (fastest) to 9 (smallest)")
+        int level() default DEFAULT_LEVEL;
+
+        @AttributeDefinition(description = "Response encodings in order of preference, gzip and deflate")
+        String[] encodings() default { GZIP, DEFLATE };
+
+        @AttributeDefinition(description = "Whether compressed request bodies are inflated")
+        boolean requests() default true;
+
+        @AttributeDefinition(description = "Bytes a compressed request body may inflate to")
+        long maxRequestBytes() default DEFAULT_MAX_REQUEST_BYTES;
+    }
+
+    /** Content types worth compressing; a response without type is compressed, too. */
+    private static final List<String> COMPRESSIBLE = List.of("text/", "application/xml", "application/soap+xml",
+            "application/json", "application/openmetrics-text", "application/javascript");
+
+    private volatile int minSize;
+    private volatile int level;
+    private volatile List<String> encodings;
+    private volatile boolean requests;
+    private volatile long maxRequestBytes;
+
+    @Activate
+    @Modified
+    public void configure(Config config) {
+        minSize = config.minSize();
+        level = Math.clamp(config.level(), Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION);
+        encodings = encodings(config.encodings());
+        requests = config.requests();
+        maxRequestBytes = config.maxRequestBytes();
+        logger.info("Response compression with {} from {} bytes, level {}; compressed requests {} up to {} bytes",
+                encodings, minSize, level, requests ? "accepted" : "rejected", maxRequestBytes);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest httpRequest)
+                || !(response instanceof HttpServletResponse httpResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String contentEncoding = httpRequest.getHeader("Content-Encoding");
+        if (contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+            String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+            if (!requests || !(GZIP.equals(encoding) || DEFLATE.equals(encoding))) {
+                httpResponse.setHeader("Accept-Encoding", requests ? GZIP + ", " + DEFLATE : "identity");
+                httpResponse.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+                return;
+            }
+            httpRequest = new InflatingRequest(httpRequest, encoding, maxRequestBytes);
+        }
+
+        Optional<String> encoding = "HEAD".equals(httpRequest.getMethod()) ? Optional.empty()
+                : negotiate(httpRequest.getHeader("Accept-Encoding"));
+        if (encoding.isEmpty()) {
+            try {
+                chain.doFilter(httpRequest, httpResponse);
+            } catch (IOException | ServletException e) {
+                if (!tooLarge(e, httpResponse)) {
+                    throw e;
+                }
+            }
+            return;
+        }
+
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+        CompressingResponse compressing = new CompressingResponse(httpResponse, encoding.get());
+        try {
+            chain.doFilter(httpRequest, compressing);
+            compressing.finish();
+        } catch (IOException | ServletException e) {
+            if (!tooLarge(e, httpResponse)) {
+                throw e;
+            }
+        } finally {
+            compressing.end();
+        }
+    }
+
+    /** Answers 413 if the failure is an oversized request body that can still be answered. */
+    private static boolean tooLarge(Exception e, HttpServletResponse response) throws IOException {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestTooLargeException tooLarge && !response.isCommitted()) {
+                logger.debug(tooLarge.getMessage());
+                response.reset();
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The first configured encoding the client accepts, by {@code Accept-Encoding}. */
+    Optional<String> negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Optional.empty();
+        }
+        Map<String, Double> accepted = new HashMap<>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String name = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            accepted.put(name, q);
+        }
+        return encodings.stream()
+                .filter(e -> accepted.getOrDefault(e, accepted.getOrDefault("*", 0.0)) > 0).findFirst();
+    }
+
+    /** The supported encodings, given as several values or as one comma separated value. */
+    private static List<String> encodings(String[] values) {
+        List<String> configured = Arrays.stream(values).flatMap(value -> Arrays.stream(value.split(",")))
+                .filter(value -> !value.isBlank()).toList();
+        if (configured.isEmpty()) {
+            return List.of(GZIP, DEFLATE);
+        }
+        List<String> supported = configured.stream().map(s -> s.trim().toLowerCase(Locale.ROOT))
+                .filter(s -> GZIP.equals(s) || DEFLATE.equals(s)).distinct().toList();
+        if (supported.size() < configured.size()) {
+            logger.warn("Only {} and {} are supported, ignoring the other encodings of {}", GZIP, DEFLATE,
+                    configured);
+        }
+        return supported;
+    }
+
+    private static boolean compressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return COMPRESSIBLE.stream().anyMatch(type::startsWith) || type.contains("+xml");
+    }
+
+    /** A request body inflating to more than the configured bytes. */
+    static final class RequestTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        RequestTooLargeException(long limit) {
+            super("Request body inflates to more than " + limit + " bytes");
+        }
+    }
+
+    /** The request with its body inflated and without {@code Content-Encoding}. */
+    private static final class InflatingRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private final long limit;
+        private ServletInputStream stream;
+
+        InflatingRequest(HttpServletRequest request, String encoding, long limit) {
+            super(request);
+            this.encoding = encoding;
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                ServletInputStream raw = super.getInputStream();
+                InputStream inflated = GZIP.equals(encoding) ? new GZIPInputStream(raw, 8192)
+                        : new InflaterInputStream(raw);
+                stream = new InflatedStream(raw, inflated, limit);
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String charset = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset != null ? charset : "UTF-8"));
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if ("Content-Encoding".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if ("Content-Encoding".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+    }
+
+    private static final class InflatedStream extends ServletInputStream {
+
+        private final ServletInputStream raw;
+        private final InputStream in;
+        private final long limit;
+        private long inflated;
+        private boolean finished;
+
+        InflatedStream(ServletInputStream raw, InputStream in, long limit) {
+            this.raw = raw;
+            this.in = in;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b < 0;
+            count(finished ? 0 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            finished = n < 0;
+            count(Math.max(0, n));
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            inflated += n;
+            if (inflated > limit) {
+                throw new RequestTooLargeException(limit);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return raw.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            raw.setReadListener(listener);
+        }
+    }
+
+    /**
+     * Holds the first {@code minSize} bytes back, then decides: a short or
+     * incompressible response is written as is, anything else compressed.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream(minSize);
+        private final int threshold = minSize;
+        /** Null while undecided. */
+        private OutputStream target;
+        private DeflaterOutputStream compressor;
+        private Deflater deflater;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        private boolean passThrough;
+        private boolean finished;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has been called");
+            }
+            if (stream == null) {
+                stream = new CompressingStream();
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has been called");
+                }
+                stream = new CompressingStream();
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // a known small body is never compressed; a large one gets its length from the compressor
+            if (target == null && len >= 0 && len < threshold) {
+                passThrough = true;
+            }
+            if (passThrough) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                if (value != null) {
+                    setContentLengthLong(Long.parseLong(value.trim()));
+                }
+                return;
+            }
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target != null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (target == null) {
+                head.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (target == null) {
+                head.reset();
+                passThrough = false;
+            }
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                if (head.size() == 0) {
+                    return;
+                }
+                // the whole response stayed below the threshold
+                passThrough = true;
+                super.setContentLengthLong(head.size());
+                decide();
+            }
+            finished = true;
+            try {
+                if (compressor != null) {
+                    compressor.finish();
+                }
+                target.flush();
+            } finally {
+                end();
+            }
+        }
+
+        /** Frees the native memory of the deflater, also of a response that failed. */
+        void end() {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+                compressor = null;
+            }
+        }
+
+        private void decide() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            int status = response.getStatus();
+            boolean compress = !passThrough && head.size() >= threshold && status != SC_NO_CONTENT
+                    && status != SC_NOT_MODIFIED && response.getHeader("Content-Encoding") == null
+                    && compressible(response.getContentType());
+            OutputStream out = response.getOutputStream();
+            if (compress) {
+                response.setHeader("Content-Encoding", encoding);
+                if (GZIP.equals(encoding)) {
+                    GzipStream gzip = new GzipStream(out, level);
+                    deflater = gzip.deflater();
+                    compressor = gzip;
+                } else {
+                    deflater = new Deflater(level);
+                    compressor = new DeflaterOutputStream(out, deflater, 8192, true);
+                }
+                target = compressor;
+            } else {
+                target = out;
+            }
+            head.writeTo(target);
+            head.reset();
+        }
+
+        private final class CompressingStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                if (target == null) {
+                    head.write(b);
+                    if (head.size() >= threshold || passThrough) {
+                        decide();
+                    }
+                } else {
+                    target.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (target == null) {
+                    head.write(b, off, len);
+                    if (head.size() >= threshold || passThrough) {
+                        decide();
+                    }
+                } else {
+                    target.write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // undecided output is held back: an early flush would rule out compression
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+            }
+
+            @Override
+            public boolean isReady() {
+                if (target == null || compressor != null) {
+                    return true;
+                }
+                try {
+                    return getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                try {
+                    if (target == null) {
+                        // a head held back could not be written when the container is ready for it
+                        passThrough = true;
+                        decide();
+                    }
+                    getResponse().getOutputStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /** {@link GZIPOutputStream} at the given level, flushing what it has on {@code flush()}. */
+    private static final class GzipStream extends GZIPOutputStream {
+
+        GzipStream(OutputStream out, int level) throws IOException {
+            super(out, 8192, true);
+            def.setLevel(level);
+        }
+
+        /** The deflater, to be ended by the response: the stream is finished, never closed. */
+        Deflater deflater() {
+            return def;
+        }
+    }
+}
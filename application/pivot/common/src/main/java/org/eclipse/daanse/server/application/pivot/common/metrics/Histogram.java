@@ -0,0 +1,68 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Cumulative histogram of durations in seconds with fixed bucket bounds. */
+final class Histogram {
+
+    /** Bounds of XMLA request durations, 5 ms to 2 minutes. */
+    static final double[] REQUEST_BOUNDS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120 };
+
+    private final double[] bounds;
+    /** One more than bounds, the last one counts what exceeds every bound. */
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(double[] bounds) {
+        this.bounds = bounds;
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    void observeNanos(long nanos) {
+        double seconds = nanos / 1e9;
+        int i = 0;
+        while (i < bounds.length && seconds > bounds[i]) {
+            i++;
+        }
+        counts[i].increment();
+        sum.add(seconds);
+    }
+
+    /** Writes the {@code _bucket}, {@code _count} and {@code _sum} samples. */
+    void write(MetricsText text, String name, String labels) {
+        long[] snapshot = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        write(text, name, labels, bounds, snapshot, sum.sum());
+    }
+
+    /** As {@link #write(MetricsText, String, String)}, for counts kept elsewhere, one more than the bounds. */
+    static void write(MetricsText text, String name, String labels, double[] bounds, long[] counts, double sum) {
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String le = i < bounds.length ? MetricsText.number(bounds[i]) : "+Inf";
+            text.sample(name + "_bucket", MetricsText.join(labels, MetricsText.labels("le", le)), cumulative);
+        }
+        text.sample(name + "_count", labels, cumulative);
+        text.sample(name + "_sum", labels, sum);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.metrics;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.eclipse.daanse.server.application.pivot.common.auth.LdapAuthCache;
+import org.eclipse.daanse.server.application.pivot.common.cache.XmlaResultCache;
+import org.eclipse.daanse.server.application.pivot.common.pool.PoolMonitor;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the metrics of the pivot server for Prometheus compatible scrapers:
+ * XMLA requests by method and catalog, the connection pool, the LDAP
+ * authentication and XMLA result caches while they are configured, and the
+ * JVM. OpenMetrics is served if the scraper accepts it, the Prometheus text
+ * format otherwise. The path is configured by {@code CommonServerConfigurator}.
+ */
+@Component(configurationPid = MetricsServlet.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = Servlet.class)
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.metrics.MetricsServlet";
+
+    @Reference
+    transient XmlaMetricsFilter xmlaMetrics;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    transient volatile LdapAuthCache authCache;
+
+    @Reference
+    transient PoolMonitor poolMonitor;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    transient volatile XmlaResultCache resultCache;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String accept = request.getHeader("Accept");
+        MetricsText text = new MetricsText(accept != null && accept.contains("application/openmetrics-text"));
+
+        xmlaMetrics.write(text);
+        PoolMetrics.write(text, poolMonitor);
+        writeCaches(text);
+        writeJvm(text);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(text.contentType());
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(text.toString());
+    }
+
+    private void writeCaches(MetricsText text) {
+        String labels = MetricsText.labels("cache", "ldap_auth");
+        LdapAuthCache auth = authCache;
+        XmlaResultCache results = resultCache;
+        String resultLabels = MetricsText.labels("cache", "xmla_result");
+        text.counter("daanse_cache_hits", "Lookups answered from a cache");
+        if (auth != null) {
+            text.sample("daanse_cache_hits_total", labels, auth.getHitCount());
+        }
+        if (results != null) {
+            text.sample("daanse_cache_hits_total", resultLabels, results.getHitCount());
+        }
+        text.counter("daanse_cache_misses", "Lookups a cache passed on");
+        if (auth != null) {
+            text.sample("daanse_cache_misses_total", labels, auth.getMissCount());
+        }
+        if (results != null) {
+            text.sample("daanse_cache_misses_total", resultLabels, results.getMissCount());
+        }
+        text.gauge("daanse_cache_hit_ratio", "Share of the lookups answered from a cache");
+        if (auth != null) {
+            text.sample("daanse_cache_hit_ratio", labels, auth.getHitRatio());
+        }
+        if (results != null) {
+            text.sample("daanse_cache_hit_ratio", resultLabels, results.getHitRatio());
+        }
+        text.gauge("daanse_cache_size", "Entries of a cache");
+        if (auth != null) {
+            text.sample("daanse_cache_size", labels, auth.getSize());
+        }
+        if (results != null) {
+            text.sample("daanse_cache_size", resultLabels, results.getSize());
+            text.gauge("daanse_cache_bytes", "Bytes of the responses a cache holds");
+            text.sample("daanse_cache_bytes", resultLabels, results.getWeightedSize());
+            text.counter("daanse_cache_evictions", "Entries a cache dropped for its size bound");
+            text.sample("daanse_cache_evictions_total", resultLabels, results.getEvictionCount());
+            text.counter("daanse_cache_invalidations", "Times a cache was dropped as a whole");
+            text.sample("daanse_cache_invalidations_total", resultLabels, results.getInvalidationCount());
+        }
+    }
+
+    private static void writeJvm(MetricsText text) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        String heapLabels = MetricsText.labels("area", "heap");
+        String nonHeapLabels = MetricsText.labels("area", "nonheap");
+        text.gauge("jvm_memory_used_bytes", "Used memory by area");
+        text.sample("jvm_memory_used_bytes", heapLabels, heap.getUsed());
+        text.sample("jvm_memory_used_bytes", nonHeapLabels, nonHeap.getUsed());
+        text.gauge("jvm_memory_committed_bytes", "Committed memory by area");
+        text.sample("jvm_memory_committed_bytes", heapLabels, heap.getCommitted());
+        text.sample("jvm_memory_committed_bytes", nonHeapLabels, nonHeap.getCommitted());
+        text.gauge("jvm_memory_max_bytes", "Maximum memory by area, -1 if undefined");
+        text.sample("jvm_memory_max_bytes", heapLabels, heap.getMax());
+
+        text.counter("jvm_gc_collections", "Collections by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            text.sample("jvm_gc_collections_total", MetricsText.labels("gc", gc.getName()), gc.getCollectionCount());
+        }
+        text.counter("jvm_gc_collection_seconds", "Time spent in collections by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            text.sample("jvm_gc_collection_seconds_total", MetricsText.labels("gc", gc.getName()),
+                    gc.getCollectionTime() / 1000.0);
+        }
+
+        // com.sun.management.ThreadMXBean through JMX, jdk.management is not a system package
+        try {
+            Object allocated = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME), "TotalThreadAllocatedBytes");
+            if (allocated instanceof Number bytes && bytes.longValue() >= 0) {
+                text.counter("jvm_allocated_bytes", "Bytes allocated by all threads since JVM start");
+                text.sample("jvm_allocated_bytes_total", "", bytes.doubleValue());
+            }
+        } catch (JMException e) {
+            // not offered by this JVM
+        }
+
+        text.gauge("jvm_threads_live", "Live threads");
+        text.sample("jvm_threads_live", "", ManagementFactory.getThreadMXBean().getThreadCount());
+        text.gauge("process_uptime_seconds", "Time since JVM start");
+        text.sample("process_uptime_seconds", "", ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.metrics;
+
+/**
+ * Writes metric families in the OpenMetrics text format, or in the older
+ * Prometheus text format for scrapers that do not ask for OpenMetrics. The
+ * two differ in the name of counter families and the {@code # EOF} trailer.
+ */
+final class MetricsText {
+
+    static final String CONTENT_TYPE_OPENMETRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final boolean openMetrics;
+    private final StringBuilder sb = new StringBuilder(8192);
+
+    MetricsText(boolean openMetrics) {
+        this.openMetrics = openMetrics;
+    }
+
+    String contentType() {
+        return openMetrics ? CONTENT_TYPE_OPENMETRICS : CONTENT_TYPE_PROMETHEUS;
+    }
+
+    /** A counter family; its samples are named {@code name_total}. */
+    void counter(String name, String help) {
+        family(openMetrics ? name : name + "_total", "counter", help);
+    }
+
+    void gauge(String name, String help) {
+        family(name, "gauge", help);
+    }
+
+    void histogram(String name, String help) {
+        family(name, "histogram", help);
+    }
+
+    void sample(String name, String labels, double value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(number(value)).append('\n');
+    }
+
+    /** Labels as {@code key="value",...}, the values escaped. */
+    static String labels(String... keysAndValues) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i + 1 < keysAndValues.length; i += 2) {
+            if (!labels.isEmpty()) {
+                labels.append(',');
+            }
+            labels.append(keysAndValues[i]).append("=\"");
+            String value = keysAndValues[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                case '\\' -> labels.append("\\\\");
+                case '"' -> labels.append("\\\"");
+                case '\n' -> labels.append("\\n");
+                default -> labels.append(ch);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.toString();
+    }
+
+    static String join(String labels, String more) {
+        return labels.isEmpty() ? more : labels + "," + more;
+    }
+
+    static String number(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return openMetrics ? sb + "# EOF\n" : sb.toString();
+    }
+
+    private void family(String name, String type, String help) {
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+}
@@ -0,0 +1,85 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.metrics;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+import org.eclipse.daanse.server.application.pivot.common.pool.MonitoredPool;
+import org.eclipse.daanse.server.application.pivot.common.pool.PoolMonitor;
+
+/**
+ * Gauges and connection wait times of the pools seen by the
+ * {@link PoolMonitor}: the pool of the context, labelled by {@code context}
+ * for the contexts of {@code DAANSE_CONTEXTS}, and the pools of read replicas,
+ * labelled by {@code replica}. Pools that refused the monitor's tracker report
+ * gauges only.
+ */
+final class PoolMetrics {
+
+    private PoolMetrics() {
+    }
+
+    static void write(MetricsText text, PoolMonitor monitor) {
+        List<MonitoredPool> pools = monitor.pools();
+
+        text.gauge("daanse_pool_connections", "Connections of the pool by state");
+        for (MonitoredPool pool : pools) {
+            sample(text, "daanse_pool_connections", state(pool, "active"), pool.activeConnections());
+            sample(text, "daanse_pool_connections", state(pool, "idle"), pool.idleConnections());
+            sample(text, "daanse_pool_connections", state(pool, "total"), pool.totalConnections());
+        }
+        text.gauge("daanse_pool_pending_threads", "Threads waiting for a connection of the pool");
+        for (MonitoredPool pool : pools) {
+            sample(text, "daanse_pool_pending_threads", labelsOf(pool), pool.pendingThreads());
+        }
+        text.gauge("daanse_pool_max_connections", "Configured upper bound of the pool");
+        for (MonitoredPool pool : pools) {
+            sample(text, "daanse_pool_max_connections", labelsOf(pool), pool.maximumPoolSize());
+        }
+
+        List<MonitoredPool> tracking = pools.stream().filter(MonitoredPool::tracking).toList();
+        if (!tracking.isEmpty()) {
+            text.histogram("daanse_pool_acquire_seconds", "Time callers waited for a connection of the pool");
+            for (MonitoredPool pool : tracking) {
+                Histogram.write(text, "daanse_pool_acquire_seconds", labelsOf(pool), MonitoredPool.WAIT_BOUNDS,
+                        pool.waitCounts(), pool.waitSeconds());
+            }
+            text.counter("daanse_pool_acquire_timeouts", "Connection requests that timed out");
+            for (MonitoredPool pool : tracking) {
+                text.sample("daanse_pool_acquire_timeouts_total", labelsOf(pool), pool.timeouts());
+            }
+        }
+    }
+
+    /**
+     * {@code context="sales"} for the pool of context {@code sales}, none for
+     * the single pool; {@code replica="r1"} for the pools of replicas.
+     */
+    private static String labelsOf(MonitoredPool pool) {
+        String labels = pool.context().isEmpty() ? "" : MetricsText.labels("context", pool.context());
+        return pool.replica().map(replica -> MetricsText.join(labels, MetricsText.labels("replica", replica)))
+                .orElse(labels);
+    }
+
+    private static String state(MonitoredPool pool, String state) {
+        return MetricsText.join(labelsOf(pool), MetricsText.labels("state", state));
+    }
+
+    private static void sample(MetricsText text, String name, String labels, OptionalInt value) {
+        if (value.isPresent()) {
+            text.sample(name, labels, value.getAsInt());
+        }
+    }
+}
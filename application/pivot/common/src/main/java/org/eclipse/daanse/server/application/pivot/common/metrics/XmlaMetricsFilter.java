@@ -0,0 +1,220 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.metrics;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Times the requests to the XMLA servlet, by XMLA method and catalog. The
+ * method comes from the {@code SOAPAction} header, or from the envelope when
+ * a client leaves the header out; the catalog from the {@code Catalog}
+ * property of the envelope. The envelope is looked at as the servlet reads
+ * it, up to {@value #CAPTURE_LIMIT} bytes, so the request is not read twice.
+ */
+@Component(configurationPid = XmlaMetricsFilter.PID, configurationPolicy = ConfigurationPolicy.REQUIRE, service = {
+        Filter.class, XmlaMetricsFilter.class })
+public class XmlaMetricsFilter implements Filter {
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.metrics.XmlaMetricsFilter";
+
+    static final int CAPTURE_LIMIT = 64 * 1024;
+    /** Catalogs beyond this many are counted as {@value #OTHER}, against arbitrary names in requests. */
+    static final int MAX_CATALOGS = 100;
+    static final String OTHER = "other";
+
+    private static final Pattern METHOD = Pattern.compile("<(?:[\\w-]+:)?(Execute|Discover)[\\s>]");
+    private static final Pattern CATALOG = Pattern
+            .compile("<(?:[\\w-]+:)?Catalog>\\s*([^<]{1,128}?)\\s*</(?:[\\w-]+:)?Catalog>");
+
+    private record Series(String method, String catalog) {
+    }
+
+    private final Map<Series, Histogram> durations = new ConcurrentHashMap<>();
+    private final Map<Series, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Set<String> catalogs = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest http) || !"POST".equals(http.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CapturingRequest capturing = new CapturingRequest(http);
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(capturing, response);
+            failed = response instanceof HttpServletResponse r && r.getStatus() >= 400;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            inFlight.decrementAndGet();
+            Series series = seriesOf(http, capturing.captured());
+            durations.computeIfAbsent(series, s -> new Histogram(Histogram.REQUEST_BOUNDS)).observeNanos(nanos);
+            if (failed) {
+                errors.computeIfAbsent(series, s -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    void write(MetricsText text) {
+        text.gauge("daanse_xmla_requests_in_flight", "XMLA requests being served");
+        text.sample("daanse_xmla_requests_in_flight", "", inFlight.get());
+
+        text.histogram("daanse_xmla_request_seconds", "Duration of XMLA requests by method and catalog");
+        durations.forEach((series, histogram) -> histogram.write(text, "daanse_xmla_request_seconds",
+                MetricsText.labels("method", series.method(), "catalog", series.catalog())));
+
+        text.counter("daanse_xmla_request_errors", "XMLA requests answered with a status of 400 or above");
+        errors.forEach((series, count) -> text.sample("daanse_xmla_request_errors_total",
+                MetricsText.labels("method", series.method(), "catalog", series.catalog()), count.sum()));
+    }
+
+    private Series seriesOf(HttpServletRequest request, String envelope) {
+        String method = methodOf(request.getHeader("SOAPAction"));
+        if (method == null) {
+            Matcher m = METHOD.matcher(envelope);
+            method = m.find() ? m.group(1) : OTHER;
+        }
+        Matcher m = CATALOG.matcher(envelope);
+        String catalog = m.find() ? m.group(1) : "";
+        if (!catalogs.contains(catalog)) {
+            if (catalogs.size() >= MAX_CATALOGS) {
+                catalog = OTHER;
+            } else {
+                catalogs.add(catalog);
+            }
+        }
+        return new Series(method, catalog);
+    }
+
+    /** {@code Execute} of {@code "urn:schemas-microsoft-com:xml-analysis:Execute"}. */
+    private static String methodOf(String soapAction) {
+        if (soapAction == null) {
+            return null;
+        }
+        String action = soapAction.replace("\"", "").trim();
+        String method = action.substring(action.lastIndexOf(':') + 1);
+        return "Execute".equals(method) || "Discover".equals(method) ? method : null;
+    }
+
+    /** Keeps a copy of the first bytes of the body while the servlet reads it. */
+    private static final class CapturingRequest extends HttpServletRequestWrapper {
+
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream(1024);
+        private ServletInputStream stream;
+
+        CapturingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        String captured() {
+            return head.toString(charset());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new CapturingStream(super.getInputStream(), head);
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
+        }
+
+        private Charset charset() {
+            String encoding = getCharacterEncoding();
+            try {
+                return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+    }
+
+    private static final class CapturingStream extends ServletInputStream {
+
+        private final ServletInputStream in;
+        private final ByteArrayOutputStream head;
+
+        CapturingStream(ServletInputStream in, ByteArrayOutputStream head) {
+            this.in = in;
+            this.head = head;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0 && head.size() < CAPTURE_LIMIT) {
+                head.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0 && head.size() < CAPTURE_LIMIT) {
+                head.write(b, off, Math.min(n, CAPTURE_LIMIT - head.size()));
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            in.setReadListener(listener);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.pool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resizes the running pools of the {@link PoolMonitor} between
+ * {@value #PROP_MIN_SIZE} and {@value #PROP_MAX_SIZE}, from what was observed
+ * during the last {@value #PROP_INTERVAL_SECONDS} seconds:
+ * <ul>
+ * <li>statement latency - how long connections were borrowed - more than
+ * {@value #PROP_LATENCY_TOLERANCE_PERCENT} percent over its baseline means the
+ * database is overloaded: the pool shrinks by a quarter, whether callers wait
+ * or not, as more connections would only queue in the database;</li>
+ * <li>otherwise a mean connection wait above {@value #PROP_TARGET_WAIT_MILLIS}
+ * milliseconds, or a timed out request, grows the pool by a quarter;</li>
+ * <li>fewer than half the connections busy on average for
+ * {@value #CALM_WINDOWS} intervals in a row shrinks it by a tenth, not below
+ * twice the busy connections.</li>
+ * </ul>
+ * The baseline is the lowest latency seen, drifting towards the current one
+ * so a lasting change of the workload becomes the new normal. Every resize is
+ * logged with the observations behind it, and the decisions to keep a size at
+ * debug level. Pools that refused the monitor's tracker keep their size.
+ */
+@Component(configurationPid = AdaptivePoolSizer.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = AdaptivePoolSizer.class)
+@Designate(ocd = AdaptivePoolSizer.Config.class)
+public class AdaptivePoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.pool.AdaptivePoolSizer";
+
+    public static final String PROP_MIN_SIZE = "minSize";
+    /** Upper bound; 0 or unset is the size each pool was configured with. */
+    public static final String PROP_MAX_SIZE = "maxSize";
+    public static final String PROP_INTERVAL_SECONDS = "intervalSeconds";
+    public static final String PROP_TARGET_WAIT_MILLIS = "targetWaitMillis";
+    public static final String PROP_LATENCY_TOLERANCE_PERCENT = "latencyTolerancePercent";
+
+    public static final int DEFAULT_MIN_SIZE = 2;
+    public static final int DEFAULT_INTERVAL_SECONDS = 10;
+    public static final int DEFAULT_TARGET_WAIT_MILLIS = 10;
+    public static final int DEFAULT_LATENCY_TOLERANCE_PERCENT = 100;
+
+    @ObjectClassDefinition(name = "Daanse Adaptive Pool Sizer")
+    public @interface Config {
+
+        @AttributeDefinition(description = "Smallest size a pool is shrunk to")
+        int minSize() default DEFAULT_MIN_SIZE;
+
+        @AttributeDefinition(description = "Largest size a pool is grown to; 0 is the size it was configured with")
+        int maxSize() default 0;
+
+        @AttributeDefinition(description = "Seconds between two evaluations")
+        int intervalSeconds() default DEFAULT_INTERVAL_SECONDS;
+
+        @AttributeDefinition(description = "Mean connection wait in milliseconds above which a pool grows")
+        int targetWaitMillis() default DEFAULT_TARGET_WAIT_MILLIS;
+
+        @AttributeDefinition(description = "Percent the statement latency may rise over its baseline")
+        int latencyTolerancePercent() default DEFAULT_LATENCY_TOLERANCE_PERCENT;
+    }
+
+    static final int CALM_WINDOWS = 3;
+    /** A rise of the latency below this is noise, however large relative to the baseline. */
+    static final double MIN_LATENCY_RISE_MILLIS = 10;
+    static final double BASELINE_DRIFT = 0.05;
+
+    record Settings(int minSize, int maxSize, long intervalMillis, double targetWaitMillis, double latencyTolerance) {
+    }
+
+    /**
+     * What happened during one interval.
+     *
+     * @param waitMillis    mean connection wait, 0 without acquisitions
+     * @param busy          connections in use on average
+     * @param latencyMillis mean time a connection was borrowed, {@code NaN}
+     *                      if none was returned
+     */
+    record Window(long acquisitions, double waitMillis, long timeouts, double busy, double latencyMillis) {
+    }
+
+    record Decision(int size, String reason) {
+    }
+
+    @Reference
+    PoolMonitor monitor;
+
+    private final Map<MonitoredPool, Sizing> sizings = new ConcurrentHashMap<>();
+    private volatile Settings settings;
+    private ScheduledExecutorService scheduler;
+
+    @Activate
+    @Modified
+    public void configure(Config config) {
+        int minSize = config.minSize();
+        int maxSize = config.maxSize();
+        if (minSize < 1 || maxSize < 0 || maxSize > 0 && maxSize < minSize) {
+            throw new IllegalArgumentException(
+                    "Adaptive pool sizing needs 1 <= " + PROP_MIN_SIZE + " <= " + PROP_MAX_SIZE + ", got " + minSize
+                            + " and " + maxSize);
+        }
+        settings = new Settings(minSize, maxSize,
+                TimeUnit.SECONDS.toMillis(Math.max(1, config.intervalSeconds())), config.targetWaitMillis(),
+                config.latencyTolerancePercent() / 100.0);
+        // the bounds of the pools follow the new settings
+        sizings.clear();
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "daanse-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::evaluateQuietly, settings.intervalMillis(), settings.intervalMillis(),
+                TimeUnit.MILLISECONDS);
+        logger.info("Adaptive pool sizing between {} and {} every {} s, target wait {} ms, latency tolerance {} %",
+                minSize, maxSize > 0 ? maxSize : "the configured size", settings.intervalMillis() / 1000,
+                settings.targetWaitMillis(), Math.round(settings.latencyTolerance() * 100));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        scheduler.shutdownNow();
+        sizings.clear();
+    }
+
+    private void evaluateQuietly() {
+        try {
+            evaluate();
+        } catch (RuntimeException e) {
+            logger.warn("Adaptive pool sizing failed, trying again next interval", e);
+        }
+    }
+
+    void evaluate() {
+        List<MonitoredPool> pools = monitor.pools();
+        sizings.keySet().retainAll(pools);
+        long now = System.nanoTime();
+        for (MonitoredPool pool : pools) {
+            OptionalInt size = pool.maximumPoolSize();
+            if (!pool.tracking() || size.isEmpty()) {
+                continue;
+            }
+            Sizing sizing = sizings.get(pool);
+            if (sizing == null) {
+                sizings.put(pool, new Sizing(settings, size.getAsInt(), pool, now));
+                continue;
+            }
+            Window window = sizing.window(pool, now);
+            Decision decision = sizing.decide(size.getAsInt(), window);
+            String observed = describe(window, sizing.baselineMillis());
+            if (decision.size() == size.getAsInt()) {
+                logger.debug("Keeping {} at {}: {} ({})", pool, decision.size(), decision.reason(), observed);
+            } else if (pool.setMaximumPoolSize(decision.size())) {
+                logger.info("Resizing {} from {} to {}: {} ({})", pool, size.getAsInt(), decision.size(),
+                        decision.reason(), observed);
+            } else {
+                logger.warn("{} refused the size {}, leaving it at {}", pool, decision.size(), size.getAsInt());
+                sizings.remove(pool);
+            }
+        }
+    }
+
+    private static String describe(Window window, double baselineMillis) {
+        return String.format(
+                "wait %.1f ms over %d acquisitions, %d timeouts, %.1f busy, latency %.1f ms, baseline %.1f ms",
+                window.waitMillis(), window.acquisitions(), window.timeouts(), window.busy(), window.latencyMillis(),
+                baselineMillis);
+    }
+
+    /** The bounds, the baseline and the last observations of one pool. */
+    static final class Sizing {
+
+        private final Settings settings;
+        final int lower;
+        final int upper;
+
+        private long acquisitions;
+        private double waitSeconds;
+        private long timeouts;
+        private long usages;
+        private long usageMillis;
+        private long nanos;
+
+        private double baselineMillis = Double.NaN;
+        private int calm;
+
+        Sizing(Settings settings, int configuredSize, MonitoredPool pool, long nanos) {
+            this.settings = settings;
+            this.upper = settings.maxSize() > 0 ? settings.maxSize() : Math.max(configuredSize, settings.minSize());
+            this.lower = Math.min(settings.minSize(), upper);
+            if (pool != null) {
+                window(pool, nanos);
+            }
+        }
+
+        double baselineMillis() {
+            return baselineMillis;
+        }
+
+        /** The observations since the previous call. */
+        Window window(MonitoredPool pool, long now) {
+            long acquired = pool.acquisitions();
+            double waited = pool.waitSeconds();
+            long timedOut = pool.timeouts();
+            long used = pool.usages();
+            long usedMillis = pool.usageMillis();
+
+            long newAcquisitions = acquired - acquisitions;
+            long newUsages = used - usages;
+            double elapsedMillis = Math.max(1, (now - nanos) / 1e6);
+            Window window = new Window(newAcquisitions,
+                    newAcquisitions > 0 ? (waited - waitSeconds) * 1000 / newAcquisitions : 0, timedOut - timeouts,
+                    (usedMillis - usageMillis) / elapsedMillis,
+                    newUsages > 0 ? (double) (usedMillis - usageMillis) / newUsages : Double.NaN);
+
+            acquisitions = acquired;
+            waitSeconds = waited;
+            timeouts = timedOut;
+            usages = used;
+            usageMillis = usedMillis;
+            nanos = now;
+            return window;
+        }
+
+        Decision decide(int size, Window window) {
+            double latency = window.latencyMillis();
+            boolean overloaded = !Double.isNaN(latency) && !Double.isNaN(baselineMillis)
+                    && latency > baselineMillis * (1 + settings.latencyTolerance())
+                    && latency - baselineMillis >= MIN_LATENCY_RISE_MILLIS;
+            boolean starved = window.timeouts() > 0 || window.waitMillis() > settings.targetWaitMillis();
+            if (!Double.isNaN(latency)) {
+                baselineMillis = Double.isNaN(baselineMillis) || latency < baselineMillis ? latency
+                        : baselineMillis + (latency - baselineMillis) * BASELINE_DRIFT;
+            }
+
+            if (size > upper || size < lower) {
+                calm = 0;
+                return new Decision(Math.clamp(size, lower, upper), "outside the bounds " + lower + ".." + upper);
+            }
+            if (overloaded) {
+                calm = 0;
+                return size > lower ? new Decision(Math.max(lower, size - step(size, 4)), "latency over baseline")
+                        : new Decision(size, "latency over baseline, at the lower bound");
+            }
+            if (starved) {
+                calm = 0;
+                return size < upper ? new Decision(Math.min(upper, size + step(size, 4)), "callers wait")
+                        : new Decision(size, "callers wait, at the upper bound");
+            }
+            if (window.busy() < size / 2.0) {
+                if (++calm >= CALM_WINDOWS && size > lower) {
+                    calm = 0;
+                    int target = Math.max((int) Math.ceil(window.busy() * 2), size - step(size, 10));
+                    return new Decision(Math.max(lower, Math.min(size - 1, target)), "mostly idle");
+                }
+                return new Decision(size, "mostly idle");
+            }
+            calm = 0;
+            return new Decision(size, "steady");
+        }
+
+        private static int step(int size, int divisor) {
+            return Math.max(1, size / divisor);
+        }
+    }
+}
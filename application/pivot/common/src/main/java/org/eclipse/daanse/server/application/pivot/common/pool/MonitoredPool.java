@@ -0,0 +1,244 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.pool;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * A pool seen by the {@link PoolMonitor}: its gauges, read from the pool, and
+ * what the installed metrics tracker observed since the pool was registered -
+ * connection waits, timeouts and how long connections were in use. The
+ * observations are cumulative; readers that want a rate keep the previous
+ * values.
+ */
+public final class MonitoredPool {
+
+    /** Bounds of connection acquisition waits in seconds, 0.1 ms to 30 s. */
+    public static final double[] WAIT_BOUNDS = { 0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 30 };
+
+    final Object service;
+    private final String context;
+    private final String replica;
+
+    /** One more than the bounds, the last one counts what exceeds every bound. */
+    private final LongAdder[] waitCounts = new LongAdder[WAIT_BOUNDS.length + 1];
+    private final DoubleAdder waitSeconds = new DoubleAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder usages = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+
+    /** The pool's {@code PoolStats}, once the pool has handed them to the installed factory. */
+    volatile Object poolStats;
+    volatile boolean tracking;
+    /** The pool's own minimumIdle, before {@link #setMaximumPoolSize(int)} first lowered it; -1 until read. */
+    private int configuredMinimumIdle = -1;
+
+    MonitoredPool(Object service, String context, String replica) {
+        this.service = service;
+        this.context = context;
+        this.replica = replica;
+        for (int i = 0; i < waitCounts.length; i++) {
+            waitCounts[i] = new LongAdder();
+        }
+    }
+
+    /** The id of the context of {@code DAANSE_CONTEXTS}, empty for the single context. */
+    public String context() {
+        return context;
+    }
+
+    /** The replica this pool connects to, empty unless it is the pool of a replica. */
+    public Optional<String> replica() {
+        return Optional.ofNullable(replica);
+    }
+
+    /** The pool as a {@code DataSource}, to take connections from. */
+    public Optional<DataSource> dataSource() {
+        return service instanceof DataSource dataSource ? Optional.of(dataSource) : Optional.empty();
+    }
+
+    /** Whether the tracker is installed, so there are observations at all. */
+    public boolean tracking() {
+        return tracking;
+    }
+
+    /** Acquisitions by bucket of {@link #WAIT_BOUNDS}, not cumulative. */
+    public long[] waitCounts() {
+        long[] counts = new long[waitCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = waitCounts[i].sum();
+        }
+        return counts;
+    }
+
+    public long acquisitions() {
+        long acquisitions = 0;
+        for (LongAdder count : waitCounts) {
+            acquisitions += count.sum();
+        }
+        return acquisitions;
+    }
+
+    /** Time callers waited for a connection, summed over all acquisitions. */
+    public double waitSeconds() {
+        return waitSeconds.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    /** Connections handed back to the pool. */
+    public long usages() {
+        return usages.sum();
+    }
+
+    /** Time connections were borrowed, summed over all {@link #usages()}. */
+    public long usageMillis() {
+        return usageMillis.sum();
+    }
+
+    public OptionalInt activeConnections() {
+        return statistic("getActiveConnections");
+    }
+
+    public OptionalInt idleConnections() {
+        return statistic("getIdleConnections");
+    }
+
+    public OptionalInt totalConnections() {
+        return statistic("getTotalConnections");
+    }
+
+    public OptionalInt pendingThreads() {
+        OptionalInt pending = statistic("getPendingThreads");
+        return pending.isPresent() ? pending : statistic("getThreadsAwaitingConnection");
+    }
+
+    public OptionalInt maximumPoolSize() {
+        return intValue(service, "getMaximumPoolSize");
+    }
+
+    public OptionalInt minimumIdle() {
+        return intValue(service, "getMinimumIdle");
+    }
+
+    /**
+     * Changes the upper bound of the running pool; HikariCP takes it without a
+     * restart. Connections beyond it are not closed, they retire once idle
+     * for the pool's idle timeout. The pool's minimumIdle is lowered along
+     * with a smaller size and given back, up to what the pool was configured
+     * with, as the size grows again.
+     *
+     * @return whether the pool took the size
+     */
+    public synchronized boolean setMaximumPoolSize(int size) {
+        OptionalInt minimumIdle = minimumIdle();
+        if (minimumIdle.isEmpty()) {
+            return set("setMaximumPoolSize", size);
+        }
+        if (configuredMinimumIdle < 0) {
+            configuredMinimumIdle = minimumIdle.getAsInt();
+        }
+        // HikariCP only retires idle connections when minimumIdle is below the maximum
+        int idle = Math.min(configuredMinimumIdle, size);
+        if (idle < minimumIdle.getAsInt() && !set("setMinimumIdle", idle)) {
+            return false;
+        }
+        if (!set("setMaximumPoolSize", size)) {
+            return false;
+        }
+        return idle <= minimumIdle.getAsInt() || set("setMinimumIdle", idle);
+    }
+
+    /**
+     * Marks the pool's connections for eviction: idle ones are closed now,
+     * borrowed ones when they are returned.
+     *
+     * @return whether the pool took it
+     */
+    public boolean softEvictConnections() {
+        try {
+            Object bean = service.getClass().getMethod("getHikariPoolMXBean").invoke(service);
+            if (bean == null) {
+                return false;
+            }
+            bean.getClass().getMethod("softEvictConnections").invoke(bean);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    void observeWaitNanos(long nanos) {
+        double seconds = nanos / 1e9;
+        int i = 0;
+        while (i < WAIT_BOUNDS.length && seconds > WAIT_BOUNDS[i]) {
+            i++;
+        }
+        waitCounts[i].increment();
+        waitSeconds.add(seconds);
+    }
+
+    void timedOut() {
+        timeouts.increment();
+    }
+
+    void used(long millis) {
+        usages.increment();
+        usageMillis.add(millis);
+    }
+
+    @Override
+    public String toString() {
+        String name = context.isEmpty() ? "pool" : "pool of context " + context;
+        return replica != null ? name + " on replica " + replica : name;
+    }
+
+    private OptionalInt statistic(String getter) {
+        Object stats = poolStats;
+        if (stats == null) {
+            try {
+                stats = service.getClass().getMethod("getHikariPoolMXBean").invoke(service);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return OptionalInt.empty();
+            }
+        }
+        return stats != null ? intValue(stats, getter) : OptionalInt.empty();
+    }
+
+    private static OptionalInt intValue(Object target, String getter) {
+        try {
+            return target.getClass().getMethod(getter).invoke(target) instanceof Number number
+                    ? OptionalInt.of(number.intValue())
+                    : OptionalInt.empty();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    private boolean set(String setter, int value) {
+        try {
+            service.getClass().getMethod(setter, int.class).invoke(service, value);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
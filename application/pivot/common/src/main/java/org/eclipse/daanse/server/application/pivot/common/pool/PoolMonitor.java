@@ -0,0 +1,159 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.util.tracker.ServiceTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the pools registered as {@value ServerConstants#IDENT_POOL}, or
+ * {@code env-pool-<id>} for the contexts of {@code DAANSE_CONTEXTS}, and the
+ * pools of read replicas - not the replica routers. The pool is a HikariCP
+ * data source behind the pool bundle's API, so it is read by method name
+ * rather than against HikariCP types: on registration a
+ * {@code MetricsTrackerFactory} is installed that receives every connection
+ * acquisition, timeout and return, and the pool's statistics. HikariCP takes
+ * one factory per pool, so the metrics and the adaptive sizing share this
+ * one. If the pool refuses it (a factory was set before), the gauges are read
+ * from the pool's {@code HikariPoolMXBean} and there are no observations.
+ */
+@Component(immediate = true, service = PoolMonitor.class)
+public class PoolMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolMonitor.class);
+
+    private static final String FILTER_POOL = "(&(|(" + ServerConstants.PROP_IDENT + "=" + ServerConstants.IDENT_POOL
+            + "*)(" + ServerConstants.PROP_IDENT + "=" + ServerConstants.IDENT_REPLICA_POOL + "*))(!("
+            + ServerConstants.PROP_POOL_ROUTER + "=true)))";
+
+    private ServiceTracker<Object, MonitoredPool> tracker;
+
+    @Activate
+    public void activate(BundleContext bundleContext) throws InvalidSyntaxException {
+        tracker = new ServiceTracker<>(bundleContext, FrameworkUtil.createFilter(FILTER_POOL), null) {
+            @Override
+            public MonitoredPool addingService(ServiceReference<Object> reference) {
+                Object service = bundleContext.getService(reference);
+                if (service == null) {
+                    return null;
+                }
+                Object replica = reference.getProperty(ServerConstants.PROP_REPLICA);
+                MonitoredPool pool = new MonitoredPool(service, contextOf(reference, replica != null),
+                        replica != null ? replica.toString() : null);
+                pool.tracking = installTracker(pool);
+                return pool;
+            }
+
+            @Override
+            public void removedService(ServiceReference<Object> reference, MonitoredPool pool) {
+                bundleContext.ungetService(reference);
+            }
+        };
+        tracker.open(true);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        tracker.close();
+    }
+
+    /** The pools, the single pool first, then by context and replica. */
+    public List<MonitoredPool> pools() {
+        return tracker.getTracked().values().stream()
+                .sorted(Comparator.comparing(MonitoredPool::context)
+                        .thenComparing(pool -> pool.replica().orElse("")))
+                .toList();
+    }
+
+    /** {@code sales} for {@code env-pool-sales} and {@code env-replica-pool-sales}, empty for the single pool. */
+    private static String contextOf(ServiceReference<?> reference, boolean replica) {
+        Object ident = reference.getProperty(ServerConstants.PROP_IDENT);
+        String base = replica ? ServerConstants.IDENT_REPLICA_POOL : ServerConstants.IDENT_POOL;
+        String suffix = ident instanceof String i && i.startsWith(base) ? i.substring(base.length()) : "";
+        return suffix.startsWith("-") ? suffix.substring(1) : "";
+    }
+
+    /** Installs a proxy of HikariCP's {@code MetricsTrackerFactory} on the pool. */
+    private static boolean installTracker(MonitoredPool pool) {
+        Optional<Method> setter = Arrays.stream(pool.service.getClass().getMethods())
+                .filter(m -> "setMetricsTrackerFactory".equals(m.getName()) && m.getParameterCount() == 1)
+                .findFirst();
+        if (setter.isEmpty()) {
+            logger.info("Pool {} offers no metrics tracker, reporting gauges only", pool.service.getClass().getName());
+            return false;
+        }
+        Class<?> factoryType = setter.get().getParameterTypes()[0];
+        Optional<Class<?>> trackerType = Arrays.stream(factoryType.getMethods())
+                .filter(m -> "create".equals(m.getName())).findFirst().map(Method::getReturnType);
+        if (trackerType.isEmpty()) {
+            return false;
+        }
+        Object tracker = Proxy.newProxyInstance(trackerType.get().getClassLoader(),
+                new Class<?>[] { trackerType.get() }, (proxy, method, args) -> track(pool, proxy, method, args));
+        InvocationHandler factory = (proxy, method, args) -> {
+            if ("create".equals(method.getName())) {
+                pool.poolStats = args[1];
+                return tracker;
+            }
+            return objectMethod(proxy, method, args);
+        };
+        try {
+            setter.get().invoke(pool.service,
+                    Proxy.newProxyInstance(factoryType.getClassLoader(), new Class<?>[] { factoryType }, factory));
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.info("Pool keeps its own metrics tracker, reporting gauges only: {}", e.toString());
+            return false;
+        }
+    }
+
+    /** The {@code IMetricsTracker} callbacks. */
+    private static Object track(MonitoredPool pool, Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+        case "recordConnectionAcquiredNanos" -> pool.observeWaitNanos((Long) args[0]);
+        case "recordConnectionUsageMillis" -> pool.used((Long) args[0]);
+        case "recordConnectionTimeout" -> pool.timedOut();
+        default -> {
+            return objectMethod(proxy, method, args);
+        }
+        }
+        return null;
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+        case "hashCode" -> System.identityHashCode(proxy);
+        case "equals" -> proxy == args[0];
+        case "toString" -> "daanse pool monitor";
+        default -> null;
+        };
+    }
+}
@@ -0,0 +1,109 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One replica pool of a {@link ReplicaRouter}: the connections handed out from
+ * it and whether it is ejected.
+ */
+final class Replica {
+
+    private static final Logger logger = LoggerFactory.getLogger(Replica.class);
+
+    /** SQLState class of connection exceptions. */
+    private static final String SQLSTATE_CONNECTION = "08";
+
+    final String name;
+    final DataSource dataSource;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long ejectedUntil;
+
+    Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    /** Connections handed out and not closed yet. */
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    boolean ejected(long now) {
+        return failures.get() > 0 && ejectedUntil - now > 0;
+    }
+
+    long ejectedUntil() {
+        return ejectedUntil;
+    }
+
+    /** A connection of the pool, counted as outstanding until {@link #release()}. */
+    Connection connect(long ejectNanos) throws SQLException {
+        outstanding.incrementAndGet();
+        try {
+            Connection connection = dataSource.getConnection();
+            if (failures.getAndSet(0) > 0) {
+                logger.info("Replica {} is back in rotation", name);
+            }
+            return connection;
+        } catch (SQLException e) {
+            outstanding.decrementAndGet();
+            failed(e, ejectNanos);
+            throw e;
+        }
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    /** Ejects the replica if the exception says its connection failed. */
+    void check(SQLException e, long ejectNanos) {
+        String state = e.getSQLState();
+        if (state != null && state.startsWith(SQLSTATE_CONNECTION)) {
+            failed(e, ejectNanos);
+        }
+    }
+
+    /**
+     * Ejects the replica, twice as long with every failure in a row, up to
+     * {@value ReplicaRouter#MAX_EJECT_FACTOR} times as long.
+     */
+    private void failed(SQLException e, long ejectNanos) {
+        int failure = failures.incrementAndGet();
+        long factor = Math.min(1L << Math.min(failure - 1, 30), ReplicaRouter.MAX_EJECT_FACTOR);
+        ejectedUntil = System.nanoTime() + ejectNanos * factor;
+        if (failure == 1) {
+            logger.warn("Replica {} ejected for {} s: {}", name, ejectNanos * factor / 1_000_000_000L, e.toString());
+        } else {
+            logger.debug("Replica {} failed again ({} in a row), ejected for {} s", name, failure,
+                    ejectNanos * factor / 1_000_000_000L);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
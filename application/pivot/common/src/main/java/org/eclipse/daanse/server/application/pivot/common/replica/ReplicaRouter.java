@@ -0,0 +1,241 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.replica;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stands in for the pool of a context whose reads go to several replicas,
+ * each behind a pool of its own. Every connection is taken from the replica
+ * with the fewest connections handed out by this router, ties broken at
+ * random.
+ * <p>
+ * A replica that fails to connect, or whose connection fails with a
+ * connection exception (SQLState class {@code 08}), is ejected for
+ * {@value #PROP_EJECT_SECONDS} seconds - twice as long with every failure in
+ * a row, up to {@value #MAX_EJECT_FACTOR} times. After that it is tried again
+ * and the first connection restores it. Ejected replicas are only used when no
+ * other is left.
+ * <p>
+ * With {@value #PROP_HEDGE_AFTER_MILLIS} set, a query of a {@code Statement}
+ * that runs longer than that is sent to a second replica as well; the first
+ * result wins and the other query is cancelled. Prepared statements and
+ * queries inside a transaction are not hedged.
+ */
+@Component(configurationPid = ReplicaRouter.PID, configurationPolicy = ConfigurationPolicy.REQUIRE,
+        service = DataSource.class, property = ServerConstants.PROP_POOL_ROUTER + ":Boolean=true")
+@Designate(ocd = ReplicaRouter.Config.class, factory = true)
+public class ReplicaRouter implements DataSource {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.replica.ReplicaRouter";
+
+    /** The replica pools, targeted by the configuration. */
+    public static final String REF_REPLICAS = "replicas";
+    public static final String PROP_EJECT_SECONDS = "ejectSeconds";
+    /** Hedging delay; 0 or unset disables hedging. */
+    public static final String PROP_HEDGE_AFTER_MILLIS = "hedgeAfterMillis";
+
+    public static final int DEFAULT_EJECT_SECONDS = 10;
+    static final int MAX_EJECT_FACTOR = 8;
+
+    @ObjectClassDefinition(name = "Daanse Replica Router")
+    public @interface Config {
+
+        @AttributeDefinition(description = "Seconds a failed replica leaves the rotation, doubled with every failure")
+        int ejectSeconds() default DEFAULT_EJECT_SECONDS;
+
+        @AttributeDefinition(description = "Milliseconds after which a query is hedged to a second replica, 0 disables")
+        long hedgeAfterMillis() default 0;
+    }
+
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+    private final ExecutorService hedging = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile long ejectNanos = TimeUnit.SECONDS.toNanos(DEFAULT_EJECT_SECONDS);
+    private volatile long hedgeAfterMillis;
+
+    @Reference(name = REF_REPLICAS, service = DataSource.class, cardinality = ReferenceCardinality.AT_LEAST_ONE,
+            policy = ReferencePolicy.DYNAMIC, policyOption = ReferencePolicyOption.GREEDY,
+            target = "(" + ServerConstants.PROP_REPLICA + "=*)")
+    void bindReplica(DataSource dataSource, Map<String, Object> properties) {
+        Replica replica = new Replica(String.valueOf(properties.get(ServerConstants.PROP_REPLICA)), dataSource);
+        replicas.add(replica);
+        logger.info("Replica {} joined, {} in rotation", replica, replicas.size());
+    }
+
+    void unbindReplica(DataSource dataSource) {
+        replicas.removeIf(replica -> replica.dataSource == dataSource);
+    }
+
+    @Activate
+    @Modified
+    public void configure(Config config) {
+        ejectNanos = TimeUnit.SECONDS.toNanos(config.ejectSeconds());
+        hedgeAfterMillis = Math.max(0, config.hedgeAfterMillis());
+        logger.info("Routing over replicas {}, ejecting for {} s, {}", replicas,
+                TimeUnit.NANOSECONDS.toSeconds(ejectNanos),
+                hedgeAfterMillis > 0 ? "hedging after " + hedgeAfterMillis + " ms" : "no hedging");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        hedging.shutdownNow();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(null, false);
+    }
+
+    /**
+     * A connection of the replica to use next.
+     *
+     * @param excluded    replica not to use, or {@code null}
+     * @param healthyOnly whether ejected replicas are left out even if no
+     *                    other is left
+     */
+    Connection connect(Replica excluded, boolean healthyOnly) throws SQLException {
+        SQLException failure = null;
+        for (Replica replica : ranked(excluded, healthyOnly)) {
+            try {
+                return RoutedConnection.wrap(this, replica, replica.connect(ejectNanos));
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (healthyOnly) {
+            return null;
+        }
+        throw new SQLException("No replica available", "08001");
+    }
+
+    /** Healthy replicas by outstanding connections, then the ejected ones by the end of their ejection. */
+    private List<Replica> ranked(Replica excluded, boolean healthyOnly) {
+        long now = System.nanoTime();
+        List<Replica> all = new ArrayList<>(replicas);
+        // rotate, so the stable sort below spreads ties
+        if (!all.isEmpty()) {
+            Collections.rotate(all, ThreadLocalRandom.current().nextInt(all.size()));
+        }
+        List<Replica> healthy = new ArrayList<>(all.size());
+        List<Replica> ejected = new ArrayList<>();
+        for (Replica replica : all) {
+            if (replica != excluded) {
+                (replica.ejected(now) ? ejected : healthy).add(replica);
+            }
+        }
+        healthy.sort(Comparator.comparingInt(Replica::outstanding));
+        if (!healthyOnly) {
+            ejected.sort(Comparator.comparingLong(replica -> replica.ejectedUntil() - now));
+            healthy.addAll(ejected);
+        }
+        return healthy;
+    }
+
+    long ejectNanos() {
+        return ejectNanos;
+    }
+
+    long hedgeAfterMillis() {
+        return replicas.size() > 1 ? hedgeAfterMillis : 0;
+    }
+
+    ExecutorService hedging() {
+        return hedging;
+    }
+
+    /** Not supported - the credentials are those of the replica pools. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The replicas connect with the credentials they are configured with");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // the replica pools log
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        // the replica pools time out
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,333 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.replica;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection handed out by the {@link ReplicaRouter}: counts as outstanding
+ * for its replica until closed, reports connection exceptions to it, and
+ * hedges the queries of its statements. Closing it closes the connections of
+ * the hedges its open statements still read from.
+ */
+final class RoutedConnection implements InvocationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutedConnection.class);
+
+    private final ReplicaRouter router;
+    private final Replica replica;
+    private final Connection connection;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Set<RoutedStatement> statements = ConcurrentHashMap.newKeySet();
+
+    private RoutedConnection(ReplicaRouter router, Replica replica, Connection connection) {
+        this.router = router;
+        this.replica = replica;
+        this.connection = connection;
+    }
+
+    static Connection wrap(ReplicaRouter router, Replica replica, Connection connection) {
+        return proxy(Connection.class, new RoutedConnection(router, replica, connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+        case "close" -> {
+            if (closed.compareAndSet(false, true)) {
+                for (RoutedStatement statement : statements) {
+                    statement.closeHedge();
+                }
+                statements.clear();
+                replica.release();
+            }
+            return call(connection, method, args);
+        }
+        case "equals" -> {
+            return proxy == args[0];
+        }
+        case "hashCode" -> {
+            return System.identityHashCode(proxy);
+        }
+        case "toString" -> {
+            return "replica " + replica + ": " + connection;
+        }
+        default -> {
+            Object result = call(connection, method, args);
+            if (result instanceof Statement statement) {
+                RoutedStatement handler = new RoutedStatement((Connection) proxy, statement,
+                        "createStatement".equals(method.getName()) ? method : null, args);
+                statements.add(handler);
+                return proxy(method.getReturnType(), handler);
+            }
+            return result;
+        }
+        }
+    }
+
+    /** Calls the method on the target, reporting connection exceptions to the replica. */
+    private Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                replica.check(sqlException, router.ejectNanos());
+            }
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(RoutedConnection.class.getClassLoader(), new Class<?>[] { type },
+                handler));
+    }
+
+    private static RoutedConnection handlerOf(Connection routed) {
+        return (RoutedConnection) Proxy.getInvocationHandler(routed);
+    }
+
+    /**
+     * A statement of the connection. Its settings are recorded, so a hedge
+     * statement on another replica is set up the same way.
+     */
+    private final class RoutedStatement implements InvocationHandler {
+
+        private final Connection routed;
+        private final Statement statement;
+        /** {@code createStatement} and its arguments, {@code null} for statements that are not hedged. */
+        private final Method create;
+        private final Object[] createArgs;
+        private final Map<Method, Object[]> settings = new LinkedHashMap<>();
+
+        /** Statement of the hedge while it runs, so {@code cancel} reaches it. */
+        private volatile Statement racing;
+        /** The connection of the hedge whose result the caller reads, closed with this statement. */
+        private final AtomicReference<Connection> hedgeConnection = new AtomicReference<>();
+
+        RoutedStatement(Connection routed, Statement statement, Method create, Object[] createArgs) {
+            this.routed = routed;
+            this.statement = statement;
+            this.create = create;
+            this.createArgs = createArgs;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+            case "getConnection" -> {
+                return routed;
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "close" -> {
+                closeHedge();
+                statements.remove(this);
+                return call(statement, method, args);
+            }
+            case "cancel" -> {
+                Statement hedge = racing;
+                if (hedge != null) {
+                    cancelQuietly(hedge);
+                }
+                return call(statement, method, args);
+            }
+            case "executeQuery" -> {
+                if (create != null && args != null && args.length == 1 && args[0] instanceof String sql) {
+                    return query((Statement) proxy, sql);
+                }
+            }
+            default -> {
+                if (name.startsWith("set") && create != null) {
+                    settings.put(method, args);
+                }
+            }
+            }
+            return call(statement, method, args);
+        }
+
+        private ResultSet query(Statement proxy, String sql) throws Throwable {
+            closeHedge();
+            long hedgeAfter = router.hedgeAfterMillis();
+            if (hedgeAfter <= 0 || !connection.getAutoCommit()) {
+                return executeQuery(statement, sql);
+            }
+
+            CompletableFuture<ResultSet> first = CompletableFuture.supplyAsync(() -> execute(statement, sql),
+                    router.hedging());
+            try {
+                return first.get(hedgeAfter, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // slow - hedge it
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+
+            Connection other = router.connect(replica, true);
+            if (other == null) {
+                return await(first);
+            }
+            Statement hedge;
+            try {
+                hedge = (Statement) create.invoke(handlerOf(other).connection, createArgs);
+                for (Map.Entry<Method, Object[]> setting : settings.entrySet()) {
+                    setting.getKey().invoke(hedge, setting.getValue());
+                }
+            } catch (InvocationTargetException e) {
+                other.close();
+                logger.debug("No hedge on replica {}: {}", handlerOf(other).replica, e.getCause().toString());
+                return await(first);
+            }
+            logger.debug("Hedging a query of replica {} on replica {}", replica, handlerOf(other).replica);
+
+            racing = hedge;
+            CompletableFuture<ResultSet> second = CompletableFuture
+                    .supplyAsync(() -> handlerOf(other).execute(hedge, sql), router.hedging());
+            CompletableFuture<Boolean> hedgeWon = new CompletableFuture<>();
+            first.whenComplete((rs, t) -> {
+                if (t == null) {
+                    hedgeWon.complete(false);
+                } else if (second.isCompletedExceptionally()) {
+                    hedgeWon.completeExceptionally(t);
+                }
+            });
+            second.whenComplete((rs, t) -> {
+                if (t == null) {
+                    hedgeWon.complete(true);
+                } else if (first.isCompletedExceptionally()) {
+                    hedgeWon.completeExceptionally(first.handle((r, failure) -> failure).join());
+                }
+            });
+
+            boolean hedged;
+            try {
+                hedged = hedgeWon.get();
+            } catch (ExecutionException | InterruptedException e) {
+                cancelQuietly(statement);
+                cancelQuietly(hedge);
+                second.whenComplete((rs, t) -> closeQuietly(rs, hedge, other));
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted waiting for a query", e);
+                }
+                throw unwrap((ExecutionException) e);
+            } finally {
+                racing = null;
+            }
+
+            if (hedged) {
+                cancelQuietly(statement);
+                first.whenComplete((rs, t) -> closeQuietly(rs));
+                hedgeConnection.set(other);
+                ResultSet resultSet = second.join();
+                return proxy(ResultSet.class, (rsProxy, method, args) -> {
+                    if ("getStatement".equals(method.getName())) {
+                        return proxy;
+                    }
+                    try {
+                        return method.invoke(resultSet, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+            }
+            cancelQuietly(hedge);
+            second.whenComplete((rs, t) -> closeQuietly(rs, hedge, other));
+            return first.join();
+        }
+
+        /** Closes the connection of the hedge that answered the last query, with its statement. */
+        void closeHedge() {
+            closeQuietly(hedgeConnection.getAndSet(null));
+        }
+    }
+
+    private ResultSet executeQuery(Statement statement, String sql) throws SQLException {
+        try {
+            return statement.executeQuery(sql);
+        } catch (SQLException e) {
+            replica.check(e, router.ejectNanos());
+            throw e;
+        }
+    }
+
+    private ResultSet execute(Statement statement, String sql) {
+        try {
+            return executeQuery(statement, sql);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static ResultSet await(CompletableFuture<ResultSet> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a query", e);
+        }
+    }
+
+    private static Throwable unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+    }
+
+    private static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException | RuntimeException e) {
+            // the query is over or the driver cannot cancel; its result is dropped either way
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable... closeables) {
+        for (AutoCloseable closeable : closeables) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // dropped result of a hedged query
+                }
+            }
+        }
+    }
+}
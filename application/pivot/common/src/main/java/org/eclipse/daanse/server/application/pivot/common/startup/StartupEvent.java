@@ -0,0 +1,54 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One step of the {@link StartupTimeline} as JFR event. */
+@Name("org.eclipse.daanse.pivot.Startup")
+@Label("Startup Step")
+@Category({ "Daanse", "Pivot" })
+@Description("A configuration created, a service registered or a first request served during startup")
+@StackTrace(false)
+class StartupEvent extends jdk.jfr.Event {
+
+    @Label("Step")
+    String step;
+
+    @Label("Name")
+    String name;
+
+    @Label("PID")
+    String pid;
+
+    @Label("After JVM Start")
+    @Timespan(Timespan.MILLISECONDS)
+    long afterJvmStart;
+
+    static void emit(String step, String name, String pid, long afterJvmStart) {
+        StartupEvent event = new StartupEvent();
+        if (event.isEnabled()) {
+            event.step = step;
+            event.name = name;
+            event.pid = pid;
+            event.afterJvmStart = afterJvmStart;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.startup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.daanse.server.application.pivot.common.Env;
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.cm.ConfigurationAdmin;
+import org.osgi.service.cm.ConfigurationEvent;
+import org.osgi.service.cm.SynchronousConfigurationListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.ServletRequestListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Records where the startup time goes: when each configuration was created,
+ * when the service configured by it was registered, and when the first
+ * request and the first XMLA request were served - all in milliseconds after
+ * JVM start. The configurators only create configurations; the real work
+ * happens afterwards, when SCR activates the components they configure, and
+ * the gap between the two times of a step is that work.
+ *
+ * <p>
+ * The timeline is logged as summary once every context is registered, emitted
+ * as {@code org.eclipse.daanse.pivot.Startup} JFR events while a recording
+ * runs, and served as JSON by {@code /health/startup}. The timeline is
+ * immediate and listens to Configuration Admin itself. Configurations created
+ * before it was activated carry the creation time the configurators stamp on
+ * them ({@value ServerConstants#PROP_CREATED}); services registered before it,
+ * and configurations without a stamp, carry its activation time, which is the
+ * earliest it can tell.
+ */
+@Component(immediate = true, service = { StartupTimeline.class, SynchronousConfigurationListener.class,
+        ServletRequestListener.class }, property = "osgi.http.whiteboard.listener=true")
+public class StartupTimeline implements SynchronousConfigurationListener, ServletRequestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeline.class);
+
+    private static final String FILTER_CONFIGURED = "(" + Constants.SERVICE_PID + "=*)";
+
+    /**
+     * A configuration and the service it resulted in.
+     *
+     * @param configuredAfter milliseconds after JVM start the configuration was
+     *                        created
+     * @param registeredAfter milliseconds after JVM start the service was
+     *                        registered, -1 while pending
+     */
+    public record Step(String pid, String factoryPid, String name, long configuredAfter, long registeredAfter) {
+
+        public boolean registered() {
+            return registeredAfter >= 0;
+        }
+    }
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final Map<String, Step> steps = new ConcurrentHashMap<>();
+    private final AtomicLong firstRequest = new AtomicLong(-1);
+    private final AtomicLong firstXmlaRequest = new AtomicLong(-1);
+    private final AtomicBoolean summarized = new AtomicBoolean();
+    /** Idents of the contexts not registered yet; the summary is logged once it runs empty. */
+    private final Set<String> pendingContexts = ConcurrentHashMap.newKeySet();
+    private final ServiceListener listener = this::serviceChanged;
+    private final String xmlaPath = stripWildcard(
+            Env.get(ServerConstants.ENV_XMLA_PATH, ServerConstants.DEFAULT_XMLA_PATH));
+
+    @Reference
+    ConfigurationAdmin configurationAdmin;
+
+    private BundleContext bundleContext;
+    private long activatedAfter;
+
+    @Activate
+    public void activate(BundleContext bundleContext) throws InvalidSyntaxException {
+        this.bundleContext = bundleContext;
+        activatedAfter = now();
+        try {
+            EnvContext.fromEnv().forEach(context -> pendingContexts.add(context.ident(ServerConstants.IDENT_CONTEXT)));
+        } catch (IllegalArgumentException e) {
+            // the configurators fail on it and log it; no context, no summary
+        }
+        bundleContext.addServiceListener(listener, FILTER_CONFIGURED);
+        StartupEvent.emit("timeline", "activated", null, activatedAfter);
+        recordEarlier();
+    }
+
+    /** The configurations and services that were there before the listeners. */
+    private void recordEarlier() throws InvalidSyntaxException {
+        try {
+            Configuration[] configurations = configurationAdmin.listConfigurations(null);
+            if (configurations != null) {
+                for (Configuration configuration : configurations) {
+                    configured(configuration.getPid(), configuration.getFactoryPid(), createdAfter(configuration));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot list the configurations created before the startup timeline", e);
+        }
+        ServiceReference<?>[] references = bundleContext.getServiceReferences((String) null, FILTER_CONFIGURED);
+        if (references != null) {
+            for (ServiceReference<?> reference : references) {
+                registered(reference, activatedAfter);
+            }
+        }
+    }
+
+    /** The stamped creation time of the configuration, else the activation of the timeline. */
+    private long createdAfter(Configuration configuration) {
+        Dictionary<String, Object> props = configuration.getProperties();
+        Object created = props == null ? null : props.get(ServerConstants.PROP_CREATED);
+        if (created instanceof Long time && time >= jvmStart) {
+            return Math.min(time - jvmStart, activatedAfter);
+        }
+        return activatedAfter;
+    }
+
+    @Deactivate
+    public void deactivate() {
+        bundleContext.removeServiceListener(listener);
+    }
+
+    /** Epoch milliseconds of the JVM start all times are relative to. */
+    public long jvmStart() {
+        return jvmStart;
+    }
+
+    /** Milliseconds after JVM start the timeline began to record. */
+    public long activatedAfter() {
+        return activatedAfter;
+    }
+
+    /** The recorded steps in the order their configurations were created. */
+    public List<Step> steps() {
+        return steps.values().stream().sorted(Comparator.comparingLong(Step::configuredAfter)).toList();
+    }
+
+    public OptionalLong firstRequestAfter() {
+        long value = firstRequest.get();
+        return value < 0 ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    public OptionalLong firstXmlaRequestAfter() {
+        long value = firstXmlaRequest.get();
+        return value < 0 ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    @Override
+    public void configurationEvent(ConfigurationEvent event) {
+        if (event.getType() != ConfigurationEvent.CM_UPDATED) {
+            return;
+        }
+        configured(event.getPid(), event.getFactoryPid(), now());
+    }
+
+    private void configured(String pid, String factoryPid, long after) {
+        Step step = new Step(pid, factoryPid, shortName(factoryPid != null ? factoryPid : pid), after, -1);
+        if (steps.putIfAbsent(pid, step) == null) {
+            StartupEvent.emit("configuration", step.name(), pid, step.configuredAfter());
+        }
+    }
+
+    private void serviceChanged(ServiceEvent event) {
+        if (event.getType() == ServiceEvent.REGISTERED) {
+            registered(event.getServiceReference(), now());
+        }
+    }
+
+    private void registered(ServiceReference<?> reference, long after) {
+        Object pids = reference.getProperty(Constants.SERVICE_PID);
+        Object ident = reference.getProperty(ServerConstants.PROP_IDENT);
+        if (pids instanceof String pid) {
+            registered(pid, ident, after);
+        } else if (pids instanceof String[] array) {
+            for (String pid : array) {
+                registered(pid, ident, after);
+            }
+        }
+    }
+
+    private void registered(String pid, Object ident, long after) {
+        Step current = steps.get(pid);
+        if (current == null || current.registered()) {
+            return;
+        }
+        Step step = new Step(pid, current.factoryPid(), ident instanceof String i ? i : current.name(),
+                current.configuredAfter(), after);
+        if (!steps.replace(pid, current, step)) {
+            return;
+        }
+        StartupEvent.emit("service", step.name(), pid, step.registeredAfter());
+        if (ident instanceof String i && pendingContexts.remove(i) && pendingContexts.isEmpty()
+                && summarized.compareAndSet(false, true)) {
+            logger.info(summary());
+        }
+    }
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent event) {
+        // two reads per request once both are known
+        if (firstRequest.get() < 0 && firstRequest.compareAndSet(-1, now())) {
+            StartupEvent.emit("request", "first request", null, firstRequest.get());
+        }
+        if (firstXmlaRequest.get() < 0 && event.getServletRequest() instanceof HttpServletRequest request
+                && request.getRequestURI().startsWith(xmlaPath) && firstXmlaRequest.compareAndSet(-1, now())) {
+            long time = firstXmlaRequest.get();
+            StartupEvent.emit("request", "first XMLA request", null, time);
+            logger.info("First XMLA request served {} ms after JVM start", time);
+        }
+    }
+
+    /** The timeline as it stands, one line per step. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Startup timeline in ms after JVM start (configured -> registered):");
+        sb.append(String.format("%n  %8d             timeline activated", activatedAfter));
+        for (Step step : steps()) {
+            if (step.registered()) {
+                sb.append(String.format("%n  %8d -> %8d  %-24s +%d ms  %s", step.configuredAfter(),
+                        step.registeredAfter(), step.name(), step.registeredAfter() - step.configuredAfter(),
+                        step.pid()));
+            } else {
+                sb.append(String.format("%n  %8d -> pending   %-24s %s", step.configuredAfter(), step.name(),
+                        step.pid()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private long now() {
+        return System.currentTimeMillis() - jvmStart;
+    }
+
+    private static String shortName(String pid) {
+        return pid.substring(pid.lastIndexOf('.') + 1);
+    }
+
+    private static String stripWildcard(String pattern) {
+        return pattern.endsWith("/*") ? pattern.substring(0, pattern.length() - 2) : pattern;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.olap.api.Context;
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.eclipse.daanse.server.application.pivot.common.pool.MonitoredPool;
+import org.eclipse.daanse.server.application.pivot.common.pool.PoolMonitor;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Warms a context up once it is registered, before the instance reports
+ * ready: opens the minimum idle connections of the context's pools, then runs
+ * the configured MDX statements - {@value #PROP_PARALLELISM} at a time - so
+ * the member and segment caches are filled before the first user arrives.
+ * When done, or after {@value #PROP_TIMEOUT_SECONDS} seconds, the component
+ * registers itself under {@value #PROP_READY_IDENT}, which
+ * {@code /health/ready} waits for. Failed statements are logged and do not
+ * hold readiness back.
+ */
+@Component(configurationPid = ContextWarmup.PID, configurationPolicy = ConfigurationPolicy.REQUIRE, service = {})
+@Designate(ocd = ContextWarmup.Config.class, factory = true)
+public class ContextWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContextWarmup.class);
+
+    public static final String PID = "org.eclipse.daanse.server.application.pivot.common.warmup.ContextWarmup";
+
+    /** The context to warm up, targeted by the configuration. */
+    public static final String REF_CONTEXT = "context";
+    /** The id of the {@link EnvContext}, whose pools are opened. */
+    public static final String PROP_CONTEXT_ID = "contextId";
+    public static final String PROP_STATEMENTS = "statements";
+    public static final String PROP_PARALLELISM = "parallelism";
+    public static final String PROP_TIMEOUT_SECONDS = "timeoutSeconds";
+    /** The {@code daanse.ident} registered once the warm-up is over. */
+    public static final String PROP_READY_IDENT = "readyIdent";
+
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final int DEFAULT_TIMEOUT_SECONDS = 600;
+
+    @ObjectClassDefinition(name = "Daanse Context Warm-up")
+    public @interface Config {
+
+        @AttributeDefinition(description = "The id of the context whose pools are opened, empty for the default")
+        String contextId() default "";
+
+        @AttributeDefinition(description = "MDX statements run against the context")
+        String[] statements() default {};
+
+        @AttributeDefinition(description = "Statements run at the same time")
+        int parallelism() default DEFAULT_PARALLELISM;
+
+        @AttributeDefinition(description = "Seconds after which the warm-up gives up and reports ready")
+        long timeoutSeconds() default DEFAULT_TIMEOUT_SECONDS;
+
+        @AttributeDefinition(description = "The daanse.ident registered once the warm-up is over")
+        String readyIdent();
+    }
+
+    @Reference(name = REF_CONTEXT)
+    Context<?> context;
+
+    @Reference
+    PoolMonitor poolMonitor;
+
+    private BundleContext bundleContext;
+    private EnvContext envContext;
+    private List<String> statements;
+    private int parallelism;
+    private long timeoutMillis;
+    private String readyIdent;
+
+    private Thread thread;
+    private ServiceRegistration<ContextWarmup> registration;
+    private boolean deactivated;
+
+    @Activate
+    public void activate(BundleContext bundleContext, Config config) {
+        this.bundleContext = bundleContext;
+        envContext = new EnvContext(config.contextId());
+        statements = List.of(config.statements());
+        parallelism = Math.max(1, config.parallelism());
+        timeoutMillis = TimeUnit.SECONDS.toMillis(config.timeoutSeconds());
+        readyIdent = config.readyIdent();
+
+        thread = new Thread(this::warmUp, "daanse-warmup" + (envContext.isDefault() ? "" : "-" + envContext.id()));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Deactivate
+    public synchronized void deactivate() {
+        deactivated = true;
+        thread.interrupt();
+        if (registration != null) {
+            registration.unregister();
+            registration = null;
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int opened = openConnections();
+        long openedAfter = millisSince(start);
+
+        AtomicInteger done = new AtomicInteger();
+        List<Callable<Boolean>> tasks = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            int index = i + 1;
+            String mdx = statements.get(i);
+            tasks.add(() -> execute(index, mdx, done));
+        }
+        int failed = 0;
+        int timedOut = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread worker = new Thread(r, thread.getName() + "-mdx");
+            worker.setDaemon(true);
+            return worker;
+        });
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks, Math.max(0, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS)) {
+                try {
+                    failed += result.get() ? 0 : 1;
+                } catch (CancellationException e) {
+                    timedOut++;
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (timedOut > 0) {
+            logger.warn("Warm-up{} timed out after {} s, {} statements left out", envContext.label(),
+                    TimeUnit.MILLISECONDS.toSeconds(timeoutMillis), timedOut);
+        }
+        logger.info("Warm-up{} done in {} ms: {} connections opened in {} ms, {} of {} statements ran, {} failed",
+                envContext.label(), millisSince(start), opened, openedAfter, statements.size() - failed - timedOut,
+                statements.size(), failed);
+        ready(millisSince(start));
+    }
+
+    /**
+     * Takes as many connections of each pool of the context as it keeps idle
+     * and hands them back, so the pool has opened them.
+     */
+    private int openConnections() {
+        int opened = 0;
+        for (MonitoredPool pool : poolMonitor.pools()) {
+            OptionalInt minimumIdle = pool.minimumIdle();
+            OptionalInt maximum = pool.maximumPoolSize();
+            if (!pool.context().equals(envContext.id()) || pool.dataSource().isEmpty() || minimumIdle.isEmpty()) {
+                continue;
+            }
+            int count = maximum.isPresent() ? Math.min(minimumIdle.getAsInt(), maximum.getAsInt())
+                    : minimumIdle.getAsInt();
+            opened += open(pool, pool.dataSource().get(), count);
+        }
+        return opened;
+    }
+
+    private static int open(MonitoredPool pool, DataSource dataSource, int count) {
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            while (connections.size() < count) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            logger.warn("Warm-up opened {} of {} connections of the {}: {}", connections.size(), count, pool,
+                    e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // back in the pool or evicted by it
+                }
+            }
+        }
+        return connections.size();
+    }
+
+    private boolean execute(int index, String mdx, AtomicInteger done) {
+        long start = System.nanoTime();
+        org.eclipse.daanse.olap.api.connection.Connection connection = null;
+        try {
+            connection = context.getConnectionWithDefaultRole();
+            connection.execute(connection.parseQuery(mdx));
+            logger.info("Warm-up statement {} of {}{} ran in {} ms ({} done)", index, statements.size(),
+                    envContext.label(), millisSince(start), done.incrementAndGet());
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Warm-up statement {} of {}{} failed after {} ms: {}", index, statements.size(),
+                    envContext.label(), millisSince(start), e.toString());
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private synchronized void ready(long millis) {
+        if (deactivated) {
+            return;
+        }
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(ServerConstants.PROP_IDENT, readyIdent);
+        props.put("daanse.warmup.millis", millis);
+        registration = bundleContext.registerService(ContextWarmup.class, this, props);
+    }
+
+    /**
+     * The statements of {@code DAANSE_WARMUP_MDX}: the content of the file if
+     * the value names one, else the value itself, split at semicolons outside
+     * of brackets, quotes and comments.
+     */
+    public static List<String> statements(String value) throws IOException {
+        String mdx = value;
+        try {
+            Path path = Path.of(value.trim());
+            if (Files.isRegularFile(path)) {
+                mdx = Files.readString(path);
+            }
+        } catch (InvalidPathException e) {
+            // inline MDX
+        }
+        return split(mdx);
+    }
+
+    static List<String> split(String mdx) {
+        List<String> statements = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < mdx.length()) {
+            char c = mdx.charAt(i);
+            if (c == '[' || c == '\'' || c == '"') {
+                i = skipPast(mdx, i + 1, c == '[' ? "]" : String.valueOf(c));
+            } else if (mdx.startsWith("/*", i)) {
+                i = skipPast(mdx, i + 2, "*/");
+            } else if (mdx.startsWith("--", i) || mdx.startsWith("//", i)) {
+                i = skipPast(mdx, i + 2, "\n");
+            } else if (c == ';') {
+                addStatement(statements, mdx.substring(start, i));
+                start = ++i;
+            } else {
+                i++;
+            }
+        }
+        addStatement(statements, mdx.substring(start));
+        return statements;
+    }
+
+    /** After the next {@code end}, where {@code ]]} and doubled quotes escape themselves. */
+    private static int skipPast(String mdx, int from, String end) {
+        int i = from;
+        while (true) {
+            int found = mdx.indexOf(end, i);
+            if (found < 0) {
+                return mdx.length();
+            }
+            i = found + end.length();
+            if (end.length() == 1 && !"\n".equals(end) && mdx.startsWith(end, i)) {
+                i++;
+                continue;
+            }
+            return i;
+        }
+    }
+
+    private static void addStatement(List<String> statements, String statement) {
+        if (!statement.isBlank()) {
+            statements.add(statement.strip());
+        }
+    }
+
+    private static long millisSince(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanos);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.daanse.server.application.pivot.common.test.RecordingConfigurationAdmin;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.cm.Configuration;
+
+/** The configurations of several contexts, recorded by a Configuration Admin with named factory configurations. */
+class BasicContextConfigsTest {
+
+    @Test
+    void everyContextHasItsOwnConfigurations() throws Exception {
+        RecordingConfigurationAdmin recording = new RecordingConfigurationAdmin();
+
+        List<Configuration> sales = BasicContextConfigs.createEnvPoolAndContext(recording.admin(),
+                new EnvContext("sales"), "H2", null);
+        List<Configuration> hr = BasicContextConfigs.createEnvPoolAndContext(recording.admin(), new EnvContext("hr"),
+                "H2", null);
+
+        Set<String> salesPids = pids(sales);
+        Set<String> hrPids = pids(hr);
+        assertEquals(sales.size(), salesPids.size());
+        assertTrue(Collections.disjoint(salesPids, hrPids), salesPids + " and " + hrPids);
+        assertEquals(sales.size() + hr.size(), recording.configurations().size());
+        Set<Object> idents = new HashSet<>();
+        recording.configurations().values().forEach(props -> idents.add(props.get(ServerConstants.PROP_IDENT)));
+        assertTrue(idents.containsAll(List.of("env-ctx-sales", "env-ctx-hr", "env-pool-sales", "env-pool-hr")),
+                idents.toString());
+
+        List<Configuration> all = new ArrayList<>(sales);
+        all.addAll(hr);
+        for (Configuration configuration : all) {
+            configuration.delete();
+        }
+        assertTrue(recording.configurations().isEmpty());
+    }
+
+    private static Set<String> pids(List<Configuration> configurations) {
+        Set<String> pids = new HashSet<>();
+        configurations.forEach(configuration -> pids.add(configuration.getPid()));
+        return pids;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Resolves the contexts of {@code DAANSE_CONTEXTS} and their variables, set in
+ * a replaced environment of {@link Env}.
+ */
+class EnvContextTest {
+
+    /** Stand-in for a DataSource config interface. */
+    interface Config {
+        String user();
+
+        String dbname();
+    }
+
+    private final Map<String, String> environment = new HashMap<>();
+
+    @BeforeEach
+    void replaceEnvironment() {
+        Env.variables = environment;
+    }
+
+    @AfterEach
+    void restoreEnvironment() {
+        Env.variables = System.getenv();
+    }
+
+    @Test
+    void unsetMeansTheDefaultContext() {
+        assertEquals(List.of(EnvContext.DEFAULT), EnvContext.fromEnv());
+        assertEquals(ServerConstants.IDENT_POOL, EnvContext.DEFAULT.ident(ServerConstants.IDENT_POOL));
+        assertEquals("DAANSE_JDBC_URL", EnvContext.DEFAULT.envName("DAANSE_JDBC_URL"));
+    }
+
+    @Test
+    void contextsAreNamedAndPrefixedByTheirId() {
+        environment.put(ServerConstants.ENV_CONTEXTS, "Sales, hr");
+
+        List<EnvContext> contexts = EnvContext.fromEnv();
+
+        assertEquals(List.of(new EnvContext("sales"), new EnvContext("hr")), contexts);
+        assertEquals("env-pool-sales", contexts.get(0).ident(ServerConstants.IDENT_POOL));
+        assertEquals("DAANSE_CTX_SALES_JDBC_", contexts.get(0).envName(ServerConstants.ENV_JDBC_PREFIX));
+    }
+
+    @Test
+    void ownVariablesOverrideTheShared() {
+        environment.put("DAANSE_JDBC_USER", "shared");
+        environment.put("DAANSE_JDBC_DBNAME", "daanse");
+        environment.put("DAANSE_CTX_SALES_JDBC_DBNAME", "sales");
+        EnvContext sales = new EnvContext("sales");
+
+        Dictionary<String, Object> props = sales.propsFromEnv(Config.class, ServerConstants.ENV_JDBC_PREFIX);
+
+        assertEquals("shared", props.get("user"));
+        assertEquals("sales", props.get("dbname"));
+        assertEquals(Optional.empty(), sales.getOwn("DAANSE_JDBC_USER"));
+    }
+
+    @Test
+    void missingVariablesAreReportedByTheirContextName() {
+        environment.put("DAANSE_JDBC_USER", "shared");
+
+        assertEquals(List.of("DAANSE_CTX_SALES_JDBC_DBNAME"),
+                new EnvContext("sales").missing("DAANSE_JDBC_USER", "DAANSE_JDBC_DBNAME"));
+    }
+
+    @Test
+    void numbersNameTheVariableTheyAreInvalidIn() {
+        EnvContext sales = new EnvContext("sales");
+        String own = sales.envName(ServerConstants.ENV_WARMUP_PARALLELISM);
+        environment.put(ServerConstants.ENV_WARMUP_PARALLELISM, "4");
+
+        assertEquals(Optional.of(4), sales.getInt(ServerConstants.ENV_WARMUP_PARALLELISM));
+
+        environment.put(own, "four");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> sales.getLong(ServerConstants.ENV_WARMUP_PARALLELISM));
+        assertEquals("Environment variable " + own + " has invalid value 'four'", e.getMessage());
+    }
+
+    @Test
+    void invalidIdsAreRejected() {
+        environment.put(ServerConstants.ENV_CONTEXTS, "sales,SALES");
+        assertThrows(IllegalArgumentException.class, EnvContext::fromEnv);
+
+        environment.put(ServerConstants.ENV_CONTEXTS, "sales_eu");
+        assertThrows(IllegalArgumentException.class, EnvContext::fromEnv);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.daanse.jdbc.datasource.pools.api.Constants;
+import org.eclipse.daanse.server.application.pivot.common.test.RecordingConfigurationAdmin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.cm.Configuration;
+
+/**
+ * The DataSources and pools of the read replicas of a context, wired as a
+ * configurator does, recorded by a Configuration Admin with named factory
+ * configurations.
+ */
+class ReplicaConfigsTest {
+
+    private static final String DATASOURCE_PID = "org.eclipse.daanse.jdbc.datasource.h2.DataSource";
+
+    /** Stand-in for a DataSource config interface. */
+    interface Config {
+        String host();
+    }
+
+    private final Map<String, String> environment = new HashMap<>();
+
+    @BeforeEach
+    void replaceEnvironment() {
+        Env.variables = environment;
+    }
+
+    @AfterEach
+    void restoreEnvironment() {
+        Env.variables = System.getenv();
+    }
+
+    @Test
+    void everyReplicaHasItsOwnDataSourceAndPool() throws Exception {
+        environment.put("DAANSE_CTX_SALES_JDBC_REPLICAS", "r1,r2");
+        environment.put("DAANSE_CTX_SALES_REPLICA_INCLUDE_PRIMARY", "true");
+        environment.put("DAANSE_CTX_SALES_JDBC_REPLICA_R2_HOST", "replica2");
+        EnvContext sales = new EnvContext("sales");
+        RecordingConfigurationAdmin recording = new RecordingConfigurationAdmin();
+
+        Dictionary<String, Object> primary = new Hashtable<>();
+        primary.put("host", "primary");
+        primary.put(ServerConstants.PROP_IDENT, sales.ident(ServerConstants.IDENT_DATASOURCE));
+        Configuration dataSource = recording.admin().getFactoryConfiguration(DATASOURCE_PID, sales.configName(), "?");
+        dataSource.update(primary);
+        List<Configuration> configurations = new ArrayList<>(ReplicaConfigs.createEnvReplicaDataSources(
+                recording.admin(), sales, DATASOURCE_PID, Config.class, primary));
+        configurations.addAll(ConnectionPoolConfigs.createEnvPools(recording.admin(), sales, null));
+
+        // the primary, two replicas, the router and three pools - primary included
+        assertEquals(7, recording.configurations().size());
+        assertEquals("env-ds-sales",
+                recording.configurations().get(dataSource.getPid()).get(ServerConstants.PROP_IDENT));
+
+        Map<String, String> hosts = new TreeMap<>();
+        Map<String, Object> poolTargets = new TreeMap<>();
+        recording.configurations().forEach((pid, props) -> {
+            if ("env-replica-ds-sales".equals(props.get(ServerConstants.PROP_IDENT))) {
+                hosts.put((String) props.get(ServerConstants.PROP_REPLICA), (String) props.get("host"));
+            } else if ("env-replica-pool-sales".equals(props.get(ServerConstants.PROP_IDENT))) {
+                poolTargets.put((String) props.get(ServerConstants.PROP_REPLICA),
+                        props.get(Constants.POOL_PROPERTY_DATASOURCE_TARGET));
+            }
+        });
+        assertEquals(Map.of("r1", "primary", "r2", "replica2"), hosts);
+        assertEquals(Map.of("primary", "(daanse.ident=env-ds-sales)",
+                "r1", "(&(daanse.ident=env-replica-ds-sales)(daanse.replica=r1))",
+                "r2", "(&(daanse.ident=env-replica-ds-sales)(daanse.replica=r2))"), poolTargets);
+
+        for (Configuration configuration : configurations) {
+            configuration.delete();
+        }
+        dataSource.delete();
+        assertEquals(Map.of(), recording.configurations());
+    }
+}
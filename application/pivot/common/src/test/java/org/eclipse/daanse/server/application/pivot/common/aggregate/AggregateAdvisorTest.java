@@ -0,0 +1,90 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** The swap of a materialized table for the one of the last report. */
+class AggregateAdvisorTest {
+
+    private static final String DROP = "DROP TABLE IF EXISTS \"agg\"";
+    private static final String RENAME = "ALTER TABLE \"agg_new\" RENAME TO \"agg\"";
+
+    private final List<String> calls = new ArrayList<>();
+    private boolean autoCommit = true;
+
+    @Test
+    void swapsInOneTransaction() throws SQLException {
+        AggregateAdvisor.swap(connection(true), statement(null), DROP, RENAME);
+
+        assertEquals(List.of("setAutoCommit false", DROP, RENAME, "commit", "setAutoCommit true"), calls);
+    }
+
+    @Test
+    void rollsBackAFailedSwap() {
+        assertThrows(SQLException.class, () -> AggregateAdvisor.swap(connection(true), statement(RENAME), DROP,
+                RENAME));
+
+        assertEquals(List.of("setAutoCommit false", DROP, RENAME, "rollback", "setAutoCommit true"), calls);
+    }
+
+    @Test
+    void swapsStatementByStatementWithoutDdlTransactions() throws SQLException {
+        AggregateAdvisor.swap(connection(false), statement(null), DROP, RENAME);
+
+        assertEquals(List.of(DROP, RENAME), calls);
+    }
+
+    private Connection connection(boolean ddlTransactions) {
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { DatabaseMetaData.class }, (proxy, method, args) -> ddlTransactions);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                case "getMetaData" -> metaData;
+                case "getAutoCommit" -> autoCommit;
+                case "setAutoCommit" -> {
+                    autoCommit = (Boolean) args[0];
+                    calls.add("setAutoCommit " + autoCommit);
+                    yield null;
+                }
+                default -> {
+                    calls.add(method.getName());
+                    yield null;
+                }
+                });
+    }
+
+    /** A statement that fails on the given SQL. */
+    private Statement statement(String failing) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class },
+                (proxy, method, args) -> {
+                    calls.add((String) args[0]);
+                    if (args[0].equals(failing)) {
+                        throw new SQLException("table is locked");
+                    }
+                    return false;
+                });
+    }
+}
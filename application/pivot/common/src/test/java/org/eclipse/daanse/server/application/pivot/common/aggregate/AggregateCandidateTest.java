@@ -0,0 +1,91 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.daanse.server.application.pivot.common.aggregate.QueryRecorder.Observed;
+import org.junit.jupiter.api.Test;
+
+class AggregateCandidateTest {
+
+    private static final String FROM = " from sales_fact f, time_by_day t, store s"
+            + " where f.time_id = t.time_id and f.store_id = s.store_id";
+
+    private static Observed observed(String sql, long statements, long millis, long maxRows) {
+        return new Observed(QueryShape.parse(sql).orElseThrow(), statements, millis * 1_000_000, maxRows);
+    }
+
+    @Test
+    void ranksBySavedTime() {
+        Observed byYear = observed("select t.the_year, sum(f.unit_sales)" + FROM + " group by t.the_year", 100,
+                10_000, 3);
+        Observed byMonth = observed("select t.the_year, t.month_of_year, sum(f.store_sales)" + FROM
+                + " group by t.the_year, t.month_of_year", 50, 10_000, 36);
+        Observed byCity = observed("select s.store_city, t.the_year, count(f.customer_id)" + FROM
+                + " group by s.store_city, t.the_year", 1, 100, 200);
+        Observed distinct = observed("select t.the_year, count(distinct f.customer_id)" + FROM
+                + " group by t.the_year", 1_000, 100_000, 3);
+
+        List<AggregateCandidate> candidates = AggregateCandidate.rank(List.of(byYear, byMonth, byCity, distinct),
+                Map.of("sales_fact", 1_000_000L), Map.of(), 5);
+
+        // year and month answers both busy shapes; the year alone only adds the difference of 33 rows
+        AggregateCandidate first = candidates.get(0);
+        assertEquals(List.of("t.month_of_year", "t.the_year"), List.copyOf(first.shape().columns()));
+        assertEquals(List.of("count(*)", "sum(f.store_sales)", "sum(f.unit_sales)"),
+                List.copyOf(first.shape().measures()));
+        assertEquals(150, first.statements());
+        assertEquals(36, first.rows());
+        assertEquals(3, candidates.size());
+        assertTrue(candidates.get(1).savedNanos() > candidates.get(2).savedNanos());
+        assertEquals(first.table(), AggregateCandidate.tableName("sales_fact", first.shape().columns()));
+        assertTrue(first.table().matches("agg_[0-9a-f]{8}_sales_fact"), first.table());
+
+        // once materialized, the known rows replace the estimate
+        List<AggregateCandidate> known = AggregateCandidate.rank(List.of(byYear, byMonth),
+                Map.of("sales_fact", 1_000_000L), Map.of(first.table(), 48L), 1);
+        assertEquals(48, known.get(0).rows());
+    }
+
+    @Test
+    void writesTheTableInTheQuotingOfTheQueries() {
+        Observed byYear = observed("select \"t\".\"the_year\" as \"c0\", sum(\"f\".\"unit_sales\") as \"m0\","
+                + " min(\"f\".\"unit_sales\") as \"m1\" from \"dw\".\"sales_fact\" \"f\", \"time_by_day\" \"t\""
+                + " where \"f\".\"time_id\" = \"t\".\"time_id\" group by \"t\".\"the_year\"", 1, 1_000, 3);
+        AggregateCandidate candidate = AggregateCandidate
+                .rank(List.of(byYear), Map.of("dw.sales_fact", 1_000L), Map.of(), 5).get(0);
+
+        assertEquals("CREATE TABLE \"dw\".\"agg_x\" AS\n"
+                + "SELECT\n"
+                + "    count(*) AS \"fact_count\",\n"
+                + "    \"t\".\"the_year\" AS \"the_year\",\n"
+                + "    min(\"f\".\"unit_sales\") AS \"min_unit_sales\",\n"
+                + "    sum(\"f\".\"unit_sales\") AS \"unit_sales\"\n"
+                + "FROM \"dw\".\"sales_fact\" \"f\", \"time_by_day\" \"t\"\n"
+                + "WHERE \"f\".\"time_id\" = \"t\".\"time_id\"\n"
+                + "GROUP BY \"t\".\"the_year\"", candidate.createSql("agg_x"));
+
+        String mapping = candidate.mapping(new CatalogNames(Map.of("t.the_year", "[Time].[Year]"),
+                Map.of("sum(f.unit_sales)", "[Measures].[Unit Sales]")));
+        assertTrue(mapping.contains("name=\"[Time].[Year]\" column=\"_column_" + candidate.table()
+                + "_the_year\" collapsed=\"true\""), mapping);
+        assertTrue(mapping.contains("name=\"[Measures].[Unit Sales]\""), mapping);
+        assertTrue(mapping.contains("<!-- no stored measure of the catalog aggregates min(f.unit_sales) -->"), mapping);
+    }
+}
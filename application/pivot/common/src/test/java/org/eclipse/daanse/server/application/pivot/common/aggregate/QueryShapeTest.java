@@ -0,0 +1,93 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class QueryShapeTest {
+
+    @Test
+    void readsSegmentQueries() {
+        QueryShape shape = QueryShape.parse("""
+                select "time_by_day"."the_year" as "c0", "product_class"."product_family" as "c1",
+                    sum("sales_fact_1997"."unit_sales") as "m0", count(*) as "m1"
+                from "sales_fact_1997" as "sales_fact_1997", "time_by_day" as "time_by_day",
+                    "product" as "product", "product_class" as "product_class"
+                where "sales_fact_1997"."time_id" = "time_by_day"."time_id"
+                    and "time_by_day"."the_year" = 1997
+                    and "sales_fact_1997"."product_id" = "product"."product_id"
+                    and "product"."product_class_id" = "product_class"."product_class_id"
+                    and ("time_by_day"."quarter" in ('Q1', 'Q2'))
+                group by "time_by_day"."the_year", "product_class"."product_family"
+                """).orElseThrow();
+
+        assertEquals('"', shape.quote());
+        assertEquals("sales_fact_1997", shape.factAlias());
+        assertEquals("sales_fact_1997", shape.factTable());
+        assertEquals(Set.of("time_by_day.the_year", "time_by_day.quarter", "product_class.product_family"),
+                shape.columns());
+        assertEquals(Set.of("sum(sales_fact_1997.unit_sales)", "count(*)"), shape.measures());
+        assertEquals(Set.of("sales_fact_1997.time_id = time_by_day.time_id",
+                "product.product_id = sales_fact_1997.product_id",
+                "product.product_class_id = product_class.product_class_id"), shape.joins());
+        assertEquals(4, shape.tables().size());
+        assertTrue(shape.additive());
+        assertEquals("\"dw\".\"sales_fact_1997\"", shape.quotedTable("dw.sales_fact_1997"));
+    }
+
+    @Test
+    void readsGroupingSetsAndUnquotedNames() {
+        QueryShape shape = QueryShape.parse("SELECT s.store_country, t.the_year, SUM(f.store_sales) m0, "
+                + "GROUPING(s.store_country) g0 FROM foodmart.sales_fact_1997 f, store s, time_by_day t "
+                + "WHERE f.store_id = s.store_id AND f.time_id = t.time_id "
+                + "GROUP BY GROUPING SETS ((s.store_country, t.the_year), (t.the_year))").orElseThrow();
+
+        assertEquals(0, shape.quote());
+        assertEquals("foodmart.sales_fact_1997", shape.factTable());
+        assertEquals(Set.of("s.store_country", "t.the_year"), shape.columns());
+        assertEquals(Map.of("f", "foodmart.sales_fact_1997", "s", "store", "t", "time_by_day"), shape.tables());
+    }
+
+    @Test
+    void marksDistinctCountsAsNotAdditive() {
+        QueryShape shape = QueryShape.parse("select `t`.`the_year`, count(distinct `f`.`customer_id`) "
+                + "from `sales_fact_1997` `f`, `time_by_day` `t` where `f`.`time_id` = `t`.`time_id` "
+                + "group by `t`.`the_year`").orElseThrow();
+
+        assertEquals('`', shape.quote());
+        assertEquals(Set.of("count(distinct f.customer_id)"), shape.measures());
+        assertFalse(shape.additive());
+    }
+
+    @Test
+    void leavesOtherQueriesOut() {
+        assertEquals(Optional.empty(), QueryShape.parse("select count(*) from (select distinct t.the_year "
+                + "from time_by_day t) init"));
+        assertEquals(Optional.empty(), QueryShape.parse("select t.the_year from time_by_day t "
+                + "group by t.the_year order by t.the_year"));
+        assertEquals(Optional.empty(), QueryShape.parse("select sum(f.unit_sales) from sales_fact_1997 f "
+                + "join store s on f.store_id = s.store_id"));
+        assertEquals(Optional.empty(), QueryShape.parse("select sum(f.unit_sales * f.price) from sales_fact_1997 f"));
+        assertEquals(Optional.empty(), QueryShape.parse("update t set a = 1"));
+        assertEquals(Optional.empty(), QueryShape.parse("select 'unterminated from t"));
+    }
+}
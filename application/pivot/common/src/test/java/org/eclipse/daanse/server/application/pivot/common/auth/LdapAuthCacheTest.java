@@ -0,0 +1,170 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.daanse.server.application.pivot.common.auth.LdapAuthCache.Lookup;
+import org.eclipse.daanse.server.application.pivot.common.test.Configs;
+import org.eclipse.daanse.xmla.server.auth.api.CredentialStore;
+import org.eclipse.daanse.xmla.server.auth.api.RoleProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Expiry of positive and negative lookups, on a fake clock and directory
+ * services that count their calls.
+ */
+class LdapAuthCacheTest {
+
+    /** A store with the signature of a credential lookup but none of its names. */
+    public interface LookAlike {
+
+        boolean verify(String user, char[] password);
+    }
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger binds = new AtomicInteger();
+    private final AtomicInteger searches = new AtomicInteger();
+    private final LdapAuthCache cache = new LdapAuthCache();
+
+    private final CredentialStore directory = new CredentialStore() {
+
+        @Override
+        public boolean authenticate(String user, char[] password) {
+            binds.incrementAndGet();
+            if ("offline".equals(user)) {
+                throw new IllegalStateException("directory unreachable");
+            }
+            return "secret".equals(new String(password));
+        }
+
+        @Override
+        public String describe(String user) {
+            binds.incrementAndGet();
+            return user;
+        }
+    };
+
+    LdapAuthCacheTest() throws Exception {
+        cache.ticker = nanos::get;
+        // a bundle context that only takes the listener
+        cache.activate((BundleContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { BundleContext.class }, (proxy, method, args) -> null),
+                Configs.of(LdapAuthCache.Config.class,
+                        Map.of(LdapAuthCache.PROP_TTL_SECONDS, 300L, LdapAuthCache.PROP_NEGATIVE_TTL_SECONDS, "30")));
+    }
+
+    @AfterEach
+    void deactivate() {
+        cache.deactivate();
+    }
+
+    @Test
+    void keepsSuccessfulBindsForTheTtl() {
+        CredentialStore credentials = credentials();
+        assertTrue(credentials.authenticate("alice", "secret".toCharArray()));
+        assertTrue(credentials.authenticate("alice", "secret".toCharArray()));
+        assertEquals(1, binds.get());
+
+        advance(Duration.ofSeconds(299));
+        assertTrue(credentials.authenticate("alice", "secret".toCharArray()));
+        assertEquals(1, binds.get());
+        advance(Duration.ofSeconds(2));
+        assertTrue(credentials.authenticate("alice", "secret".toCharArray()));
+        assertEquals(2, binds.get());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    void keepsFailedBindsForTheNegativeTtl() {
+        CredentialStore credentials = credentials();
+        assertFalse(credentials.authenticate("alice", "wrong".toCharArray()));
+        assertFalse(credentials.authenticate("alice", "wrong".toCharArray()));
+        assertEquals(1, binds.get());
+        assertEquals(1, cache.getNegativeHitCount());
+
+        advance(Duration.ofSeconds(31));
+        assertFalse(credentials.authenticate("alice", "wrong".toCharArray()));
+        assertEquals(2, binds.get());
+        assertTrue(credentials.authenticate("alice", "secret".toCharArray()), "another password is another key");
+    }
+
+    @Test
+    void cachesNoFailures() {
+        CredentialStore credentials = credentials();
+        assertThrows(IllegalStateException.class, () -> credentials.authenticate("offline", "secret".toCharArray()));
+        assertThrows(IllegalStateException.class, () -> credentials.authenticate("offline", "secret".toCharArray()));
+        assertEquals(2, binds.get());
+        assertEquals(2, cache.getFailureCount());
+    }
+
+    @Test
+    void passesOtherMethodsThrough() {
+        CredentialStore credentials = credentials();
+        credentials.describe("alice");
+        credentials.describe("alice");
+        assertEquals(2, binds.get());
+    }
+
+    @Test
+    void keepsEmptyRoleSetsForTheNegativeTtl() {
+        RoleProvider roles = (RoleProvider) cache.facade(Lookup.ROLES, (RoleProvider) user -> {
+            searches.incrementAndGet();
+            return "alice".equals(user) ? List.of("Sales") : List.of();
+        }, getClass().getClassLoader(), new Class<?>[] { RoleProvider.class });
+
+        assertEquals(List.of("Sales"), roles.getRoles("alice"));
+        assertEquals(List.of(), roles.getRoles("bob"));
+        advance(Duration.ofSeconds(31));
+        assertEquals(List.of("Sales"), roles.getRoles("alice"));
+        assertEquals(List.of(), roles.getRoles("bob"));
+        assertEquals(3, searches.get());
+    }
+
+    @Test
+    void passesLookAlikesThrough() {
+        LookAlike lookAlike = (LookAlike) cache.facade(Lookup.CREDENTIALS, (LookAlike) (user, password) -> {
+            binds.incrementAndGet();
+            return true;
+        }, getClass().getClassLoader(), new Class<?>[] { LookAlike.class });
+
+        assertTrue(lookAlike.verify("alice", "secret".toCharArray()));
+        assertTrue(lookAlike.verify("alice", "secret".toCharArray()));
+        assertEquals(2, binds.get());
+        assertFalse(Lookup.CREDENTIALS.isOffered(new Class<?>[] { LookAlike.class }));
+        assertTrue(Lookup.CREDENTIALS.isOffered(new Class<?>[] { CredentialStore.class }));
+        assertFalse(Lookup.ROLES.isOffered(new Class<?>[] { CredentialStore.class }));
+    }
+
+    private CredentialStore credentials() {
+        return (CredentialStore) cache.facade(Lookup.CREDENTIALS, directory, getClass().getClassLoader(),
+                new Class<?>[] { CredentialStore.class });
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
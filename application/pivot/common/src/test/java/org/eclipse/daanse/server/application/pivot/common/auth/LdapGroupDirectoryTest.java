@@ -0,0 +1,179 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+import com.unboundid.ldap.sdk.schema.Schema;
+
+/**
+ * Loads and refreshes the group snapshot against an in-process UnboundID
+ * directory.
+ */
+class LdapGroupDirectoryTest {
+
+    private static final String BASE = "dc=example,dc=org";
+    private static final String PEOPLE = "ou=people," + BASE;
+    private static final String GROUPS = "ou=groups," + BASE;
+
+    private InMemoryDirectoryServer server;
+    private LdapGroupDirectory directory;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE);
+        config.addAdditionalBindCredentials("cn=admin", "secret");
+        // memberOf as Active Directory and the OpenLDAP memberof overlay publish it
+        config.setSchema(Schema.mergeSchemas(Schema.getDefaultStandardSchema(), new Schema(new Entry("cn=schema",
+                new Attribute("attributeTypes", "( 1.2.840.113556.1.2.102 NAME 'memberOf' "
+                        + "SYNTAX 1.3.6.1.4.1.1466.115.121.1.12 )")))));
+        server = new InMemoryDirectoryServer(config);
+        server.add("dn: " + BASE, "objectClass: domain", "dc: example");
+        server.add("dn: " + PEOPLE, "objectClass: organizationalUnit", "ou: people");
+        server.add("dn: " + GROUPS, "objectClass: organizationalUnit", "ou: groups");
+        for (String user : new String[] { "alice", "bob", "carol" }) {
+            server.add("dn: uid=" + user + "," + PEOPLE, "objectClass: inetOrgPerson", "uid: " + user,
+                    "cn: " + user, "sn: " + user);
+        }
+        server.add("dn: cn=analysts," + GROUPS, "objectClass: groupOfNames", "cn: analysts",
+                "member: uid=alice," + PEOPLE, "member: uid=bob," + PEOPLE);
+        // a group that may lose its last member
+        server.add("dn: cn=admins," + GROUPS, "objectClass: organizationalRole", "objectClass: extensibleObject",
+                "cn: admins", "member: uid=alice," + PEOPLE);
+        server.startListening();
+
+        directory = directory("uid={0}," + PEOPLE, null, null);
+    }
+
+    @AfterEach
+    void stopServer() {
+        directory.close();
+        server.shutDown(true);
+    }
+
+    private LdapGroupDirectory directory(String userDnPattern, String userSearchBase, String memberOfAttribute) {
+        if (directory != null) {
+            directory.close();
+        }
+        return new LdapGroupDirectory(new LdapGroupDirectory.Settings("ldap://localhost:" + server.getListenPort(),
+                "cn=admin", "secret", "NONE", true, 5000, 5000, GROUPS, "(member={0})", "cn", userDnPattern,
+                userSearchBase, "(uid={0})", memberOfAttribute, Duration.ofMinutes(1), Duration.ofHours(1)));
+    }
+
+    @Test
+    void emptyUntilLoaded() {
+        assertFalse(directory.isLoaded());
+        assertEquals(Optional.empty(), directory.rolesOf("alice"));
+    }
+
+    @Test
+    void resolvesRolesByLoginAndDn() throws Exception {
+        directory.refresh();
+
+        assertTrue(directory.isLoaded());
+        assertEquals(2, directory.groupCount());
+        assertEquals(Optional.of(Set.of("analysts", "admins")), directory.rolesOf("alice"));
+        assertEquals(Optional.of(Set.of("analysts")), directory.rolesOf("UID=Bob," + PEOPLE));
+        assertEquals(Optional.of(Set.of()), directory.rolesOf("carol"));
+    }
+
+    @Test
+    void incrementalRefreshPicksUpChangedGroups() throws Exception {
+        directory.refresh();
+
+        server.modify("cn=admins," + GROUPS,
+                new Modification(ModificationType.ADD, "member", "uid=carol," + PEOPLE));
+        server.add("dn: cn=viewers," + GROUPS, "objectClass: groupOfNames", "cn: viewers",
+                "member: uid=carol," + PEOPLE);
+        directory.refresh();
+
+        assertEquals(3, directory.groupCount());
+        assertEquals(Optional.of(Set.of("admins", "viewers")), directory.rolesOf("carol"));
+        assertEquals(Optional.of(Set.of("analysts", "admins")), directory.rolesOf("alice"));
+    }
+
+    @Test
+    void incrementalRefreshDropsGroupsWithoutMembers() throws Exception {
+        directory.refresh();
+
+        server.modify("cn=admins," + GROUPS,
+                new Modification(ModificationType.DELETE, "member", "uid=alice," + PEOPLE));
+        directory.refresh();
+
+        assertEquals(1, directory.groupCount());
+        assertEquals(Optional.of(Set.of("analysts")), directory.rolesOf("alice"));
+    }
+
+    @Test
+    void loginWithoutDnIsLeftToTheDirectory() throws Exception {
+        directory = directory(null, PEOPLE, null);
+        directory.refresh();
+
+        assertEquals(Optional.empty(), directory.rolesOf("alice"));
+        assertEquals(Optional.of(Set.of("analysts", "admins")), directory.rolesOf("uid=alice," + PEOPLE));
+    }
+
+    @Test
+    void readsTheGroupsOfTheUsersInMemberOfMode() throws Exception {
+        server.modify("uid=alice," + PEOPLE, new Modification(ModificationType.ADD, "objectClass", "extensibleObject"),
+                new Modification(ModificationType.ADD, "memberOf", "cn=analysts," + GROUPS, "cn=admins," + GROUPS));
+        directory = directory(null, PEOPLE, "memberOf");
+        directory.refresh();
+
+        assertEquals(3, directory.groupCount(), "one entry per user");
+        assertEquals(Optional.of(Set.of("analysts", "admins")), directory.rolesOf("alice"));
+        assertEquals(Optional.of(Set.of()), directory.rolesOf("Carol"));
+        assertEquals(Optional.empty(), directory.rolesOf("dave"));
+
+        server.modify("uid=carol," + PEOPLE, new Modification(ModificationType.ADD, "objectClass", "extensibleObject"),
+                new Modification(ModificationType.ADD, "memberOf", "cn=viewers," + GROUPS));
+        directory.refresh();
+        assertEquals(Optional.of(Set.of("viewers")), directory.rolesOf("carol"));
+    }
+
+    @Test
+    void refusesToBindInTheClear() {
+        assertThrows(IllegalArgumentException.class, () -> settings("ldap://ldap.example.org", "LDAPS", true));
+        assertThrows(IllegalArgumentException.class, () -> settings("ldap://ldap.example.org", "NONE", false));
+        assertThrows(IllegalArgumentException.class, () -> settings("ldap://ldap.example.org", "TLS", true));
+
+        assertEquals("LDAPS", settings("LDAPS://ldap.example.org:636", "ldaps", false).transportSecurity());
+        assertEquals("STARTTLS", settings("ldap://ldap.example.org", "StartTLS", false).transportSecurity());
+        assertEquals("NONE", settings("ldap://ldap.example.org", "NONE", true).transportSecurity());
+    }
+
+    private static LdapGroupDirectory.Settings settings(String url, String transportSecurity,
+            boolean allowUnencrypted) {
+        return new LdapGroupDirectory.Settings(url, "cn=admin", "secret", transportSecurity, allowUnencrypted, 5000,
+                5000, GROUPS, "(member={0})", "cn", null, PEOPLE, "(uid={0})", null, Duration.ofMinutes(1),
+                Duration.ofHours(1));
+    }
+}
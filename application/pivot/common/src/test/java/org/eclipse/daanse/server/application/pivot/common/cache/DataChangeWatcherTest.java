@@ -0,0 +1,76 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.daanse.server.application.pivot.common.cache.DataChangeWatcher.Source;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DataChangeWatcherTest {
+
+    @Test
+    void keysCubesAsInVariableNames() {
+        assertEquals("STORE_SALES", DataChangeWatcher.key("Store Sales"));
+        assertEquals("WAREHOUSE_AND_SALES", DataChangeWatcher.key("Warehouse and Sales"));
+        assertEquals("HR_2024", DataChangeWatcher.key("hr-2024"));
+    }
+
+    @Test
+    void readsFilesAndQueries() {
+        List<Source> sources = DataChangeWatcher.sources(new String[] { "/app/data/database.duckdb" },
+                new String[] { "*=SELECT max(loaded_at) FROM etl_runs",
+                        "STORE_SALES = SELECT count(*) FROM f WHERE a=1" });
+        assertEquals(List.of(new Source("*", Path.of("/app/data/database.duckdb"), null),
+                new Source("*", null, "SELECT max(loaded_at) FROM etl_runs"),
+                new Source("STORE_SALES", null, "SELECT count(*) FROM f WHERE a=1")), sources);
+
+        assertThrows(IllegalArgumentException.class, () -> DataChangeWatcher.sources(new String[0],
+                new String[] { "SELECT max(loaded_at) FROM etl_runs" }));
+        assertThrows(IllegalArgumentException.class,
+                () -> DataChangeWatcher.sources(new String[0], new String[] { "Sales=" }));
+    }
+
+    @Test
+    void versionsFilesByTimeAndSize(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("database.duckdb");
+        assertEquals(Optional.of("missing"), DataChangeWatcher.fileVersion(file));
+
+        Files.writeString(file, "v1");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+        Optional<String> first = DataChangeWatcher.fileVersion(file);
+        assertEquals(first, DataChangeWatcher.fileVersion(file));
+
+        Files.writeString(file, "v2");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+        assertEquals(first, DataChangeWatcher.fileVersion(file), "same time and size");
+
+        Files.writeString(file, "v3 longer");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+        assertNotEquals(first, DataChangeWatcher.fileVersion(file));
+
+        Files.writeString(file, "v1");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000));
+        assertNotEquals(first, DataChangeWatcher.fileVersion(file));
+    }
+}
@@ -0,0 +1,279 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.daanse.server.application.pivot.common.http.CompressionFilter;
+import org.eclipse.daanse.server.application.pivot.common.test.Configs;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.BundleContext;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Keys and round trips through the filter, with request and response faked by
+ * proxies and a chain that stands in for the XMLA servlet.
+ */
+class XmlaResultCacheTest {
+
+    private static final String EXECUTE = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/"><soap:Body>
+            <Execute xmlns="urn:schemas-microsoft-com:xml-analysis">
+              <Command><Statement>%s</Statement></Command>
+              <Properties><PropertyList><Catalog>%s</Catalog><Format>Multidimensional</Format></PropertyList></Properties>
+            </Execute></soap:Body></soap:Envelope>""";
+
+    private final XmlaResultCache cache = new XmlaResultCache();
+
+    XmlaResultCacheTest() throws Exception {
+        // a bundle context that only takes the listener
+        cache.activate((BundleContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { BundleContext.class }, (proxy, method, args) -> null),
+                Configs.of(XmlaResultCache.Config.class));
+    }
+
+    @Test
+    void normalizesWhitespaceOutsideOfNamesAndStrings() {
+        assertEquals("SELECT [Measures].[Unit  Sales] ON 0 FROM [Sales] WHERE 'a  b'",
+                XmlaResultCache.normalize("\n  SELECT\t[Measures].[Unit  Sales]  ON 0\r\n FROM [Sales]\nWHERE 'a  b' "));
+        assertEquals("SELECT {[A]} ON 0 FROM [C]",
+                XmlaResultCache.unescape("SELECT {[A]} ON 0 FROM [C]"));
+        assertEquals("a < b & 'c' \u00e9", XmlaResultCache.unescape("a &lt; b &amp; &apos;c&apos; &#233;"));
+    }
+
+    @Test
+    void keysTheQueryByCredentialsStatementAndProperties() {
+        String select = EXECUTE.formatted("SELECT FROM [Sales]", "FoodMart");
+        Optional<String> key = cache.keyOf(request(Map.of(), select), select);
+        assertTrue(key.isPresent());
+        String spaced = EXECUTE.formatted("  SELECT\n FROM   [Sales] ", "FoodMart");
+        assertEquals(key, cache.keyOf(request(Map.of(), spaced), spaced));
+
+        String otherCatalog = EXECUTE.formatted("SELECT FROM [Sales]", "Other");
+        assertNotEquals(key, cache.keyOf(request(Map.of(), otherCatalog), otherCatalog));
+        assertNotEquals(key, cache.keyOf(request(Map.of("Authorization", "Basic YTpi"), select), select));
+
+        String drop = EXECUTE.formatted("DROP CUBE [Sales]", "FoodMart");
+        assertEquals(Optional.empty(), cache.keyOf(request(Map.of(), drop), drop));
+        String session = select.replace("<soap:Body>",
+                "<soap:Header><Session xmlns=\"urn:schemas-microsoft-com:xml-analysis\" SessionId=\"1\"/></soap:Header><soap:Body>");
+        assertEquals(Optional.empty(), cache.keyOf(request(Map.of(), session), session));
+    }
+
+    @Test
+    void answersTheSecondRequestFromTheCache() throws Exception {
+        AtomicInteger served = new AtomicInteger();
+        FilterChain servlet = (request, response) -> {
+            String envelope = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(envelope.contains("SELECT FROM [Sales]"), "the servlet reads the whole envelope");
+            ((HttpServletResponse) response).setStatus(200);
+            response.setContentType("text/xml");
+            response.getWriter().write("<root>" + served.incrementAndGet() + "</root>");
+        };
+        String select = EXECUTE.formatted("SELECT FROM [Sales]", "FoodMart");
+
+        FakeResponse first = new FakeResponse();
+        cache.doFilter(request(Map.of(), select), first.proxy(), servlet);
+        FakeResponse second = new FakeResponse();
+        cache.doFilter(request(Map.of(), select), second.proxy(), servlet);
+
+        assertEquals(1, served.get());
+        assertEquals("<root>1</root>", second.body());
+        assertEquals("HIT", second.headers.get(XmlaResultCache.HEADER_CACHE));
+        assertEquals("MISS", first.headers.get(XmlaResultCache.HEADER_CACHE));
+
+        cache.modified(Configs.of(XmlaResultCache.Config.class));
+        cache.doFilter(request(Map.of(), select), new FakeResponse().proxy(), servlet);
+        assertEquals(2, served.get(), "a new configuration starts empty");
+    }
+
+    @Test
+    void keepsNoFailures() throws Exception {
+        AtomicInteger served = new AtomicInteger();
+        FilterChain servlet = (request, response) -> {
+            request.getInputStream().readAllBytes();
+            served.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(200);
+            response.getOutputStream().write("<soap:Fault><faultstring>no</faultstring></soap:Fault>"
+                    .getBytes(StandardCharsets.UTF_8));
+        };
+        String select = EXECUTE.formatted("SELECT FROM [Sales]", "FoodMart");
+        cache.doFilter(request(Map.of(), select), new FakeResponse().proxy(), servlet);
+        cache.doFilter(request(Map.of(), select), new FakeResponse().proxy(), servlet);
+        assertEquals(2, served.get());
+    }
+
+    @Test
+    void cachesBehindTheCompressionFilter() throws Exception {
+        CompressionFilter compression = new CompressionFilter();
+        compression.configure(
+                Configs.of(CompressionFilter.Config.class, Map.of(CompressionFilter.PROP_MIN_SIZE, 16)));
+        AtomicInteger served = new AtomicInteger();
+        String cellset = "<root>" + "<Cell>1</Cell>".repeat(100) + "</root>";
+        FilterChain servlet = (request, response) -> {
+            request.getInputStream().readAllBytes();
+            served.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(200);
+            response.setContentType("text/xml");
+            response.getWriter().write(cellset);
+        };
+        FilterChain cached = (request, response) -> cache.doFilter(request, response, servlet);
+        String select = EXECUTE.formatted("SELECT FROM [Sales]", "FoodMart");
+        Map<String, String> gzip = Map.of("Accept-Encoding", "gzip");
+
+        FakeResponse first = new FakeResponse();
+        compression.doFilter(request(gzip, select), first.proxy(), cached);
+        FakeResponse second = new FakeResponse();
+        compression.doFilter(request(gzip, select), second.proxy(), cached);
+        FakeResponse plain = new FakeResponse();
+        compression.doFilter(request(Map.of(), select), plain.proxy(), cached);
+
+        assertEquals(1, served.get(), "the compressed answer is cached as the servlet wrote it");
+        assertEquals("HIT", second.headers.get(XmlaResultCache.HEADER_CACHE));
+        assertEquals("gzip", second.headers.get("Content-Encoding"));
+        assertEquals(cellset, new String(new GZIPInputStream(new ByteArrayInputStream(second.body.toByteArray()))
+                .readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("HIT", plain.headers.get(XmlaResultCache.HEADER_CACHE));
+        assertEquals(cellset, plain.body());
+    }
+
+    @Test
+    void keepsNoBodyTheServletEncoded() throws Exception {
+        AtomicInteger served = new AtomicInteger();
+        FilterChain servlet = (request, response) -> {
+            request.getInputStream().readAllBytes();
+            served.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(200);
+            ((HttpServletResponse) response).setHeader("Content-Encoding", "br");
+            response.getOutputStream().write(new byte[] { 1, 2, 3 });
+        };
+        String select = EXECUTE.formatted("SELECT FROM [Sales]", "FoodMart");
+        cache.doFilter(request(Map.of(), select), new FakeResponse().proxy(), servlet);
+        cache.doFilter(request(Map.of(), select), new FakeResponse().proxy(), servlet);
+        assertEquals(2, served.get());
+    }
+
+    private static HttpServletRequest request(Map<String, String> headers, String envelope) {
+        ByteArrayInputStream in = new ByteArrayInputStream(envelope.getBytes(StandardCharsets.UTF_8));
+        ServletInputStream stream = new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                // synchronous only
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(XmlaResultCacheTest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> switch (method.getName()) {
+                case "getMethod" -> "POST";
+                case "getRequestURI" -> "/xmla";
+                case "getInputStream" -> stream;
+                case "getHeader" -> headers.get((String) args[0]);
+                default -> null;
+                });
+    }
+
+    /** The parts of a response the filter and the fake servlet use. */
+    private static final class FakeResponse {
+
+        final Map<String, String> headers = new HashMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int status = 200;
+        String contentType;
+
+        String body() {
+            return body.toString(StandardCharsets.UTF_8);
+        }
+
+        HttpServletResponse proxy() {
+            ServletOutputStream stream = new ServletOutputStream() {
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    // synchronous only
+                }
+            };
+            return (HttpServletResponse) Proxy.newProxyInstance(XmlaResultCacheTest.class.getClassLoader(),
+                    new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                        case "setHeader" -> headers.put((String) args[0], (String) args[1]);
+                        case "getHeader" -> {
+                            return headers.get((String) args[0]);
+                        }
+                        case "setStatus" -> status = (Integer) args[0];
+                        case "getStatus" -> {
+                            return status;
+                        }
+                        case "setContentType" -> contentType = (String) args[0];
+                        case "getContentType" -> {
+                            return contentType;
+                        }
+                        case "getCharacterEncoding" -> {
+                            return "UTF-8";
+                        }
+                        case "getOutputStream" -> {
+                            return stream;
+                        }
+                        default -> {
+                            // headers and buffers the filter does not depend on
+                        }
+                        }
+                        return null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.daanse.server.application.pivot.common.test.Configs;
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Negotiation, the size threshold and compressed request bodies, with request
+ * and response faked by proxies.
+ */
+class CompressionFilterTest {
+
+    private static final String CELLSET = "<root>" + "<Cell>1</Cell>".repeat(200) + "</root>";
+
+    private final CompressionFilter filter = new CompressionFilter();
+
+    CompressionFilterTest() {
+        filter.configure(config(Map.of()));
+    }
+
+    @Test
+    void negotiatesByQualityAndConfiguredOrder() {
+        assertEquals(Optional.of("gzip"), filter.negotiate("gzip, deflate, br"));
+        assertEquals(Optional.of("gzip"), filter.negotiate("deflate, gzip"));
+        assertEquals(Optional.of("deflate"), filter.negotiate("gzip;q=0, deflate;q=0.5"));
+        assertEquals(Optional.of("gzip"), filter.negotiate("*"));
+        assertEquals(Optional.of("deflate"), filter.negotiate("*;q=1, gzip;q=0"));
+        assertEquals(Optional.empty(), filter.negotiate("identity"));
+        assertEquals(Optional.empty(), filter.negotiate("br, *;q=0"));
+        assertEquals(Optional.empty(), filter.negotiate(null));
+
+        filter.configure(config(Map.of(CompressionFilter.PROP_ENCODINGS, "deflate,gzip")));
+        assertEquals(Optional.of("deflate"), filter.negotiate("gzip, deflate"));
+        filter.configure(config(Map.of(CompressionFilter.PROP_ENCODINGS, new String[] { "gzip" })));
+        assertEquals(Optional.empty(), filter.negotiate("deflate"));
+    }
+
+    @Test
+    void leavesResponsesBelowTheMinimumSize() throws Exception {
+        FakeResponse response = new FakeResponse();
+        filter.doFilter(request(Map.of("Accept-Encoding", "gzip"), new byte[0]), response.proxy(),
+                servlet("<root/>"));
+        assertNull(response.headers.get("Content-Encoding"));
+        assertEquals(7L, response.contentLength);
+        assertEquals("<root/>", response.body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compressesLargeResponses() throws Exception {
+        FakeResponse gzip = new FakeResponse();
+        filter.doFilter(request(Map.of("Accept-Encoding", "gzip"), new byte[0]), gzip.proxy(), servlet(CELLSET));
+        assertEquals("gzip", gzip.headers.get("Content-Encoding"));
+        assertEquals("Accept-Encoding", gzip.headers.get("Vary"));
+        assertEquals(CELLSET, text(new GZIPInputStream(new ByteArrayInputStream(gzip.body.toByteArray()))));
+
+        FakeResponse deflate = new FakeResponse();
+        filter.doFilter(request(Map.of("Accept-Encoding", "deflate"), new byte[0]), deflate.proxy(),
+                servlet(CELLSET));
+        assertEquals("deflate", deflate.headers.get("Content-Encoding"));
+        assertEquals(CELLSET, text(new InflaterInputStream(new ByteArrayInputStream(deflate.body.toByteArray()))));
+
+        FakeResponse plain = new FakeResponse();
+        filter.doFilter(request(Map.of(), new byte[0]), plain.proxy(), servlet(CELLSET));
+        assertNull(plain.headers.get("Content-Encoding"));
+        assertEquals(CELLSET, plain.body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesAsynchronousOutputUncompressed() throws Exception {
+        FakeResponse response = new FakeResponse();
+        filter.doFilter(request(Map.of("Accept-Encoding", "gzip"), new byte[0]), response.proxy(),
+                (request, servletResponse) -> {
+                    ServletOutputStream out = servletResponse.getOutputStream();
+                    out.write("<root>".getBytes(StandardCharsets.UTF_8));
+                    out.setWriteListener(null);
+                    out.write(CELLSET.getBytes(StandardCharsets.UTF_8));
+                });
+        assertNull(response.headers.get("Content-Encoding"));
+        assertEquals("<root>" + CELLSET, response.body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void inflatesCompressedRequests() throws Exception {
+        AtomicReference<String> read = new AtomicReference<>();
+        FilterChain servlet = (request, response) -> {
+            read.set(text(request.getInputStream()));
+            assertNull(((HttpServletRequest) request).getHeader("Content-Encoding"));
+            assertEquals(-1, request.getContentLength());
+        };
+        FakeResponse response = new FakeResponse();
+        filter.doFilter(request(Map.of("Content-Encoding", "gzip", "Content-Length", "10"), gzip(CELLSET)),
+                response.proxy(), servlet);
+        assertEquals(CELLSET, read.get());
+
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(CELLSET.getBytes(StandardCharsets.UTF_8));
+        }
+        filter.doFilter(request(Map.of("Content-Encoding", "deflate"), deflated.toByteArray()),
+                new FakeResponse().proxy(), servlet);
+        assertEquals(CELLSET, read.get());
+    }
+
+    @Test
+    void rejectsRequestsInflatingBeyondTheLimit() throws Exception {
+        filter.configure(config(Map.of(CompressionFilter.PROP_MAX_REQUEST_BYTES, "1024")));
+        FakeResponse response = new FakeResponse();
+        filter.doFilter(request(Map.of("Content-Encoding", "gzip", "Accept-Encoding", "gzip"), gzip(CELLSET)),
+                response.proxy(), (request, servletResponse) -> {
+                    request.getInputStream().readAllBytes();
+                    servletResponse.getWriter().write(CELLSET);
+                });
+        assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, response.status);
+        assertEquals(0, response.body.size());
+    }
+
+    @Test
+    void rejectsUnsupportedRequestEncodings() throws Exception {
+        FakeResponse response = new FakeResponse();
+        filter.doFilter(request(Map.of("Content-Encoding", "br"), new byte[] { 1 }), response.proxy(),
+                (request, servletResponse) -> {
+                    throw new AssertionError("not passed on");
+                });
+        assertEquals(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, response.status);
+
+        filter.configure(config(Map.of(CompressionFilter.PROP_REQUESTS, "false")));
+        FakeResponse rejected = new FakeResponse();
+        filter.doFilter(request(Map.of("Content-Encoding", "gzip"), gzip(CELLSET)), rejected.proxy(),
+                (request, servletResponse) -> {
+                    throw new AssertionError("not passed on");
+                });
+        assertEquals(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, rejected.status);
+        assertEquals("identity", rejected.headers.get("Accept-Encoding"));
+    }
+
+    @Test
+    void roundTripsTheGzipLevel() throws Exception {
+        byte[] bytes = CELLSET.getBytes(StandardCharsets.UTF_8);
+        for (int level : new int[] { 1, 9 }) {
+            filter.configure(config(Map.of(CompressionFilter.PROP_LEVEL, level)));
+            FakeResponse response = new FakeResponse();
+            filter.doFilter(request(Map.of("Accept-Encoding", "gzip"), new byte[0]), response.proxy(),
+                    (request, servletResponse) -> servletResponse.getOutputStream().write(bytes));
+            assertArrayEquals(bytes,
+                    new GZIPInputStream(new ByteArrayInputStream(response.body.toByteArray())).readAllBytes());
+            assertTrue(response.body.size() < bytes.length);
+        }
+    }
+
+    private static FilterChain servlet(String body) {
+        return (request, response) -> {
+            response.setContentType("text/xml");
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String text(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static HttpServletRequest request(Map<String, String> headers, byte[] body) {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        ServletInputStream stream = new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                // synchronous only
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(CompressionFilterTest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> switch (method.getName()) {
+                case "getMethod" -> "POST";
+                case "getInputStream" -> stream;
+                case "getHeader" -> headers.get((String) args[0]);
+                case "getContentLength" -> body.length;
+                default -> null;
+                });
+    }
+
+    /** The parts of a response the filter uses. */
+    private static final class FakeResponse {
+
+        final Map<String, String> headers = new HashMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int status = 200;
+        String contentType;
+        long contentLength = -1;
+
+        HttpServletResponse proxy() {
+            ServletOutputStream stream = new ServletOutputStream() {
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    // the container would call it back
+                }
+            };
+            return (HttpServletResponse) Proxy.newProxyInstance(CompressionFilterTest.class.getClassLoader(),
+                    new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                        case "setHeader", "addHeader" -> headers.put((String) args[0], (String) args[1]);
+                        case "getHeader" -> {
+                            return headers.get((String) args[0]);
+                        }
+                        case "setStatus" -> status = (Integer) args[0];
+                        case "sendError" -> status = (Integer) args[0];
+                        case "getStatus" -> {
+                            return status;
+                        }
+                        case "setContentType" -> contentType = (String) args[0];
+                        case "getContentType" -> {
+                            return contentType;
+                        }
+                        case "setContentLengthLong" -> contentLength = (Long) args[0];
+                        case "getCharacterEncoding" -> {
+                            return "UTF-8";
+                        }
+                        case "getOutputStream" -> {
+                            return stream;
+                        }
+                        case "isCommitted" -> {
+                            return false;
+                        }
+                        case "reset" -> {
+                            headers.clear();
+                            body.reset();
+                        }
+                        default -> {
+                            // headers and buffers the filter does not depend on
+                        }
+                        }
+                        return null;
+                    });
+        }
+    }
+
+    private static CompressionFilter.Config config(Map<String, ?> props) {
+        return Configs.of(CompressionFilter.Config.class, props);
+    }
+}
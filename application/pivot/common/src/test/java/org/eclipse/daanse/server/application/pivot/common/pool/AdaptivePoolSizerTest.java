@@ -0,0 +1,168 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.daanse.server.application.pivot.common.pool.AdaptivePoolSizer.Decision;
+import org.eclipse.daanse.server.application.pivot.common.pool.AdaptivePoolSizer.Settings;
+import org.eclipse.daanse.server.application.pivot.common.pool.AdaptivePoolSizer.Sizing;
+import org.eclipse.daanse.server.application.pivot.common.pool.AdaptivePoolSizer.Window;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sizing decisions on synthetic intervals, and the observations of a pool
+ * faked by a bean with HikariCP's setters.
+ */
+class AdaptivePoolSizerTest {
+
+    /** Between 2 and the configured size, 10 ms target wait, 100 % latency tolerance. */
+    private static final Settings SETTINGS = new Settings(2, 0, 10_000, 10, 1.0);
+
+    /** Stands in for a {@code HikariDataSource}. */
+    public static final class FakePool {
+
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 10;
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+    }
+
+    private static Window window(double waitMillis, double busy, double latencyMillis) {
+        return new Window(100, waitMillis, 0, busy, latencyMillis);
+    }
+
+    @Test
+    void growsWhileCallersWaitUpToTheConfiguredSize() {
+        Sizing sizing = new Sizing(SETTINGS, 10, null, 0);
+        assertEquals(10, sizing.upper);
+
+        // at the configured size, waiting callers cannot make it larger
+        assertEquals(10, sizing.decide(10, window(50, 10, 20)).size());
+        assertEquals(8, sizing.decide(8, window(5, 8, 20)).size());
+        assertEquals(10, sizing.decide(8, window(50, 8, 20)).size());
+        assertEquals(5, sizing.decide(4, new Window(100, 0, 1, 4, 20)).size(), "a timeout is waiting too");
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesOverTheBaselineEvenIfCallersWait() {
+        Sizing sizing = new Sizing(new Settings(2, 40, 10_000, 10, 1.0), 20, null, 0);
+        assertEquals(20, sizing.decide(20, window(0, 15, 20)).size());
+        assertEquals(20.0, sizing.baselineMillis());
+
+        // twice the baseline is within the tolerance
+        assertEquals(20, sizing.decide(20, window(0, 15, 40)).size());
+        Decision decision = sizing.decide(20, window(200, 20, 90));
+        assertEquals(15, decision.size());
+        assertEquals("latency over baseline", decision.reason());
+
+        // a small rise over a tiny baseline is noise
+        Sizing fast = new Sizing(SETTINGS, 10, null, 0);
+        fast.decide(10, window(0, 8, 1));
+        assertEquals(10, fast.decide(10, window(0, 8, 5)).size());
+    }
+
+    @Test
+    void shrinksAfterIdleIntervalsNotBelowTwiceTheBusyConnections() {
+        Sizing sizing = new Sizing(SETTINGS, 30, null, 0);
+        for (int i = 1; i < AdaptivePoolSizer.CALM_WINDOWS; i++) {
+            assertEquals(30, sizing.decide(30, window(0, 2, 20)).size());
+        }
+        assertEquals(27, sizing.decide(30, window(0, 2, 20)).size());
+
+        Sizing busy = new Sizing(SETTINGS, 10, null, 0);
+        for (int i = 1; i < AdaptivePoolSizer.CALM_WINDOWS; i++) {
+            busy.decide(10, window(0, 4.5, 20));
+        }
+        assertEquals(9, busy.decide(10, window(0, 4.5, 20)).size());
+
+        Sizing low = new Sizing(SETTINGS, 10, null, 0);
+        for (int i = 1; i < AdaptivePoolSizer.CALM_WINDOWS; i++) {
+            low.decide(2, window(0, 0, Double.NaN));
+        }
+        assertEquals(2, low.decide(2, window(0, 0, Double.NaN)).size(), "never below the lower bound");
+    }
+
+    @Test
+    void bringsAPoolOutsideTheBoundsIntoThem() {
+        Sizing sizing = new Sizing(new Settings(4, 12, 10_000, 10, 1.0), 30, null, 0);
+        assertEquals(12, sizing.decide(30, window(0, 20, 20)).size());
+        assertEquals(4, sizing.decide(1, window(0, 1, 20)).size());
+    }
+
+    @Test
+    void windowsOfAPoolAreTheObservationsSinceTheLastOne() {
+        FakePool fake = new FakePool();
+        MonitoredPool pool = new MonitoredPool(fake, "sales", null);
+        pool.tracking = true;
+        pool.observeWaitNanos(TimeUnit.MILLISECONDS.toNanos(30));
+        pool.used(1_000);
+
+        Sizing sizing = new Sizing(SETTINGS, 10, pool, 0);
+        pool.observeWaitNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        pool.observeWaitNanos(TimeUnit.MILLISECONDS.toNanos(30));
+        pool.used(3_000);
+        pool.used(5_000);
+        pool.timedOut();
+
+        Window window = sizing.window(pool, TimeUnit.SECONDS.toNanos(2));
+        assertEquals(2, window.acquisitions());
+        assertEquals(20, window.waitMillis(), 1e-6);
+        assertEquals(1, window.timeouts());
+        assertEquals(4, window.busy(), 1e-6);
+        assertEquals(4_000, window.latencyMillis(), 1e-6);
+        assertEquals(0, sizing.window(pool, TimeUnit.SECONDS.toNanos(4)).acquisitions());
+
+        assertTrue(pool.setMaximumPoolSize(6));
+        assertEquals(6, fake.getMaximumPoolSize());
+        assertEquals(6, fake.getMinimumIdle(), "minimumIdle follows, so surplus connections retire");
+        assertEquals(6, pool.maximumPoolSize().getAsInt());
+    }
+
+    @Test
+    void minimumIdleComesBackAsThePoolGrows() {
+        FakePool fake = new FakePool();
+        fake.setMinimumIdle(4);
+        MonitoredPool pool = new MonitoredPool(fake, "", null);
+
+        assertTrue(pool.setMaximumPoolSize(3));
+        assertEquals(3, fake.getMinimumIdle());
+        assertTrue(pool.setMaximumPoolSize(8));
+        assertEquals(8, fake.getMaximumPoolSize());
+        assertEquals(4, fake.getMinimumIdle(), "back to the configured minimumIdle, not beyond");
+
+        FakePool fixed = new FakePool();
+        MonitoredPool fixedPool = new MonitoredPool(fixed, "", null);
+        assertTrue(fixedPool.setMaximumPoolSize(6));
+        assertTrue(fixedPool.setMaximumPoolSize(12));
+        assertEquals(10, fixed.getMinimumIdle());
+    }
+}
@@ -0,0 +1,225 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.eclipse.daanse.server.application.pivot.common.test.Configs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Routes over replicas faked with proxies: a replica answers every query with
+ * a result set named after it, after an optional delay, or fails to connect.
+ */
+class ReplicaRouterTest {
+
+    private final ReplicaRouter router = new ReplicaRouter();
+
+    /** A fake replica pool. */
+    private static final class FakeReplica {
+
+        final String name;
+        final AtomicBoolean down = new AtomicBoolean();
+        final AtomicInteger cancels = new AtomicInteger();
+        final AtomicInteger open = new AtomicInteger();
+        volatile long delayMillis;
+
+        FakeReplica(String name) {
+            this.name = name;
+        }
+
+        DataSource dataSource() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                    (proxy, method, args) -> {
+                        if (!"getConnection".equals(method.getName())) {
+                            return null;
+                        }
+                        if (down.get()) {
+                            throw new SQLException(name + " is down", "08001");
+                        }
+                        open.incrementAndGet();
+                        return connection();
+                    });
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> switch (method.getName()) {
+                    case "createStatement" -> statement();
+                    case "getAutoCommit" -> true;
+                    case "close" -> {
+                        open.decrementAndGet();
+                        yield null;
+                    }
+                    case "toString" -> name;
+                    default -> null;
+                    });
+        }
+
+        private Statement statement() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class },
+                    (proxy, method, args) -> switch (method.getName()) {
+                    case "executeQuery" -> {
+                        Thread.sleep(delayMillis);
+                        yield resultSet();
+                    }
+                    case "cancel" -> {
+                        cancels.incrementAndGet();
+                        yield null;
+                    }
+                    default -> null;
+                    });
+        }
+
+        private ResultSet resultSet() {
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+                    (proxy, method, args) -> "getString".equals(method.getName()) ? name : null);
+        }
+    }
+
+    private FakeReplica replica(String name) {
+        FakeReplica replica = new FakeReplica(name);
+        router.bindReplica(replica.dataSource(), Map.of(ServerConstants.PROP_REPLICA, name));
+        return replica;
+    }
+
+    private static String answer(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeQuery("select 1").getString(1);
+        }
+    }
+
+    @AfterEach
+    void deactivate() {
+        router.deactivate();
+    }
+
+    @Test
+    void connectionsGoToTheLeastBusyReplica() throws SQLException {
+        replica("r1");
+        replica("r2");
+        router.configure(config(Map.of()));
+
+        Connection first = router.getConnection();
+        Connection second = router.getConnection();
+        assertNotEquals(answer(first), answer(second));
+
+        String busy = answer(second);
+        first.close();
+        try (Connection third = router.getConnection()) {
+            assertNotEquals(busy, answer(third));
+        }
+        second.close();
+    }
+
+    @Test
+    void failingReplicasAreEjected() throws SQLException {
+        FakeReplica r1 = replica("r1");
+        replica("r2");
+        router.configure(config(Map.of(ReplicaRouter.PROP_EJECT_SECONDS, 60)));
+        r1.down.set(true);
+
+        for (int i = 0; i < 10; i++) {
+            try (Connection connection = router.getConnection()) {
+                assertEquals("r2", answer(connection));
+            }
+        }
+    }
+
+    @Test
+    void ejectedReplicasAreUsedWhenNoneIsLeft() throws SQLException {
+        FakeReplica r1 = replica("r1");
+        router.configure(config(Map.of(ReplicaRouter.PROP_EJECT_SECONDS, 60)));
+        r1.down.set(true);
+        assertThrows(SQLException.class, router::getConnection);
+
+        r1.down.set(false);
+        try (Connection connection = router.getConnection()) {
+            assertEquals("r1", answer(connection));
+        }
+    }
+
+    @Test
+    void slowQueriesAreHedged() throws SQLException {
+        FakeReplica r1 = replica("r1");
+        FakeReplica r2 = replica("r2");
+        router.configure(config(Map.of(ReplicaRouter.PROP_HEDGE_AFTER_MILLIS, 20)));
+
+        try (Connection connection = router.getConnection(); Statement statement = connection.createStatement()) {
+            boolean onR1 = connection.toString().startsWith("replica r1");
+            FakeReplica slow = onR1 ? r1 : r2;
+            FakeReplica fast = onR1 ? r2 : r1;
+            slow.delayMillis = 2_000;
+
+            ResultSet resultSet = statement.executeQuery("select 1");
+
+            assertEquals(fast.name, resultSet.getString(1));
+            assertSame(statement, resultSet.getStatement());
+            assertEquals(1, slow.cancels.get());
+        }
+    }
+
+    @Test
+    void fastQueriesAreNotHedged() throws SQLException {
+        FakeReplica r1 = replica("r1");
+        FakeReplica r2 = replica("r2");
+        router.configure(config(Map.of(ReplicaRouter.PROP_HEDGE_AFTER_MILLIS, 500)));
+
+        try (Connection connection = router.getConnection()) {
+            assertEquals(connection.toString().startsWith("replica r1") ? "r1" : "r2", answer(connection));
+        }
+        assertEquals(0, r1.cancels.get() + r2.cancels.get());
+    }
+
+    @Test
+    void closingTheConnectionClosesTheHedgeOfAnOpenStatement() throws SQLException {
+        FakeReplica r1 = replica("r1");
+        FakeReplica r2 = replica("r2");
+        router.configure(config(Map.of(ReplicaRouter.PROP_HEDGE_AFTER_MILLIS, 20)));
+
+        Connection connection = router.getConnection();
+        boolean onR1 = connection.toString().startsWith("replica r1");
+        FakeReplica slow = onR1 ? r1 : r2;
+        FakeReplica fast = onR1 ? r2 : r1;
+        slow.delayMillis = 2_000;
+        Statement statement = connection.createStatement();
+        assertEquals(fast.name, statement.executeQuery("select 1").getString(1));
+        assertEquals(1, fast.open.get(), "the hedge connection is held for the result set");
+
+        // the statement is left open, as callers relying on the pool closing it do
+        connection.close();
+        assertEquals(0, fast.open.get());
+        assertEquals(0, slow.open.get());
+    }
+
+    private static ReplicaRouter.Config config(Map<String, ?> props) {
+        return Configs.of(ReplicaRouter.Config.class, props);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.startup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+
+import org.eclipse.daanse.server.application.pivot.common.Configurations;
+import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
+import org.eclipse.daanse.server.application.pivot.common.startup.StartupTimeline.Step;
+import org.eclipse.daanse.server.application.pivot.common.test.RecordingConfigurationAdmin;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.cm.ConfigurationAdmin;
+import org.osgi.service.cm.ConfigurationEvent;
+
+/** Steps of configurations created before and after the timeline was activated. */
+class StartupTimelineTest {
+
+    private static final String FACTORY_PID = "org.eclipse.daanse.jdbc.datasource.duckdb.DataSource";
+
+    private final StartupTimeline timeline = new StartupTimeline();
+
+    @Test
+    void recordsWhatCameBeforeItsActivation() throws Exception {
+        timeline.configurationAdmin = configurationAdmin(configuration("ds~early", FACTORY_PID),
+                configuration("pool~early", "org.eclipse.daanse.jdbc.datasource.pools.hikari.Pool"));
+        timeline.activate(bundleContext(service("ds~early", "env-ds")));
+
+        List<Step> steps = timeline.steps();
+        assertEquals(2, steps.size());
+        Step ds = steps.stream().filter(step -> step.pid().equals("ds~early")).findFirst().orElseThrow();
+        assertEquals(timeline.activatedAfter(), ds.configuredAfter());
+        assertEquals(timeline.activatedAfter(), ds.registeredAfter());
+        assertEquals("env-ds", ds.name());
+        Step pool = steps.stream().filter(step -> step.pid().equals("pool~early")).findFirst().orElseThrow();
+        assertFalse(pool.registered());
+        assertEquals("Pool", pool.name());
+    }
+
+    @Test
+    void recordsWhenTheConfigurationsBeforeItsActivationWereCreated() throws Exception {
+        RecordingConfigurationAdmin ca = new RecordingConfigurationAdmin();
+        Configuration stamped = ca.admin().getFactoryConfiguration(FACTORY_PID, "stamped", "?");
+        Configurations.update(stamped, new Hashtable<>());
+        long created = (Long) stamped.getProperties().get(ServerConstants.PROP_CREATED);
+        Configurations.update(stamped, new Hashtable<>());
+        assertEquals(created, stamped.getProperties().get(ServerConstants.PROP_CREATED), "kept on an update");
+
+        Dictionary<String, Object> earlierJvm = new Hashtable<>();
+        earlierJvm.put(ServerConstants.PROP_CREATED, timeline.jvmStart() - 60_000);
+        ca.admin().getFactoryConfiguration(FACTORY_PID, "persisted", "?").update(earlierJvm);
+        Thread.sleep(20);
+
+        timeline.configurationAdmin = ca.admin();
+        timeline.activate(bundleContext());
+
+        List<Step> steps = timeline.steps();
+        assertEquals(created - timeline.jvmStart(), steps.get(0).configuredAfter());
+        assertTrue(steps.get(0).configuredAfter() < timeline.activatedAfter());
+        assertEquals(FACTORY_PID + "~persisted", steps.get(1).pid());
+        assertEquals(timeline.activatedAfter(), steps.get(1).configuredAfter(), "a stamp of another JVM");
+    }
+
+    @Test
+    void recordsConfigurationsCreatedLater() throws Exception {
+        timeline.configurationAdmin = configurationAdmin();
+        timeline.activate(bundleContext());
+
+        timeline.configurationEvent(event(ConfigurationEvent.CM_UPDATED, "ds~late"));
+        timeline.configurationEvent(event(ConfigurationEvent.CM_DELETED, "other~late"));
+
+        List<Step> steps = timeline.steps();
+        assertEquals(1, steps.size());
+        assertEquals("DataSource", steps.get(0).name());
+        assertTrue(steps.get(0).configuredAfter() >= timeline.activatedAfter());
+    }
+
+    private static ConfigurationAdmin configurationAdmin(Configuration... configurations) {
+        return proxy(ConfigurationAdmin.class, (method, args) -> "listConfigurations".equals(method)
+                ? configurations.length == 0 ? null : configurations : null);
+    }
+
+    private static Configuration configuration(String pid, String factoryPid) {
+        return proxy(Configuration.class, (method, args) -> switch (method) {
+        case "getPid" -> pid;
+        case "getFactoryPid" -> factoryPid;
+        default -> null;
+        });
+    }
+
+    private static ServiceReference<?> service(String pid, String ident) {
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put(Constants.SERVICE_PID, pid);
+        properties.put(ServerConstants.PROP_IDENT, ident);
+        return proxy(ServiceReference.class,
+                (method, args) -> "getProperty".equals(method) ? properties.get(args[0]) : null);
+    }
+
+    private static BundleContext bundleContext(ServiceReference<?>... references) {
+        return proxy(BundleContext.class, (method, args) -> "getServiceReferences".equals(method)
+                ? references.length == 0 ? null : references : null);
+    }
+
+    private static ConfigurationEvent event(int type, String pid) {
+        @SuppressWarnings("unchecked")
+        ServiceReference<ConfigurationAdmin> reference = proxy(ServiceReference.class, (method, args) -> null);
+        return new ConfigurationEvent(reference, type, FACTORY_PID, pid);
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(StartupTimelineTest.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Instances of the config interfaces of the components, from configuration
+ * properties as SCR would pass them: values may be given as strings or as
+ * numbers, and attributes not given keep their defaults.
+ */
+public final class Configs {
+
+    private Configs() {
+    }
+
+    public static <A> A of(Class<A> type) {
+        return of(type, Map.of());
+    }
+
+    public static <A> A of(Class<A> type, Map<String, ?> props) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> switch (method.getName()) {
+                case "annotationType" -> type;
+                case "toString" -> type.getSimpleName() + props;
+                case "hashCode" -> props.hashCode();
+                case "equals" -> proxy == args[0];
+                default -> value(method, props.get(method.getName()));
+                }));
+    }
+
+    private static Object value(Method method, Object value) {
+        Class<?> type = method.getReturnType();
+        if (value == null) {
+            return method.getDefaultValue();
+        }
+        if (type.isArray()) {
+            Object[] values = value instanceof Object[] array ? array : new Object[] { value };
+            Object result = Array.newInstance(type.getComponentType(), values.length);
+            for (int i = 0; i < values.length; i++) {
+                Array.set(result, i, scalar(type.getComponentType(), values[i]));
+            }
+            return result;
+        }
+        return scalar(type, value);
+    }
+
+    private static Object scalar(Class<?> type, Object value) {
+        String text = String.valueOf(value).trim();
+        if (type == int.class) {
+            return value instanceof Number number ? number.intValue() : Integer.parseInt(text);
+        }
+        if (type == long.class) {
+            return value instanceof Number number ? number.longValue() : Long.parseLong(text);
+        }
+        if (type == boolean.class) {
+            return value instanceof Boolean bool ? bool : Boolean.parseBoolean(text);
+        }
+        return text;
+    }
+}
@@ -67,6 +67,7 @@ public final class PivotContainers {
                 .withFileFromPath(prefix + "target/daanse.pivot." + db + ".jar",
                         Path.of("target/daanse.pivot." + db + ".jar"))
                 .withFileFromPath(prefix + "start", Path.of("start"))
+                .withFileFromPath("application/pivot/common/aot-train", Path.of("../common/aot-train"))
                 .withFileFromPath(prefix + "logback.xml", Path.of("logback.xml"));
     }
 
@@ -119,9 +120,35 @@ public final class PivotContainers {
     }
 
     /**
-     * Polls the XMLA endpoint until the MDX query returns a cell with the
-     * expected value — the OLAP context needs a moment to connect to the
-     * database after container start.
+     * Polls {@code /health/ready} until it answers 200 - the OLAP context needs
+     * a moment to connect to the database after container start.
+     */
+    public static void awaitReady(String host, int port, Duration timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        String last = "";
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            while (System.currentTimeMillis() < deadline) {
+                HttpRequest request = HttpRequest
+                        .newBuilder(URI.create("http://" + host + ":" + port + "/health/ready"))
+                        .timeout(Duration.ofSeconds(5)).GET().build();
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() == 200) {
+                        return;
+                    }
+                    last = response.statusCode() + " " + response.body();
+                } catch (IOException e) {
+                    last = e.toString();
+                }
+                Thread.sleep(500);
+            }
+        }
+        throw new AssertionError("Server did not become ready; last response:\n" + last);
+    }
+
+    /**
+     * Waits until the server is ready, then polls the XMLA endpoint until the
+     * MDX query returns a cell with the expected value.
      */
     public static String awaitMdxCell(String host, int port, String catalog, String mdx, String expectedValue)
             throws InterruptedException {
@@ -132,6 +159,7 @@ public final class PivotContainers {
     public static String awaitMdxCell(String host, int port, String catalog, String mdx, String expectedValue,
             String basicCredentials) throws InterruptedException {
         long deadline = System.currentTimeMillis() + Duration.ofMinutes(3).toMillis();
+        awaitReady(host, port, Duration.ofMinutes(3));
         String last = "";
         while (System.currentTimeMillis() < deadline) {
             try {
@@ -0,0 +1,91 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.test;
+
+import java.lang.reflect.Proxy;
+import java.util.Dictionary;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.cm.ConfigurationAdmin;
+
+/**
+ * A {@link ConfigurationAdmin} that keeps the configurations the
+ * configurators create, by PID. Named factory configurations follow
+ * Configuration Admin 1.6: {@code getFactoryConfiguration(factoryPid, name, ...)}
+ * returns the one configuration {@code <factoryPid>~<name>}, creating it on
+ * first use, and a configuration cannot be deleted twice.
+ * {@code listConfigurations} ignores its filter and lists them all.
+ */
+public final class RecordingConfigurationAdmin {
+
+    private final Map<String, Dictionary<String, Object>> configurations = new LinkedHashMap<>();
+    private final ConfigurationAdmin admin = proxy(ConfigurationAdmin.class, (method, args) -> switch (method) {
+    case "getFactoryConfiguration" -> configuration((String) args[0] + "~" + args[1], (String) args[0]);
+    case "getConfiguration" -> configuration((String) args[0], null);
+    case "listConfigurations" -> configurations.isEmpty() ? null
+            : configurations.keySet().stream().map(pid -> configuration(pid, factoryPidOf(pid)))
+                    .toArray(Configuration[]::new);
+    default -> throw new UnsupportedOperationException(method);
+    });
+
+    public ConfigurationAdmin admin() {
+        return admin;
+    }
+
+    /** The properties of the configurations that exist, by PID in the order of their creation. */
+    public Map<String, Dictionary<String, Object>> configurations() {
+        return configurations;
+    }
+
+    private Configuration configuration(String pid, String factoryPid) {
+        return proxy(Configuration.class, (method, args) -> switch (method) {
+        case "getPid" -> pid;
+        case "getFactoryPid" -> factoryPid;
+        case "getProperties" -> configurations.get(pid);
+        case "update" -> {
+            @SuppressWarnings("unchecked")
+            Dictionary<String, Object> props = (Dictionary<String, Object>) args[0];
+            configurations.put(pid, props);
+            yield null;
+        }
+        case "delete" -> {
+            if (configurations.remove(pid) == null) {
+                throw new IllegalStateException("Configuration " + pid + " deleted");
+            }
+            yield null;
+        }
+        case "hashCode" -> pid.hashCode();
+        case "equals" -> args[0] instanceof Configuration other && pid.equals(other.getPid());
+        case "toString" -> pid;
+        default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static String factoryPidOf(String pid) {
+        int tilde = pid.indexOf('~');
+        return tilde < 0 ? null : pid.substring(0, tilde);
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(RecordingConfigurationAdmin.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
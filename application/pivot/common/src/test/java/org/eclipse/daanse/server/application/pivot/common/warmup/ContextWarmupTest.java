@@ -0,0 +1,49 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.pivot.common.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContextWarmupTest {
+
+    @Test
+    void splitsAtSemicolonsOutsideOfBracketsQuotesAndComments() {
+        assertEquals(List.of("SELECT FROM [Sales]", "SELECT FROM [A;B]"),
+                ContextWarmup.split("SELECT FROM [Sales]; SELECT FROM [A;B];\n"));
+        assertEquals(List.of("WITH MEMBER [M].[x]]; y] AS 'a;b' SELECT FROM [C]"),
+                ContextWarmup.split("WITH MEMBER [M].[x]]; y] AS 'a;b' SELECT FROM [C]"));
+        assertEquals(List.of("-- first; still a comment\nSELECT FROM [C]", "/* ; */ SELECT FROM [D]"),
+                ContextWarmup.split("-- first; still a comment\nSELECT FROM [C];\n\n/* ; */ SELECT FROM [D];"));
+        assertEquals(List.of(), ContextWarmup.split(" ; \n ;"));
+    }
+
+    @Test
+    void readsTheStatementsOfAFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("warmup.mdx");
+        Files.writeString(file, "SELECT FROM [Sales];\nSELECT FROM [HR];\n");
+
+        assertEquals(List.of("SELECT FROM [Sales]", "SELECT FROM [HR]"), ContextWarmup.statements(file.toString()));
+        assertEquals(List.of("SELECT FROM [Sales]"), ContextWarmup.statements("SELECT FROM [Sales]"));
+        assertEquals(List.of("/* no file */ SELECT FROM [Sales]"),
+                ContextWarmup.statements("/* no file */ SELECT FROM [Sales]"));
+    }
+}
@@ -0,0 +1,22 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.xmla.server.auth.api;
+
+import java.util.List;
+
+/** Stand-in of the role provider of the auth API, which is not on the test class path. */
+public interface RoleProvider {
+
+    List<String> getRoles(String user);
+}
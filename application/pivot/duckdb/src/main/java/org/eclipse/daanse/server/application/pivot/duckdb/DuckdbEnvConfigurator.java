@@ -14,13 +14,17 @@
 package org.eclipse.daanse.server.application.pivot.duckdb;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.List;
 
 import org.eclipse.daanse.jdbc.datasource.duckdb.api.Constants;
 import org.eclipse.daanse.jdbc.datasource.duckdb.api.ocd.DsConfig;
 import org.eclipse.daanse.server.application.pivot.common.BasicContextConfigs;
-import org.eclipse.daanse.server.application.pivot.common.EnvConfigMapper;
+import org.eclipse.daanse.server.application.pivot.common.Configurations;
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.ReplicaConfigs;
 import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
@@ -38,7 +42,8 @@ import org.slf4j.LoggerFactory;
  * variables and creates the BasicContext against it. Every attribute of
  * {@link DsConfig} is supported. The database file defaults to
  * {@code /app/data/database.duckdb} (mount it into the container) and is
- * opened read-only unless {@code DAANSE_JDBC_READ_ONLY=false}.
+ * opened read-only unless {@code DAANSE_JDBC_READ_ONLY=false}. A change of the
+ * file flushes the caches of the context.
  */
 @Component(immediate = true)
 @RequireConfigurationAdmin
@@ -54,39 +59,48 @@ public class DuckdbEnvConfigurator {
     @Reference
     ConfigurationAdmin ca;
 
-    private Configuration confDataSource;
-    private List<Configuration> confPoolAndContext = List.of();
+    private final List<Configuration> configurations = new ArrayList<>();
 
     @Activate
     public void activate() throws IOException {
-        Dictionary<String, Object> props = EnvConfigMapper.propsFromEnv(DsConfig.class);
+        for (EnvContext context : EnvContext.fromEnv()) {
+            configure(context);
+        }
+    }
+
+    private void configure(EnvContext context) throws IOException {
+        Dictionary<String, Object> props = context.propsFromEnv(DsConfig.class, ServerConstants.ENV_JDBC_PREFIX);
         if (props.get(Constants.DATASOURCE_PROPERTY_DATABASENAME) == null) {
             props.put(Constants.DATASOURCE_PROPERTY_DATABASENAME, DEFAULT_DATABASE_FILE);
         }
         if (props.get(Constants.DATASOURCE_PROPERTY_READ_ONLY) == null) {
             props.put(Constants.DATASOURCE_PROPERTY_READ_ONLY, true);
         }
-        props.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_DATASOURCE);
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_DATASOURCE));
 
-        confDataSource = ca.getFactoryConfiguration(Constants.PID_DATASOURCE, ServerConstants.CONFIG_IDENT, "?");
-        confDataSource.update(props);
+        Configuration confDataSource = ca.getFactoryConfiguration(Constants.PID_DATASOURCE,
+                context.configName(), "?");
+        Configurations.update(confDataSource, props);
+        configurations.add(confDataSource);
+        configurations.addAll(ReplicaConfigs.createEnvReplicaDataSources(ca, context, Constants.PID_DATASOURCE,
+                DsConfig.class, props));
 
         // DuckDB connections are fixed to the read-only mode of the DataSource;
         // the pool must mark its connections the same way or the driver refuses.
-        confPoolAndContext = BasicContextConfigs.createEnvPoolAndContext(ca, DIALECT_NAME,
-                (Boolean) props.get(Constants.DATASOURCE_PROPERTY_READ_ONLY));
+        // A load may only have reached the write-ahead log, so both are watched.
+        String databaseFile = String.valueOf(props.get(Constants.DATASOURCE_PROPERTY_DATABASENAME));
+        configurations.addAll(BasicContextConfigs.createEnvPoolAndContext(ca, context, DIALECT_NAME,
+                (Boolean) props.get(Constants.DATASOURCE_PROPERTY_READ_ONLY),
+                List.of(Path.of(databaseFile), Path.of(databaseFile + ".wal"))));
 
-        logger.info("DuckDB DataSource, connection pool and context configured from environment");
+        logger.info("DuckDB DataSource, connection pool and context{} configured from environment", context.label());
     }
 
     @Deactivate
     public void deactivate() throws IOException {
-        if (confDataSource != null) {
-            confDataSource.delete();
-        }
-        for (Configuration configuration : confPoolAndContext) {
+        for (Configuration configuration : configurations) {
             configuration.delete();
         }
-        confPoolAndContext = List.of();
+        configurations.clear();
     }
 }
@@ -14,14 +14,16 @@
 package org.eclipse.daanse.server.application.pivot.oracle;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.List;
 
 import org.eclipse.daanse.jdbc.datasource.oracle.api.Constants;
 import org.eclipse.daanse.jdbc.datasource.oracle.api.ocd.DsConfig;
 import org.eclipse.daanse.server.application.pivot.common.BasicContextConfigs;
-import org.eclipse.daanse.server.application.pivot.common.Env;
-import org.eclipse.daanse.server.application.pivot.common.EnvConfigMapper;
+import org.eclipse.daanse.server.application.pivot.common.Configurations;
+import org.eclipse.daanse.server.application.pivot.common.EnvContext;
+import org.eclipse.daanse.server.application.pivot.common.ReplicaConfigs;
 import org.eclipse.daanse.server.application.pivot.common.ServerConstants;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
@@ -56,42 +58,48 @@ public class OracleEnvConfigurator {
     @Reference
     ConfigurationAdmin ca;
 
-    private Configuration confDataSource;
-    private List<Configuration> confPoolAndContext = List.of();
+    private final List<Configuration> configurations = new ArrayList<>();
 
     @Activate
     public void activate() throws IOException {
-        List<String> missing = Env.missing(ENV_USER, ENV_PASSWORD);
+        for (EnvContext context : EnvContext.fromEnv()) {
+            configure(context);
+        }
+    }
+
+    private void configure(EnvContext context) throws IOException {
+        List<String> missing = context.missing(ENV_USER, ENV_PASSWORD);
         if (!missing.isEmpty()) {
-            logger.error("Not configuring the Oracle DataSource, required environment variables are not set: {}",
-                    missing);
+            logger.error("Not configuring the Oracle DataSource{}, required environment variables are not set: {}",
+                    context.label(), missing);
             return;
         }
-        if (Env.get(ENV_SERVICE_NAME).isEmpty() && Env.get(ENV_DATABASE_NAME).isEmpty()) {
-            logger.error("Not configuring the Oracle DataSource, neither {} (service name) nor {} (SID) is set",
-                    ENV_SERVICE_NAME, ENV_DATABASE_NAME);
+        if (context.get(ENV_SERVICE_NAME).isEmpty() && context.get(ENV_DATABASE_NAME).isEmpty()) {
+            logger.error("Not configuring the Oracle DataSource{}, neither {} (service name) nor {} (SID) is set",
+                    context.label(), context.envName(ENV_SERVICE_NAME), context.envName(ENV_DATABASE_NAME));
             return;
         }
 
-        Dictionary<String, Object> props = EnvConfigMapper.propsFromEnv(DsConfig.class);
-        props.put(ServerConstants.PROP_IDENT, ServerConstants.IDENT_DATASOURCE);
+        Dictionary<String, Object> props = context.propsFromEnv(DsConfig.class, ServerConstants.ENV_JDBC_PREFIX);
+        props.put(ServerConstants.PROP_IDENT, context.ident(ServerConstants.IDENT_DATASOURCE));
 
-        confDataSource = ca.getFactoryConfiguration(Constants.PID_DATASOURCE, ServerConstants.CONFIG_IDENT, "?");
-        confDataSource.update(props);
+        Configuration confDataSource = ca.getFactoryConfiguration(Constants.PID_DATASOURCE,
+                context.configName(), "?");
+        Configurations.update(confDataSource, props);
+        configurations.add(confDataSource);
+        configurations.addAll(ReplicaConfigs.createEnvReplicaDataSources(ca, context, Constants.PID_DATASOURCE,
+                DsConfig.class, props));
 
-        confPoolAndContext = BasicContextConfigs.createEnvPoolAndContext(ca, DIALECT_NAME);
+        configurations.addAll(BasicContextConfigs.createEnvPoolAndContext(ca, context, DIALECT_NAME, null));
 
-        logger.info("Oracle DataSource, connection pool and context configured from environment");
+        logger.info("Oracle DataSource, connection pool and context{} configured from environment", context.label());
     }
 
     @Deactivate
     public void deactivate() throws IOException {
-        if (confDataSource != null) {
-            confDataSource.delete();
-        }
-        for (Configuration configuration : confPoolAndContext) {
+        for (Configuration configuration : configurations) {
             configuration.delete();
         }
-        confPoolAndContext = List.of();
+        configurations.clear();
     }
 }
@@ -0,0 +1,528 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays an MDX workload against a running XMLA endpoint and reports latency
+ * percentiles, error rates and throughput per query. Single source file, run
+ * with the Java launcher:
+ *
+ * <pre>
+ * java XmlaLoad.java --workload workload.txt --concurrency 16 --duration 60
+ * java XmlaLoad.java --workload workload.txt --rate 50 --duration 60 --report report.json
+ * </pre>
+ *
+ * Closed model ({@code --concurrency}): a fixed number of clients send their
+ * next request as soon as the previous one returned. Open model
+ * ({@code --rate}): requests are started on a fixed schedule regardless of
+ * outstanding responses, and latency is measured from the scheduled start, so
+ * a stalled server shows up in the percentiles instead of silently lowering
+ * the request rate (coordinated omission).
+ */
+public class XmlaLoad {
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<Query> workload = Query.load(options.workload, options.catalog);
+        if (workload.isEmpty()) {
+            throw new IllegalArgumentException("Workload " + options.workload + " contains no query");
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10)).build()) {
+            Run run = new Run(options, client, workload);
+            if (options.warmup > 0) {
+                System.out.printf(Locale.ROOT, "Warm-up %d s%n", options.warmup);
+                run.execute(options.warmup);
+                workload.forEach(Query::reset);
+            }
+            System.out.printf(Locale.ROOT, "Measuring %d s, %s%n", options.duration,
+                    options.rate > 0 ? options.rate + " requests/s (open)"
+                            : options.concurrency + " clients (closed)");
+            Instant started = Instant.now();
+            long elapsedNanos = run.execute(options.duration);
+
+            Report report = new Report(options, workload, started, elapsedNanos);
+            System.out.println(report.table());
+            if (options.report != null) {
+                Files.writeString(options.report, report.json());
+                System.out.println("Report written to " + options.report);
+            }
+        }
+    }
+
+    /** Command line options. */
+    static final class Options {
+        URI url = URI.create("http://localhost:8080/xmla");
+        Path workload;
+        String catalog;
+        int concurrency = 1;
+        double rate;
+        int duration = 60;
+        int warmup = 10;
+        int timeout = 60;
+        String credentials;
+        Path report;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                case "--url" -> o.url = URI.create(require(args[i], value));
+                case "--workload" -> o.workload = Path.of(require(args[i], value));
+                case "--catalog" -> o.catalog = require(args[i], value);
+                case "--concurrency" -> o.concurrency = Integer.parseInt(require(args[i], value));
+                case "--rate" -> o.rate = Double.parseDouble(require(args[i], value));
+                case "--duration" -> o.duration = Integer.parseInt(require(args[i], value));
+                case "--warmup" -> o.warmup = Integer.parseInt(require(args[i], value));
+                case "--timeout" -> o.timeout = Integer.parseInt(require(args[i], value));
+                case "--user" -> o.credentials = require(args[i], value);
+                case "--report" -> o.report = Path.of(require(args[i], value));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i] + "\n" + usage());
+                }
+                i++;
+            }
+            if (o.workload == null) {
+                throw new IllegalArgumentException("--workload is required\n" + usage());
+            }
+            return o;
+        }
+
+        private static String require(String option, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException(option + " needs a value\n" + usage());
+            }
+            return value;
+        }
+
+        static String usage() {
+            return """
+                    Usage: java XmlaLoad.java --workload <file> [options]
+                      --url <url>            XMLA endpoint (default http://localhost:8080/xmla)
+                      --catalog <name>       catalog of queries that do not name one
+                      --concurrency <n>      closed model: n clients in a loop (default 1)
+                      --rate <r>             open model: r requests per second
+                      --duration <s>         measured seconds (default 60)
+                      --warmup <s>           unmeasured seconds before (default 10)
+                      --timeout <s>          request timeout (default 60)
+                      --user <user:pwd>      HTTP Basic credentials
+                      --report <file>        write the JSON report
+                    """;
+        }
+    }
+
+    /** One named MDX statement of the workload, with its measurements. */
+    static final class Query {
+        final String name;
+        final String catalog;
+        final String mdx;
+        Histogram latency = new Histogram();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicReference<String> firstError = new AtomicReference<>();
+
+        Query(String name, String catalog, String mdx) {
+            this.name = name;
+            this.catalog = catalog;
+            this.mdx = mdx;
+        }
+
+        void reset() {
+            latency = new Histogram();
+            errors.set(0);
+            firstError.set(null);
+        }
+
+        /**
+         * Reads the workload file: {@code name = MDX} per line, {@code catalog =
+         * <name>} sets the catalog of the following queries, {@code #} starts a
+         * comment. A trailing backslash continues the statement on the next line.
+         */
+        static List<Query> load(Path file, String defaultCatalog) throws IOException {
+            List<Query> queries = new ArrayList<>();
+            String catalog = defaultCatalog;
+            StringBuilder line = new StringBuilder();
+            for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String part = raw.strip();
+                if (line.isEmpty() && (part.isEmpty() || part.startsWith("#"))) {
+                    continue;
+                }
+                if (part.endsWith("\\")) {
+                    line.append(part, 0, part.length() - 1).append(' ');
+                    continue;
+                }
+                line.append(part);
+                String entry = line.toString();
+                line.setLength(0);
+
+                int eq = entry.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Workload line without '=': " + entry);
+                }
+                String key = entry.substring(0, eq).strip();
+                String value = entry.substring(eq + 1).strip();
+                if ("catalog".equals(key)) {
+                    catalog = value;
+                } else if (catalog == null) {
+                    throw new IllegalArgumentException("No catalog for query " + key + " - set --catalog or a "
+                            + "'catalog = ...' line");
+                } else {
+                    queries.add(new Query(key, catalog, value));
+                }
+            }
+            return queries;
+        }
+    }
+
+    /** Sends the workload for a given time under the closed or open model. */
+    static final class Run {
+        private final Options options;
+        private final HttpClient client;
+        private final List<Query> workload;
+
+        Run(Options options, HttpClient client, List<Query> workload) {
+            this.options = options;
+            this.client = client;
+            this.workload = workload;
+        }
+
+        /** Runs for the given seconds and returns the elapsed nanoseconds. */
+        long execute(int seconds) throws InterruptedException {
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(seconds);
+            if (options.rate > 0) {
+                open(start, end);
+            } else {
+                closed(end);
+            }
+            return System.nanoTime() - start;
+        }
+
+        private void closed(long end) throws InterruptedException {
+            List<Thread> clients = new ArrayList<>();
+            for (int i = 0; i < options.concurrency; i++) {
+                clients.add(Thread.ofPlatform().name("client-" + i).start(() -> {
+                    while (System.nanoTime() < end) {
+                        Query query = pick();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(request(query),
+                                    HttpResponse.BodyHandlers.ofString());
+                            complete(query, sent, response, null);
+                        } catch (IOException e) {
+                            complete(query, sent, null, e);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }));
+            }
+            for (Thread t : clients) {
+                t.join();
+            }
+        }
+
+        private void open(long start, long end) throws InterruptedException {
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate);
+            AtomicLong outstanding = new AtomicLong();
+            for (long n = 0;; n++) {
+                long scheduled = start + n * intervalNanos;
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                Query query = pick();
+                outstanding.incrementAndGet();
+                client.sendAsync(request(query), HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, failure) -> {
+                            complete(query, scheduled, response, failure);
+                            outstanding.decrementAndGet();
+                        });
+            }
+            // let the requests of the measured window finish
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.timeout);
+            while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+
+        private Query pick() {
+            return workload.get(ThreadLocalRandom.current().nextInt(workload.size()));
+        }
+
+        private void complete(Query query, long startNanos, HttpResponse<String> response, Throwable failure) {
+            query.latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            String error = null;
+            if (failure != null) {
+                error = failure.toString();
+            } else if (response.statusCode() != 200) {
+                error = "HTTP " + response.statusCode();
+            } else if (response.body().contains("Fault>")) {
+                error = "SOAP fault: " + abbreviate(response.body());
+            }
+            if (error != null) {
+                query.errors.incrementAndGet();
+                query.firstError.compareAndSet(null, error);
+            }
+        }
+
+        private HttpRequest request(Query query) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(options.url)
+                    .header("Content-Type", "text/xml; charset=utf-8")
+                    .header("SOAPAction", "\"urn:schemas-microsoft-com:xml-analysis:Execute\"")
+                    .timeout(Duration.ofSeconds(options.timeout))
+                    .POST(HttpRequest.BodyPublishers.ofString(envelope(query)));
+            if (options.credentials != null) {
+                builder.header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString(options.credentials.getBytes(StandardCharsets.UTF_8)));
+            }
+            return builder.build();
+        }
+
+        private static String envelope(Query query) {
+            return """
+                    <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/">
+                      <SOAP-ENV:Header/>
+                      <SOAP-ENV:Body>
+                        <Execute xmlns="urn:schemas-microsoft-com:xml-analysis">
+                          <Command>
+                            <Statement>%s</Statement>
+                          </Command>
+                          <Properties>
+                            <PropertyList>
+                              <Catalog>%s</Catalog>
+                              <Format>Multidimensional</Format>
+                              <AxisFormat>TupleFormat</AxisFormat>
+                            </PropertyList>
+                          </Properties>
+                        </Execute>
+                      </SOAP-ENV:Body>
+                    </SOAP-ENV:Envelope>
+                    """.formatted(escape(query.mdx), escape(query.catalog));
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+
+        private static String abbreviate(String body) {
+            String flat = body.replaceAll("\\s+", " ");
+            return flat.length() > 300 ? flat.substring(0, 300) + "..." : flat;
+        }
+    }
+
+    /**
+     * Lock-free log-linear latency histogram in microseconds, in the manner of
+     * HdrHistogram: values below 256 are counted exactly, larger values in 128
+     * linear sub-buckets per power of two, i.e. better than 1% relative
+     * precision up to several days.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 8;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int HALF = SUB_BUCKETS / 2;
+        private static final int MAGNITUDES = 32;
+
+        private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS + MAGNITUDES * HALF);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long micros) {
+            long value = Math.max(0, micros);
+            counts.incrementAndGet(index(value));
+            total.incrementAndGet();
+            sum.addAndGet(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        long count() {
+            return total.get();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        double mean() {
+            long n = total.get();
+            return n == 0 ? 0 : (double) sum.get() / n;
+        }
+
+        /** Upper bound of the bucket that holds the given percentile. */
+        long percentile(double percentile) {
+            long n = total.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+            if (shift > MAGNITUDES) {
+                return SUB_BUCKETS + MAGNITUDES * HALF - 1;
+            }
+            int sub = (int) (value >>> shift) - HALF;
+            return SUB_BUCKETS + (shift - 1) * HALF + sub;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int k = index - SUB_BUCKETS;
+            int shift = k / HALF + 1;
+            long sub = k % HALF + HALF;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+
+    /** Console table and JSON report of one measured run. */
+    static final class Report {
+        private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+        private final Options options;
+        private final List<Query> workload;
+        private final Instant started;
+        private final double seconds;
+
+        Report(Options options, List<Query> workload, Instant started, long elapsedNanos) {
+            this.options = options;
+            this.workload = workload;
+            this.started = started;
+            this.seconds = elapsedNanos / 1e9;
+        }
+
+        String table() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "%-30s %8s %7s %9s %9s %9s %9s %9s %9s%n", "query", "count",
+                    "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (Query q : workload) {
+                Histogram h = q.latency;
+                sb.append(String.format(Locale.ROOT, "%-30s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        q.name, h.count(), q.errors.get(), h.count() / seconds, h.percentile(50) / 1e3,
+                        h.percentile(90) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.max() / 1e3));
+                if (q.firstError.get() != null) {
+                    sb.append("    first error: ").append(q.firstError.get()).append('\n');
+                }
+            }
+            long count = workload.stream().mapToLong(q -> q.latency.count()).sum();
+            long errors = workload.stream().mapToLong(q -> q.errors.get()).sum();
+            sb.append(String.format(Locale.ROOT, "total %d requests, %d errors (%.2f%%), %.1f req/s", count, errors,
+                    count == 0 ? 0.0 : 100.0 * errors / count, count / seconds));
+            return sb.toString();
+        }
+
+        String json() {
+            Map<String, Object> root = new LinkedHashMap<>();
+            root.put("started", started.toString());
+            root.put("url", options.url.toString());
+            root.put("model", options.rate > 0 ? "open" : "closed");
+            root.put("rate", options.rate);
+            root.put("concurrency", options.concurrency);
+            root.put("durationSeconds", seconds);
+            List<Object> queries = new ArrayList<>();
+            for (Query q : workload) {
+                Histogram h = q.latency;
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("name", q.name);
+                entry.put("catalog", q.catalog);
+                entry.put("count", h.count());
+                entry.put("errors", q.errors.get());
+                entry.put("errorRate", h.count() == 0 ? 0.0 : (double) q.errors.get() / h.count());
+                entry.put("throughput", h.count() / seconds);
+                entry.put("meanMicros", h.mean());
+                Map<String, Object> percentiles = new LinkedHashMap<>();
+                for (double p : PERCENTILES) {
+                    percentiles.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                            h.percentile(p));
+                }
+                entry.put("percentilesMicros", percentiles);
+                entry.put("maxMicros", h.max());
+                if (q.firstError.get() != null) {
+                    entry.put("firstError", q.firstError.get());
+                }
+                queries.add(entry);
+            }
+            root.put("queries", queries);
+            return toJson(root) + "\n";
+        }
+
+        private static String toJson(Object value) {
+            if (value instanceof Map<?, ?> map) {
+                StringBuilder sb = new StringBuilder("{");
+                map.forEach((k, v) -> sb.append(sb.length() > 1 ? "," : "").append(toJson(k.toString())).append(':')
+                        .append(toJson(v)));
+                return sb.append('}').toString();
+            }
+            if (value instanceof List<?> list) {
+                StringBuilder sb = new StringBuilder("[");
+                list.forEach(v -> sb.append(sb.length() > 1 ? "," : "").append(toJson(v)));
+                return sb.append(']').toString();
+            }
+            if (value instanceof Number number) {
+                return number instanceof Double d ? String.format(Locale.ROOT, "%.3f", d) : number.toString();
+            }
+            StringBuilder sb = new StringBuilder("\"");
+            for (char c : value.toString().toCharArray()) {
+                switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c < 0x20 ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Cube;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Hierarchy;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Level;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Measure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rollup tables of the cubes of a catalog folder, built into its DuckDB
+ * database so dashboard queries read a few grouped rows instead of the fact
+ * table.
+ * <p>
+ * The combinations considered are those a dashboard asks for first: every
+ * hierarchy down to each of its levels, and every pair of hierarchies at
+ * their top one or two levels. Their sizes are estimated in one pass over the
+ * fact table. Then the combination that answers the most of the others is
+ * picked, as long as it has at most {@value #MAX_RATIO} of the rows of the fact
+ * table, until the tables per fact table are reached.
+ * <p>
+ * The tables are named and laid out for the default aggregate recognition of
+ * the engine: {@code agg_probe<n>_<fact table>}, a {@value #FACT_COUNT} column,
+ * level and measure columns named like the columns they aggregate - or, where
+ * two would share a name, {@code <hierarchy>_<level>} and the measure name.
+ * Every level above an aggregated level is kept, so the levels are collapsed.
+ */
+final class CatalogAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogAggregates.class);
+
+    static final String PREFIX = "agg_probe";
+    static final String FACT_COUNT = "fact_count";
+    static final double MAX_RATIO = 0.1;
+
+    private CatalogAggregates() {
+    }
+
+    /**
+     * Drops the rollup tables built before and builds those of the cubes anew,
+     * skipping cubes whose fact table has less than {@code minFactRows} rows.
+     *
+     * @return the names of the tables built
+     */
+    static List<String> build(Connection connection, List<Cube> cubes, int maxTables, long minFactRows)
+            throws SQLException {
+        Map<String, Integer> tablesOfFact = new HashMap<>();
+        List<String> built = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            dropBuilt(statement, cubes);
+            for (Cube cube : cubes) {
+                int made = tablesOfFact.getOrDefault(cube.factTable(), 0);
+                if (made >= maxTables) {
+                    continue;
+                }
+                List<SortedMap<Integer, Integer>> candidates = candidates(cube);
+                long[] rows = estimate(statement, cube, candidates);
+                if (rows[0] < minFactRows) {
+                    logger.debug("Fact table {} of cube {} has {} rows, no rollup tables", cube.factTable(),
+                            cube.name(), rows[0]);
+                    continue;
+                }
+                for (SortedMap<Integer, Integer> rollup : pick(candidates, rows, maxTables - made)) {
+                    String table = PREFIX + (++made) + "_" + cube.factTable();
+                    long start = System.nanoTime();
+                    statement.execute(createSql(cube, rollup, table));
+                    built.add(table);
+                    logger.debug("Built rollup table {} of cube {} in {} ms", table, cube.name(),
+                            (System.nanoTime() - start) / 1_000_000);
+                }
+                tablesOfFact.put(cube.factTable(), made);
+            }
+        }
+        return built;
+    }
+
+    private static void dropBuilt(Statement statement, List<Cube> cubes) throws SQLException {
+        Set<String> facts = new HashSet<>();
+        cubes.forEach(cube -> facts.add(cube.factTable()));
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT table_name FROM duckdb_tables() WHERE database_name = current_database()")) {
+            while (rs.next()) {
+                String table = rs.getString(1);
+                if (table.startsWith(PREFIX) && facts.stream().anyMatch(fact -> table.endsWith("_" + fact))) {
+                    tables.add(table);
+                }
+            }
+        }
+        for (String table : tables) {
+            statement.execute("DROP TABLE IF EXISTS " + quote(table));
+        }
+    }
+
+    /** Depth by hierarchy index: every hierarchy to each level, pairs of hierarchies to one or two levels. */
+    static List<SortedMap<Integer, Integer>> candidates(Cube cube) {
+        Set<SortedMap<Integer, Integer>> candidates = new LinkedHashSet<>();
+        List<Hierarchy> hierarchies = cube.hierarchies();
+        for (int h = 0; h < hierarchies.size(); h++) {
+            for (int depth = 1; depth <= hierarchies.get(h).levels().size(); depth++) {
+                candidates.add(new TreeMap<>(Map.of(h, depth)));
+            }
+        }
+        for (int a = 0; a < hierarchies.size(); a++) {
+            for (int b = a + 1; b < hierarchies.size(); b++) {
+                for (int depthA = 1; depthA <= Math.min(2, hierarchies.get(a).levels().size()); depthA++) {
+                    for (int depthB = 1; depthB <= Math.min(2, hierarchies.get(b).levels().size()); depthB++) {
+                        candidates.add(new TreeMap<>(Map.of(a, depthA, b, depthB)));
+                    }
+                }
+            }
+        }
+        return List.copyOf(candidates);
+    }
+
+    /** The rows of the fact table first, then the estimated rows of every candidate. */
+    private static long[] estimate(Statement statement, Cube cube, List<SortedMap<Integer, Integer>> candidates)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT count(*)");
+        for (SortedMap<Integer, Integer> candidate : candidates) {
+            sql.append(", approx_count_distinct(hash(").append(String.join(", ", levelColumns(cube, candidate)))
+                    .append("))");
+        }
+        sql.append(from(cube));
+        long[] rows = new long[candidates.size() + 1];
+        try (ResultSet rs = statement.executeQuery(sql.toString())) {
+            rs.next();
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = rs.getLong(i + 1);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Greedily the candidates answering the most others not yet answered,
+     * the smaller first among equals, leaving out those too large.
+     */
+    static List<SortedMap<Integer, Integer>> pick(List<SortedMap<Integer, Integer>> candidates, long[] rows,
+            int max) {
+        long factRows = rows[0];
+        Set<Integer> answered = new HashSet<>();
+        List<SortedMap<Integer, Integer>> picked = new ArrayList<>();
+        while (picked.size() < max) {
+            int best = -1;
+            int bestAnswers = 0;
+            for (int c = 0; c < candidates.size(); c++) {
+                if (rows[c + 1] > factRows * MAX_RATIO) {
+                    continue;
+                }
+                int answers = 0;
+                for (int t = 0; t < candidates.size(); t++) {
+                    if (!answered.contains(t) && answers(candidates.get(c), candidates.get(t))) {
+                        answers++;
+                    }
+                }
+                if (answers > bestAnswers || answers == bestAnswers && answers > 0 && rows[c + 1] < rows[best + 1]) {
+                    best = c;
+                    bestAnswers = answers;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            for (int t = 0; t < candidates.size(); t++) {
+                if (answers(candidates.get(best), candidates.get(t))) {
+                    answered.add(t);
+                }
+            }
+            picked.add(candidates.get(best));
+        }
+        return picked;
+    }
+
+    /** Whether a rollup to the given depths holds every level of the other. */
+    private static boolean answers(SortedMap<Integer, Integer> rollup, SortedMap<Integer, Integer> other) {
+        for (Map.Entry<Integer, Integer> depth : other.entrySet()) {
+            if (rollup.getOrDefault(depth.getKey(), 0) < depth.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String createSql(Cube cube, SortedMap<Integer, Integer> rollup, String table) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        Set<String> names = new HashSet<>();
+        names.add(FACT_COUNT);
+        List<String> levelColumns = levelColumns(cube, rollup);
+        int i = 0;
+        for (Map.Entry<Integer, Integer> depth : rollup.entrySet()) {
+            Hierarchy hierarchy = cube.hierarchies().get(depth.getKey());
+            for (Level level : hierarchy.levels().subList(0, depth.getValue())) {
+                String name = level.column();
+                if (!names.add(name.toLowerCase(Locale.ROOT))) {
+                    name = logical(hierarchy.name() + "_" + level.name());
+                    names.add(name);
+                }
+                columns.put(levelColumns.get(i++), name);
+            }
+        }
+        for (Measure measure : cube.measures()) {
+            String name = measure.column();
+            if (!names.add(name.toLowerCase(Locale.ROOT))) {
+                name = logical(measure.name());
+                if (!names.add(name)) {
+                    continue;
+                }
+            }
+            columns.put(measure.function() + "(\"f\"." + quote(measure.column()) + ")", name);
+        }
+        columns.put("count(*)", FACT_COUNT);
+
+        List<String> select = new ArrayList<>();
+        columns.forEach((expression, name) -> select.add(expression + " AS " + quote(name)));
+        return "CREATE TABLE " + quote(table) + " AS SELECT " + String.join(", ", select) + from(cube)
+                + " GROUP BY " + String.join(", ", levelColumns);
+    }
+
+    /** The level columns of the rollup, hierarchy by hierarchy, top down. */
+    private static List<String> levelColumns(Cube cube, SortedMap<Integer, Integer> rollup) {
+        List<String> columns = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> depth : rollup.entrySet()) {
+            Hierarchy hierarchy = cube.hierarchies().get(depth.getKey());
+            String alias = hierarchy.degenerate() ? "\"f\"" : "\"h" + depth.getKey() + "\"";
+            for (Level level : hierarchy.levels().subList(0, depth.getValue())) {
+                columns.add(alias + "." + quote(level.column()));
+            }
+        }
+        return columns;
+    }
+
+    /** The fact table joined to the table of every hierarchy. */
+    private static String from(Cube cube) {
+        StringBuilder from = new StringBuilder(" FROM ").append(quote(cube.factTable())).append(" AS \"f\"");
+        for (int h = 0; h < cube.hierarchies().size(); h++) {
+            Hierarchy hierarchy = cube.hierarchies().get(h);
+            if (!hierarchy.degenerate()) {
+                from.append(" JOIN ").append(quote(hierarchy.table())).append(" AS \"h").append(h)
+                        .append("\" ON \"f\".").append(quote(hierarchy.foreignKey())).append(" = \"h").append(h)
+                        .append("\".").append(quote(hierarchy.primaryKey()));
+            }
+        }
+        return from.toString();
+    }
+
+    /** The lower case name with other characters than letters and digits as {@code _}. */
+    private static String logical(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "_");
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
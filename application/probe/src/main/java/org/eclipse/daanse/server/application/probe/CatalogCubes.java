@@ -0,0 +1,245 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * The star schema of the cubes of a {@code catalog.xmi}, as far as an
+ * aggregate table needs it: the fact table, the measures it sums, counts or
+ * takes the extremes of, and the hierarchies on a table joined to the fact
+ * table by a single key - or on the fact table itself.
+ * <p>
+ * The catalog is read by its references rather than its element types: a
+ * cube has a {@code source} whose {@code table} is the fact table, a
+ * dimension connector a {@code foreignKey}, a hierarchy a {@code source} and
+ * {@code primaryKey}, levels and measures a {@code column}. Hierarchies over
+ * joins of several tables and measures with other aggregators are left out.
+ */
+final class CatalogCubes {
+
+    record Cube(String name, String factTable, List<Measure> measures, List<Hierarchy> hierarchies) {
+    }
+
+    /** @param function {@code sum}, {@code count}, {@code min} or {@code max} */
+    record Measure(String name, String function, String column) {
+    }
+
+    /**
+     * @param table      the table of the levels, the fact table for a degenerate hierarchy
+     * @param foreignKey the column of the fact table, {@code null} for a degenerate hierarchy
+     * @param primaryKey the column of the table the foreign key refers to
+     * @param levels     top down, without the all level
+     */
+    record Hierarchy(String name, String table, String foreignKey, String primaryKey, List<Level> levels) {
+
+        boolean degenerate() {
+            return foreignKey == null;
+        }
+    }
+
+    record Level(String name, String column) {
+    }
+
+    /** A column of the catalog and the table it belongs to. */
+    private record Column(String table, String name) {
+    }
+
+    private static final String XMI_ID = "xmi:id";
+    private static final String XSI_TYPE = "xsi:type";
+
+    private final Map<String, Element> byId = new HashMap<>();
+
+    private CatalogCubes(Document document) {
+        index(document.getDocumentElement());
+    }
+
+    static List<Cube> read(Path catalog) throws IOException {
+        return new CatalogCubes(parse(catalog)).cubes();
+    }
+
+    /** The name of the catalog, as clients name it in their requests. */
+    static Optional<String> catalogName(Path catalog) throws IOException {
+        Element root = parse(catalog).getDocumentElement();
+        for (Element element : root.getTagName().endsWith("Catalog") ? List.of(root) : children(root)) {
+            String tag = element.getTagName();
+            if ((tag.equals("Catalog") || tag.endsWith(":Catalog")) && !element.getAttribute("name").isBlank()) {
+                return Optional.of(element.getAttribute("name"));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Document parse(Path catalog) throws IOException {
+        try (InputStream in = Files.newInputStream(catalog)) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(in);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Cannot read the catalog " + catalog, e);
+        }
+    }
+
+    private void index(Element element) {
+        if (element.hasAttribute(XMI_ID)) {
+            byId.put(element.getAttribute(XMI_ID), element);
+        }
+        for (Element child : children(element)) {
+            index(child);
+        }
+    }
+
+    private List<Cube> cubes() {
+        List<Cube> cubes = new ArrayList<>();
+        for (Element element : byId.values()) {
+            if (!typeOf(element).endsWith("cube") || !element.hasAttribute("source")) {
+                continue;
+            }
+            String factTable = tableOfSource(element.getAttribute("source"));
+            if (factTable == null) {
+                continue;
+            }
+            List<Measure> measures = new ArrayList<>();
+            List<Hierarchy> hierarchies = new ArrayList<>();
+            collect(element, factTable, measures, hierarchies);
+            if (!measures.isEmpty() && !hierarchies.isEmpty()) {
+                cubes.add(new Cube(element.getAttribute("name"), factTable, List.copyOf(measures),
+                        List.copyOf(hierarchies)));
+            }
+        }
+        cubes.sort((a, b) -> a.name().compareTo(b.name()));
+        return cubes;
+    }
+
+    private void collect(Element parent, String factTable, List<Measure> measures, List<Hierarchy> hierarchies) {
+        for (Element child : children(parent)) {
+            String type = typeOf(child);
+            if (type.endsWith("measure") && child.hasAttribute("column")) {
+                Column column = column(child.getAttribute("column"));
+                String function = type.substring(type.indexOf(':') + 1, type.length() - "measure".length());
+                if (column != null && column.table().equals(factTable)
+                        && List.of("sum", "count", "min", "max").contains(function)) {
+                    measures.add(new Measure(child.getAttribute("name"), function, column.name()));
+                }
+            } else if (child.hasAttribute("dimension") || "dimensionConnectors".equals(child.getTagName())) {
+                Element dimension = child.hasAttribute("dimension") ? byId.get(ref(child.getAttribute("dimension")))
+                        : child;
+                Column foreignKey = child.hasAttribute("foreignKey") ? column(child.getAttribute("foreignKey")) : null;
+                if (dimension != null) {
+                    String dimensionName = child.hasAttribute("overrideDimensionName")
+                            ? child.getAttribute("overrideDimensionName")
+                            : dimension.getAttribute("name");
+                    hierarchies(dimension, dimensionName, factTable, foreignKey, hierarchies);
+                }
+            } else {
+                collect(child, factTable, measures, hierarchies);
+            }
+        }
+    }
+
+    private void hierarchies(Element dimension, String dimensionName, String factTable, Column foreignKey,
+            List<Hierarchy> hierarchies) {
+        for (Element element : children(dimension)) {
+            if (!"hierarchies".equals(element.getTagName()) && !typeOf(element).endsWith("hierarchy")) {
+                // a dimension contained in its connector
+                hierarchies(element, dimensionName, factTable, foreignKey, hierarchies);
+                continue;
+            }
+            String table = element.hasAttribute("source") ? tableOfSource(element.getAttribute("source")) : factTable;
+            Column primaryKey = element.hasAttribute("primaryKey") ? column(element.getAttribute("primaryKey")) : null;
+            boolean degenerate = factTable.equals(table);
+            if (table == null || !degenerate && (foreignKey == null || primaryKey == null
+                    || !foreignKey.table().equals(factTable))) {
+                continue;
+            }
+            List<Level> levels = new ArrayList<>();
+            for (Element level : children(element)) {
+                if (!"levels".equals(level.getTagName()) && !typeOf(level).endsWith("level")) {
+                    continue;
+                }
+                Column column = level.hasAttribute("column") ? column(level.getAttribute("column")) : null;
+                if (column == null || !column.table().equals(table)) {
+                    // a level below can only be aggregated together with this one
+                    break;
+                }
+                levels.add(new Level(level.getAttribute("name"), column.name()));
+            }
+            if (!levels.isEmpty()) {
+                String name = element.hasAttribute("name") ? element.getAttribute("name") : dimensionName;
+                hierarchies.add(new Hierarchy(name, table, degenerate ? null : foreignKey.name(),
+                        degenerate ? null : primaryKey.name(), List.copyOf(levels)));
+            }
+        }
+    }
+
+    /** The table of a source referring to a single table, {@code null} for others. */
+    private String tableOfSource(String reference) {
+        Element source = byId.get(ref(reference));
+        if (source == null || !source.hasAttribute("table")) {
+            return null;
+        }
+        Element table = byId.get(ref(source.getAttribute("table")));
+        return table == null ? null : table.getAttribute("name");
+    }
+
+    private Column column(String reference) {
+        Element column = byId.get(ref(reference));
+        if (column == null || !(column.getParentNode() instanceof Element table)) {
+            return null;
+        }
+        return new Column(table.getAttribute("name"), column.getAttribute("name"));
+    }
+
+    /** The id of a reference: the first of a list, the fragment of a {@code file#id} link. */
+    private static String ref(String reference) {
+        String first = reference.trim().split("\\s+")[0];
+        return first.substring(first.indexOf('#') + 1);
+    }
+
+    /** The type in lower case, {@code rolapcube:physicalcube}. */
+    private static String typeOf(Element element) {
+        return element.getAttribute(XSI_TYPE).toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Element> children(Element element) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = element.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) nodes.item(i));
+            }
+        }
+        return children;
+    }
+}
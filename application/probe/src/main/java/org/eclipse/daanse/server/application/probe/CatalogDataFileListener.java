@@ -0,0 +1,121 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent.Kind;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.eclipse.daanse.io.fs.watcher.api.FileSystemWatcherListener;
+import org.eclipse.daanse.io.fs.watcher.api.propertytypes.FileSystemWatcherListenerProperties;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the tables of one catalog folder on the CSV, Parquet and Arrow files
+ * of its {@code data} directory once the {@link ProbeFileListener} imported
+ * them: a changed file is loaded again after it was quiet for
+ * {@value CatalogXmiFileListener#DEFAULT_DEBOUNCE_MILLIS} ms, a deleted file
+ * drops its table. The rollup tables of the folder are not read while a table
+ * changes, and built anew afterwards.
+ */
+@FileSystemWatcherListenerProperties(recursive = true, pattern = CatalogDataLoader.FILE_PATTERN)
+@Component(service = FileSystemWatcherListener.class, configurationPid = CatalogDataFileListener.PID, configurationPolicy = ConfigurationPolicy.REQUIRE)
+public class CatalogDataFileListener implements FileSystemWatcherListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogDataFileListener.class);
+
+    public static final String PID = "daanse.server.application.probe.CatalogDataFileListener";
+
+    static final String REF_DATA_SOURCE = "dataSource";
+    /** {@code true} exposes Parquet and Arrow files as views instead of copying them into tables. */
+    static final String KEY_VIEWS = "views";
+
+    @Reference(name = REF_DATA_SOURCE)
+    private DataSource dataSource;
+
+    @Reference
+    private ProbeFileListener probe;
+
+    private final boolean views;
+    private final boolean installExtensions;
+    private final String matcherKey;
+    private final Map<Path, AtomicLong> lastEvents = new ConcurrentHashMap<>();
+    private CatalogDataLoader loader;
+    private volatile boolean active = true;
+
+    @Activate
+    public CatalogDataFileListener(Map<String, Object> props) {
+        this.views = "true".equals(String.valueOf(props.get(KEY_VIEWS)));
+        this.installExtensions = "true".equals(String.valueOf(props.get(ProbeFileListener.KEY_INSTALL_EXTENSIONS)));
+        this.matcherKey = String.valueOf(props.get(ProbeFileListener.MATCHER_KEY));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        active = false;
+    }
+
+    @Override
+    public void handleBasePath(Path basePath) {
+        this.loader = new CatalogDataLoader(basePath, views, installExtensions);
+        logger.info("Handling base path: {}", basePath);
+    }
+
+    @Override
+    public void handleInitialPaths(List<Path> paths) {
+        // imported by the ProbeFileListener before the context was created
+    }
+
+    @Override
+    public void handlePathEvent(Path path, Kind<Path> kind) {
+        logger.debug("Handling path event for: {} with kind: {}", path, kind);
+        if (StandardWatchEventKinds.ENTRY_DELETE.equals(kind)) {
+            lastEvents.remove(path);
+            synchronized (this) {
+                probe.dataChanging(matcherKey);
+                loader.drop(dataSource, path);
+                probe.dataChanged(matcherKey);
+            }
+            return;
+        }
+        // a file still being written reports one event per chunk, the last one loads it
+        AtomicLong lastEvent = lastEvents.computeIfAbsent(path, p -> new AtomicLong());
+        long event = lastEvent.incrementAndGet();
+        CompletableFuture.runAsync(() -> {
+            if (active && lastEvent.get() == event && Files.isRegularFile(path)) {
+                synchronized (this) {
+                    probe.dataChanging(matcherKey);
+                    loader.load(dataSource, path, load -> {
+                    });
+                    probe.dataChanged(matcherKey);
+                }
+            }
+        }, CompletableFuture.delayedExecutor(CatalogXmiFileListener.DEFAULT_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS));
+    }
+}
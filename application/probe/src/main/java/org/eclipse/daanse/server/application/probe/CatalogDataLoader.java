@@ -0,0 +1,328 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the data files of a catalog folder into its DuckDB database with
+ * DuckDB's own readers. Every file becomes the table named like the file
+ * without its extension, in the schema named like its subfolder, if any.
+ * <ul>
+ * <li>CSV files carry the column names on their first line and the column
+ * types on their second; they are read by {@code read_csv} with exactly these
+ * columns, so nothing is sniffed.</li>
+ * <li>Parquet files are read by {@code read_parquet}, Arrow IPC files by
+ * {@code read_arrow} of DuckDB's {@code nanoarrow} community extension, keeping
+ * the types written to the file. With views they are not copied: the view
+ * reads the file on every query. The extension is only downloaded when
+ * installing extensions is allowed; else it must be in DuckDB's extension
+ * directory already.</li>
+ * </ul>
+ * The files are read here rather than by the shared CSV importer of
+ * {@code org.eclipse.daanse.sql.jdbc.importer.csv}: that importer watches a
+ * directory on its own and reports no end of its import, while the context,
+ * the snapshot and the deferred load of a folder must start only once all of
+ * its tables are complete. The header format is the same; only a bare
+ * {@code DECIMAL} or {@code NUMERIC} differs, see {@link #type(String)}.
+ */
+final class CatalogDataLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogDataLoader.class);
+
+    /** Names of the files loaded, for the file system watcher. */
+    static final String FILE_PATTERN = ".*\\.(csv|parquet|arrow|arrows|feather)";
+
+    private static final String ARROW_EXTENSION = "nanoarrow";
+
+    /**
+     * Version of the way files become tables, the mapping of the declared types
+     * in particular; raise it with every change of it, so snapshots of tables
+     * loaded the earlier way are not restored.
+     */
+    static final int FORMAT = 1;
+
+    /** Progress of loading one file: {@code millis} is negative while it loads, {@code rows} for views. */
+    record TableLoad(String table, Path file, long bytes, Instant started, long rows, long millis, String failure) {
+
+        boolean loading() {
+            return millis < 0;
+        }
+
+        long elapsedMillis() {
+            return loading() ? Duration.between(started, Instant.now()).toMillis() : millis;
+        }
+    }
+
+    private final Path dataDir;
+    private final boolean views;
+    private final boolean installExtensions;
+    private boolean arrowLoaded;
+
+    CatalogDataLoader(Path dataDir, boolean views, boolean installExtensions) {
+        this.dataDir = dataDir;
+        this.views = views;
+        this.installExtensions = installExtensions;
+    }
+
+    /** The settings the tables depend on besides the files, for the key of a snapshot. */
+    String settings() {
+        return "format=" + FORMAT + ",views=" + views;
+    }
+
+    /** The data files of the directory, the largest first, so the longest loads start first. */
+    static List<Path> files(Path dataDir) throws IOException {
+        if (!Files.isDirectory(dataDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            return files.filter(Files::isRegularFile).filter(CatalogDataLoader::isDataFile)
+                    .sorted(Comparator.comparingLong(CatalogDataLoader::size).reversed()).toList();
+        }
+    }
+
+    static boolean isDataFile(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).matches(FILE_PATTERN);
+    }
+
+    /**
+     * Loads the file into its table, replacing the table or view of a previous
+     * load, on a connection of its own. Failures are logged and reported, not
+     * thrown.
+     *
+     * @param progress told when the load starts and when it ended
+     */
+    TableLoad load(DataSource dataSource, Path file, Consumer<TableLoad> progress) {
+        String table = tableOf(file);
+        long bytes = size(file);
+        Instant started = Instant.now();
+        long start = System.nanoTime();
+        progress.accept(new TableLoad(table, file, bytes, started, -1, -1, null));
+        TableLoad load;
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            String qualified = qualifiedName(file);
+            String schema = schemaOf(file);
+            if (schema != null) {
+                statement.execute("CREATE SCHEMA IF NOT EXISTS " + quote(schema));
+            }
+            // a CSV file is parsed on every read, so it is always copied
+            boolean view = views && !isCsv(file);
+            String reader = reader(statement, file);
+            // a file that was a view before becomes a table and the other way round
+            statement.execute((view ? "DROP TABLE IF EXISTS " : "DROP VIEW IF EXISTS ") + qualified);
+            statement.execute("CREATE OR REPLACE " + (view ? "VIEW " : "TABLE ") + qualified + " AS SELECT * FROM "
+                    + reader);
+            long rows = view ? -1 : rowCount(statement, qualified);
+            load = new TableLoad(table, file, bytes, started, rows, (System.nanoTime() - start) / 1_000_000, null);
+            logger.info("Loaded {} from {}: {} rows, {} bytes in {} ms", table, file, rows < 0 ? "view," : rows,
+                    bytes, load.millis());
+        } catch (IOException | SQLException e) {
+            load = new TableLoad(table, file, bytes, started, -1, (System.nanoTime() - start) / 1_000_000,
+                    String.valueOf(e));
+            logger.error("Failed to load {} from {}", table, file, e);
+        }
+        progress.accept(load);
+        return load;
+    }
+
+    /** Drops the table or view of a deleted file. */
+    void drop(DataSource dataSource, Path file) {
+        String qualified = qualifiedName(file);
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP VIEW IF EXISTS " + qualified);
+            statement.execute("DROP TABLE IF EXISTS " + qualified);
+            logger.info("Dropped {} of deleted {}", tableOf(file), file);
+        } catch (SQLException e) {
+            logger.error("Failed to drop {} of deleted {}", tableOf(file), file, e);
+        }
+    }
+
+    private String reader(Statement statement, Path file) throws IOException, SQLException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (isCsv(file)) {
+            return csvReader(file);
+        } else if (name.endsWith(".parquet")) {
+            return "read_parquet(" + literal(file.toAbsolutePath().toString()) + ")";
+        }
+        loadArrow(statement);
+        return "read_arrow(" + literal(file.toAbsolutePath().toString()) + ")";
+    }
+
+    /**
+     * Loads the Arrow reader into the database. If it is not installed, it is
+     * downloaded from the community repository only if installing extensions is
+     * allowed.
+     */
+    private synchronized void loadArrow(Statement statement) throws SQLException {
+        if (arrowLoaded) {
+            return;
+        }
+        try {
+            statement.execute("LOAD " + ARROW_EXTENSION);
+        } catch (SQLException notInstalled) {
+            if (!installExtensions) {
+                throw new SQLException("Arrow files need DuckDB's " + ARROW_EXTENSION + " extension, which is not"
+                        + " installed: put it into the DuckDB extension directory or allow downloading it with"
+                        + " -Ddaanse.probe.extensions.install=true", notInstalled);
+            }
+            statement.execute("INSTALL " + ARROW_EXTENSION + " FROM community");
+            statement.execute("LOAD " + ARROW_EXTENSION);
+        }
+        arrowLoaded = true;
+    }
+
+    /** {@code read_csv} of the rows after the two header lines, with their names and types. */
+    static String csvReader(Path file) throws IOException {
+        List<String> names;
+        List<String> types;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String first = reader.readLine();
+            names = first == null ? List.of() : split(first.replace("\uFEFF", ""));
+            String second = reader.readLine();
+            types = second == null ? List.of() : split(second);
+        }
+        if (names.isEmpty() || names.size() != types.size()) {
+            throw new IOException(file + ": expected the column names on the first line and as many types on the"
+                    + " second, found " + names.size() + " names and " + types.size() + " types");
+        }
+        StringBuilder columns = new StringBuilder("{");
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                columns.append(", ");
+            }
+            columns.append(literal(names.get(i))).append(": ").append(literal(type(types.get(i))));
+        }
+        return "read_csv(" + literal(file.toAbsolutePath().toString())
+                + ", header = false, skip = 2, delim = ',', quote = '\"', escape = '\"', columns = " + columns
+                + "})";
+    }
+
+    /**
+     * A declared type for DuckDB. A bare {@code DECIMAL} or {@code NUMERIC}
+     * becomes {@code DECIMAL(38, 10)}: DuckDB reads it as {@code DECIMAL(18, 3)}
+     * and would round every value to three decimals.
+     */
+    static String type(String declared) {
+        String type = declared.toUpperCase(Locale.ROOT);
+        return type.equals("DECIMAL") || type.equals("NUMERIC") ? "DECIMAL(38, 10)" : declared;
+    }
+
+    /**
+     * The comma separated fields of a header line, optionally in double quotes;
+     * commas in parentheses such as {@code DECIMAL(10,2)} separate nothing.
+     */
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        int depth = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == '(' && !inQuotes) {
+                depth++;
+                field.append(c);
+            } else if (c == ')' && !inQuotes) {
+                depth--;
+                field.append(c);
+            } else if (c == ',' && !inQuotes && depth == 0) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /** The table of the file, qualified by its schema, unquoted. */
+    String tableOf(Path file) {
+        String schema = schemaOf(file);
+        return schema == null ? baseName(file) : schema + "." + baseName(file);
+    }
+
+    private String qualifiedName(Path file) {
+        String schema = schemaOf(file);
+        return schema == null ? quote(baseName(file)) : quote(schema) + "." + quote(baseName(file));
+    }
+
+    /** The name of the subfolder of the file, {@code null} in the data directory itself. */
+    private String schemaOf(Path file) {
+        Path folder = dataDir.relativize(file).getParent();
+        return folder == null ? null : folder.getFileName().toString();
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    private static long rowCount(Statement statement, String qualified) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + qualified)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
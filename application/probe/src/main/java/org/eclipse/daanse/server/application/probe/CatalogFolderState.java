@@ -0,0 +1,215 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.daanse.server.application.probe.CatalogDataLoader.TableLoad;
+
+/**
+ * Bring-up progress of one catalog folder. A folder is {@link Phase#PENDING}
+ * until a worker creates its configurations, {@link Phase#IMPORTING} while its
+ * data files are loaded - the context is only created once all are - and the
+ * context activates, and {@link Phase#READY} once its context service is
+ * registered.
+ * <p>
+ * A deferred folder is ready with its metadata only; its data is loaded once
+ * {@link #load} is first called. A failed load is started again by the first
+ * call after {@link #LOAD_RETRY_DELAY}; until then calls answer its failure.
+ */
+final class CatalogFolderState {
+
+    enum Phase {
+        PENDING, IMPORTING, READY, FAILED
+    }
+
+    /** Time a failed load of the deferred data is not started again. */
+    static final Duration LOAD_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final Path path;
+    private final String matcherKey;
+    private final Instant queued = Instant.now();
+
+    private volatile Phase phase = Phase.PENDING;
+    private volatile Instant started;
+    private volatile Instant finished;
+    private volatile String failure;
+    private volatile String snapshotKey;
+    private final Map<String, TableLoad> tables = new ConcurrentSkipListMap<>();
+    private volatile Set<String> catalogNames = Set.of();
+    private volatile boolean deferred;
+    private boolean loadStarted;
+    private CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private Instant loadFailedAt;
+    private final CompletableFuture<Void> settled = new CompletableFuture<>();
+    /** The clock of the retry delay, replaced by tests. */
+    Clock clock = Clock.systemUTC();
+
+    CatalogFolderState(Path path, String matcherKey) {
+        this.path = path;
+        this.matcherKey = matcherKey;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    String matcherKey() {
+        return matcherKey;
+    }
+
+    Phase phase() {
+        return phase;
+    }
+
+    String failure() {
+        return failure;
+    }
+
+    /** Key of the snapshot to write once the folder is imported, {@code null} if none is due. */
+    String snapshotKey() {
+        return snapshotKey;
+    }
+
+    void snapshotKey(String snapshotKey) {
+        this.snapshotKey = snapshotKey;
+    }
+
+    /** Names clients may give the catalog of the folder in their requests. */
+    Set<String> catalogNames() {
+        return catalogNames;
+    }
+
+    void catalogNames(Set<String> catalogNames) {
+        this.catalogNames = Set.copyOf(catalogNames);
+    }
+
+    /** Whether the data of the folder is not loaded until it is first queried. */
+    boolean deferred() {
+        return deferred;
+    }
+
+    void defer() {
+        deferred = true;
+    }
+
+    /**
+     * Starts the load of the deferred data on the first call, and on the first
+     * call once the retry delay of a failed load is over; every call in
+     * between returns the same future, completed once the context serves the
+     * data.
+     */
+    synchronized CompletableFuture<Void> load(Runnable start) {
+        if (loadFailedAt != null && !clock.instant().isBefore(loadFailedAt.plus(LOAD_RETRY_DELAY))) {
+            loadStarted = false;
+            loadFailedAt = null;
+            loaded = new CompletableFuture<>();
+        }
+        if (!loadStarted) {
+            loadStarted = true;
+            start.run();
+        }
+        return loaded;
+    }
+
+    /** The context of the deferred folder is back with the data. */
+    synchronized void loaded() {
+        deferred = false;
+        loaded.complete(null);
+    }
+
+    /** Fails the requests waiting for the load; the load is retried after the retry delay. */
+    synchronized void loadFailed(Throwable cause) {
+        loadFailedAt = clock.instant();
+        loaded.completeExceptionally(cause);
+    }
+
+    /** Loads of the data files by table, those in progress included. */
+    List<TableLoad> tables() {
+        return List.copyOf(tables.values());
+    }
+
+    void tableLoad(TableLoad load) {
+        tables.put(load.table(), load);
+    }
+
+    /** A worker picked the folder up. */
+    void started() {
+        started = Instant.now();
+    }
+
+    /** The worker creates the configurations; called before the context, which may register at once. */
+    synchronized void importing() {
+        if (phase == Phase.PENDING) {
+            phase = Phase.IMPORTING;
+        }
+    }
+
+    synchronized void ready() {
+        finished = Instant.now();
+        phase = Phase.READY;
+        settled.complete(null);
+    }
+
+    synchronized void failed(Throwable cause) {
+        finished = Instant.now();
+        failure = String.valueOf(cause);
+        phase = Phase.FAILED;
+        settled.complete(null);
+    }
+
+    /**
+     * Waits until the folder is ready or failed. A folder still in progress
+     * after the timeout is failed, so it does not stay importing forever.
+     *
+     * @return whether the folder is ready
+     */
+    boolean awaitSettled(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            settled.get(timeout, unit);
+        } catch (TimeoutException e) {
+            failed(new TimeoutException("No context after " + unit.toMillis(timeout) + " ms"));
+        } catch (ExecutionException e) {
+            // never completed exceptionally
+        }
+        return phase == Phase.READY;
+    }
+
+    /** Time spent waiting for a worker. */
+    Duration queueTime() {
+        return Duration.between(queued, started != null ? started : Instant.now());
+    }
+
+    /** Time from queueing until ready or failed, or until now while in progress. */
+    Duration totalTime() {
+        return Duration.between(queued, finished != null ? finished : Instant.now());
+    }
+
+    @Override
+    public String toString() {
+        return path + " " + phase + " after " + totalTime().toMillis() + " ms (queued "
+                + queueTime().toMillis() + " ms)" + (failure != null ? ": " + failure : "");
+    }
+}
@@ -0,0 +1,120 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DuckDB settings of the catalog folders. A folder may carry its own in
+ * {@value #SETTINGS_FILE} ({@code threads}, {@code memory_limit},
+ * {@code temp_directory}, {@code preserve_insertion_order}, ...). Without
+ * automatic sizing every folder gets {@code threads=4}; with it the cores and
+ * the memory outside the heap are shared evenly by the active folders, and
+ * values from the folder's file win.
+ */
+final class CatalogResources {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogResources.class);
+
+    static final String SETTINGS_FILE = "duckdb.properties";
+
+    static final String THREADS = "threads";
+    static final String MEMORY_LIMIT = "memory_limit";
+
+    private static final int DEFAULT_THREADS = 4;
+    /** Share of the physical memory left to DuckDB after the heap. */
+    private static final double MEMORY_SHARE = 0.75;
+    private static final long MIN_MEMORY_MB = 256;
+
+    private final boolean auto;
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    private final long memoryBudgetMb;
+
+    CatalogResources(boolean auto) {
+        this.auto = auto;
+        this.memoryBudgetMb = auto ? memoryBudgetMb() : 0;
+        if (auto) {
+            logger.info("Sharing {} cores and {} MB among the catalog folders", cores, memoryBudgetMb);
+        }
+    }
+
+    boolean isAuto() {
+        return auto;
+    }
+
+    /** The settings of the folder when {@code activeFolders} folders share the machine. */
+    Map<String, String> settingsOf(Path folder, int activeFolders) {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (auto) {
+            int folders = Math.max(1, activeFolders);
+            settings.put(THREADS, String.valueOf(Math.max(1, cores / folders)));
+            if (memoryBudgetMb > 0) {
+                settings.put(MEMORY_LIMIT, Math.max(MIN_MEMORY_MB, memoryBudgetMb / folders) + "MB");
+            }
+        } else {
+            settings.put(THREADS, String.valueOf(DEFAULT_THREADS));
+        }
+        settings.putAll(folderSettings(folder));
+        return settings;
+    }
+
+    static String[] toArray(Map<String, String> settings) {
+        return settings.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+    }
+
+    private static Map<String, String> folderSettings(Path folder) {
+        Path file = folder.resolve(SETTINGS_FILE);
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable {}", file, e);
+            return Map.of();
+        }
+        Map<String, String> settings = new LinkedHashMap<>();
+        properties.stringPropertyNames().stream().sorted()
+                .forEach(key -> settings.put(key.trim(), properties.getProperty(key).trim()));
+        return settings;
+    }
+
+    /** Physical memory not taken by the heap, 0 if the platform does not tell. */
+    private static long memoryBudgetMb() {
+        try {
+            Object total = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName("java.lang:type=OperatingSystem"), "TotalMemorySize");
+            long physical = ((Number) total).longValue();
+            long budget = (long) (physical * MEMORY_SHARE) - Runtime.getRuntime().maxMemory();
+            return Math.max(0, budget / (1024 * 1024));
+        } catch (JMException | ClassCastException e) {
+            return 0;
+        }
+    }
+}
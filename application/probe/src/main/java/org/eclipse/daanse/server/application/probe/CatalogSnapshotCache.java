@@ -0,0 +1,236 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk DuckDB snapshots of imported catalog folders, keyed by a hash of the
+ * content of the folder's {@code data} directory and the settings of the
+ * loader that imported it. A snapshot is written once a folder has been
+ * imported and restored instead of parsing the CSV files again as long as the
+ * data and the settings are unchanged.
+ *
+ * <p>
+ * Hashing the CSV files is the expensive part of a lookup, so the content hash
+ * of every file is remembered under its path, size and modification time in
+ * {@value #FILE_HASHES}. Only the current version of each file is remembered,
+ * and files that no longer exist are forgotten at start.
+ */
+final class CatalogSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotCache.class);
+
+    private static final String FILE_HASHES = "file-hashes.properties";
+    private static final String FOLDERS = "folders.properties";
+    private static final String SUFFIX = ".duckdb";
+
+    private final Path dir;
+    private final Properties fileHashes = new Properties();
+    private final Properties folders = new Properties();
+
+    CatalogSnapshotCache(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        load(fileHashes, dir.resolve(FILE_HASHES));
+        load(folders, dir.resolve(FOLDERS));
+        fileHashes.keySet().removeIf(memoKey -> !Files.isRegularFile(Path.of(pathOf((String) memoKey))));
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    /**
+     * The key of the current content of the data directory, loaded with the
+     * {@link CatalogDataLoader#settings() settings} given.
+     */
+    String keyOf(Path dataDir, String loaderSettings) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(loaderSettings.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        Set<String> current = new HashSet<>();
+        for (Path file : dataFiles(dataDir)) {
+            String memoKey = memoKey(file);
+            current.add(memoKey);
+            digest.update(dataDir.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(contentHash(file, memoKey).getBytes(StandardCharsets.US_ASCII));
+        }
+        String prefix = dataDir.toAbsolutePath().normalize() + File.separator;
+        synchronized (fileHashes) {
+            // earlier versions of the files of the directory, and the files deleted from it
+            fileHashes.keySet()
+                    .removeIf(memoKey -> ((String) memoKey).startsWith(prefix) && !current.contains(memoKey));
+            store(fileHashes, dir.resolve(FILE_HASHES));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    Optional<Path> lookup(String key) {
+        Path snapshot = dir.resolve(key + SUFFIX);
+        return Files.isRegularFile(snapshot) ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    /** Copies the snapshot into the database of the connection. */
+    void restore(Connection connection, Path snapshot) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            String target = currentDatabase(statement);
+            statement.execute("ATTACH '" + sqlString(snapshot) + "' AS probe_snapshot (READ_ONLY)");
+            try {
+                statement.execute("COPY FROM DATABASE probe_snapshot TO \"" + target + "\"");
+            } finally {
+                statement.execute("DETACH probe_snapshot");
+            }
+        }
+    }
+
+    /**
+     * Writes the database of the connection as snapshot of the folder and drops
+     * the folder's previous snapshot, unless another folder still uses it.
+     */
+    void store(Connection connection, Path folder, String key) throws SQLException, IOException {
+        Path snapshot = dir.resolve(key + SUFFIX);
+        // two folders of the same content may be written at once, by this or another probe
+        Path temp = dir.resolve(key + "." + UUID.randomUUID() + SUFFIX + ".tmp");
+        try {
+            try (Statement statement = connection.createStatement()) {
+                String source = currentDatabase(statement);
+                statement.execute("ATTACH '" + sqlString(temp) + "' AS probe_snapshot");
+                try {
+                    statement.execute("COPY FROM DATABASE \"" + source + "\" TO probe_snapshot");
+                } finally {
+                    statement.execute("DETACH probe_snapshot");
+                }
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+            Files.deleteIfExists(temp.resolveSibling(temp.getFileName() + ".wal"));
+        }
+
+        synchronized (folders) {
+            String folderKey = folder.toAbsolutePath().normalize().toString();
+            String previous = (String) folders.setProperty(folderKey, key);
+            if (previous != null && !previous.equals(key) && !folders.containsValue(previous)) {
+                Files.deleteIfExists(dir.resolve(previous + SUFFIX));
+            }
+            store(folders, dir.resolve(FOLDERS));
+        }
+    }
+
+    /** The path, size and modification time of the file. */
+    private static String memoKey(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return file.toAbsolutePath().normalize() + "|" + attributes.size() + "|"
+                + attributes.lastModifiedTime().toMillis();
+    }
+
+    private static String pathOf(String memoKey) {
+        int end = memoKey.lastIndexOf('|', memoKey.lastIndexOf('|') - 1);
+        return end < 0 ? memoKey : memoKey.substring(0, end);
+    }
+
+    private String contentHash(Path file, String memoKey) throws IOException {
+        synchronized (fileHashes) {
+            String known = fileHashes.getProperty(memoKey);
+            if (known != null) {
+                return known;
+            }
+        }
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        synchronized (fileHashes) {
+            fileHashes.setProperty(memoKey, hash);
+        }
+        return hash;
+    }
+
+    private static List<Path> dataFiles(Path dataDir) throws IOException {
+        if (!Files.isDirectory(dataDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    private static String currentDatabase(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT current_database()")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static String sqlString(Path path) {
+        return path.toAbsolutePath().toString().replace("'", "''");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void load(Properties properties, Path file) {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable snapshot cache index {}", file, e);
+        }
+    }
+
+    private static void store(Properties properties, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
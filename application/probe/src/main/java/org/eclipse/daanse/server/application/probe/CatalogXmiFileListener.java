@@ -17,13 +17,24 @@ import static org.eclipse.daanse.rolap.mapping.model.provider.Constants.PID_EMF_
 import static org.eclipse.daanse.rolap.mapping.model.provider.Constants.RESOURCE_URL;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent.Kind;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.daanse.io.fs.watcher.api.FileSystemWatcherListener;
 import org.eclipse.daanse.io.fs.watcher.api.propertytypes.FileSystemWatcherListenerProperties;
@@ -37,6 +48,13 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the mapping provider of one catalog folder on its {@code catalog.xmi}.
+ * Editors and {@code git checkout} write in bursts, so events are coalesced
+ * until the folder was quiet for {@value #KEY_DEBOUNCE_MILLIS} (default
+ * {@value #DEFAULT_DEBOUNCE_MILLIS} ms), and the provider is only replaced when
+ * the content hash of the file changed.
+ */
 @FileSystemWatcherListenerProperties(recursive = true, pattern = ".*.xmi")
 @Component(service = FileSystemWatcherListener.class, configurationPid = CatalogXmiFileListener.PID, configurationPolicy = ConfigurationPolicy.REQUIRE)
 public class CatalogXmiFileListener implements FileSystemWatcherListener {
@@ -45,18 +63,28 @@ public class CatalogXmiFileListener implements FileSystemWatcherListener {
 
     public static final String PID = "daanse.server.application.probe.CatalogXmiFileListener";
 
+    /** Quiet period after the last event before the mapping is reloaded. */
+    static final String KEY_DEBOUNCE_MILLIS = "debounce.millis";
+    static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
     @Reference
     private ConfigurationAdmin ca;
 
     private String matcherKey;
+    private long debounceMillis;
 
     @Activate
     public CatalogXmiFileListener(Map<String, Object> props) {
         this.matcherKey = (String) props.get(ProbeFileListener.MATCHER_KEY);
+        Object debounce = props.get(KEY_DEBOUNCE_MILLIS);
+        this.debounceMillis = debounce == null ? DEFAULT_DEBOUNCE_MILLIS : Long.parseLong(debounce.toString());
     }
 
     private Path basePath;
     private Configuration configuration;
+    private byte[] configuredHash;
+    private volatile boolean active = true;
+    private final AtomicLong lastEvent = new AtomicLong();
 
     @Override
     public void handleBasePath(Path basePath) {
@@ -72,12 +100,46 @@ public class CatalogXmiFileListener implements FileSystemWatcherListener {
 
     @Override
     public void handlePathEvent(Path path, Kind<Path> kind) {
-        logger.info("Handling path event for: {} with kind: {}", path, kind);
+        logger.debug("Handling path event for: {} with kind: {}", path, kind);
+        long event = lastEvent.incrementAndGet();
+        CompletableFuture.runAsync(() -> {
+            // a later event restarts the quiet period
+            if (active && lastEvent.get() == event) {
+                reloadIfChanged();
+            }
+        }, CompletableFuture.delayedExecutor(debounceMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private synchronized void reloadIfChanged() {
+        byte[] hash = hashOfCatalog();
+        if (configuration != null && hash != null && Arrays.equals(hash, configuredHash)) {
+            logger.debug("Content of {} unchanged, keeping the mapping", basePath);
+            return;
+        }
+        logger.info("Reloading mapping of {}", basePath);
         configMappingReader();
     }
 
-    private void configMappingReader() {
+    /** SHA-256 of {@code catalog.xmi}, {@code null} if it cannot be read. */
+    private byte[] hashOfCatalog() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(basePath.resolve("catalog.xmi")),
+                    digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return digest.digest();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.warn("Cannot hash the catalog of {}", basePath, e);
+            return null;
+        }
+    }
+
+    private synchronized void configMappingReader() {
         deleteConfig();
+        configuredHash = hashOfCatalog();
 
         try {
             configuration = ca.getFactoryConfiguration(PID_EMF_MAPPING_PROVIDER, UUID.randomUUID().toString(), "?");
@@ -93,7 +155,7 @@ public class CatalogXmiFileListener implements FileSystemWatcherListener {
 
     }
 
-    private void deleteConfig() {
+    private synchronized void deleteConfig() {
         if (configuration != null) {
             try {
                 configuration.delete();
@@ -106,6 +168,7 @@ public class CatalogXmiFileListener implements FileSystemWatcherListener {
     @Deactivate
     private void deactivate() {
         logger.info("Deactivating MappingFilesWatcher");
+        active = false;
         deleteConfig();
     }
 }
@@ -0,0 +1,185 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Holds an {@code Execute} against a catalog folder whose data is deferred
+ * until {@link ProbeFileListener#load(String)} loaded it; concurrent requests
+ * wait for the same load. The catalog is the {@code Catalog} property of the
+ * envelope, whose first {@value #PEEK_LIMIT} bytes are read ahead and handed
+ * on to the XMLA servlet. A load that failed answers {@code 500} with its
+ * cause. While no folder is deferred requests pass untouched.
+ */
+@Component(immediate = true, service = Filter.class, property = {
+        "osgi.http.whiteboard.filter.pattern=/xmla", "osgi.http.whiteboard.filter.name=daanse-deferred-catalog" })
+public class DeferredCatalogFilter implements Filter {
+
+    static final int PEEK_LIMIT = 64 * 1024;
+
+    /** Longer loads answer 503, the client retries. */
+    static final long LOAD_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Pattern METHOD = Pattern.compile("<(?:[\\w-]+:)?(Execute|Discover)[\\s>]");
+    private static final Pattern CATALOG = Pattern
+            .compile("<(?:[\\w-]+:)?Catalog>\\s*([^<]{1,256}?)\\s*</(?:[\\w-]+:)?Catalog>");
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    volatile ProbeFileListener fileListener;
+
+    long loadTimeoutMillis = LOAD_TIMEOUT_MILLIS;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        ProbeFileListener listener = fileListener;
+        if (listener == null || !listener.hasDeferred() || !(request instanceof HttpServletRequest http)
+                || !"POST".equals(http.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        byte[] head = http.getInputStream().readNBytes(PEEK_LIMIT);
+        PeekedRequest peeked = new PeekedRequest(http, head);
+        String envelope = new String(head, peeked.charset());
+        Matcher catalog = CATALOG.matcher(envelope);
+        if (isExecute(http.getHeader("SOAPAction"), envelope) && catalog.find()) {
+            try {
+                listener.load(catalog.group(1)).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ((HttpServletResponse) response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            } catch (TimeoutException e) {
+                HttpServletResponse httpResponse = (HttpServletResponse) response;
+                httpResponse.setHeader("Retry-After", "60");
+                httpResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        "Catalog " + catalog.group(1) + " is still loading");
+                return;
+            } catch (ExecutionException e) {
+                // logged by the listener; the empty database would answer as if there were no data
+                ((HttpServletResponse) response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                        "Catalog " + catalog.group(1) + " failed to load: " + e.getCause());
+                return;
+            }
+        }
+        chain.doFilter(peeked, response);
+    }
+
+    /** From the {@code SOAPAction} header, or from the envelope when a client leaves the header out. */
+    private static boolean isExecute(String soapAction, String envelope) {
+        if (soapAction != null) {
+            String action = soapAction.replace("\"", "").trim();
+            String method = action.substring(action.lastIndexOf(':') + 1);
+            if ("Execute".equals(method) || "Discover".equals(method)) {
+                return "Execute".equals(method);
+            }
+        }
+        Matcher m = METHOD.matcher(envelope);
+        return m.find() && "Execute".equals(m.group(1));
+    }
+
+    /** Hands the bytes read ahead to the servlet before the rest of the body. */
+    private static final class PeekedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream stream;
+
+        PeekedRequest(HttpServletRequest request, byte[] head) throws IOException {
+            super(request);
+            this.stream = new PeekedStream(new ByteArrayInputStream(head), request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(stream, charset()));
+        }
+
+        Charset charset() {
+            String encoding = getCharacterEncoding();
+            try {
+                return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+    }
+
+    private static final class PeekedStream extends ServletInputStream {
+
+        private final ByteArrayInputStream head;
+        private final ServletInputStream rest;
+
+        PeekedStream(ByteArrayInputStream head, ServletInputStream rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = head.read();
+            return b >= 0 ? b : rest.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return head.available() > 0 ? head.read(b, off, len) : rest.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && rest.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            rest.setReadListener(listener);
+        }
+    }
+}
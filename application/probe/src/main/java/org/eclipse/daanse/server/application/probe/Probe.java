@@ -37,6 +37,17 @@ public class Probe {
 
     private static final String DAANSE_PROBE_CATALOG_DIR = "daanse.probe.catalog.dir";
     private static final String DAANSE_PROBE_REQUIRE_LOGIN = "daanse.probe.requireLogin";
+    private static final String DAANSE_PROBE_CATALOG_CONCURRENCY = "daanse.probe.catalog.concurrency";
+    private static final String DAANSE_PROBE_CATALOG_DEBOUNCE_MILLIS = "daanse.probe.catalog.debounceMillis";
+    private static final String DAANSE_PROBE_SNAPSHOT_DIR = "daanse.probe.snapshot.dir";
+    private static final String DAANSE_PROBE_DUCKDB_AUTO = "daanse.probe.duckdb.auto";
+    private static final String DAANSE_PROBE_LAZY = "daanse.probe.lazy";
+    private static final String DAANSE_PROBE_IMPORT_PARALLELISM = "daanse.probe.import.parallelism";
+    private static final String DAANSE_PROBE_DATA_VIEWS = "daanse.probe.data.views";
+    private static final String DAANSE_PROBE_EXTENSIONS_INSTALL = "daanse.probe.extensions.install";
+    private static final String DAANSE_PROBE_AGGREGATES = "daanse.probe.aggregates";
+    private static final String DAANSE_PROBE_AGGREGATES_MAX_TABLES = "daanse.probe.aggregates.maxTables";
+    private static final String DAANSE_PROBE_AGGREGATES_MIN_FACT_ROWS = "daanse.probe.aggregates.minFactRows";
 
     private static final Logger logger = LoggerFactory.getLogger(Probe.class);
 
@@ -99,6 +110,25 @@ public class Probe {
 
         Dictionary<String, Object> propsDS = new Hashtable<>();
         propsDS.put(FileSystemWatcherWhiteboardConstants.FILESYSTEM_WATCHER_PATH, catalogPath);
+        propsDS.put(ProbeFileListener.KEY_CONCURRENCY, Integer.getInteger(DAANSE_PROBE_CATALOG_CONCURRENCY,
+                Runtime.getRuntime().availableProcessors()));
+        propsDS.put(CatalogXmiFileListener.KEY_DEBOUNCE_MILLIS,
+                Long.getLong(DAANSE_PROBE_CATALOG_DEBOUNCE_MILLIS, CatalogXmiFileListener.DEFAULT_DEBOUNCE_MILLIS));
+        propsDS.put(ProbeFileListener.KEY_AUTO_RESOURCES, Boolean.getBoolean(DAANSE_PROBE_DUCKDB_AUTO));
+        propsDS.put(ProbeFileListener.KEY_LAZY, Boolean.getBoolean(DAANSE_PROBE_LAZY));
+        propsDS.put(ProbeFileListener.KEY_IMPORT_PARALLELISM, Integer.getInteger(DAANSE_PROBE_IMPORT_PARALLELISM,
+                ProbeFileListener.DEFAULT_IMPORT_PARALLELISM));
+        propsDS.put(ProbeFileListener.KEY_DATA_VIEWS, Boolean.getBoolean(DAANSE_PROBE_DATA_VIEWS));
+        propsDS.put(ProbeFileListener.KEY_INSTALL_EXTENSIONS, Boolean.getBoolean(DAANSE_PROBE_EXTENSIONS_INSTALL));
+        propsDS.put(ProbeFileListener.KEY_AGGREGATES, Boolean.getBoolean(DAANSE_PROBE_AGGREGATES));
+        propsDS.put(ProbeFileListener.KEY_AGGREGATES_MAX_TABLES, Integer.getInteger(DAANSE_PROBE_AGGREGATES_MAX_TABLES,
+                ProbeFileListener.DEFAULT_AGGREGATES_MAX_TABLES));
+        propsDS.put(ProbeFileListener.KEY_AGGREGATES_MIN_FACT_ROWS, Long.getLong(
+                DAANSE_PROBE_AGGREGATES_MIN_FACT_ROWS, ProbeFileListener.DEFAULT_AGGREGATES_MIN_FACT_ROWS));
+        String snapshotDir = System.getProperty(DAANSE_PROBE_SNAPSHOT_DIR);
+        if (snapshotDir != null) {
+            propsDS.put(ProbeFileListener.KEY_SNAPSHOT_DIR, snapshotDir);
+        }
 
         confDataSource.update(propsDS);
     }
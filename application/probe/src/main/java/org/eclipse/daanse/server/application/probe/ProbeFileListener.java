@@ -18,7 +18,6 @@ import static org.eclipse.daanse.jdbc.datasource.duckdb.api.Constants.DATASOURCE
 import static org.eclipse.daanse.jdbc.datasource.duckdb.api.Constants.PID_DATASOURCE;
 import static org.eclipse.daanse.jdbc.datasource.pools.api.Constants.POOL_PROPERTY_DATASOURCE_TARGET;
 import static org.eclipse.daanse.jdbc.datasource.pools.hikari.api.Constants.PID_CONNECTION_POOL;
-import static org.eclipse.daanse.sql.jdbc.importer.csv.api.Constants.PID_CSV_DATA_IMPORTER;
 import static org.eclipse.daanse.rolap.core.api.Constants.BASIC_CONTEXT_PID;
 import static org.eclipse.daanse.rolap.core.api.Constants.BASIC_CONTEXT_REF_NAME_CATALOG_MAPPING_SUPPLIER;
 import static org.eclipse.daanse.rolap.core.api.Constants.BASIC_CONTEXT_REF_NAME_CONNECTION_POOL;
@@ -29,27 +28,61 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent.Kind;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
 
 import org.eclipse.daanse.io.fs.watcher.api.FileSystemWatcherListener;
 import org.eclipse.daanse.io.fs.watcher.api.FileSystemWatcherWhiteboardConstants;
 import org.eclipse.daanse.io.fs.watcher.api.propertytypes.FileSystemWatcherListenerProperties;
+import org.eclipse.daanse.server.application.probe.CatalogDataLoader.TableLoad;
+import org.eclipse.daanse.server.application.probe.CatalogFolderState.Phase;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.cm.annotations.RequireConfigurationAdmin;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.RequireServiceComponentRuntime;
+import org.osgi.util.tracker.ServiceTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@Component(configurationPid = ProbeFileListener.PID, configurationPolicy = ConfigurationPolicy.REQUIRE)
+/**
+ * Brings up one DuckDB backed context per catalog folder. Folders are set up
+ * on a bounded pool of workers ({@value #KEY_CONCURRENCY}, default the number
+ * of processors), events of the same folder run in order. A worker holds its
+ * folder until the context is registered, so the bound also limits the
+ * contexts activating - and reading their catalogs - at the same time.
+ */
+@Component(service = { FileSystemWatcherListener.class, ProbeFileListener.class },
+        configurationPid = ProbeFileListener.PID, configurationPolicy = ConfigurationPolicy.REQUIRE)
 @RequireConfigurationAdmin
 @RequireServiceComponentRuntime
 @FileSystemWatcherListenerProperties(recursive = false)
@@ -63,18 +96,145 @@ public class ProbeFileListener implements FileSystemWatcherListener {
 
     static final String KEY_FILE_CONTEXT_MATCHER = "file.context.matcher";
 
+    /** Number of catalog folders brought up in parallel. */
+    static final String KEY_CONCURRENCY = "catalog.concurrency";
+    /** Number of data files of all folders loaded in parallel. */
+    static final String KEY_IMPORT_PARALLELISM = "import.parallelism";
+    static final int DEFAULT_IMPORT_PARALLELISM = 4;
+    /** Directory of the DuckDB snapshots of imported folders; unset disables them. */
+    static final String KEY_SNAPSHOT_DIR = "snapshot.dir";
+    /** {@code true} shares cores and memory among the folders instead of four threads each. */
+    static final String KEY_AUTO_RESOURCES = "duckdb.auto";
+    /** {@code true} loads the data of a folder on the first query of its catalog instead of at start. */
+    static final String KEY_LAZY = "lazy";
+    /** Set on the context of a deferred folder once its data is loaded. */
+    static final String KEY_DATA_LOADED = "data.loaded";
+    /** {@code true} exposes Parquet and Arrow files as views instead of importing them. */
+    static final String KEY_DATA_VIEWS = "data.views";
+    /** {@code true} downloads missing DuckDB extensions (Arrow) from the community repository. */
+    static final String KEY_INSTALL_EXTENSIONS = "extensions.install";
+    /** {@code true} builds rollup tables of the cubes once a folder is imported. */
+    static final String KEY_AGGREGATES = "aggregates";
+    /** Rollup tables built per fact table, default {@value #DEFAULT_AGGREGATES_MAX_TABLES}. */
+    static final String KEY_AGGREGATES_MAX_TABLES = "aggregates.maxTables";
+    /** Fact tables with fewer rows get no rollup tables, default {@value #DEFAULT_AGGREGATES_MIN_FACT_ROWS}. */
+    static final String KEY_AGGREGATES_MIN_FACT_ROWS = "aggregates.minFactRows";
+    /** Set on a context once its rollup tables are built: the names of the tables. */
+    static final String KEY_AGGREGATE_TABLES = "aggregate.tables";
+
+    static final int DEFAULT_AGGREGATES_MAX_TABLES = 4;
+    static final long DEFAULT_AGGREGATES_MIN_FACT_ROWS = 100_000;
+
+    /** Delay that coalesces the rebalancing after a burst of added or removed folders. */
+    private static final long REBALANCE_DELAY_MILLIS = 1_000;
+
+    private static final long DATASOURCE_TIMEOUT_MILLIS = 30_000;
+
+    /** Time a worker waits for the context of its folder before failing the folder. */
+    private static final long CONTEXT_TIMEOUT_MILLIS = 300_000;
+
     private static final String TARGET_EXT = ".target";
 
+    /** The context configuration is the only one of a folder carrying the catalog path. */
+    private static final String FILTER_FOLDER_CONTEXT = "(&(" + KEY_FILE_CONTEXT_MATCHER + "=*)(catalog.path=*))";
+
     @Reference
     ConfigurationAdmin ca;
 
     private Map<Path, Configuration> catalogFolderConfigsDS = new ConcurrentHashMap<>();
     private Map<Path, Configuration> catalogFolderConfigsPool = new ConcurrentHashMap<>();
-    private Map<Path, Configuration> catalogFolderConfigsCSV = new ConcurrentHashMap<>();
+    private Map<Path, Configuration> catalogFolderConfigsData = new ConcurrentHashMap<>();
     private Map<Path, Configuration> catalogFolderConfigsContext = new ConcurrentHashMap<>();
     private Map<Path, Configuration> catalogFolderConfigsMapping = new ConcurrentHashMap<>();
     private Map<Path, Configuration> catalogFolderConfigsCheckSuite = new ConcurrentHashMap<>();
 
+    private final Map<Path, CatalogFolderState> folderStates = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<Void>> folderTasks = new ConcurrentHashMap<>();
+    private final Map<Path, Map<String, String>> appliedResources = new ConcurrentHashMap<>();
+    private final AtomicInteger rebalanceRequests = new AtomicInteger();
+    private final ServiceListener contextListener = this::contextChanged;
+
+    private BundleContext bundleContext;
+    private ExecutorService executor;
+    private ExecutorService importExecutor;
+    private int importParallelism;
+    private long xmiDebounceMillis;
+    private CatalogSnapshotCache snapshotCache;
+    private CatalogResources resources;
+    private boolean lazy;
+    private boolean dataViews;
+    private boolean installExtensions;
+    private boolean aggregates;
+    private int aggregatesMaxTables;
+    private long aggregatesMinFactRows;
+    private volatile boolean initialPathsQueued;
+
+    @Activate
+    public void activate(BundleContext bundleContext, Map<String, Object> props) throws InvalidSyntaxException {
+        this.bundleContext = bundleContext;
+        Object debounceMillis = props.get(CatalogXmiFileListener.KEY_DEBOUNCE_MILLIS);
+        this.xmiDebounceMillis = debounceMillis == null ? CatalogXmiFileListener.DEFAULT_DEBOUNCE_MILLIS
+                : Long.parseLong(debounceMillis.toString());
+        this.resources = new CatalogResources("true".equals(String.valueOf(props.get(KEY_AUTO_RESOURCES))));
+        Object snapshotDir = props.get(KEY_SNAPSHOT_DIR);
+        if (snapshotDir != null && !snapshotDir.toString().isBlank()) {
+            try {
+                snapshotCache = new CatalogSnapshotCache(Path.of(snapshotDir.toString()));
+                logger.info("Catalog snapshots kept in {}", snapshotCache.dir());
+            } catch (IOException e) {
+                logger.error("Catalog snapshot directory {} unusable, importing every start", snapshotDir, e);
+            }
+        }
+        this.lazy = "true".equals(String.valueOf(props.get(KEY_LAZY)));
+        this.dataViews = "true".equals(String.valueOf(props.get(KEY_DATA_VIEWS)));
+        this.installExtensions = "true".equals(String.valueOf(props.get(KEY_INSTALL_EXTENSIONS)));
+        this.aggregates = "true".equals(String.valueOf(props.get(KEY_AGGREGATES)));
+        Object maxTables = props.get(KEY_AGGREGATES_MAX_TABLES);
+        this.aggregatesMaxTables = maxTables == null ? DEFAULT_AGGREGATES_MAX_TABLES
+                : Integer.parseInt(maxTables.toString());
+        Object minFactRows = props.get(KEY_AGGREGATES_MIN_FACT_ROWS);
+        this.aggregatesMinFactRows = minFactRows == null ? DEFAULT_AGGREGATES_MIN_FACT_ROWS
+                : Long.parseLong(minFactRows.toString());
+        Object value = props.get(KEY_CONCURRENCY);
+        int concurrency = value == null ? Runtime.getRuntime().availableProcessors()
+                : Math.max(1, Integer.parseInt(value.toString()));
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "daanse-probe-catalog-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Object parallelism = props.get(KEY_IMPORT_PARALLELISM);
+        importParallelism = parallelism == null ? DEFAULT_IMPORT_PARALLELISM
+                : Math.max(1, Integer.parseInt(parallelism.toString()));
+        AtomicInteger importThreads = new AtomicInteger();
+        importExecutor = Executors.newFixedThreadPool(importParallelism, r -> {
+            Thread thread = new Thread(r, "daanse-probe-import-" + importThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        bundleContext.addServiceListener(contextListener, FILTER_FOLDER_CONTEXT);
+        logger.info("Bringing up catalog folders with {} workers, loading {} data files in parallel", concurrency,
+                importParallelism);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        bundleContext.removeServiceListener(contextListener);
+        executor.shutdownNow();
+        importExecutor.shutdownNow();
+    }
+
+    /** Bring-up state of every known catalog folder. */
+    Map<Path, CatalogFolderState> folderStates() {
+        return Map.copyOf(folderStates);
+    }
+
+    /** Whether the folders present at start are known, so {@link #folderStates()} is complete. */
+    boolean initialPathsQueued() {
+        return initialPathsQueued;
+    }
+
     @Override
     public void handleBasePath(Path basePath) {
         // not relevant
@@ -82,44 +242,203 @@ public class ProbeFileListener implements FileSystemWatcherListener {
 
     @Override
     public void handleInitialPaths(List<Path> paths) {
-        paths.forEach(this::addPath);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] tasks = paths.stream().filter(Files::isDirectory).map(path -> {
+            CatalogFolderState state = queue(path);
+            return submit(path, () -> addPath(path, state));
+        }).toArray(CompletableFuture[]::new);
+        initialPathsQueued = true;
+        CompletableFuture.allOf(tasks).thenRun(() -> logger.info("Configured {} catalog folders in {} ms",
+                tasks.length, (System.nanoTime() - start) / 1_000_000));
     }
 
     @Override
     public void handlePathEvent(Path path, Kind<Path> kind) {
 
         if (StandardWatchEventKinds.ENTRY_MODIFY.equals(kind)) {
-            removePath(path);
-            addPath(path);
+            if (Files.isDirectory(path)) {
+                submit(path, () -> reloadPath(path));
+            }
         } else if (StandardWatchEventKinds.ENTRY_CREATE.equals(kind)) {
-            addPath(path);
+            if (Files.isDirectory(path)) {
+                CatalogFolderState state = queue(path);
+                submit(path, () -> addPath(path, state));
+            }
         } else if (StandardWatchEventKinds.ENTRY_DELETE.equals(kind)) {
+            folderStates.remove(path);
+            submit(path, () -> removePath(path));
+            scheduleRebalance();
+        }
+    }
+
+    /** Registers the folder as pending, under the matcher key its configurations will use. */
+    private CatalogFolderState queue(Path path) {
+        CatalogFolderState state = new CatalogFolderState(path, UUID.randomUUID().toString());
+        folderStates.put(path, state);
+        return state;
+    }
+
+    /**
+     * Runs the task on the worker pool, after every task submitted earlier for
+     * the same folder - also after one that failed; a failure is logged and
+     * completes the returned future exceptionally.
+     */
+    CompletableFuture<Void> submit(Path path, Runnable task) {
+        return folderTasks.compute(path, (p, previous) -> {
+            CompletableFuture<Void> next = previous == null || previous.isDone()
+                    ? CompletableFuture.runAsync(task, executor)
+                    : previous.handle((result, failure) -> null).thenRunAsync(task, executor);
+            next.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    logger.error("Task of catalog folder {} failed", p,
+                            failure instanceof CompletionException ? failure.getCause() : failure);
+                }
+            });
+            return next;
+        });
+    }
+
+    private void contextChanged(ServiceEvent event) {
+        if (event.getType() != ServiceEvent.REGISTERED) {
+            return;
+        }
+        Object matcherKey = event.getServiceReference().getProperty(KEY_FILE_CONTEXT_MATCHER);
+        for (CatalogFolderState state : folderStates.values()) {
+            if (state.matcherKey().equals(matcherKey)) {
+                state.ready();
+                if (state.deferred() && event.getServiceReference().getProperty(KEY_DATA_LOADED) != null) {
+                    state.loaded();
+                }
+                if (state.deferred()) {
+                    logger.info("Catalog folder ready, data deferred until queried: {}", state);
+                } else {
+                    logger.info("Catalog folder ready: {}", state);
+                    if (aggregates && event.getServiceReference().getProperty(KEY_AGGREGATE_TABLES) == null) {
+                        // after the tasks of the folder pending, not beside a reload of its data
+                        submit(state.path(), () -> buildAggregates(state));
+                    }
+                }
+                scheduleRebalance();
+            }
+        }
+        if (!folderStates.isEmpty() && folderStates.values().stream()
+                .noneMatch(s -> s.phase() == Phase.PENDING || s.phase() == Phase.IMPORTING)) {
+            logger.info("All {} catalog folders brought up", folderStates.size());
+        }
+    }
+
+    /**
+     * A changed folder keeps its database, pool and context: the data file
+     * and mapping listeners watch {@code data} and {@code mapping} themselves
+     * and reload only the changed table or mapping. Here only the check suite
+     * follows its directory; folders that never came up are rebuilt.
+     */
+    private void reloadPath(Path path) {
+        CatalogFolderState state = folderStates.get(path);
+        if (state == null || state.phase() == Phase.FAILED || !catalogFolderConfigsContext.containsKey(path)) {
             removePath(path);
+            addPath(path, queue(path));
+            return;
+        }
+
+        // the checks of a deferred folder would run against its empty database
+        boolean hasCheckSuite = !state.deferred() && Files.isDirectory(path.resolve("check"));
+        if (hasCheckSuite && !catalogFolderConfigsCheckSuite.containsKey(path)) {
+            createCheckSuite(path, state.matcherKey());
+        } else if (!hasCheckSuite) {
+            try {
+                Configuration c = catalogFolderConfigsCheckSuite.remove(path);
+                if (c != null) {
+                    c.delete();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to delete check suite configuration for path: {}", path, e);
+            }
+        }
+        logger.debug("Catalog folder changed, kept its database and context: {}", path);
+    }
+
+    private int activeFolders() {
+        return (int) folderStates.values().stream().filter(s -> s.phase() != Phase.FAILED).count();
+    }
+
+    /**
+     * With automatic resources, re-divides threads and memory once the set of
+     * folders settled. The settings are changed with {@code SET} on the running
+     * databases, so nothing is reloaded.
+     */
+    private void scheduleRebalance() {
+        if (!resources.isAuto()) {
+            return;
+        }
+        int request = rebalanceRequests.incrementAndGet();
+        CompletableFuture.runAsync(() -> {
+            if (rebalanceRequests.get() == request) {
+                rebalance();
+            }
+        }, CompletableFuture.delayedExecutor(REBALANCE_DELAY_MILLIS, TimeUnit.MILLISECONDS, executor));
+    }
+
+    private void rebalance() {
+        int active = activeFolders();
+        for (CatalogFolderState state : folderStates.values()) {
+            if (state.phase() != Phase.READY) {
+                continue;
+            }
+            Path path = state.path();
+            Map<String, String> target = new LinkedHashMap<>(resources.settingsOf(path, active));
+            target.keySet().retainAll(List.of(CatalogResources.THREADS, CatalogResources.MEMORY_LIMIT));
+            if (target.equals(appliedResources.get(path))) {
+                continue;
+            }
+            submit(path, () -> {
+                try {
+                    withDataSource(state.matcherKey(), connection -> {
+                        try (Statement statement = connection.createStatement()) {
+                            for (Map.Entry<String, String> setting : target.entrySet()) {
+                                statement.execute("SET " + setting.getKey() + " = '"
+                                        + setting.getValue().replace("'", "''") + "'");
+                            }
+                        }
+                    });
+                    appliedResources.put(path, target);
+                    logger.debug("Catalog folder {} now runs with {}", path, target);
+                } catch (IOException | SQLException e) {
+                    logger.warn("Failed to apply {} to catalog folder {}", target, path, e);
+                }
+            });
         }
     }
 
     private void removePath(Path path) {
+        appliedResources.remove(path);
         if (!Files.isDirectory(path)) {
             return;
         }
 
         try {
             Configuration c = catalogFolderConfigsDS.remove(path);
-            c.delete();
+            if (c != null) {
+                c.delete();
+            }
         } catch (IOException e) {
             logger.error("Failed to delete DS configuration for path: {}", path, e);
         }
 
         try {
-            Configuration c = catalogFolderConfigsCSV.remove(path);
-            c.delete();
+            Configuration c = catalogFolderConfigsData.remove(path);
+            if (c != null) {
+                c.delete();
+            }
         } catch (IOException e) {
-            logger.error("Failed to delete CSV configuration for path: {}", path, e);
+            logger.error("Failed to delete data configuration for path: {}", path, e);
         }
 
         try {
             Configuration c = catalogFolderConfigsContext.remove(path);
-            c.delete();
+            if (c != null) {
+                c.delete();
+            }
         } catch (IOException e) {
             logger.error("Failed to delete context configuration for path: {}", path, e);
         }
@@ -135,7 +454,9 @@ public class ProbeFileListener implements FileSystemWatcherListener {
 
         try {
             Configuration c = catalogFolderConfigsMapping.remove(path);
-            c.delete();
+            if (c != null) {
+                c.delete();
+            }
         } catch (IOException e) {
             logger.error("Failed to delete mapping configuration for path: {}", path, e);
         }
@@ -150,28 +471,344 @@ public class ProbeFileListener implements FileSystemWatcherListener {
         }
     }
 
-    private void addPath(Path path) {
+    private void addPath(Path path, CatalogFolderState state) {
         if (!Files.isDirectory(path)) {
+            folderStates.remove(path, state);
             return;
         }
         logger.info("Adding catalog path: {}", path);
-        String pathString = path.toString();
+        state.started();
+        state.importing();
+        String matcherKey = state.matcherKey();
+
+        try {
+            if (lazy) {
+                addDeferred(path, state);
+            } else {
+                createDataSource(path, matcherKey);
+                boolean restored = restoreSnapshot(path, state);
+                createConnectionPool(path, matcherKey);
+                // watching first: a file changed while importing is loaded again
+                createDataFileListener(path, matcherKey);
+                if (!restored) {
+                    importData(state);
+                    submit(path, () -> writeSnapshot(state));
+                }
+                createMapping(path, matcherKey);
+                createCheckSuite(path, matcherKey);
+                createContext(path, matcherKey);
+            }
+            // the worker stays with the folder until its context activated
+            if (!state.awaitSettled(CONTEXT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                scheduleRebalance();
+                logger.error("Catalog folder did not come up: {}", state);
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            state.failed(e);
+            scheduleRebalance();
+            logger.error("Failed to setup configurations for path: {}", path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Brings a folder up without its data: the context runs on the empty
+     * database, so the catalog is listed and its metadata discovered. The data
+     * is loaded by {@link #load(String)}.
+     */
+    private void addDeferred(Path path, CatalogFolderState state) throws IOException {
+        String matcherKey = state.matcherKey();
+        Set<String> names = new HashSet<>(Set.of(path.toString(), path.getFileName().toString()));
+        Path catalog = path.resolve("mapping").resolve("catalog.xmi");
+        if (Files.isRegularFile(catalog)) {
+            CatalogCubes.catalogName(catalog).ifPresent(names::add);
+        }
+        state.catalogNames(names);
+        state.defer();
+        createDataSource(path, matcherKey);
+        createConnectionPool(path, matcherKey);
+        createMapping(path, matcherKey);
+        createContext(path, matcherKey);
+    }
+
+    /** Whether a folder waits for its first query to load its data. */
+    boolean hasDeferred() {
+        return folderStates.values().stream().anyMatch(CatalogFolderState::deferred);
+    }
+
+    /**
+     * Loads the data of the deferred folder of the catalog, once however many
+     * requests ask for it - again only after a failed load's retry delay. The
+     * future completes when the context was reloaded
+     * on the data, at once for a catalog that is not deferred.
+     */
+    CompletableFuture<Void> load(String catalog) {
+        for (CatalogFolderState state : folderStates.values()) {
+            if (state.deferred() && state.catalogNames().contains(catalog)) {
+                return state.load(() -> submit(state.path(), () -> loadDeferred(state)));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Restores or imports the data of a deferred folder, then reloads its
+     * context, so nothing the context cached from the empty database stays.
+     */
+    private void loadDeferred(CatalogFolderState state) {
+        Path path = state.path();
+        long start = System.nanoTime();
+        logger.info("Loading deferred catalog folder {}", path);
+        try {
+            boolean restored = restoreSnapshot(path, state);
+            createDataFileListener(path, state.matcherKey());
+            if (!restored) {
+                importData(state);
+                submit(path, () -> writeSnapshot(state));
+            }
+            createCheckSuite(path, state.matcherKey());
+            Configuration configContext = catalogFolderConfigsContext.get(path);
+            if (configContext == null) {
+                throw new IOException("No context for catalog folder " + path);
+            }
+            Dictionary<String, Object> props = configContext.getProperties();
+            props.put(KEY_DATA_LOADED, true);
+            configContext.update(props);
+            logger.info("Loaded deferred catalog folder {} in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | SQLException | RuntimeException e) {
+            logger.error("Failed to load deferred catalog folder {}, retried by a query after {}", path,
+                    CatalogFolderState.LOAD_RETRY_DELAY, e);
+            discardDeferredLoad(path);
+            state.loadFailed(e);
+        }
+    }
+
+    /** Deletes the listeners a failed load of deferred data created, the retry creates them again. */
+    private void discardDeferredLoad(Path path) {
+        try {
+            Configuration c = catalogFolderConfigsData.remove(path);
+            if (c != null) {
+                c.delete();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to delete data configuration for path: {}", path, e);
+        }
+
+        try {
+            Configuration c = catalogFolderConfigsCheckSuite.remove(path);
+            if (c != null) {
+                c.delete();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to delete check suite configuration for path: {}", path, e);
+        }
+    }
 
-        String matcherKey = pathString.replace("\\", "-.-");
-        matcherKey = UUID.randomUUID().toString();
+    /**
+     * Loads the data files of the folder, {@value #KEY_IMPORT_PARALLELISM} at a
+     * time across all folders, each on a connection of its own. Returns once
+     * every file is loaded or failed, so the context is only created on
+     * complete data.
+     */
+    private void importData(CatalogFolderState state) throws IOException, SQLException {
+        Path dataDir = state.path().resolve("data");
+        List<Path> files = CatalogDataLoader.files(dataDir);
+        if (files.isEmpty()) {
+            return;
+        }
+        CatalogDataLoader loader = loader(dataDir);
+        long start = System.nanoTime();
+        useDataSource(state.matcherKey(), dataSource -> {
+            CompletableFuture<?>[] loads = files.stream().map(file -> CompletableFuture
+                    .runAsync(() -> loader.load(dataSource, file, state::tableLoad), importExecutor))
+                    .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(loads).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted importing catalog folder " + state.path(), e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to import catalog folder " + state.path(), e.getCause());
+            }
+        });
+        List<TableLoad> tables = state.tables();
+        long failed = tables.stream().filter(load -> load.failure() != null).count();
+        logger.info("Imported {} of {} data files ({} rows, {} bytes) of catalog folder {} in {} ms",
+                tables.size() - failed, tables.size(),
+                tables.stream().mapToLong(load -> Math.max(0, load.rows())).sum(),
+                tables.stream().mapToLong(TableLoad::bytes).sum(), state.path(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private CatalogDataLoader loader(Path dataDir) {
+        return new CatalogDataLoader(dataDir, dataViews, installExtensions);
+    }
 
+    /**
+     * Loads the folder's snapshot into its fresh database when the data is
+     * unchanged since the snapshot was written; otherwise remembers the key the
+     * snapshot of the import is written under.
+     */
+    private boolean restoreSnapshot(Path path, CatalogFolderState state) {
+        if (snapshotCache == null) {
+            return false;
+        }
         try {
-            createDataSource(path, matcherKey);
-            createConnectionPool(path, matcherKey);
-            createCsvDatabaseImporter(path, matcherKey);
-            createMapping(path, matcherKey);
-            createCheckSuite(path, matcherKey);
-            createContext(path, matcherKey);
+            Path dataDir = path.resolve("data");
+            String key = snapshotCache.keyOf(dataDir, loader(dataDir).settings());
+            Optional<Path> snapshot = snapshotCache.lookup(key);
+            if (snapshot.isEmpty()) {
+                state.snapshotKey(key);
+                return false;
+            }
+            long start = System.nanoTime();
+            withDataSource(state.matcherKey(), connection -> snapshotCache.restore(connection, snapshot.get()));
+            logger.info("Restored catalog folder {} from snapshot in {} ms", path,
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | SQLException e) {
+            logger.warn("Snapshot of catalog folder {} not restored, importing the data files", path, e);
+            return false;
+        }
+    }
 
+    /**
+     * Writes the snapshot of a folder whose import just completed. An import
+     * with failed files is not kept, so the next start tries them again.
+     */
+    private void writeSnapshot(CatalogFolderState state) {
+        String key = state.snapshotKey();
+        if (key == null || folderStates.get(state.path()) != state) {
+            return;
+        }
+        if (state.tables().stream().anyMatch(load -> load.failure() != null)) {
+            logger.warn("Import of catalog folder {} incomplete, no snapshot written", state.path());
+            return;
+        }
+        try {
+            withDataSource(state.matcherKey(), connection -> snapshotCache.store(connection, state.path(), key));
+            state.snapshotKey(null);
+            logger.info("Wrote snapshot of catalog folder {}", state.path());
+        } catch (IOException | SQLException e) {
+            logger.warn("Failed to write snapshot of catalog folder {}", state.path(), e);
+        }
+    }
+
+    /**
+     * Builds the rollup tables of the folder's cubes; the data is complete, it
+     * is imported before the context is created. The mapping is left as it
+     * is: the tables follow the default aggregate naming, so the context is
+     * updated to read aggregates and reloads with them. The table names set on
+     * the context keep the reload from building them again.
+     */
+    private void buildAggregates(CatalogFolderState state) {
+        if (folderStates.get(state.path()) != state || executor.isShutdown()) {
+            return;
+        }
+        Path path = state.path();
+        try {
+            List<CatalogCubes.Cube> cubes = CatalogCubes.read(path.resolve("mapping").resolve("catalog.xmi"));
+            if (cubes.isEmpty()) {
+                return;
+            }
+            List<String> built = new ArrayList<>();
+            long start = System.nanoTime();
+            withDataSource(state.matcherKey(), connection -> built
+                    .addAll(CatalogAggregates.build(connection, cubes, aggregatesMaxTables, aggregatesMinFactRows)));
+            if (built.isEmpty()) {
+                logger.info("No rollup tables worth building for catalog folder {}", path);
+                return;
+            }
+            logger.info("Built rollup tables {} of catalog folder {} in {} ms", built, path,
+                    (System.nanoTime() - start) / 1_000_000);
+            Configuration configContext = catalogFolderConfigsContext.get(path);
+            if (configContext != null) {
+                Dictionary<String, Object> props = configContext.getProperties();
+                props.put("readAggregates", true);
+                props.put(KEY_AGGREGATE_TABLES, built.toArray(String[]::new));
+                configContext.update(props);
+            }
+        } catch (IOException | SQLException e) {
+            logger.warn("Failed to build rollup tables of catalog folder {}", path, e);
+        }
+    }
+
+    /**
+     * Called before a data file of the folder is loaded again or dropped: the
+     * context stops reading the rollup tables, which hold the old data. The
+     * empty table list keeps the reload from building them meanwhile.
+     */
+    void dataChanging(String matcherKey) {
+        Optional<CatalogFolderState> state = stateOf(matcherKey);
+        Configuration configContext = state.map(s -> catalogFolderConfigsContext.get(s.path())).orElse(null);
+        if (!aggregates || configContext == null) {
+            return;
+        }
+        Dictionary<String, Object> props = configContext.getProperties();
+        if (props == null || !(props.get(KEY_AGGREGATE_TABLES) instanceof String[] tables) || tables.length == 0) {
+            return;
+        }
+        props.put("readAggregates", false);
+        props.put(KEY_AGGREGATE_TABLES, new String[0]);
+        try {
+            configContext.update(props);
+            logger.info("Rollup tables of catalog folder {} out of date, not read until rebuilt", state.get().path());
         } catch (IOException e) {
-            logger.error("Failed to setup configurations for path: {}", path, e);
+            logger.warn("Failed to stop reading the rollup tables of catalog folder {}", state.get().path(), e);
         }
+    }
+
+    /** Called once a data file of the folder was loaded again or dropped: the rollup tables are rebuilt. */
+    void dataChanged(String matcherKey) {
+        stateOf(matcherKey).filter(state -> aggregates && !state.deferred() && state.phase() == Phase.READY)
+                .ifPresent(state -> submit(state.path(), () -> buildAggregates(state)));
+    }
 
+    private Optional<CatalogFolderState> stateOf(String matcherKey) {
+        return folderStates.values().stream().filter(state -> state.matcherKey().equals(matcherKey)).findFirst();
+    }
+
+    private interface ConnectionConsumer {
+        void accept(Connection connection) throws SQLException, IOException;
+    }
+
+    private interface DataSourceConsumer {
+        void accept(DataSource dataSource) throws SQLException, IOException;
+    }
+
+    /** Runs the action on a connection of the folder's own DuckDB DataSource, not the pool. */
+    private void withDataSource(String matcherKey, ConnectionConsumer action) throws SQLException, IOException {
+        useDataSource(matcherKey, dataSource -> {
+            try (Connection connection = dataSource.getConnection()) {
+                action.accept(connection);
+            }
+        });
+    }
+
+    /** Runs the action on the folder's own DuckDB DataSource, not the pool. */
+    private void useDataSource(String matcherKey, DataSourceConsumer action) throws SQLException, IOException {
+        String filter = "(&(objectClass=" + DataSource.class.getName() + ")" + filterOfDataSource(matcherKey) + ")";
+        ServiceTracker<DataSource, DataSource> tracker;
+        try {
+            tracker = new ServiceTracker<>(bundleContext, bundleContext.createFilter(filter), null);
+        } catch (InvalidSyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+        tracker.open();
+        try {
+            DataSource dataSource = tracker.waitForService(DATASOURCE_TIMEOUT_MILLIS);
+            if (dataSource == null) {
+                throw new SQLException(
+                        "No DataSource for " + matcherKey + " after " + DATASOURCE_TIMEOUT_MILLIS + " ms");
+            }
+            action.accept(dataSource);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the DataSource of " + matcherKey, e);
+        } finally {
+            tracker.close();
+        }
     }
 
     private void createMapping(Path path, String matcherKey) {
@@ -184,6 +821,7 @@ public class ProbeFileListener implements FileSystemWatcherListener {
             String pathMapping = path.resolve("mapping").toAbsolutePath().toString();
             props.put(FileSystemWatcherWhiteboardConstants.FILESYSTEM_WATCHER_PATH, pathMapping);
             props.put(MATCHER_KEY, matcherKey);
+            props.put(CatalogXmiFileListener.KEY_DEBOUNCE_MILLIS, xmiDebounceMillis);
 
             configXmiFileListener.update(props);
 
@@ -245,16 +883,20 @@ public class ProbeFileListener implements FileSystemWatcherListener {
 
     }
 
-    private void createCsvDatabaseImporter(Path path, String matcherKey) throws IOException {
-        String pathStringData = path.resolve("data").toString();
-        Configuration configCsv = ca.getFactoryConfiguration(PID_CSV_DATA_IMPORTER, UUID.randomUUID().toString(), "?");
+    /** Keeps the tables on the changes of the data files once they are imported. */
+    private void createDataFileListener(Path path, String matcherKey) throws IOException {
+        Configuration config = ca.getFactoryConfiguration(CatalogDataFileListener.PID, UUID.randomUUID().toString(),
+                "?");
 
-        Dictionary<String, Object> propsCSV = new Hashtable<>();
-        propsCSV.put(FileSystemWatcherWhiteboardConstants.FILESYSTEM_WATCHER_PATH, pathStringData);
-        propsCSV.put("dataSource.target", filterOfMatcherKey(matcherKey));
-        configCsv.update(propsCSV);
+        Dictionary<String, Object> props = new Hashtable<>();
+        props.put(FileSystemWatcherWhiteboardConstants.FILESYSTEM_WATCHER_PATH, path.resolve("data").toString());
+        props.put(CatalogDataFileListener.REF_DATA_SOURCE + TARGET_EXT, filterOfDataSource(matcherKey));
+        props.put(CatalogDataFileListener.KEY_VIEWS, dataViews);
+        props.put(KEY_INSTALL_EXTENSIONS, installExtensions);
+        props.put(MATCHER_KEY, matcherKey);
+        config.update(props);
 
-        catalogFolderConfigsCSV.put(path, configCsv);
+        catalogFolderConfigsData.put(path, config);
     }
 
     /** The in-memory DuckDB database this catalog folder is loaded into. */
@@ -264,11 +906,15 @@ public class ProbeFileListener implements FileSystemWatcherListener {
         // The DataSource keeps the owning connection and hands out duplicates,
         // which makes one in-memory database reachable from importer and pool alike.
         props.put(DATASOURCE_PROPERTY_DATABASENAME, ":memory:");
-        props.put(DATASOURCE_PROPERTY_SETTINGS, new String[] { "threads=4" });
+        Map<String, String> settings = resources.settingsOf(path, activeFolders());
+        props.put(DATASOURCE_PROPERTY_SETTINGS, CatalogResources.toArray(settings));
         props.put(KEY_FILE_CONTEXT_MATCHER, matcherKey);
         config.update(props);
 
         catalogFolderConfigsDS.put(path, config);
+        Map<String, String> applied = new LinkedHashMap<>(settings);
+        applied.keySet().retainAll(List.of(CatalogResources.THREADS, CatalogResources.MEMORY_LIMIT));
+        appliedResources.put(path, applied);
     }
 
     /**
@@ -290,4 +936,9 @@ public class ProbeFileListener implements FileSystemWatcherListener {
         return "(" + KEY_FILE_CONTEXT_MATCHER + "=" + matcherKey + ")";
     }
 
+    /** The folder's own DuckDB DataSource, not the pool. */
+    private static String filterOfDataSource(String matcherKey) {
+        return "(&" + filterOfMatcherKey(matcherKey) + "(" + DATASOURCE_PROPERTY_DATABASENAME + "=*))";
+    }
+
 }
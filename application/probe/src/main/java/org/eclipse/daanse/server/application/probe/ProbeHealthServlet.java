@@ -0,0 +1,155 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.daanse.server.application.probe.CatalogDataLoader.TableLoad;
+import org.eclipse.daanse.server.application.probe.CatalogFolderState.Phase;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Liveness and readiness of the probe on the HTTP whiteboard.
+ * {@code /health/live} answers as soon as the HTTP server runs;
+ * {@code /health/ready} answers 200 once every catalog folder found at start
+ * is ready or failed, 503 while folders are still pending or importing. Both
+ * list the state and timings of every catalog folder and the loads of its
+ * data files.
+ */
+@Component(immediate = true, service = Servlet.class, property = {
+        "osgi.http.whiteboard.servlet.pattern=/health/*", "osgi.http.whiteboard.servlet.name=daanse-health" })
+public class ProbeHealthServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile ProbeFileListener fileListener;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo();
+        boolean live = "/live".equals(path);
+        if (!live && !"/ready".equals(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        ProbeFileListener listener = fileListener;
+        List<CatalogFolderState> folders = listener == null ? List.of()
+                : listener.folderStates().values().stream()
+                        .sorted(Comparator.comparing(CatalogFolderState::path)).toList();
+        boolean ready = listener != null && listener.initialPathsQueued() && folders.stream()
+                .allMatch(f -> f.phase() == Phase.READY || f.phase() == Phase.FAILED);
+        boolean up = live || ready;
+
+        StringBuilder json = new StringBuilder(128 + folders.size() * 128);
+        json.append("{\"status\":\"").append(up ? "UP" : "DOWN").append('"');
+        json.append(",\"ready\":").append(ready);
+        json.append(",\"uptimeMillis\":").append(System.currentTimeMillis() - jvmStart);
+        json.append(",\"folders\":[");
+        for (int i = 0; i < folders.size(); i++) {
+            CatalogFolderState folder = folders.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"path\":");
+            string(json, folder.path().toString());
+            json.append(",\"state\":\"").append(folder.phase()).append('"');
+            if (folder.deferred()) {
+                json.append(",\"deferred\":true");
+            }
+            json.append(",\"queueMillis\":").append(folder.queueTime().toMillis());
+            json.append(",\"totalMillis\":").append(folder.totalTime().toMillis());
+            if (folder.failure() != null) {
+                json.append(",\"failure\":");
+                string(json, folder.failure());
+            }
+            tables(json, folder);
+            json.append('}');
+        }
+        json.append("]}");
+
+        response.setStatus(up ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(json.toString());
+    }
+
+    private static void tables(StringBuilder json, CatalogFolderState folder) {
+        List<TableLoad> tables = folder.tables();
+        if (tables.isEmpty()) {
+            return;
+        }
+        json.append(",\"tables\":[");
+        for (int i = 0; i < tables.size(); i++) {
+            TableLoad load = tables.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"table\":");
+            string(json, load.table());
+            json.append(",\"file\":");
+            string(json, folder.path().relativize(load.file()).toString());
+            json.append(",\"state\":\"")
+                    .append(load.loading() ? "LOADING" : load.failure() != null ? "FAILED" : "LOADED").append('"');
+            json.append(",\"bytes\":").append(load.bytes());
+            if (load.rows() >= 0) {
+                json.append(",\"rows\":").append(load.rows());
+            }
+            json.append(",\"millis\":").append(load.elapsedMillis());
+            if (load.failure() != null) {
+                json.append(",\"failure\":");
+                string(json, load.failure());
+            }
+            json.append('}');
+        }
+        json.append(']');
+    }
+
+    private static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> json.append("\\\"");
+            case '\\' -> json.append("\\\\");
+            case '\n' -> json.append("\\n");
+            case '\r' -> json.append("\\r");
+            case '\t' -> json.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,113 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Cube;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Hierarchy;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Level;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Measure;
+import org.junit.jupiter.api.Test;
+
+class CatalogAggregatesTest {
+
+    /** Stores by country and city on a table of their own, channels on the fact table. */
+    private static final Cube SALES = new Cube("Sales", "Fact",
+            List.of(new Measure("Amount", "sum", "amount"), new Measure("Count", "count", "amount")),
+            List.of(new Hierarchy("Store", "Store", "store_id", "id",
+                    List.of(new Level("Country", "country"), new Level("City", "name"))),
+                    new Hierarchy("Channel", "Fact", null, null, List.of(new Level("Channel", "name")))));
+
+    @Test
+    void considersEveryHierarchyAndPairsOfTheirTopLevels() {
+        assertEquals(List.of(depths(0, 1), depths(0, 2), depths(1, 1), depths(0, 1, 1, 1), depths(0, 2, 1, 1)),
+                CatalogAggregates.candidates(SALES));
+    }
+
+    @Test
+    void picksTheCandidatesAnsweringTheMostOthers() {
+        List<SortedMap<Integer, Integer>> candidates = CatalogAggregates.candidates(SALES);
+        // fact rows, then the rows of every candidate; the last is too large
+        long[] rows = { 1000, 10, 50, 5, 60, 400 };
+
+        assertEquals(List.of(depths(0, 1, 1, 1), depths(0, 2)), CatalogAggregates.pick(candidates, rows, 4));
+        assertEquals(List.of(depths(0, 1, 1, 1)), CatalogAggregates.pick(candidates, rows, 1));
+        assertEquals(List.of(), CatalogAggregates.pick(candidates, new long[] { 10, 5, 5, 5, 5, 5 }, 4),
+                "every candidate too large");
+    }
+
+    @Test
+    void picksTheSmallerOfTwoAnsweringAsMany() {
+        List<SortedMap<Integer, Integer>> candidates = List.of(depths(0, 1), depths(1, 1));
+
+        assertEquals(List.of(depths(1, 1), depths(0, 1)),
+                CatalogAggregates.pick(candidates, new long[] { 1000, 20, 10 }, 4));
+    }
+
+    @Test
+    void namesTheColumnsLikeTheColumnsTheyAggregate() {
+        assertEquals("CREATE TABLE \"agg_probe2_Fact\" AS SELECT \"h0\".\"country\" AS \"country\","
+                + " \"h0\".\"name\" AS \"name\", \"f\".\"name\" AS \"channel_channel\","
+                + " sum(\"f\".\"amount\") AS \"amount\", count(\"f\".\"amount\") AS \"count\","
+                + " count(*) AS \"fact_count\""
+                + " FROM \"Fact\" AS \"f\" JOIN \"Store\" AS \"h0\" ON \"f\".\"store_id\" = \"h0\".\"id\""
+                + " GROUP BY \"h0\".\"country\", \"h0\".\"name\", \"f\".\"name\"",
+                CatalogAggregates.createSql(SALES, depths(0, 2, 1, 1), "agg_probe2_Fact"));
+    }
+
+    @Test
+    void buildsTheTablesOfLargeFactTablesOnly() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE \"Store\" AS SELECT i AS \"id\", 'C' || (i % 3) AS \"country\","
+                    + " 'S' || i AS \"name\" FROM range(10) t(i)");
+            statement.execute("CREATE TABLE \"Fact\" AS SELECT i % 10 AS \"store_id\", 'K' || (i % 3) AS \"name\","
+                    + " i AS \"amount\" FROM range(1000) t(i)");
+
+            assertEquals(List.of(), CatalogAggregates.build(connection, List.of(SALES), 4, 1001));
+            List<String> built = CatalogAggregates.build(connection, List.of(SALES), 4, 1000);
+
+            // 30 rows by city and channel answer every other candidate
+            assertEquals(List.of("agg_probe1_Fact"), built);
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT count(*), sum(\"fact_count\"), sum(\"amount\") FROM \"agg_probe1_Fact\"")) {
+                rs.next();
+                assertEquals(30, rs.getLong(1));
+                assertEquals(1000, rs.getLong(2));
+                assertEquals(499_500, rs.getLong(3));
+            }
+            assertEquals(built, CatalogAggregates.build(connection, List.of(SALES), 4, 1000), "built anew");
+        }
+    }
+
+    /** Depths by hierarchy index, given as pairs. */
+    private static SortedMap<Integer, Integer> depths(int... pairs) {
+        SortedMap<Integer, Integer> depths = new TreeMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            depths.put(pairs[i], pairs[i + 1]);
+        }
+        return depths;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Cube;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Hierarchy;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Level;
+import org.eclipse.daanse.server.application.probe.CatalogCubes.Measure;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogCubesTest {
+
+    /**
+     * A sales cube over a fact table with a store dimension on a table of its
+     * own, a channel dimension on the fact table, and a product dimension whose
+     * levels span two tables.
+     */
+    static final String CATALOG = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xmi:XMI xmi:version="2.0" xmlns:xmi="http://www.omg.org/XMI"
+                xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                xmlns:rolapcat="https://www.daanse.org/spec/org.eclipse.daanse.rolap.mapping/catalog"
+                xmlns:relational="http://www.omg.org/spec/CWM/1.1/resource/relational">
+              <rolapcat:Catalog xmi:id="_catalog" name="Sales Catalog">
+                <ownedElement xsi:type="rolapsrc:TableSource" xmi:id="_source_fact" table="_table_fact"/>
+                <ownedElement xsi:type="rolapsrc:TableSource" xmi:id="_source_store" table="_table_store"/>
+                <ownedElement xsi:type="rolapsrc:TableSource" xmi:id="_source_product" table="_table_product"/>
+                <ownedElement xsi:type="rolapcube:PhysicalCube" xmi:id="_cube" name="Sales" source="_source_fact">
+                  <measureGroups xmi:id="_group">
+                    <measures xsi:type="rolapmeas:SumMeasure" xmi:id="_sum" name="Amount" column="_fact_amount"/>
+                    <measures xsi:type="rolapmeas:CountMeasure" xmi:id="_count" name="Count" column="_fact_amount"/>
+                    <measures xsi:type="rolapmeas:AvgMeasure" xmi:id="_avg" name="Mean" column="_fact_amount"/>
+                  </measureGroups>
+                  <dimensionConnectors xmi:id="_c_store" dimension="_dim_store" foreignKey="_fact_store"/>
+                  <dimensionConnectors xmi:id="_c_channel" dimension="_dim_channel"/>
+                  <dimensionConnectors xmi:id="_c_product" dimension="_dim_product" foreignKey="_fact_product"/>
+                </ownedElement>
+                <ownedElement xsi:type="rolapdim:StandardDimension" xmi:id="_dim_store" name="Store">
+                  <hierarchies xsi:type="rolaphier:ExplicitHierarchy" xmi:id="_h_store" source="_source_store"
+                      primaryKey="_store_id">
+                    <levels xmi:id="_l_country" name="Country" column="_store_country"/>
+                    <levels xmi:id="_l_city" name="City" column="_store_name"/>
+                  </hierarchies>
+                </ownedElement>
+                <ownedElement xsi:type="rolapdim:StandardDimension" xmi:id="_dim_channel" name="Channel">
+                  <hierarchies xsi:type="rolaphier:ExplicitHierarchy" xmi:id="_h_channel">
+                    <levels xmi:id="_l_channel" name="Channel" column="_fact_name"/>
+                  </hierarchies>
+                </ownedElement>
+                <ownedElement xsi:type="rolapdim:StandardDimension" xmi:id="_dim_product" name="Product">
+                  <hierarchies xsi:type="rolaphier:ExplicitHierarchy" xmi:id="_h_product" name="Products"
+                      source="_source_product" primaryKey="_product_id">
+                    <levels xmi:id="_l_family" name="Family" column="_product_family"/>
+                    <levels xmi:id="_l_brand" name="Brand" column="_store_name"/>
+                  </hierarchies>
+                </ownedElement>
+              </rolapcat:Catalog>
+              <relational:Schema xmi:id="_schema">
+                <ownedElement xsi:type="relational:Table" xmi:id="_table_fact" name="Fact">
+                  <feature xsi:type="relational:Column" xmi:id="_fact_store" name="store_id"/>
+                  <feature xsi:type="relational:Column" xmi:id="_fact_product" name="product_id"/>
+                  <feature xsi:type="relational:Column" xmi:id="_fact_name" name="name"/>
+                  <feature xsi:type="relational:Column" xmi:id="_fact_amount" name="amount"/>
+                </ownedElement>
+                <ownedElement xsi:type="relational:Table" xmi:id="_table_store" name="Store">
+                  <feature xsi:type="relational:Column" xmi:id="_store_id" name="id"/>
+                  <feature xsi:type="relational:Column" xmi:id="_store_country" name="country"/>
+                  <feature xsi:type="relational:Column" xmi:id="_store_name" name="name"/>
+                </ownedElement>
+                <ownedElement xsi:type="relational:Table" xmi:id="_table_product" name="Product">
+                  <feature xsi:type="relational:Column" xmi:id="_product_id" name="id"/>
+                  <feature xsi:type="relational:Column" xmi:id="_product_family" name="family"/>
+                </ownedElement>
+              </relational:Schema>
+            </xmi:XMI>
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsTheStarSchemaOfTheCubes() throws IOException {
+        List<Cube> cubes = CatalogCubes.read(catalog());
+
+        assertEquals(List.of(new Cube("Sales", "Fact",
+                List.of(new Measure("Amount", "sum", "amount"), new Measure("Count", "count", "amount")),
+                List.of(new Hierarchy("Store", "Store", "store_id", "id",
+                        List.of(new Level("Country", "country"), new Level("City", "name"))),
+                        new Hierarchy("Channel", "Fact", null, null, List.of(new Level("Channel", "name"))),
+                        new Hierarchy("Products", "Product", "product_id", "id",
+                                List.of(new Level("Family", "family")))))),
+                cubes);
+    }
+
+    @Test
+    void readsTheNameOfTheCatalog() throws IOException {
+        assertEquals(Optional.of("Sales Catalog"), CatalogCubes.catalogName(catalog()));
+    }
+
+    private Path catalog() throws IOException {
+        return Files.writeString(dir.resolve("catalog.xmi"), CATALOG);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogDataLoaderTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void readsTheColumnsOfTheTwoHeaderLines() throws IOException {
+        Path file = csv("Fact.csv", "\uFEFF\"KEY\",\"NAME\",\"VALUE\"", "INTEGER,VARCHAR,DECIMAL(10,2)", "1,a,1.25");
+
+        String reader = CatalogDataLoader.csvReader(file);
+
+        assertTrue(reader.startsWith("read_csv('" + file.toAbsolutePath() + "', header = false, skip = 2"), reader);
+        assertTrue(reader.endsWith("columns = {'KEY': 'INTEGER', 'NAME': 'VARCHAR', 'VALUE': 'DECIMAL(10,2)'})"),
+                reader);
+    }
+
+    @Test
+    void widensABareDecimal() {
+        assertEquals("DECIMAL(38, 10)", CatalogDataLoader.type("DECIMAL"));
+        assertEquals("DECIMAL(38, 10)", CatalogDataLoader.type("numeric"));
+        assertEquals("DECIMAL(10,2)", CatalogDataLoader.type("DECIMAL(10,2)"));
+        assertEquals("BIGINT", CatalogDataLoader.type("BIGINT"));
+    }
+
+    @Test
+    void rejectsAFileWithoutTypes() throws IOException {
+        Path file = csv("Fact.csv", "KEY,NAME", "INTEGER");
+
+        IOException e = assertThrows(IOException.class, () -> CatalogDataLoader.csvReader(file));
+        assertTrue(e.getMessage().contains("2 names and 1 types"), e.getMessage());
+    }
+
+    @Test
+    void splitsOnlyOutsideQuotesAndParentheses() {
+        assertEquals(List.of("a,b", "DECIMAL(10,2)", "say \"hi\""),
+                CatalogDataLoader.split("\"a,b\", DECIMAL(10,2),\"say \"\"hi\"\"\""));
+    }
+
+    @Test
+    void loadsCsvParquetAndArrowFiles() {
+        for (String name : List.of("Fact.csv", "Fact.PARQUET", "Fact.arrow", "Fact.arrows", "Fact.feather")) {
+            assertTrue(CatalogDataLoader.isDataFile(Path.of(name)), name);
+        }
+        for (String name : List.of("Fact.txt", "Fact.csv.bak", "parquet", "Fact.xmi")) {
+            assertFalse(CatalogDataLoader.isDataFile(Path.of(name)), name);
+        }
+    }
+
+    @Test
+    void namesTablesAfterFileAndSubfolder() throws IOException {
+        CatalogDataLoader loader = new CatalogDataLoader(dataDir, false, false);
+        Files.createDirectories(dataDir.resolve("sales"));
+
+        assertEquals("Fact", loader.tableOf(dataDir.resolve("Fact.csv")));
+        assertEquals("sales.Store", loader.tableOf(dataDir.resolve("sales").resolve("Store.parquet")));
+    }
+
+    @Test
+    void listsTheDataFilesLargestFirst() throws IOException {
+        Files.createDirectories(dataDir.resolve("sales"));
+        Path small = csv("Small.csv", "A", "INTEGER");
+        Path large = Files.writeString(dataDir.resolve("sales").resolve("Large.parquet"), "x".repeat(100));
+        Files.writeString(dataDir.resolve("notes.txt"), "x".repeat(1000));
+
+        assertEquals(List.of(large, small), CatalogDataLoader.files(dataDir));
+        assertEquals(List.of(), CatalogDataLoader.files(dataDir.resolve("missing")));
+    }
+
+    @Test
+    void downloadsTheArrowExtensionOnlyIfAllowed() throws IOException {
+        Path file = Files.writeString(dataDir.resolve("Fact.arrow"), "x");
+
+        List<String> refused = new ArrayList<>();
+        String failure = new CatalogDataLoader(dataDir, false, false).load(database(refused), file, load -> {
+        }).failure();
+        assertTrue(failure.contains("nanoarrow") && failure.contains("daanse.probe.extensions.install"), failure);
+        assertEquals(List.of("LOAD nanoarrow"), refused);
+
+        List<String> allowed = new ArrayList<>();
+        new CatalogDataLoader(dataDir, false, true).load(database(allowed), file, load -> {
+        });
+        assertEquals(List.of("LOAD nanoarrow", "INSTALL nanoarrow FROM community", "LOAD nanoarrow"),
+                allowed.subList(0, 3));
+    }
+
+    /** A database without the Arrow extension installed, recording the statements executed. */
+    private static DataSource database(List<String> executed) {
+        boolean[] installed = new boolean[1];
+        Statement statement = proxy(Statement.class, (method, args) -> switch (method) {
+        case "execute" -> {
+            String sql = (String) args[0];
+            executed.add(sql);
+            if (sql.startsWith("INSTALL")) {
+                installed[0] = true;
+            } else if (sql.startsWith("LOAD") && !installed[0]) {
+                throw new SQLException("Extension not found");
+            }
+            yield false;
+        }
+        case "executeQuery" -> throw new SQLException("no rows here");
+        default -> null;
+        });
+        Connection connection = proxy(Connection.class,
+                (method, args) -> "createStatement".equals(method) ? statement : null);
+        return proxy(DataSource.class, (method, args) -> "getConnection".equals(method) ? connection : null);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        Object invoke(String method, Object[] args) throws SQLException;
+    }
+
+    private static <T> T proxy(Class<T> type, Call call) {
+        return type.cast(Proxy.newProxyInstance(CatalogDataLoaderTest.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> call.invoke(method.getName(), args)));
+    }
+
+    private Path csv(String name, String... lines) throws IOException {
+        return Files.write(dataDir.resolve(name), List.of(lines), StandardCharsets.UTF_8);
+    }
+}
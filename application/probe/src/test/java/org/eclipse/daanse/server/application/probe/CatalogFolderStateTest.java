@@ -0,0 +1,111 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.daanse.server.application.probe.CatalogFolderState.Phase;
+import org.junit.jupiter.api.Test;
+
+class CatalogFolderStateTest {
+
+    private final CatalogFolderState state = new CatalogFolderState(Path.of("catalog", "sales"), "key");
+
+    @Test
+    void movesFromPendingOverImportingToReady() throws Exception {
+        assertEquals(Phase.PENDING, state.phase());
+        state.started();
+        state.importing();
+        assertEquals(Phase.IMPORTING, state.phase());
+
+        CompletableFuture.runAsync(state::ready, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        assertTrue(state.awaitSettled(5, TimeUnit.SECONDS));
+        assertEquals(Phase.READY, state.phase());
+    }
+
+    @Test
+    void staysReadyWhenTheContextRegisteredFirst() {
+        state.ready();
+        state.importing();
+        assertEquals(Phase.READY, state.phase());
+    }
+
+    @Test
+    void failsAFolderWhoseContextNeverComes() throws Exception {
+        state.importing();
+        assertFalse(state.awaitSettled(50, TimeUnit.MILLISECONDS));
+        assertEquals(Phase.FAILED, state.phase());
+        assertTrue(state.failure().contains("No context"), state.failure());
+    }
+
+    @Test
+    void settlesOnFailure() throws Exception {
+        state.importing();
+        state.failed(new IllegalStateException("broken mapping"));
+        assertFalse(state.awaitSettled(5, TimeUnit.SECONDS));
+        assertTrue(state.failure().contains("broken mapping"));
+    }
+
+    @Test
+    void startsTheDeferredLoadOnce() {
+        AtomicInteger starts = new AtomicInteger();
+        state.defer();
+        CompletableFuture<Void> first = state.load(starts::incrementAndGet);
+        CompletableFuture<Void> second = state.load(starts::incrementAndGet);
+        assertEquals(1, starts.get());
+        assertEquals(first, second);
+        assertFalse(first.isDone());
+
+        state.loaded();
+        assertTrue(first.isDone());
+        assertFalse(state.deferred());
+    }
+
+    @Test
+    void startsAFailedLoadAgainAfterTheRetryDelay() {
+        AtomicInteger starts = new AtomicInteger();
+        Instant failedAt = Instant.parse("2026-01-01T00:00:00Z");
+        state.clock = Clock.fixed(failedAt, ZoneOffset.UTC);
+        state.defer();
+        CompletableFuture<Void> first = state.load(starts::incrementAndGet);
+        state.loadFailed(new IOException("disk full"));
+        assertTrue(first.isCompletedExceptionally());
+
+        state.clock = Clock.fixed(failedAt.plus(CatalogFolderState.LOAD_RETRY_DELAY).minusMillis(1), ZoneOffset.UTC);
+        assertEquals(first, state.load(starts::incrementAndGet), "the failure answers until the delay is over");
+        assertEquals(1, starts.get());
+
+        state.clock = Clock.fixed(failedAt.plus(CatalogFolderState.LOAD_RETRY_DELAY), ZoneOffset.UTC);
+        CompletableFuture<Void> retry = state.load(starts::incrementAndGet);
+        assertEquals(2, starts.get());
+        assertFalse(retry.isDone());
+        assertEquals(retry, state.load(starts::incrementAndGet));
+        assertEquals(2, starts.get());
+
+        state.loaded();
+        assertTrue(retry.isDone() && !retry.isCompletedExceptionally());
+        assertFalse(state.deferred());
+    }
+}
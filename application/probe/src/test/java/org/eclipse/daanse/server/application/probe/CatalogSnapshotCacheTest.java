@@ -0,0 +1,146 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogSnapshotCacheTest {
+
+    private static final String SETTINGS = "format=1,views=false";
+
+    @TempDir
+    Path snapshots;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void keepsTheKeyOfUnchangedData() throws IOException {
+        Path dataDir = data("Fact.csv", "1").getParent();
+
+        String key = new CatalogSnapshotCache(snapshots).keyOf(dataDir, SETTINGS);
+
+        assertEquals(key, new CatalogSnapshotCache(snapshots).keyOf(dataDir, SETTINGS), "after a restart");
+        assertEquals(key, new CatalogSnapshotCache(snapshots).keyOf(dataDir.resolve("."), SETTINGS));
+    }
+
+    @Test
+    void changesTheKeyWithTheDataAndTheSettings() throws IOException {
+        CatalogSnapshotCache cache = new CatalogSnapshotCache(snapshots);
+        Path dataDir = data("Fact.csv", "1").getParent();
+        String key = cache.keyOf(dataDir, SETTINGS);
+
+        assertNotEquals(key, cache.keyOf(dataDir, "format=1,views=true"));
+        assertNotEquals(key, cache.keyOf(dataDir, "format=2,views=false"));
+
+        data("Store.csv", "1");
+        String added = cache.keyOf(dataDir, SETTINGS);
+        assertNotEquals(key, added);
+
+        // as large as before: only the modification time tells the remembered hash is stale
+        Path fact = data("Fact.csv", "2");
+        Files.setLastModifiedTime(fact, FileTime.fromMillis(Files.getLastModifiedTime(fact).toMillis() + 2000));
+        assertNotEquals(added, cache.keyOf(dataDir, SETTINGS));
+
+        Files.delete(dataDir.resolve("Store.csv"));
+        data("Fact.csv", "1");
+        assertEquals(key, cache.keyOf(dataDir, SETTINGS), "the content makes the key, not its history");
+    }
+
+    @Test
+    void forgetsTheHashesOfDeletedFiles() throws IOException {
+        Path dataDir = data("Fact.csv", "1").getParent();
+        data("Store.csv", "1");
+        new CatalogSnapshotCache(snapshots).keyOf(dataDir, SETTINGS);
+        assertTrue(Files.readString(snapshots.resolve("file-hashes.properties")).contains("Store.csv"));
+
+        Files.delete(dataDir.resolve("Store.csv"));
+        new CatalogSnapshotCache(snapshots).keyOf(dataDir, SETTINGS);
+
+        assertFalse(Files.readString(snapshots.resolve("file-hashes.properties")).contains("Store.csv"));
+    }
+
+    @Test
+    void restoresTheStoredTables() throws IOException, SQLException {
+        CatalogSnapshotCache cache = new CatalogSnapshotCache(snapshots);
+        String key = cache.keyOf(data("Fact.csv", "1").getParent(), SETTINGS);
+        assertTrue(cache.lookup(key).isEmpty());
+
+        try (Connection imported = DriverManager.getConnection("jdbc:duckdb:");
+                Statement statement = imported.createStatement()) {
+            statement.execute("CREATE TABLE \"Fact\" AS SELECT 1 AS \"KEY\" UNION ALL SELECT 2");
+            cache.store(imported, folder, key);
+        }
+        assertTrue(cache.lookup(key).isPresent());
+        assertEquals(List.of(snapshots.resolve(key + ".duckdb")), snapshotFiles(), "no temporary file left");
+
+        try (Connection restored = DriverManager.getConnection("jdbc:duckdb:");
+                Statement statement = restored.createStatement()) {
+            cache.restore(restored, cache.lookup(key).get());
+            try (ResultSet rs = statement.executeQuery("SELECT sum(\"KEY\") FROM \"Fact\"")) {
+                rs.next();
+                assertEquals(3, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void dropsTheSnapshotOfEarlierData() throws IOException, SQLException {
+        CatalogSnapshotCache cache = new CatalogSnapshotCache(snapshots);
+        Path dataDir = data("Fact.csv", "1").getParent();
+        String first = cache.keyOf(dataDir, SETTINGS);
+        data("Store.csv", "1");
+        String second = cache.keyOf(dataDir, SETTINGS);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE \"Fact\" AS SELECT 1 AS \"KEY\"");
+            cache.store(connection, folder, first);
+            cache.store(connection, folder, second);
+        }
+
+        assertTrue(cache.lookup(first).isEmpty());
+        assertTrue(new CatalogSnapshotCache(snapshots).lookup(second).isPresent());
+    }
+
+    /** Writes a data file of one integer column. */
+    private Path data(String name, String value) throws IOException {
+        Path dataDir = Files.createDirectories(folder.resolve("data"));
+        return Files.writeString(dataDir.resolve(name), "KEY\nINTEGER\n" + value + "\n");
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(snapshots)) {
+            return files.filter(file -> !file.getFileName().toString().endsWith(".properties")).toList();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class DeferredCatalogFilterTest {
+
+    private static final String EXECUTE = "<Envelope><Body><Execute><Command><Statement>SELECT FROM [Sales]"
+            + "</Statement></Command><Properties><PropertyList><Catalog>Sales</Catalog></PropertyList>"
+            + "</Properties></Execute></Body></Envelope>";
+
+    private final List<String> loads = new ArrayList<>();
+    private final DeferredCatalogFilter filter = new DeferredCatalogFilter();
+    private final FakeResponse response = new FakeResponse();
+    private CompletableFuture<Void> load = CompletableFuture.completedFuture(null);
+    private String received;
+
+    DeferredCatalogFilterTest() {
+        filter.fileListener = new ProbeFileListener() {
+
+            @Override
+            boolean hasDeferred() {
+                return true;
+            }
+
+            @Override
+            CompletableFuture<Void> load(String catalog) {
+                loads.add(catalog);
+                return load;
+            }
+        };
+    }
+
+    @Test
+    void replaysTheBodyAfterLoadingTheCatalog() throws Exception {
+        filter.doFilter(request(null, EXECUTE), response.proxy(), servlet());
+
+        assertEquals(List.of("Sales"), loads);
+        assertEquals(EXECUTE, received);
+        assertEquals(200, response.status);
+    }
+
+    @Test
+    void replaysABodyLongerThanThePeek() throws Exception {
+        String body = EXECUTE + "<!--" + "x".repeat(DeferredCatalogFilter.PEEK_LIMIT) + "-->";
+
+        filter.doFilter(request(null, body), response.proxy(), servlet());
+
+        assertEquals(List.of("Sales"), loads);
+        assertEquals(body, received);
+    }
+
+    @Test
+    void loadsNothingForADiscover() throws Exception {
+        String discover = EXECUTE.replace("Execute>", "Discover>");
+
+        filter.doFilter(request("\"urn:schemas-microsoft-com:xml-analysis:Discover\"", discover),
+                response.proxy(), servlet());
+
+        assertEquals(List.of(), loads);
+        assertEquals(discover, received);
+    }
+
+    @Test
+    void answers503WhileTheCatalogIsStillLoading() throws Exception {
+        load = new CompletableFuture<>();
+        filter.loadTimeoutMillis = 50;
+
+        filter.doFilter(request(null, EXECUTE), response.proxy(), servlet());
+
+        assertEquals(503, response.status);
+        assertEquals("60", response.headers.get("Retry-After"));
+        assertNull(received);
+    }
+
+    @Test
+    void answers500WithTheCauseOfAFailedLoad() throws Exception {
+        load = CompletableFuture.failedFuture(new IOException("disk full"));
+
+        filter.doFilter(request(null, EXECUTE), response.proxy(), servlet());
+
+        assertEquals(500, response.status);
+        assertTrue(response.message.contains("disk full"), response.message);
+        assertNull(received);
+    }
+
+    private FilterChain servlet() {
+        return (request, response) -> received = new String(request.getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8);
+    }
+
+    private static HttpServletRequest request(String soapAction, String body) {
+        ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        ServletInputStream stream = new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                // synchronous only
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(DeferredCatalogFilterTest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> switch (method.getName()) {
+                case "getMethod" -> "POST";
+                case "getInputStream" -> stream;
+                case "getHeader" -> "SOAPAction".equals(args[0]) ? soapAction : null;
+                default -> null;
+                });
+    }
+
+    /** The parts of a response the filter uses. */
+    private static final class FakeResponse {
+
+        final Map<String, String> headers = new HashMap<>();
+        int status = 200;
+        String message;
+
+        HttpServletResponse proxy() {
+            return (HttpServletResponse) Proxy.newProxyInstance(DeferredCatalogFilterTest.class.getClassLoader(),
+                    new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                        case "setHeader" -> headers.put((String) args[0], (String) args[1]);
+                        case "sendError" -> {
+                            status = (Integer) args[0];
+                            message = args.length > 1 ? (String) args[1] : null;
+                        }
+                        default -> {
+                            // not used by the filter
+                        }
+                        }
+                        return null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+* Copyright (c) 2026 Contributors to the Eclipse Foundation.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*   SmartCity Jena - initial
+*   Stefan Bischof (bipolis.org) - initial
+*/
+package org.eclipse.daanse.server.application.probe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.BundleContext;
+
+/** The order the workers run the tasks of the catalog folders in. */
+class ProbeFileListenerTest {
+
+    private final ProbeFileListener listener = new ProbeFileListener();
+
+    ProbeFileListenerTest() throws Exception {
+        // a bundle context that only takes the service listener
+        listener.activate((BundleContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { BundleContext.class }, (proxy, method, args) -> null),
+                Map.of(ProbeFileListener.KEY_CONCURRENCY, "2"));
+    }
+
+    @AfterEach
+    void deactivate() {
+        listener.deactivate();
+    }
+
+    @Test
+    void runsTheTasksOfAFolderInOrder() throws Exception {
+        Path folder = Path.of("catalog", "sales");
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 5; i++) {
+            int task = i;
+            last = listener.submit(folder, () -> {
+                sleep(10);
+                order.add(task);
+            });
+        }
+        last.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(0, 1, 2, 3, 4), order);
+    }
+
+    @Test
+    void runsOtherFoldersMeanwhile() throws Exception {
+        CountDownLatch released = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = listener.submit(Path.of("catalog", "sales"), () -> await(released));
+        CompletableFuture<Void> other = listener.submit(Path.of("catalog", "hr"), () -> {
+        });
+        other.get(5, TimeUnit.SECONDS);
+        assertFalse(blocked.isDone(), "the first folder still holds its worker");
+        released.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void runsTheTasksAfterOneThatFailed() throws Exception {
+        Path folder = Path.of("catalog", "sales");
+        CountDownLatch released = new CountDownLatch(1);
+        CompletableFuture<Void> failing = listener.submit(folder, () -> {
+            await(released);
+            throw new IllegalStateException("Configuration deleted");
+        });
+        List<String> ran = new CopyOnWriteArrayList<>();
+        listener.submit(folder, () -> ran.add("reload"));
+        CompletableFuture<Void> last = listener.submit(folder, () -> ran.add("snapshot"));
+        released.countDown();
+
+        last.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("reload", "snapshot"), ran);
+        assertTrue(failing.isCompletedExceptionally());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}